@@ -0,0 +1,116 @@
+package org.opentripplanner.ext.flex;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Test;
+
+public class FlexTemplateEvaluatorTest {
+
+  private static final long NO_DEADLINE = System.nanoTime() + Duration.ofHours(1).toNanos();
+
+  @Test
+  public void resultsAreInTheOrderOfTheTemplates() {
+    List<Integer> templates = IntStream.range(0, 1000).boxed().toList();
+
+    var result = FlexTemplateEvaluator.evaluate(
+      templates,
+      // The later templates are faster, and each template has two results
+      it -> {
+        sleep(Duration.ofNanos((1000 - it) * 1000L));
+        return Stream.of(2 * it, 2 * it + 1);
+      },
+      NO_DEADLINE
+    );
+
+    assertEquals(IntStream.range(0, 2000).boxed().toList(), result);
+  }
+
+  @Test
+  public void noTemplates() {
+    List<Integer> templates = List.of();
+
+    assertEquals(List.of(), FlexTemplateEvaluator.evaluate(templates, Stream::of, NO_DEADLINE));
+  }
+
+  @Test
+  public void templatesAfterTheDeadlineAreSkipped() {
+    List<Integer> templates = IntStream.range(0, 10_000).boxed().toList();
+    AtomicInteger evaluated = new AtomicInteger();
+    long start = System.nanoTime();
+
+    var result = FlexTemplateEvaluator.evaluate(
+      templates,
+      it -> {
+        evaluated.incrementAndGet();
+        sleep(Duration.ofMillis(20));
+        return Stream.of(it);
+      },
+      start + Duration.ofMillis(100).toNanos()
+    );
+    long returnedAfter = System.nanoTime() - start;
+
+    assertTrue(result.size() < templates.size());
+    assertTrue(returnedAfter < Duration.ofSeconds(2).toNanos());
+
+    // The cancelled tasks stop after the template they are evaluating
+    sleep(Duration.ofMillis(200));
+    int evaluatedAfterTheDeadline = evaluated.get();
+    sleep(Duration.ofMillis(200));
+    assertEquals(evaluatedAfterTheDeadline, evaluated.get());
+    assertTrue(evaluated.get() < templates.size());
+  }
+
+  @Test
+  public void deadlineInThePastSkipsAllTemplates() {
+    var result = FlexTemplateEvaluator.evaluate(
+      List.of(1, 2, 3),
+      it -> {
+        sleep(Duration.ofMillis(100));
+        return Stream.of(it);
+      },
+      System.nanoTime() - 1
+    );
+
+    assertEquals(List.of(), result);
+  }
+
+  @Test
+  public void exceptionsArePropagated() {
+    assertThrows(
+      IllegalStateException.class,
+      () ->
+        FlexTemplateEvaluator.evaluate(
+          List.of(1, 2, 3),
+          it -> {
+            throw new IllegalStateException();
+          },
+          NO_DEADLINE
+        )
+    );
+  }
+
+  /**
+   * Sleep like a street search, which does not stop when interrupted but keeps the interrupt.
+   */
+  private static void sleep(Duration duration) {
+    long end = System.nanoTime() + duration.toNanos();
+    boolean interrupted = false;
+    while (System.nanoTime() < end) {
+      try {
+        Thread.sleep(Math.max(0, (end - System.nanoTime()) / 1_000_000));
+      } catch (InterruptedException e) {
+        interrupted = true;
+      }
+    }
+    if (interrupted) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
@@ -5,6 +5,7 @@ import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.opentripplanner.test.support.PolylineAssert.assertThatPolylinesAreEqual;
 
+import java.time.Duration;
 import java.time.Instant;
 import java.time.OffsetDateTime;
 import java.time.ZoneId;
@@ -129,7 +130,8 @@ public class ScheduledDeviatedTripTest extends FlexTest {
     var router = new FlexRouter(
       graph,
       new DefaultTransitService(transitModel),
-      new FlexParameters(300),
+      new FlexParameters(300, Duration.ofSeconds(5)),
+      null,
       OffsetDateTime.parse("2021-11-12T10:15:24-05:00").toInstant(),
       false,
       1,
@@ -247,6 +249,7 @@ public class ScheduledDeviatedTripTest extends FlexTest {
       serverContext,
       time,
       additionalSearchDays,
+      serverContext.routerConfig().flexParameters(request),
       new DebugTimingAggregator()
     );
 
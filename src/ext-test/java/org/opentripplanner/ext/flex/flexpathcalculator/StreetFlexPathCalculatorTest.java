@@ -0,0 +1,131 @@
+package org.opentripplanner.ext.flex.flexpathcalculator;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.locationtech.jts.geom.Coordinate;
+import org.opentripplanner.routing.algorithm.GraphRoutingTest;
+import org.opentripplanner.routing.core.TraverseMode;
+import org.opentripplanner.routing.edgetype.StreetTraversalPermission;
+import org.opentripplanner.routing.graph.Graph;
+import org.opentripplanner.routing.vertextype.StreetVertex;
+
+public class StreetFlexPathCalculatorTest extends GraphRoutingTest {
+
+  private Graph graph;
+  private StreetVertex A, B, C, D, E;
+
+  @BeforeEach
+  public void setUp() {
+    // A <-> B <-> C <-> D    E
+    var otpModel = modelOf(
+      new Builder() {
+        @Override
+        public void build() {
+          A = intersection("A", 0.001, 45);
+          B = intersection("B", 0.002, 45);
+          C = intersection("C", 0.003, 45);
+          D = intersection("D", 0.004, 45);
+          E = intersection("E", 0.005, 45);
+
+          street(A, B, 100, StreetTraversalPermission.CAR);
+          street(B, C, 100, StreetTraversalPermission.CAR);
+          street(C, D, 100, StreetTraversalPermission.CAR);
+        }
+      }
+    );
+    graph = otpModel.graph();
+  }
+
+  @Test
+  public void forwardPath() {
+    var subject = new StreetFlexPathCalculator(graph, false);
+
+    FlexPath path = subject.calculateFlexPath(A, D, 0, 1);
+
+    assertNotNull(path);
+    assertEquals(300, path.distanceMeters);
+    assertTrue(path.durationSeconds > 0);
+    assertGeometry(path, A, D);
+  }
+
+  @Test
+  public void reversePathIsTheSameAsTheForwardPath() {
+    var forward = new StreetFlexPathCalculator(graph, false).calculateFlexPath(A, D, 0, 1);
+    var subject = new StreetFlexPathCalculator(graph, true);
+
+    FlexPath path = subject.calculateFlexPath(A, D, 0, 1);
+
+    assertNotNull(path);
+    assertEquals(forward.distanceMeters, path.distanceMeters);
+    assertEquals(forward.durationSeconds, path.durationSeconds);
+    assertGeometry(path, A, D);
+  }
+
+  @Test
+  public void pathsFromTheSameOriginAreTakenFromTheSameSearch() {
+    var subject = new StreetFlexPathCalculator(graph, false);
+
+    assertEquals(100, subject.calculateFlexPath(A, B, 0, 1).distanceMeters);
+    assertEquals(200, subject.calculateFlexPath(A, C, 0, 1).distanceMeters);
+    assertGeometry(subject.calculateFlexPath(A, C, 0, 1), A, C);
+  }
+
+  @Test
+  public void eachPathIsOnlyCalculatedOnceForARequest() {
+    var subject = new StreetFlexPathCalculator(graph, false);
+
+    FlexPath path = subject.calculateFlexPath(A, D, 0, 1);
+
+    // The same path is returned for other templates, also with other stop indices
+    assertSame(path, subject.calculateFlexPath(A, D, 0, 1));
+    assertSame(path, subject.calculateFlexPath(A, D, 2, 3));
+    // The path in the other direction is another path
+    assertNotSame(path, subject.calculateFlexPath(D, A, 0, 1));
+    // A new request calculates the path again
+    assertNotSame(path, new StreetFlexPathCalculator(graph, false).calculateFlexPath(A, D, 0, 1));
+  }
+
+  @Test
+  public void tablesAreSharedBetweenRequestsWithTheSharedCache() {
+    var sharedCache = new FlexPathTableCache();
+
+    new StreetFlexPathCalculator(graph, false, sharedCache).calculateFlexPath(A, D, 0, 1);
+
+    // The table of the search from A is already in the cache
+    var table = sharedCache.get(
+      A,
+      TraverseMode.CAR,
+      false,
+      () -> {
+        throw new IllegalStateException("The streets should not be searched again");
+      }
+    );
+    assertEquals(300, table.flexPath(D).distanceMeters);
+    assertEquals(
+      200,
+      new StreetFlexPathCalculator(graph, false, sharedCache)
+        .calculateFlexPath(A, C, 0, 1)
+        .distanceMeters
+    );
+  }
+
+  @Test
+  public void unreachedVertex() {
+    assertNull(new StreetFlexPathCalculator(graph, false).calculateFlexPath(A, E, 0, 1));
+    assertNull(new StreetFlexPathCalculator(graph, true).calculateFlexPath(A, E, 0, 1));
+  }
+
+  private static void assertGeometry(FlexPath path, StreetVertex from, StreetVertex to) {
+    // The geometries of the test streets are in latitude, longitude order
+    Coordinate[] coordinates = path.getGeometry().getCoordinates();
+    assertEquals(new Coordinate(from.getLat(), from.getLon()), coordinates[0]);
+    assertEquals(new Coordinate(to.getLat(), to.getLon()), coordinates[coordinates.length - 1]);
+  }
+}
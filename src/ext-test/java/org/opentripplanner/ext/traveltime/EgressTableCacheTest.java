@@ -0,0 +1,101 @@
+package org.opentripplanner.ext.traveltime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.time.Duration;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.opentripplanner.routing.algorithm.GraphRoutingTest;
+import org.opentripplanner.routing.api.request.RoutingRequest;
+import org.opentripplanner.routing.api.request.StreetMode;
+import org.opentripplanner.routing.edgetype.StreetTraversalPermission;
+import org.opentripplanner.routing.graph.Graph;
+import org.opentripplanner.transit.model.site.Stop;
+import org.opentripplanner.transit.service.DefaultTransitService;
+import org.opentripplanner.transit.service.TransitService;
+
+public class EgressTableCacheTest extends GraphRoutingTest {
+
+  private static final TravelTimeRequest REQUEST = new TravelTimeRequest(
+    List.of(Duration.ofMinutes(30)),
+    Duration.ofMinutes(15)
+  );
+
+  private final RoutingRequest routingRequest = new RoutingRequest();
+
+  private Graph graph;
+  private TransitService transitService;
+  private Stop S1, S2;
+
+  @BeforeEach
+  public void setUp() {
+    // S1 - A <-> B - S2
+    var otpModel = modelOf(
+      new Builder() {
+        @Override
+        public void build() {
+          var A = intersection("A", 47.500, 19.000);
+          var B = intersection("B", 47.501, 19.000);
+          var s1 = stop("S1", 47.500, 19.001);
+          var s2 = stop("S2", 47.501, 19.001);
+
+          biLink(A, s1);
+          biLink(B, s2);
+          street(A, B, 100, StreetTraversalPermission.ALL);
+
+          S1 = s1.getStop();
+          S2 = s2.getStop();
+        }
+      }
+    );
+    graph = otpModel.graph();
+    graph.calculateEnvelope();
+    transitService = new DefaultTransitService(otpModel.transitModel());
+  }
+
+  @Test
+  public void tableIsSearchedOnceForEachStop() {
+    var subject = new EgressTableCache(graph);
+
+    var table = get(subject, S1, StreetMode.WALK);
+
+    assertSame(table, get(subject, S1, StreetMode.WALK));
+    assertNotSame(table, get(subject, S2, StreetMode.WALK));
+  }
+
+  @Test
+  public void tableIsSearchedForEachEgressMode() {
+    var subject = new EgressTableCache(graph);
+
+    var table = get(subject, S1, StreetMode.WALK);
+
+    assertNotSame(table, get(subject, S1, StreetMode.BIKE));
+    assertSame(table, get(subject, S1, StreetMode.WALK));
+  }
+
+  @Test
+  public void tablesAreWeighedByTheirSize() {
+    var table = get(new EgressTableCache(graph), S1, StreetMode.WALK);
+
+    assertEquals(
+      EgressTableCache.weigh(EgressTable.EMPTY) + table.size() * EgressTable.BYTES_PER_POINT,
+      EgressTableCache.weigh(table)
+    );
+  }
+
+  @Test
+  public void tablesAboveTheMaximumSizeAreNotKept() {
+    var subject = new EgressTableCache(graph, EgressTableCache.weigh(EgressTable.EMPTY) - 1);
+
+    var table = get(subject, S1, StreetMode.WALK);
+
+    assertNotSame(table, get(subject, S1, StreetMode.WALK));
+  }
+
+  private EgressTable get(EgressTableCache subject, Stop stop, StreetMode egressMode) {
+    return subject.get(stop, egressMode, routingRequest, transitService, REQUEST);
+  }
+}
@@ -0,0 +1,90 @@
+package org.opentripplanner.ext.traveltime;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+
+import java.time.Duration;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.locationtech.jts.geom.Coordinate;
+import org.opentripplanner.ext.traveltime.TravelTimeMatrixRequest.Point;
+
+public class MatrixDestinationsTest {
+
+  private static final int UNREACHED = MatrixDestinations.UNREACHED;
+
+  private static final Coordinate CENTER = new Coordinate(10.75, 59.91);
+  private static final TravelTimeRequest REQUEST = new TravelTimeRequest(
+    List.of(Duration.ofMinutes(30)),
+    Duration.ofMinutes(15)
+  );
+  private static final Coordinate CELL_SIZE = SampleGridRenderer
+    .createSampleGrid(CENTER, 1, REQUEST)
+    .getCellSize();
+
+  // Destinations in the cells (0, 0), (1, 0), (0, 0) and (10, 10)
+  private final MatrixDestinations subject = new MatrixDestinations(
+    List.of(point("d0", 0, 0), point("d1", 1, 0), point("d2", 0.3, -0.2), point("d3", 10, 10)),
+    CENTER,
+    REQUEST
+  );
+
+  @Test
+  public void propagateFromOrigin() {
+    int[] cellTravelTimes = subject.newCellTravelTimes();
+
+    subject.propagateFromOrigin(cellTravelTimes, table(0, 0, 100, 1, 0, 200, 10, 10, 2000));
+
+    // The travel time to d3 is above the max cutoff of 1800 seconds
+    assertArrayEquals(
+      new int[] { 100, 200, 100, UNREACHED },
+      subject.destinationTravelTimes(cellTravelTimes)
+    );
+  }
+
+  @Test
+  public void propagateFromStopsKeepsTheBestTravelTime() {
+    int[] cellTravelTimes = subject.newCellTravelTimes();
+    EgressTable stopTable = table(1, 0, 60, 2, 0, 120);
+
+    subject.propagateFromOrigin(cellTravelTimes, table(0, 0, 100, 1, 0, 200));
+    subject.propagateFromStop(cellTravelTimes, 50, stopTable);
+    subject.propagateFromStop(cellTravelTimes, 300, table(0, 0, 0, 10, 10, 0));
+    // The cells of the table are looked up again from the shared cache
+    subject.propagateFromStop(cellTravelTimes, 40, stopTable);
+
+    assertArrayEquals(
+      new int[] { 100, 100, 100, 300 },
+      subject.destinationTravelTimes(cellTravelTimes)
+    );
+  }
+
+  @Test
+  public void unreachedTravelTimes() {
+    assertArrayEquals(
+      new int[] { UNREACHED, UNREACHED, UNREACHED, UNREACHED },
+      subject.unreachedTravelTimes()
+    );
+    assertArrayEquals(
+      new int[] { UNREACHED, UNREACHED, UNREACHED, UNREACHED },
+      subject.destinationTravelTimes(subject.newCellTravelTimes())
+    );
+  }
+
+  private static Point point(String id, double cellX, double cellY) {
+    return new Point(id, CENTER.y + cellY * CELL_SIZE.y, CENTER.x + cellX * CELL_SIZE.x);
+  }
+
+  /**
+   * Create a table from (x, y, seconds) triples.
+   */
+  private static EgressTable table(int... points) {
+    var sampleGrid = SampleGridRenderer.createSampleGrid(CENTER, points.length / 3, REQUEST);
+    for (int i = 0; i < points.length; i += 3) {
+      var z = new WTWD();
+      z.w = 1;
+      z.wTime = points[i + 2];
+      sampleGrid.getOrCreate(points[i], points[i + 1]).setZ(z);
+    }
+    return EgressTable.of(sampleGrid);
+  }
+}
@@ -0,0 +1,85 @@
+package org.opentripplanner.ext.traveltime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.opentripplanner.ext.traveltime.TravelTimeMatrixRequest.Point;
+
+public class MatrixRowWriterTest {
+
+  private static final int UNREACHED = MatrixDestinations.UNREACHED;
+
+  private static final TravelTimeMatrixRequest MATRIX = new TravelTimeMatrixRequest(
+    List.of(new Point("o1", 59.91, 10.75), new Point("o2", 59.92, 10.76)),
+    List.of(new Point("d1", 59.93, 10.71), new Point("d2", 59.94, 10.72))
+  );
+
+  @Test
+  public void csvHasALineForEachDestinationReached() throws IOException {
+    var out = new ByteArrayOutputStream();
+
+    var subject = MatrixRowWriter.csv(MATRIX, out);
+    subject.write(0, new int[] { 100, UNREACHED });
+    subject.write(1, new int[] { UNREACHED, 200 });
+    subject.flush();
+
+    assertEquals(
+      "origin,destination,travelTime\no1,d1,100\no2,d2,200\n",
+      out.toString(StandardCharsets.UTF_8)
+    );
+  }
+
+  @Test
+  public void csvHasAHeaderWithoutRows() throws IOException {
+    var out = new ByteArrayOutputStream();
+
+    var subject = MatrixRowWriter.csv(MATRIX, out);
+    subject.write(0, new int[] { UNREACHED, UNREACHED });
+    subject.flush();
+
+    assertEquals("origin,destination,travelTime\n", out.toString(StandardCharsets.UTF_8));
+  }
+
+  @Test
+  public void csvQuotesIdsWithSeparatorsAndQuotes() throws IOException {
+    var matrix = new TravelTimeMatrixRequest(
+      List.of(new Point("o,1", 59.91, 10.75)),
+      List.of(new Point("d\"1\"", 59.93, 10.71), new Point("d\n2", 59.94, 10.72))
+    );
+    var out = new ByteArrayOutputStream();
+
+    var subject = MatrixRowWriter.csv(matrix, out);
+    subject.write(0, new int[] { 100, 200 });
+    subject.flush();
+
+    assertEquals(
+      "origin,destination,travelTime\n\"o,1\",\"d\"\"1\"\"\",100\n\"o,1\",\"d\n2\",200\n",
+      out.toString(StandardCharsets.UTF_8)
+    );
+  }
+
+  @Test
+  public void binaryHasTheSizeAndAllTravelTimes() throws IOException {
+    var out = new ByteArrayOutputStream();
+
+    var subject = MatrixRowWriter.binary(MATRIX, out);
+    subject.write(0, new int[] { 100, UNREACHED });
+    subject.write(1, new int[] { UNREACHED, 200 });
+    subject.flush();
+
+    var in = new DataInputStream(new ByteArrayInputStream(out.toByteArray()));
+    assertEquals(2, in.readInt());
+    assertEquals(2, in.readInt());
+    assertEquals(100, in.readInt());
+    assertEquals(UNREACHED, in.readInt());
+    assertEquals(UNREACHED, in.readInt());
+    assertEquals(200, in.readInt());
+    assertEquals(-1, in.read());
+  }
+}
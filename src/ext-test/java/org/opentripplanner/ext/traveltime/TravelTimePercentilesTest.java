@@ -0,0 +1,105 @@
+package org.opentripplanner.ext.traveltime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.time.Duration;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.locationtech.jts.geom.Coordinate;
+import org.opentripplanner.ext.traveltime.TravelTimePercentiles.Statistic;
+import org.opentripplanner.ext.traveltime.geometry.ZSampleGrid;
+
+public class TravelTimePercentilesTest {
+
+  private static final int N_MINUTES = 4;
+  private static final int MAX_TRAVEL_TIME = 1800;
+  private static final int UNREACHED = MAX_TRAVEL_TIME + 1;
+
+  private static final Coordinate CENTER = new Coordinate(10.75, 59.91);
+  private static final TravelTimeRequest REQUEST = new TravelTimeRequest(
+    List.of(Duration.ofSeconds(MAX_TRAVEL_TIME)),
+    Duration.ofMinutes(15)
+  );
+
+  private List<ZSampleGrid<WTWD>> grids;
+
+  /**
+   * The origin reaches the cells (0, 0) and (1, 0) for each minute. A stop is reached at a later
+   * time for each minute, and not at all for the last minute. From the stop the cells (1, 0),
+   * (2, 0) and (3, 0) are reached.
+   */
+  @BeforeEach
+  public void propagate() {
+    var subject = new TravelTimePercentiles(N_MINUTES, MAX_TRAVEL_TIME);
+    EgressTable origin = table(0, 0, 100, 5, 1, 0, 1000, 5);
+    EgressTable stop = table(1, 0, 60, 3, 2, 0, 120, 4, 3, 0, 1700, 6);
+    int[] originPoints = subject.addPoints(origin);
+    int[] stopPoints = subject.addPoints(stop);
+
+    for (int minute = 0; minute < N_MINUTES; minute++) {
+      subject.propagate(minute, 0, origin, originPoints);
+    }
+    subject.propagate(0, 200, stop, stopPoints);
+    subject.propagate(1, 500, stop, stopPoints);
+    subject.propagate(2, 900, stop, stopPoints);
+
+    grids =
+      subject.sampleGrids(CENTER, REQUEST, List.of(Statistic.MIN, Statistic.MEDIAN, Statistic.MAX));
+  }
+
+  @Test
+  public void sameTravelTimeForEachMinute() {
+    assertTravelTimes(0, 0, 100, 100, 100);
+  }
+
+  @Test
+  public void medianOfAnEvenNumberOfMinutesIsTheUpperMedian() {
+    // The travel times are 260, 560, 960 and 1000 seconds
+    assertTravelTimes(1, 0, 260, 960, 1000);
+  }
+
+  @Test
+  public void minuteNotReachedIsAboveTheMaxTravelTime() {
+    // The travel times are 320, 620, 1020 and not reached
+    assertTravelTimes(2, 0, 320, 1020, UNREACHED);
+  }
+
+  @Test
+  public void travelTimesAboveTheMaxTravelTimeAreNotReached() {
+    // The travel times are 1900, 2200, 2600 and not reached
+    assertTravelTimes(3, 0, UNREACHED, UNREACHED, UNREACHED);
+  }
+
+  @Test
+  public void offRoadDistanceIsTheShortestOfTheTables() {
+    assertEquals(5.0, z(0, 0, 0).d);
+    assertEquals(3.0, z(0, 1, 0).d);
+    assertEquals(6.0, z(0, 3, 0).d);
+  }
+
+  private void assertTravelTimes(int x, int y, int min, int median, int max) {
+    assertEquals(min, (int) z(0, x, y).wTime, "min");
+    assertEquals(median, (int) z(1, x, y).wTime, "median");
+    assertEquals(max, (int) z(2, x, y).wTime, "max");
+  }
+
+  private WTWD z(int grid, int x, int y) {
+    return grids.get(grid).getOrCreate(x, y).getZ();
+  }
+
+  /**
+   * Create a table from (x, y, seconds, off-road meters) quadruples.
+   */
+  private static EgressTable table(int... points) {
+    var sampleGrid = SampleGridRenderer.createSampleGrid(CENTER, points.length / 4, REQUEST);
+    for (int i = 0; i < points.length; i += 4) {
+      var z = new WTWD();
+      z.w = 1;
+      z.wTime = points[i + 2];
+      z.d = points[i + 3];
+      sampleGrid.getOrCreate(points[i], points[i + 1]).setZ(z);
+    }
+    return EgressTable.of(sampleGrid);
+  }
+}
@@ -0,0 +1,101 @@
+package org.opentripplanner.ext.vectortiles;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class VectorTileArchiveTest {
+
+  private static final byte[] EMPTY_STOPS = { 1 };
+  private static final byte[] EMPTY_STATIONS = { 2 };
+
+  @TempDir
+  File dir;
+
+  @Test
+  public void writeAndRead() throws IOException {
+    var layers = List.of(
+      layer("stops", 13, 15, EMPTY_STOPS),
+      layer("stations", 9, 12, EMPTY_STATIONS)
+    );
+    SortedMap<Long, byte[]> tiles = new TreeMap<>();
+    tiles.put(VectorTileArchive.key(0, 4660, 2370, 13), new byte[] { 10, 11 });
+    tiles.put(VectorTileArchive.key(0, 9320, 4740, 14), new byte[] { 12 });
+    tiles.put(VectorTileArchive.key(1, 582, 296, 10), new byte[] { 13, 14, 15 });
+
+    File file = new File(dir, VectorTilePyramid.FILE_NAME);
+    VectorTileArchive.write(file, 42L, layers, tiles);
+    var subject = VectorTileArchive.open(file);
+
+    assertEquals(42L, subject.graphBuildTime());
+    var stops = subject.layers().get(0);
+    assertEquals("stops", stops.name());
+    assertEquals("Stop", stops.type());
+    assertEquals("Digitransit", stops.mapper());
+    assertEquals(0.25, stops.expansionFactor());
+    assertEquals(ByteBuffer.wrap(new byte[] { 10, 11 }), subject.get("stops", 4660, 2370, 13));
+    assertEquals(ByteBuffer.wrap(new byte[] { 12 }), subject.get("stops", 9320, 4740, 14));
+    assertEquals(ByteBuffer.wrap(new byte[] { 13, 14, 15 }), subject.get("stations", 582, 296, 10));
+
+    // A tile without features is the empty layer
+    assertEquals(ByteBuffer.wrap(EMPTY_STOPS), subject.get("stops", 4661, 2370, 13));
+    assertEquals(ByteBuffer.wrap(EMPTY_STATIONS), subject.get("stations", 582, 296, 9));
+
+    // Layers and zoom levels not in the archive are not pre-rendered
+    assertNull(subject.get("stops", 18640, 9480, 16));
+    assertNull(subject.get("rental", 4660, 2370, 13));
+  }
+
+  @Test
+  public void layersDoNotOverlapAtHighZoomLevels() throws IOException {
+    assertNotEquals(
+      VectorTileArchive.key(0, 100, 140000, 18),
+      VectorTileArchive.key(1, 100, 140000, 18)
+    );
+
+    var layers = List.of(
+      layer("stops", 18, 20, EMPTY_STOPS),
+      layer("stations", 18, 20, EMPTY_STATIONS)
+    );
+    SortedMap<Long, byte[]> tiles = new TreeMap<>();
+    tiles.put(VectorTileArchive.key(0, 100, 140000, 18), new byte[] { 10 });
+    tiles.put(VectorTileArchive.key(1, 100, 140000, 18), new byte[] { 11 });
+    tiles.put(VectorTileArchive.key(0, 1048575, 1048575, 20), new byte[] { 12 });
+
+    File file = new File(dir, VectorTilePyramid.FILE_NAME);
+    VectorTileArchive.write(file, 42L, layers, tiles);
+    var subject = VectorTileArchive.open(file);
+
+    assertEquals(ByteBuffer.wrap(new byte[] { 10 }), subject.get("stops", 100, 140000, 18));
+    assertEquals(ByteBuffer.wrap(new byte[] { 11 }), subject.get("stations", 100, 140000, 18));
+    assertEquals(ByteBuffer.wrap(new byte[] { 12 }), subject.get("stops", 1048575, 1048575, 20));
+    assertEquals(ByteBuffer.wrap(EMPTY_STATIONS), subject.get("stations", 1048575, 1048575, 20));
+  }
+
+  private static VectorTileArchive.Layer layer(
+    String name,
+    int minZoom,
+    int maxZoom,
+    byte[] emptyLayer
+  ) {
+    String type = name.equals("stops") ? "Stop" : "Station";
+    return new VectorTileArchive.Layer(
+      name,
+      type,
+      "Digitransit",
+      0.25,
+      minZoom,
+      maxZoom,
+      emptyLayer
+    );
+  }
+}
@@ -0,0 +1,162 @@
+package org.opentripplanner.ext.vectortiles;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import org.junit.jupiter.api.Test;
+import org.opentripplanner.common.geometry.WebMercatorTile;
+import org.opentripplanner.routing.graph.Graph;
+import org.opentripplanner.routing.vehicle_rental.VehicleRentalStation;
+import org.opentripplanner.routing.vehicle_rental.VehicleRentalStationService;
+import org.opentripplanner.transit.model._data.TransitModelForTest;
+
+public class VectorTileCacheTest {
+
+  private static final int Z = 14;
+  private static final double LAT = 60.17;
+  private static final double LON = 24.94;
+  private static final int X = WebMercatorTile.lon2tileX(LON, Z);
+  private static final int Y = WebMercatorTile.lat2tileY(LAT, Z);
+
+  private final AtomicInteger builds = new AtomicInteger();
+  private final Supplier<byte[]> buildLayer = () -> new byte[] { (byte) builds.incrementAndGet() };
+
+  @Test
+  public void staticLayerIsBuiltOnce() {
+    var stops = layer("stops", "Stop");
+    var subject = new VectorTileCache(new Graph(), List.of(stops));
+
+    assertArrayEquals(new byte[] { 1 }, subject.get(stops, X, Y, Z, buildLayer));
+    assertArrayEquals(new byte[] { 1 }, subject.get(stops, X, Y, Z, buildLayer));
+    assertEquals(1, builds.get());
+  }
+
+  @Test
+  public void rentalLayerIsInvalidatedAroundChangedStation() {
+    var graph = new Graph();
+    var service = graph.getService(VehicleRentalStationService.class, true);
+    var rental = layer("rental", "VehicleRental");
+    var subject = new VectorTileCache(graph, List.of(rental));
+
+    subject.get(rental, X, Y, Z, buildLayer);
+    subject.get(rental, X + 5, Y, Z, buildLayer);
+    assertEquals(2, builds.get());
+
+    var station = new VehicleRentalStation();
+    station.id = TransitModelForTest.id("station");
+    station.latitude = LAT;
+    station.longitude = LON;
+    service.addVehicleRentalStation(station);
+
+    // The tile containing the station is rebuilt, the tile far away is still cached
+    subject.get(rental, X, Y, Z, buildLayer);
+    subject.get(rental, X + 5, Y, Z, buildLayer);
+    assertEquals(3, builds.get());
+  }
+
+  @Test
+  public void rentalLayerIsNotInvalidatedByAnUnchangedStation() {
+    var graph = new Graph();
+    var service = graph.getService(VehicleRentalStationService.class, true);
+    var rental = layer("rental", "VehicleRental");
+    var subject = new VectorTileCache(graph, List.of(rental));
+    service.addVehicleRentalStation(station(3));
+
+    subject.get(rental, X, Y, Z, buildLayer);
+    // The updater adds all stations on each poll
+    service.addVehicleRentalStation(station(3));
+    subject.get(rental, X, Y, Z, buildLayer);
+    assertEquals(1, builds.get());
+
+    service.addVehicleRentalStation(station(2));
+    subject.get(rental, X, Y, Z, buildLayer);
+    assertEquals(2, builds.get());
+  }
+
+  @Test
+  public void layerBuiltDuringAChangeIsNotCached() {
+    var graph = new Graph();
+    var service = graph.getService(VehicleRentalStationService.class, true);
+    var rental = layer("rental", "VehicleRental");
+    var subject = new VectorTileCache(graph, List.of(rental));
+
+    subject.get(
+      rental,
+      X,
+      Y,
+      Z,
+      () -> {
+        service.addVehicleRentalStation(station(1));
+        return buildLayer.get();
+      }
+    );
+    subject.get(rental, X, Y, Z, buildLayer);
+    assertEquals(2, builds.get());
+  }
+
+  @Test
+  public void rentalLayerIsNotCachedWithoutService() {
+    var rental = layer("rental", "VehicleRental");
+    var subject = new VectorTileCache(new Graph(), List.of(rental));
+
+    subject.get(rental, X, Y, Z, buildLayer);
+    subject.get(rental, X, Y, Z, buildLayer);
+    assertEquals(2, builds.get());
+  }
+
+  private static VehicleRentalStation station(int vehiclesAvailable) {
+    var station = new VehicleRentalStation();
+    station.id = TransitModelForTest.id("station");
+    station.latitude = LAT;
+    station.longitude = LON;
+    station.vehiclesAvailable = vehiclesAvailable;
+    return station;
+  }
+
+  private static VectorTilesResource.LayerParameters layer(String name, String type) {
+    return new VectorTilesResource.LayerParameters() {
+      @Override
+      public String name() {
+        return name;
+      }
+
+      @Override
+      public String type() {
+        return type;
+      }
+
+      @Override
+      public String mapper() {
+        return "Digitransit";
+      }
+
+      @Override
+      public int maxZoom() {
+        return 20;
+      }
+
+      @Override
+      public int minZoom() {
+        return 13;
+      }
+
+      @Override
+      public int cacheMaxSeconds() {
+        return 60;
+      }
+
+      @Override
+      public double expansionFactor() {
+        return 0.25;
+      }
+
+      @Override
+      public int prerenderMaxZoom() {
+        return -1;
+      }
+    };
+  }
+}
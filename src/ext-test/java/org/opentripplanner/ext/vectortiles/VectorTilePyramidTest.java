@@ -0,0 +1,138 @@
+package org.opentripplanner.ext.vectortiles;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.opentripplanner.datastore.api.DataSource;
+import org.opentripplanner.datastore.api.FileType;
+import org.opentripplanner.datastore.file.FileDataSource;
+import org.opentripplanner.routing.graph.Graph;
+
+public class VectorTilePyramidTest {
+
+  private static final byte[] STOP_TILE = { 10, 11 };
+  private static final byte[] STATION_TILE = { 12 };
+
+  private final Graph graph = new Graph();
+
+  @TempDir
+  File dir;
+
+  private DataSource graphSource;
+
+  @BeforeEach
+  public void setUp() throws IOException {
+    graphSource = new FileDataSource(new File(dir, "graph.obj"), FileType.GRAPH);
+    writeArchive(graph.buildTime.toEpochMilli());
+  }
+
+  @Test
+  public void serveLayersRenderedWithTheSameConfig() {
+    var subject = VectorTilePyramid.load(
+      graph,
+      graphSource,
+      List.of(layer("stops", "Stop", "Digitransit"), layer("stations", "Station", "Digitransit"))
+    );
+
+    assertEquals(ByteBuffer.wrap(STOP_TILE), subject.get("stops", 4660, 2370, 13));
+    assertEquals(ByteBuffer.wrap(STATION_TILE), subject.get("stations", 4660, 2370, 13));
+  }
+
+  @Test
+  public void ignoreLayersRenderedWithAnotherConfig() {
+    var subject = VectorTilePyramid.load(
+      graph,
+      graphSource,
+      List.of(layer("stops", "Stop", "Digitransit"), layer("stations", "Station", "Other"))
+    );
+
+    assertEquals(ByteBuffer.wrap(STOP_TILE), subject.get("stops", 4660, 2370, 13));
+    assertNull(subject.get("stations", 4660, 2370, 13));
+  }
+
+  @Test
+  public void ignoreArchiveOfAnotherGraph() throws IOException {
+    writeArchive(graph.buildTime.toEpochMilli() - 1);
+
+    var subject = VectorTilePyramid.load(
+      graph,
+      graphSource,
+      List.of(layer("stops", "Stop", "Digitransit"))
+    );
+
+    assertNull(subject.get("stops", 4660, 2370, 13));
+  }
+
+  private void writeArchive(long graphBuildTime) throws IOException {
+    var layers = List.of(
+      new VectorTileArchive.Layer("stops", "Stop", "Digitransit", 0.25, 13, 15, new byte[] { 1 }),
+      new VectorTileArchive.Layer("stations", "Station", "Digitransit", 0.25, 13, 15, new byte[0])
+    );
+    SortedMap<Long, byte[]> tiles = new TreeMap<>();
+    tiles.put(VectorTileArchive.key(0, 4660, 2370, 13), STOP_TILE);
+    tiles.put(VectorTileArchive.key(1, 4660, 2370, 13), STATION_TILE);
+    VectorTileArchive.write(
+      new File(dir, VectorTilePyramid.FILE_NAME),
+      graphBuildTime,
+      layers,
+      tiles
+    );
+  }
+
+  private static VectorTilesResource.LayerParameters layer(
+    String name,
+    String type,
+    String mapper
+  ) {
+    return new VectorTilesResource.LayerParameters() {
+      @Override
+      public String name() {
+        return name;
+      }
+
+      @Override
+      public String type() {
+        return type;
+      }
+
+      @Override
+      public String mapper() {
+        return mapper;
+      }
+
+      @Override
+      public int maxZoom() {
+        return 20;
+      }
+
+      @Override
+      public int minZoom() {
+        return 13;
+      }
+
+      @Override
+      public int cacheMaxSeconds() {
+        return 60;
+      }
+
+      @Override
+      public double expansionFactor() {
+        return 0.25;
+      }
+
+      @Override
+      public int prerenderMaxZoom() {
+        return 15;
+      }
+    };
+  }
+}
@@ -111,6 +111,11 @@ public class VehicleParkingsLayerTest {
         public double expansionFactor() {
           return 0;
         }
+
+        @Override
+        public int prerenderMaxZoom() {
+          return -1;
+        }
       }
     );
 
@@ -11,6 +11,7 @@ import javax.ws.rs.core.Response;
 import javax.ws.rs.core.UriInfo;
 import org.opentripplanner.standalone.api.OtpServerContext;
 import org.opentripplanner.updater.GraphUpdaterStatus;
+import org.opentripplanner.util.logging.StartupPhases;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -43,6 +44,10 @@ public class ActuatorAPI {
                 "prometheus" : {
                   "href" : "%1$s/prometheus",
                   "templated" : false
+                },
+                "startup" : {
+                  "href" : "%1$s/startup",
+                  "templated" : false
                 }
               }
             }""",
@@ -82,6 +87,21 @@ public class ActuatorAPI {
       .build();
   }
 
+  /**
+   * List the startup phases, like reading the graph and creating the transit layer, with the
+   * duration and number of bytes or objects processed. A phase still running has the time since it
+   * started as duration.
+   */
+  @GET
+  @Path("/startup")
+  public Response startup() {
+    return Response
+      .status(Response.Status.OK)
+      .entity(StartupPhases.phases())
+      .type("application/json")
+      .build();
+  }
+
   /**
    * Returns micrometer metrics in a prometheus structured format.
    */
@@ -1,10 +1,28 @@
 package org.opentripplanner.ext.flex;
 
+import java.time.Duration;
+
+/**
+ * The flex parameters of a request. The parameters are created once for each request, and the
+ * deadline of the template evaluation is counted from when they are created, so it is shared by
+ * the direct flex search and the flex access and egress of the request.
+ */
 public class FlexParameters {
 
   public final double maxTransferMeters;
 
-  public FlexParameters(double maxTransferMeters) {
+  /**
+   * The time allowed for evaluating the flex templates of a request, the templates not evaluated
+   * within it are skipped.
+   */
+  public final Duration templateTimeout;
+
+  /** The {@link System#nanoTime()} when the time allowed for evaluating the templates ends. */
+  public final long templateDeadlineNanos;
+
+  public FlexParameters(double maxTransferMeters, Duration templateTimeout) {
     this.maxTransferMeters = maxTransferMeters;
+    this.templateTimeout = templateTimeout;
+    this.templateDeadlineNanos = System.nanoTime() + templateTimeout.toNanos();
   }
 }
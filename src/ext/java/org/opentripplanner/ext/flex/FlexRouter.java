@@ -6,17 +6,20 @@ import java.time.Instant;
 import java.time.LocalDate;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
-import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Comparator;
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
+import javax.annotation.Nullable;
 import org.opentripplanner.common.model.T2;
 import org.opentripplanner.ext.flex.flexpathcalculator.DirectFlexPathCalculator;
 import org.opentripplanner.ext.flex.flexpathcalculator.FlexPathCalculator;
+import org.opentripplanner.ext.flex.flexpathcalculator.FlexPathTableCache;
 import org.opentripplanner.ext.flex.flexpathcalculator.StreetFlexPathCalculator;
 import org.opentripplanner.ext.flex.template.FlexAccessTemplate;
 import org.opentripplanner.ext.flex.template.FlexEgressTemplate;
@@ -29,6 +32,12 @@ import org.opentripplanner.transit.model.site.StopLocation;
 import org.opentripplanner.transit.service.TransitService;
 import org.opentripplanner.util.time.ServiceDateUtils;
 
+/**
+ * Create the flex accesses, egresses and direct itineraries of a request from the flex templates
+ * of the nearby stops. The templates are evaluated in parallel by the {@link
+ * FlexTemplateEvaluator}, each template does its own street searches, until the deadline of the
+ * request given by {@link FlexParameters#templateDeadlineNanos}.
+ */
 public class FlexRouter {
 
   /* Transit data */
@@ -58,6 +67,7 @@ public class FlexRouter {
     Graph graph,
     TransitService transitService,
     FlexParameters config,
+    @Nullable FlexPathTableCache flexPathTableCache,
     Instant searchInstant,
     boolean arriveBy,
     int additionalPastSearchDays,
@@ -79,8 +89,9 @@ public class FlexRouter {
       );
 
     if (graph.hasStreets) {
-      this.accessFlexPathCalculator = new StreetFlexPathCalculator(graph, false);
-      this.egressFlexPathCalculator = new StreetFlexPathCalculator(graph, true);
+      this.accessFlexPathCalculator =
+        new StreetFlexPathCalculator(graph, false, flexPathTableCache);
+      this.egressFlexPathCalculator = new StreetFlexPathCalculator(graph, true, flexPathTableCache);
     } else {
       // this is only really useful in tests. in real world scenarios you're unlikely to get useful
       // results if you don't have streets
@@ -117,46 +128,50 @@ public class FlexRouter {
     Multimap<StopLocation, NearbyStop> streetEgressByStop = HashMultimap.create();
     streetEgresses.forEach(it -> streetEgressByStop.put(it.stop, it));
 
-    Collection<Itinerary> itineraries = new ArrayList<>();
-
-    for (FlexAccessTemplate template : this.flexAccessTemplates) {
-      StopLocation transferStop = template.getTransferStop();
-      if (
-        this.flexEgressTemplates.stream()
-          .anyMatch(t -> t.getAccessEgressStop().equals(transferStop))
-      ) {
-        for (NearbyStop egress : streetEgressByStop.get(transferStop)) {
-          Itinerary itinerary = template.createDirectGraphPath(
-            egress,
-            arriveBy,
-            departureTime,
-            startOfTime,
-            graphPathToItineraryMapper
-          );
-          if (itinerary != null) {
-            itineraries.add(itinerary);
-          }
-        }
-      }
-    }
-
-    return itineraries;
+    Set<StopLocation> egressTemplateStops = this.flexEgressTemplates.stream()
+      .map(FlexEgressTemplate::getAccessEgressStop)
+      .collect(Collectors.toSet());
+
+    return FlexTemplateEvaluator.evaluate(
+      this.flexAccessTemplates.stream()
+        .filter(t -> egressTemplateStops.contains(t.getTransferStop()))
+        .collect(Collectors.toList()),
+      template ->
+        streetEgressByStop
+          .get(template.getTransferStop())
+          .stream()
+          .map(egress ->
+            template.createDirectGraphPath(
+              egress,
+              arriveBy,
+              departureTime,
+              startOfTime,
+              graphPathToItineraryMapper
+            )
+          )
+          .filter(Objects::nonNull),
+      config.templateDeadlineNanos
+    );
   }
 
   public Collection<FlexAccessEgress> createFlexAccesses() {
     calculateFlexAccessTemplates();
 
-    return this.flexAccessTemplates.stream()
-      .flatMap(template -> template.createFlexAccessEgressStream(graph, transitService))
-      .collect(Collectors.toList());
+    return FlexTemplateEvaluator.evaluate(
+      this.flexAccessTemplates,
+      template -> template.createFlexAccessEgressStream(graph, transitService),
+      config.templateDeadlineNanos
+    );
   }
 
   public Collection<FlexAccessEgress> createFlexEgresses() {
     calculateFlexEgressTemplates();
 
-    return this.flexEgressTemplates.stream()
-      .flatMap(template -> template.createFlexAccessEgressStream(graph, transitService))
-      .collect(Collectors.toList());
+    return FlexTemplateEvaluator.evaluate(
+      this.flexEgressTemplates,
+      template -> template.createFlexAccessEgressStream(graph, transitService),
+      config.templateDeadlineNanos
+    );
   }
 
   private void calculateFlexAccessTemplates() {
@@ -0,0 +1,108 @@
+package org.opentripplanner.ext.flex;
+
+import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Evaluate the flex templates of a request in parallel, on a thread pool shared by all requests,
+ * until the deadline of the request. The templates are split into tasks, and a task stops
+ * evaluating its templates when it is cancelled at the deadline, so a slow request does not keep
+ * the threads from the other requests.
+ */
+class FlexTemplateEvaluator {
+
+  private static final Logger LOG = LoggerFactory.getLogger(FlexTemplateEvaluator.class);
+
+  /** The number of tasks for each thread, so that slow templates are balanced between threads. */
+  private static final int TASKS_PER_THREAD = 4;
+
+  private static final int N_THREADS = Runtime.getRuntime().availableProcessors();
+
+  /** Shared by all requests, so that the number of threads is bounded. */
+  private static final ExecutorService TEMPLATE_EXECUTOR = Executors.newFixedThreadPool(
+    N_THREADS,
+    new ThreadFactoryBuilder().setNameFormat("FlexTemplates-%d").setDaemon(true).build()
+  );
+
+  private FlexTemplateEvaluator() {}
+
+  /**
+   * Evaluate the templates in parallel, and collect the results in the order of the templates.
+   * The templates not evaluated before the deadline are skipped. A task running at the deadline
+   * finishes the template it is evaluating, the street search of a template is not interrupted.
+   *
+   * @param deadlineNanos the {@link System#nanoTime()} of the deadline.
+   */
+  static <T, R> List<R> evaluate(
+    List<T> templates,
+    Function<T, Stream<R>> evaluate,
+    long deadlineNanos
+  ) {
+    if (templates.isEmpty()) {
+      return List.of();
+    }
+
+    int tasksSize = Math.max(1, templates.size() / (N_THREADS * TASKS_PER_THREAD));
+    List<Callable<List<R>>> tasks = Lists
+      .partition(templates, tasksSize)
+      .stream()
+      .<Callable<List<R>>>map(part ->
+        () ->
+          part
+            .stream()
+            .takeWhile(it -> !Thread.currentThread().isInterrupted())
+            .flatMap(evaluate)
+            .collect(Collectors.toList())
+      )
+      .collect(Collectors.toList());
+
+    try {
+      long timeoutNanos = Math.max(0, deadlineNanos - System.nanoTime());
+      List<Future<List<R>>> futures = TEMPLATE_EXECUTOR.invokeAll(
+        tasks,
+        timeoutNanos,
+        TimeUnit.NANOSECONDS
+      );
+
+      List<R> results = new ArrayList<>();
+      int cancelled = 0;
+      for (Future<List<R>> future : futures) {
+        try {
+          results.addAll(future.get());
+        } catch (CancellationException e) {
+          cancelled++;
+        }
+      }
+      if (cancelled > 0) {
+        LOG.warn(
+          "{} of {} flex template tasks were not evaluated before the deadline",
+          cancelled,
+          tasks.size()
+        );
+      }
+      return results;
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new RuntimeException(e);
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) e.getCause();
+      }
+      throw new RuntimeException(e.getCause());
+    }
+  }
+}
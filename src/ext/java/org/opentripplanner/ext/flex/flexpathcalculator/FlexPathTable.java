@@ -0,0 +1,170 @@
+package org.opentripplanner.ext.flex.flexpathcalculator;
+
+import gnu.trove.list.array.TDoubleArrayList;
+import gnu.trove.list.array.TIntArrayList;
+import gnu.trove.map.hash.TObjectIntHashMap;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import org.locationtech.jts.geom.LineString;
+import org.opentripplanner.api.resource.CoordinateArrayListSequence;
+import org.opentripplanner.routing.core.State;
+import org.opentripplanner.routing.graph.Edge;
+import org.opentripplanner.routing.graph.Vertex;
+import org.opentripplanner.routing.spt.ShortestPathTree;
+import org.opentripplanner.routing.vertextype.TemporaryVertex;
+import org.opentripplanner.util.geometry.GeometryUtils;
+
+/**
+ * The durations and distances of a one-to-many street search from an origin vertex, extracted
+ * from the ShortestPathTree of the search. Each state of the tree is an entry in primitive arrays,
+ * with the index of the entry of the back state and the back edge. This is much smaller than the
+ * tree, and the geometry of a path can still be built from the back edges when it is needed.
+ * <p>
+ * The durations are the durations of the search, a path of a reverse search is not traversed
+ * again in the forward direction.
+ */
+class FlexPathTable {
+
+  private static final int NO_ENTRY = -1;
+
+  private final boolean reverseDirection;
+
+  /** The entry of the best state of each vertex, see {@link ShortestPathTree#getState(Vertex)}. */
+  private final TObjectIntHashMap<Vertex> entryByVertex;
+
+  private final int[] durationSeconds;
+  private final int[] distanceMeters;
+  private final int[] backEntries;
+  private final Edge[] backEdges;
+
+  private FlexPathTable(
+    boolean reverseDirection,
+    TObjectIntHashMap<Vertex> entryByVertex,
+    int[] durationSeconds,
+    int[] distanceMeters,
+    int[] backEntries,
+    Edge[] backEdges
+  ) {
+    this.reverseDirection = reverseDirection;
+    this.entryByVertex = entryByVertex;
+    this.durationSeconds = durationSeconds;
+    this.distanceMeters = distanceMeters;
+    this.backEntries = backEntries;
+    this.backEdges = backEdges;
+  }
+
+  /**
+   * Create a table from a street search.
+   *
+   * @param excludeTemporaryVertices Exclude the temporary vertices of other requests, and the
+   *                                 states reached through them, from a table shared by requests.
+   */
+  static FlexPathTable of(
+    ShortestPathTree spt,
+    boolean reverseDirection,
+    boolean excludeTemporaryVertices
+  ) {
+    Map<State, Integer> entryByState = new IdentityHashMap<>();
+    List<State> states = new ArrayList<>();
+    TIntArrayList backEntries = new TIntArrayList();
+    TDoubleArrayList distances = new TDoubleArrayList();
+
+    for (State state : spt.getAllStates()) {
+      // The back states not yet added, a back state may be dominated and not part of the tree
+      List<State> chain = new ArrayList<>();
+      for (State s = state; s != null && !entryByState.containsKey(s); s = s.getBackState()) {
+        chain.add(s);
+      }
+      for (int i = chain.size() - 1; i >= 0; i--) {
+        State s = chain.get(i);
+        State back = s.getBackState();
+        int backEntry = back == null ? NO_ENTRY : entryByState.get(back);
+        boolean excluded =
+          (back != null && backEntry == NO_ENTRY) ||
+          (excludeTemporaryVertices && s.getVertex() instanceof TemporaryVertex);
+        if (excluded) {
+          entryByState.put(s, NO_ENTRY);
+          continue;
+        }
+        entryByState.put(s, states.size());
+        states.add(s);
+        backEntries.add(backEntry);
+        distances.add(
+          back == null ? 0.0 : distances.get(backEntry) + s.getBackEdge().getDistanceMeters()
+        );
+      }
+    }
+
+    int size = states.size();
+    var entryByVertex = new TObjectIntHashMap<Vertex>(size, 0.5f, NO_ENTRY);
+    int[] durationSeconds = new int[size];
+    int[] distanceMeters = new int[size];
+    Edge[] backEdges = new Edge[size];
+    for (int i = 0; i < size; i++) {
+      State s = states.get(i);
+      durationSeconds[i] = (int) s.getElapsedTimeSeconds();
+      distanceMeters[i] = (int) distances.get(i);
+      backEdges[i] = s.getBackEdge();
+    }
+    for (Vertex vertex : spt.getVertices()) {
+      int entry = entryByState.getOrDefault(spt.getState(vertex), NO_ENTRY);
+      if (entry != NO_ENTRY) {
+        entryByVertex.put(vertex, entry);
+      }
+    }
+    return new FlexPathTable(
+      reverseDirection,
+      entryByVertex,
+      durationSeconds,
+      distanceMeters,
+      backEntries.toArray(),
+      backEdges
+    );
+  }
+
+  /**
+   * The path to the vertex, or {@code null} if the vertex is not reached.
+   */
+  FlexPath flexPath(Vertex vertex) {
+    int entry = entryByVertex.get(vertex);
+    if (entry == NO_ENTRY) {
+      return null;
+    }
+    return new FlexPath(distanceMeters[entry], durationSeconds[entry], () -> geometry(entry));
+  }
+
+  /**
+   * The number of entries, used to bound the size of the cached tables.
+   */
+  int size() {
+    return durationSeconds.length;
+  }
+
+  private LineString geometry(int entry) {
+    List<Edge> edges = new ArrayList<>();
+    for (int i = entry; backEntries[i] != NO_ENTRY; i = backEntries[i]) {
+      edges.add(backEdges[i]);
+    }
+    // The edges of a forward search are found from the end of the path
+    if (!reverseDirection) {
+      Collections.reverse(edges);
+    }
+
+    CoordinateArrayListSequence coordinates = new CoordinateArrayListSequence();
+    for (Edge edge : edges) {
+      LineString geometry = edge.getGeometry();
+      if (geometry != null) {
+        if (coordinates.size() == 0) {
+          coordinates.extend(geometry.getCoordinates());
+        } else {
+          // Avoid duplications
+          coordinates.extend(geometry.getCoordinates(), 1);
+        }
+      }
+    }
+    return GeometryUtils.getGeometryFactory().createLineString(coordinates);
+  }
+}
@@ -0,0 +1,70 @@
+package org.opentripplanner.ext.flex.flexpathcalculator;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.binder.cache.GuavaCacheMetrics;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import org.opentripplanner.routing.core.TraverseMode;
+import org.opentripplanner.routing.graph.Vertex;
+import org.opentripplanner.standalone.api.OtpServerContext;
+
+/**
+ * Cache the {@link FlexPathTable}s of the street searches from the vertices of the graph, shared
+ * by all requests. The same stop-centred searches are needed by many flex requests, and the
+ * street network only changes with the graph, so the cache is owned by the server context of the
+ * graph, see {@link OtpServerContext#flexPathTableCache()}. The cache is bounded by the size of
+ * the tables, the least recently used tables are evicted first.
+ * <p>
+ * The tables of the temporary vertices of a request are not cached here, they are only used by
+ * that request.
+ */
+public class FlexPathTableCache {
+
+  private static final long MAXIMUM_BYTES = 256 * 1024 * 1024;
+
+  /** The approximate size of an entry of a table: the arrays and the vertex map. */
+  private static final int BYTES_PER_ENTRY = 40;
+
+  /** The approximate size of a cache entry, not counting the entries of the table. */
+  private static final int TABLE_OVERHEAD_BYTES = 128;
+
+  private final Cache<Key, FlexPathTable> cache = CacheBuilder
+    .newBuilder()
+    .maximumWeight(MAXIMUM_BYTES)
+    .weigher((Key key, FlexPathTable table) ->
+      table.size() * BYTES_PER_ENTRY + TABLE_OVERHEAD_BYTES
+    )
+    .recordStats()
+    .build();
+
+  /**
+   * Get the table of the search from the origin, searching the streets if it is not cached. The
+   * table is searched once if several threads ask for it at the same time.
+   */
+  FlexPathTable get(
+    Vertex origin,
+    TraverseMode mode,
+    boolean reverseDirection,
+    Callable<FlexPathTable> search
+  ) {
+    try {
+      return cache.get(new Key(origin, mode, reverseDirection), search);
+    } catch (ExecutionException e) {
+      throw new RuntimeException("Failed to get item from flex path table cache", e);
+    }
+  }
+
+  /**
+   * Publish the statistics of the cache, this is done once when the cache is created.
+   */
+  public void bindTo(MeterRegistry registry) {
+    new GuavaCacheMetrics(cache, "flexPathTableCache", List.of(Tag.of("cache", "flexPathTables")))
+      .bindTo(registry);
+  }
+
+  private record Key(Vertex origin, TraverseMode mode, boolean reverseDirection) {}
+}
@@ -1,8 +1,13 @@
 package org.opentripplanner.ext.flex.flexpathcalculator;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import java.time.Duration;
-import java.util.HashMap;
 import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import javax.annotation.Nullable;
 import org.opentripplanner.routing.algorithm.astar.AStarBuilder;
 import org.opentripplanner.routing.api.request.RoutingRequest;
 import org.opentripplanner.routing.core.RoutingContext;
@@ -10,16 +15,22 @@ import org.opentripplanner.routing.core.TraverseMode;
 import org.opentripplanner.routing.graph.Graph;
 import org.opentripplanner.routing.graph.Vertex;
 import org.opentripplanner.routing.spt.DominanceFunction;
-import org.opentripplanner.routing.spt.GraphPath;
 import org.opentripplanner.routing.spt.ShortestPathTree;
+import org.opentripplanner.routing.vertextype.TemporaryVertex;
 
 /**
  * StreetFlexPathCalculator calculates the driving times and distances based on the street network
  * using the AStar algorithm.
  * <p>
- * Note that it caches the whole ShortestPathTree the first time it encounters a new fromVertex.
- * Subsequent requests from the same fromVertex can fetch the path to the toVertex from the existing
- * ShortestPathTree. This one-to-many approach is needed to make the performance acceptable.
+ * Note that it caches the result of a one-to-many search, as a {@link FlexPathTable}, the first
+ * time it encounters a new fromVertex. Subsequent requests from the same fromVertex can fetch the
+ * path to the toVertex from the existing table. This one-to-many approach is needed to make the
+ * performance acceptable. The tables of the vertices of the graph are shared by all requests in
+ * the {@link FlexPathTableCache}, if one is given, while the paths from or to the temporary
+ * vertices of the request are only cached by this calculator.
+ * <p>
+ * The templates of a request are evaluated in parallel, so the calculator is thread-safe. Each path
+ * is only looked up once for all the templates of a request.
  * <p>
  * Because we will have lots of searches with the same origin when doing access searches and a lot
  * of searches with the same destination when doing egress searches, the calculator needs to be
@@ -30,47 +41,86 @@ import org.opentripplanner.routing.spt.ShortestPathTree;
 public class StreetFlexPathCalculator implements FlexPathCalculator {
 
   private static final Duration MAX_FLEX_TRIP_DURATION = Duration.ofMinutes(45);
+  private static final TraverseMode MODE = TraverseMode.CAR;
 
   private final Graph graph;
-  private final Map<Vertex, ShortestPathTree> cache = new HashMap<>();
+  private final FlexPathTableCache sharedCache;
+  private final Cache<Vertex, FlexPathTable> requestCache = CacheBuilder.newBuilder().build();
+  private final Map<PathKey, Optional<FlexPath>> paths = new ConcurrentHashMap<>();
   private final boolean reverseDirection;
 
   public StreetFlexPathCalculator(Graph graph, boolean reverseDirection) {
+    this(graph, reverseDirection, null);
+  }
+
+  /**
+   * @param sharedCache the tables shared by all requests, or {@code null} to only cache the tables
+   *                    in this calculator.
+   */
+  public StreetFlexPathCalculator(
+    Graph graph,
+    boolean reverseDirection,
+    @Nullable FlexPathTableCache sharedCache
+  ) {
     this.graph = graph;
     this.reverseDirection = reverseDirection;
+    this.sharedCache = sharedCache;
   }
 
   @Override
   public FlexPath calculateFlexPath(Vertex fromv, Vertex tov, int fromStopIndex, int toStopIndex) {
+    var key = new PathKey(fromv, tov);
+    Optional<FlexPath> path = paths.get(key);
+    if (path == null) {
+      path = Optional.ofNullable(findFlexPath(fromv, tov));
+      Optional<FlexPath> existing = paths.putIfAbsent(key, path);
+      if (existing != null) {
+        path = existing;
+      }
+    }
+    return path.orElse(null);
+  }
+
+  private FlexPath findFlexPath(Vertex fromv, Vertex tov) {
     // These are the origin and destination vertices from the perspective of the one-to-many search,
     // which may be reversed
     Vertex originVertex = reverseDirection ? tov : fromv;
     Vertex destinationVertex = reverseDirection ? fromv : tov;
 
-    ShortestPathTree shortestPathTree;
-    if (cache.containsKey(originVertex)) {
-      shortestPathTree = cache.get(originVertex);
+    // The paths to and from the temporary vertices of this request can not be shared
+    FlexPathTable table;
+    if (
+      sharedCache == null ||
+      originVertex instanceof TemporaryVertex ||
+      destinationVertex instanceof TemporaryVertex
+    ) {
+      try {
+        table =
+          requestCache.get(
+            originVertex,
+            () -> FlexPathTable.of(routeToMany(originVertex), reverseDirection, false)
+          );
+      } catch (ExecutionException e) {
+        throw new RuntimeException("Failed to get item from flex path table cache", e);
+      }
     } else {
-      shortestPathTree = routeToMany(originVertex);
-      cache.put(originVertex, shortestPathTree);
-    }
-
-    GraphPath path = shortestPathTree.getPath(destinationVertex);
-    if (path == null) {
-      return null;
+      table =
+        sharedCache.get(
+          originVertex,
+          MODE,
+          reverseDirection,
+          () -> FlexPathTable.of(routeToMany(originVertex), reverseDirection, true)
+        );
     }
 
-    int distance = (int) path.getDistanceMeters();
-    int duration = path.getDuration();
-
-    // computing the linestring from the graph path is a surprisingly expensive operation
-    // so we delay it until it's actually needed. since most flex paths are never shown to the user
+    // computing the linestring from the path is a surprisingly expensive operation so the flex
+    // path delays it until it's actually needed. since most flex paths are never shown to the user
     // this improves performance quite a bit.
-    return new FlexPath(distance, duration, path::getGeometry);
+    return table.flexPath(destinationVertex);
   }
 
   private ShortestPathTree routeToMany(Vertex vertex) {
-    RoutingRequest routingRequest = new RoutingRequest(TraverseMode.CAR);
+    RoutingRequest routingRequest = new RoutingRequest(MODE);
     routingRequest.arriveBy = reverseDirection;
     RoutingContext rctx;
     if (reverseDirection) {
@@ -85,4 +135,6 @@ public class StreetFlexPathCalculator implements FlexPathCalculator {
       .setContext(rctx)
       .getShortestPathTree();
   }
+
+  private record PathKey(Vertex from, Vertex to) {}
 }
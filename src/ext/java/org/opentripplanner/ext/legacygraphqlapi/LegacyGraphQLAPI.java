@@ -9,7 +9,6 @@ import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.concurrent.Callable;
-import java.util.concurrent.Future;
 import javax.ws.rs.Consumes;
 import javax.ws.rs.DefaultValue;
 import javax.ws.rs.HeaderParam;
@@ -21,7 +20,8 @@ import javax.ws.rs.core.Context;
 import javax.ws.rs.core.HttpHeaders;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
-import org.opentripplanner.api.json.GraphQLResponseSerializer;
+import org.glassfish.grizzly.http.server.Request;
+import org.opentripplanner.api.support.GraphQLQueryExecutor;
 import org.opentripplanner.standalone.api.OtpServerContext;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -130,7 +130,8 @@ public class LegacyGraphQLAPI {
     List<HashMap<String, Object>> queries,
     @HeaderParam("OTPTimeout") @DefaultValue("30000") int timeout,
     @HeaderParam("OTPMaxResolves") @DefaultValue("1000000") int maxResolves,
-    @Context HttpHeaders headers
+    @Context HttpHeaders headers,
+    @Context Request grizzlyRequest
   ) {
     List<Callable<ExecutionResult>> futures = new ArrayList<>();
     Locale locale = headers.getAcceptableLanguages().size() > 0
@@ -171,15 +172,15 @@ public class LegacyGraphQLAPI {
       );
     }
 
-    try {
-      List<Future<ExecutionResult>> results = LegacyGraphQLIndex.threadPool.invokeAll(futures);
-      return Response
-        .status(Response.Status.OK)
-        .entity(GraphQLResponseSerializer.serializeBatch(queries, results))
-        .build();
-    } catch (InterruptedException e) {
-      LOG.error("Batch query interrupted", e);
-      throw new RuntimeException(e);
-    }
+    return serverContext
+      .graphQLQueryExecutor()
+      .executeBatch(
+        GraphQLQueryExecutor.clientId(
+          grizzlyRequest,
+          serverContext.routerConfig().trustForwardedFor()
+        ),
+        queries,
+        futures
+      );
   }
 }
@@ -1,7 +1,6 @@
 package org.opentripplanner.ext.legacygraphqlapi;
 
 import com.google.common.io.Resources;
-import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import graphql.ExecutionInput;
 import graphql.ExecutionResult;
 import graphql.GraphQL;
@@ -23,12 +22,12 @@ import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.concurrent.ExecutionException;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 import javax.ws.rs.core.Response;
 import org.opentripplanner.api.json.GraphQLResponseSerializer;
+import org.opentripplanner.api.support.PreparsedDocumentCache;
+import org.opentripplanner.api.support.TransitDataLoaders;
 import org.opentripplanner.ext.actuator.MicrometerGraphQLInstrumentation;
 import org.opentripplanner.ext.legacygraphqlapi.datafetchers.LegacyGraphQLAgencyImpl;
 import org.opentripplanner.ext.legacygraphqlapi.datafetchers.LegacyGraphQLAlertEntityTypeResolver;
@@ -89,9 +88,8 @@ class LegacyGraphQLIndex {
 
   private static final GraphQLSchema indexSchema = buildSchema();
 
-  static final ExecutorService threadPool = Executors.newCachedThreadPool(
-    new ThreadFactoryBuilder().setNameFormat("GraphQLExecutor-%d").build()
-  );
+  private static final PreparsedDocumentCache preparsedDocumentCache =
+    createPreparsedDocumentCache();
 
   protected static GraphQLSchema buildSchema() {
     try {
@@ -165,6 +163,14 @@ class LegacyGraphQLIndex {
     return null;
   }
 
+  private static PreparsedDocumentCache createPreparsedDocumentCache() {
+    var cache = new PreparsedDocumentCache();
+    if (OTPFeature.ActuatorAPI.isOn()) {
+      cache.bindTo(Metrics.globalRegistry, "legacyGraphQL");
+    }
+    return cache;
+  }
+
   static ExecutionResult getGraphQLExecutionResult(
     String query,
     OtpServerContext serverContext,
@@ -184,7 +190,11 @@ class LegacyGraphQLIndex {
         );
     }
 
-    GraphQL graphQL = GraphQL.newGraphQL(indexSchema).instrumentation(instrumentation).build();
+    GraphQL graphQL = GraphQL
+      .newGraphQL(indexSchema)
+      .instrumentation(instrumentation)
+      .preparsedDocumentProvider(preparsedDocumentCache)
+      .build();
 
     if (variables == null) {
       variables = new HashMap<>();
@@ -201,6 +211,7 @@ class LegacyGraphQLIndex {
       .query(query)
       .operationName(operationName)
       .context(requestContext)
+      .dataLoaderRegistry(TransitDataLoaders.createRegistry(serverContext.transitService()))
       .root(serverContext)
       .variables(variables)
       .locale(locale)
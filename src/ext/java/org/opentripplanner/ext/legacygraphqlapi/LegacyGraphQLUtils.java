@@ -1,9 +1,12 @@
 package org.opentripplanner.ext.legacygraphqlapi;
 
+import graphql.schema.DataFetcher;
 import graphql.schema.DataFetchingEnvironment;
 import java.time.Instant;
 import java.util.Locale;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import org.opentripplanner.ext.legacygraphqlapi.generated.LegacyGraphQLDataFetchers;
 import org.opentripplanner.ext.legacygraphqlapi.generated.LegacyGraphQLTypes.LegacyGraphQLFilterPlaceType;
 import org.opentripplanner.ext.legacygraphqlapi.generated.LegacyGraphQLTypes.LegacyGraphQLFormFactor;
 import org.opentripplanner.ext.legacygraphqlapi.generated.LegacyGraphQLTypes.LegacyGraphQLInputField;
@@ -18,6 +21,17 @@ import org.opentripplanner.transit.model.basic.WheelchairAccessibility;
 
 public class LegacyGraphQLUtils {
 
+  /**
+   * Adapt a data fetcher returning a future, like the ones using data loaders, to the value type
+   * of the field in the generated {@link LegacyGraphQLDataFetchers} interfaces. graphql-java
+   * completes a returned future before the value is used, so the generated interfaces can be kept
+   * as they are generated.
+   */
+  @SuppressWarnings("unchecked")
+  public static <T> DataFetcher<T> async(DataFetcher<CompletableFuture<T>> dataFetcher) {
+    return (DataFetcher<T>) (DataFetcher<?>) dataFetcher;
+  }
+
   public static Locale getLocale(DataFetchingEnvironment environment) {
     return getLocale(environment, environment.getArgument("language"));
   }
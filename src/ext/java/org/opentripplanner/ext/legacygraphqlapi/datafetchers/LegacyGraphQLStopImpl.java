@@ -12,9 +12,13 @@ import java.util.Collection;
 import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
+import org.opentripplanner.api.support.TransitDataLoaders;
+import org.opentripplanner.api.support.TransitDataLoaders.StopOnRouteOrTripAlerts;
+import org.opentripplanner.api.support.TransitDataLoaders.StopTimesKey;
 import org.opentripplanner.ext.legacygraphqlapi.LegacyGraphQLRequestContext;
 import org.opentripplanner.ext.legacygraphqlapi.LegacyGraphQLUtils;
 import org.opentripplanner.ext.legacygraphqlapi.generated.LegacyGraphQLDataFetchers;
@@ -24,8 +28,6 @@ import org.opentripplanner.ext.legacygraphqlapi.generated.LegacyGraphQLTypes.Leg
 import org.opentripplanner.model.StopTimesInPattern;
 import org.opentripplanner.model.TripTimeOnDate;
 import org.opentripplanner.routing.RoutingService;
-import org.opentripplanner.routing.alertpatch.EntitySelector;
-import org.opentripplanner.routing.alertpatch.EntitySelector.StopAndRoute;
 import org.opentripplanner.routing.alertpatch.TransitAlert;
 import org.opentripplanner.routing.graphfinder.NearbyStop;
 import org.opentripplanner.routing.services.TransitAlertService;
@@ -44,50 +46,40 @@ public class LegacyGraphQLStopImpl implements LegacyGraphQLDataFetchers.LegacyGr
 
   @Override
   public DataFetcher<Iterable<TransitAlert>> alerts() {
-    return environment -> {
+    return LegacyGraphQLUtils.async(environment -> {
       TransitAlertService alertService = getTransitService(environment).getTransitAlertService();
       var args = new LegacyGraphQLTypes.LegacyGraphQLStopAlertsArgs(environment.getArguments());
       List<LegacyGraphQLTypes.LegacyGraphQLStopAlertType> types = (List) args.getLegacyGraphQLTypes();
       FeedScopedId id = getValue(environment, StopLocation::getId, TransitEntity::getId);
-      if (types != null) {
-        Collection<TransitAlert> alerts = new ArrayList<>();
-        if (types.contains(LegacyGraphQLStopAlertType.STOP)) {
-          alerts.addAll(alertService.getStopAlerts(id));
-        }
-        if (
-          types.contains(LegacyGraphQLStopAlertType.STOP_ON_ROUTES) ||
+      if (types == null) {
+        return CompletableFuture.completedFuture(alertService.getStopAlerts(id));
+      }
+      CompletableFuture<StopOnRouteOrTripAlerts> stopOnRouteOrTripAlerts =
+        types.contains(LegacyGraphQLStopAlertType.STOP_ON_ROUTES) ||
           types.contains(LegacyGraphQLStopAlertType.STOP_ON_TRIPS)
-        ) {
-          alerts.addAll(
-            alertService
-              .getAllAlerts()
-              .stream()
-              .filter(alert ->
-                alert
-                  .getEntities()
-                  .stream()
-                  .anyMatch(entity ->
-                    (
-                      types.contains(LegacyGraphQLStopAlertType.STOP_ON_ROUTES) &&
-                      entity instanceof EntitySelector.StopAndRoute &&
-                      ((StopAndRoute) entity).stopAndRoute.stop.equals(id)
-                    ) ||
-                    (
-                      types.contains(LegacyGraphQLStopAlertType.STOP_ON_TRIPS) &&
-                      entity instanceof EntitySelector.StopAndTrip &&
-                      ((EntitySelector.StopAndTrip) entity).stopAndTrip.stop.equals(id)
-                    )
-                  )
-              )
-              .collect(Collectors.toList())
-          );
-        }
-        if (
-          types.contains(LegacyGraphQLStopAlertType.PATTERNS) ||
+          ? TransitDataLoaders.stopOnRouteOrTripAlerts(environment, id)
+          : CompletableFuture.completedFuture(null);
+      CompletableFuture<Iterable<TripPattern>> patterns =
+        types.contains(LegacyGraphQLStopAlertType.PATTERNS) ||
           types.contains(LegacyGraphQLStopAlertType.TRIPS)
-        ) {
-          getPatterns(environment)
-            .forEach(pattern -> {
+          ? getPatterns(environment)
+          : CompletableFuture.completedFuture(null);
+
+      return stopOnRouteOrTripAlerts.thenCombine(
+        patterns,
+        (stopOnRouteOrTrip, stopPatterns) -> {
+          Collection<TransitAlert> alerts = new ArrayList<>();
+          if (types.contains(LegacyGraphQLStopAlertType.STOP)) {
+            alerts.addAll(alertService.getStopAlerts(id));
+          }
+          if (types.contains(LegacyGraphQLStopAlertType.STOP_ON_ROUTES)) {
+            alerts.addAll(stopOnRouteOrTrip.onRoutes());
+          }
+          if (types.contains(LegacyGraphQLStopAlertType.STOP_ON_TRIPS)) {
+            alerts.addAll(stopOnRouteOrTrip.onTrips());
+          }
+          if (stopPatterns != null) {
+            stopPatterns.forEach(pattern -> {
               if (types.contains(LegacyGraphQLStopAlertType.PATTERNS)) {
                 alerts.addAll(
                   alertService.getDirectionAndRouteAlerts(
@@ -102,26 +94,25 @@ public class LegacyGraphQLStopImpl implements LegacyGraphQLDataFetchers.LegacyGr
                   .forEach(trip -> alerts.addAll(alertService.getTripAlerts(trip.getId(), null)));
               }
             });
+          }
+          if (
+            types.contains(LegacyGraphQLStopAlertType.ROUTES) ||
+            types.contains(LegacyGraphQLStopAlertType.AGENCIES_OF_ROUTES)
+          ) {
+            getRoutes(environment)
+              .forEach(route -> {
+                if (types.contains(LegacyGraphQLStopAlertType.ROUTES)) {
+                  alerts.addAll(alertService.getRouteAlerts(route.getId()));
+                }
+                if (types.contains(LegacyGraphQLStopAlertType.AGENCIES_OF_ROUTES)) {
+                  alerts.addAll(alertService.getAgencyAlerts(route.getAgency().getId()));
+                }
+              });
+          }
+          return alerts.stream().distinct().collect(Collectors.toList());
         }
-        if (
-          types.contains(LegacyGraphQLStopAlertType.ROUTES) ||
-          types.contains(LegacyGraphQLStopAlertType.AGENCIES_OF_ROUTES)
-        ) {
-          getRoutes(environment)
-            .forEach(route -> {
-              if (types.contains(LegacyGraphQLStopAlertType.ROUTES)) {
-                alerts.addAll(alertService.getRouteAlerts(route.getId()));
-              }
-              if (types.contains(LegacyGraphQLStopAlertType.AGENCIES_OF_ROUTES)) {
-                alerts.addAll(alertService.getAgencyAlerts(route.getAgency().getId()));
-              }
-            });
-        }
-        return alerts.stream().distinct().collect(Collectors.toList());
-      } else {
-        return alertService.getStopAlerts(id);
-      }
-    };
+      );
+    });
   }
 
   @Override
@@ -213,7 +204,7 @@ public class LegacyGraphQLStopImpl implements LegacyGraphQLDataFetchers.LegacyGr
 
   @Override
   public DataFetcher<Iterable<TripPattern>> patterns() {
-    return this::getPatterns;
+    return LegacyGraphQLUtils.async(this::getPatterns);
   }
 
   @Override
@@ -282,38 +273,15 @@ public class LegacyGraphQLStopImpl implements LegacyGraphQLDataFetchers.LegacyGr
 
   @Override
   public DataFetcher<Iterable<StopTimesInPattern>> stoptimesForPatterns() {
-    return environment -> {
-      TransitService transitService = getTransitService(environment);
+    return LegacyGraphQLUtils.async(environment -> {
       var args = new LegacyGraphQLTypes.LegacyGraphQLStopStoptimesForPatternsArgs(
         environment.getArguments()
       );
 
       // TODO: use args.getLegacyGraphQLOmitCanceled()
 
-      Function<StopLocation, List<StopTimesInPattern>> stopTFunction = stop ->
-        transitService.stopTimesForStop(
-          stop,
-          LegacyGraphQLUtils.getTimeOrNow(args.getLegacyGraphQLStartTime()),
-          Duration.ofSeconds(args.getLegacyGraphQLTimeRange()),
-          args.getLegacyGraphQLNumberOfDepartures(),
-          args.getLegacyGraphQLOmitNonPickups()
-            ? ArrivalDeparture.DEPARTURES
-            : ArrivalDeparture.BOTH,
-          false
-        );
-
-      return getValue(
-        environment,
-        stopTFunction,
-        station ->
-          station
-            .getChildStops()
-            .stream()
-            .map(stopTFunction)
-            .flatMap(Collection::stream)
-            .collect(Collectors.toList())
-      );
-    };
+      return asIterable(getStopTimes(environment, args));
+    });
   }
 
   @Override
@@ -357,40 +325,25 @@ public class LegacyGraphQLStopImpl implements LegacyGraphQLDataFetchers.LegacyGr
 
   @Override
   public DataFetcher<Iterable<TripTimeOnDate>> stoptimesWithoutPatterns() {
-    return environment -> {
-      TransitService transitService = getTransitService(environment);
+    return LegacyGraphQLUtils.async(environment -> {
       var args = new LegacyGraphQLTypes.LegacyGraphQLStopStoptimesForPatternsArgs(
         environment.getArguments()
       );
 
       // TODO: use args.getLegacyGraphQLOmitCanceled()
 
-      Function<StopLocation, Stream<StopTimesInPattern>> stopTFunction = stop ->
-        transitService
-          .stopTimesForStop(
-            stop,
-            LegacyGraphQLUtils.getTimeOrNow(args.getLegacyGraphQLStartTime()),
-            Duration.ofSeconds(args.getLegacyGraphQLTimeRange()),
-            args.getLegacyGraphQLNumberOfDepartures(),
-            args.getLegacyGraphQLOmitNonPickups()
-              ? ArrivalDeparture.DEPARTURES
-              : ArrivalDeparture.BOTH,
-            false
-          )
-          .stream();
-
-      Stream<StopTimesInPattern> stream = getValue(
-        environment,
-        stopTFunction,
-        station -> station.getChildStops().stream().flatMap(stopTFunction)
-      );
-
-      return stream
-        .flatMap(stoptimesWithPattern -> stoptimesWithPattern.times.stream())
-        .sorted(Comparator.comparing(t -> t.getServiceDayMidnight() + t.getRealtimeDeparture()))
-        .limit(args.getLegacyGraphQLNumberOfDepartures())
-        .collect(Collectors.toList());
-    };
+      return getStopTimes(environment, args)
+        .thenApply(stopTimes ->
+          stopTimes
+            .stream()
+            .flatMap(stoptimesWithPattern -> stoptimesWithPattern.times.stream())
+            .sorted(
+              Comparator.comparing(t -> t.getServiceDayMidnight() + t.getRealtimeDeparture())
+            )
+            .limit(args.getLegacyGraphQLNumberOfDepartures())
+            .collect(Collectors.toList())
+        );
+    });
   }
 
   @Override
@@ -492,11 +445,59 @@ public class LegacyGraphQLStopImpl implements LegacyGraphQLDataFetchers.LegacyGr
       getValue(environment, StopLocation::getFirstZoneAsString, station -> null);
   }
 
-  private Collection<TripPattern> getPatterns(DataFetchingEnvironment environment) {
+  private CompletableFuture<Iterable<TripPattern>> getPatterns(
+    DataFetchingEnvironment environment
+  ) {
     return getValue(
       environment,
-      stop -> getTransitService(environment).getPatternsForStop(stop, true),
-      station -> null
+      stop -> TransitDataLoaders.patternsForStop(environment, stop),
+      station -> CompletableFuture.completedFuture(null)
+    );
+  }
+
+  /**
+   * Load the stop times for the stop, or for all child stops of the station. The stop times of all
+   * stops on the same level of the query are looked up in one batch.
+   */
+  private CompletableFuture<List<StopTimesInPattern>> getStopTimes(
+    DataFetchingEnvironment environment,
+    LegacyGraphQLTypes.LegacyGraphQLStopStoptimesForPatternsArgs args
+  ) {
+    Instant startTime = LegacyGraphQLUtils.getTimeOrNow(args.getLegacyGraphQLStartTime());
+    Function<StopLocation, CompletableFuture<List<StopTimesInPattern>>> loadStopTimes = stop ->
+      TransitDataLoaders.stopTimesForStop(
+        environment,
+        new StopTimesKey(
+          stop,
+          startTime,
+          Duration.ofSeconds(args.getLegacyGraphQLTimeRange()),
+          args.getLegacyGraphQLNumberOfDepartures(),
+          args.getLegacyGraphQLOmitNonPickups()
+            ? ArrivalDeparture.DEPARTURES
+            : ArrivalDeparture.BOTH,
+          false
+        )
+      );
+
+    return getValue(
+      environment,
+      loadStopTimes,
+      station -> {
+        List<CompletableFuture<List<StopTimesInPattern>>> childStopTimes = station
+          .getChildStops()
+          .stream()
+          .map(loadStopTimes)
+          .toList();
+        return CompletableFuture
+          .allOf(childStopTimes.toArray(CompletableFuture[]::new))
+          .thenApply(ignore ->
+            childStopTimes
+              .stream()
+              .map(CompletableFuture::join)
+              .flatMap(Collection::stream)
+              .collect(Collectors.toList())
+          );
+      }
     );
   }
 
@@ -573,6 +574,17 @@ public class LegacyGraphQLStopImpl implements LegacyGraphQLDataFetchers.LegacyGr
       );
   }
 
+  /**
+   * A future of a list as a future of an iterable, without adding a stage to the future. This is
+   * safe as the future is only read.
+   */
+  @SuppressWarnings("unchecked")
+  private static <T> CompletableFuture<Iterable<T>> asIterable(
+    CompletableFuture<? extends Iterable<T>> future
+  ) {
+    return (CompletableFuture<Iterable<T>>) future;
+  }
+
   private <T> T getValue(
     DataFetchingEnvironment environment,
     Function<StopLocation, T> stopTFunction,
@@ -12,10 +12,12 @@ import java.util.Arrays;
 import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
 import org.locationtech.jts.geom.Geometry;
 import org.locationtech.jts.geom.LineString;
 import org.opentripplanner.api.support.SemanticHash;
+import org.opentripplanner.api.support.TransitDataLoaders;
 import org.opentripplanner.ext.legacygraphqlapi.LegacyGraphQLRequestContext;
 import org.opentripplanner.ext.legacygraphqlapi.LegacyGraphQLUtils;
 import org.opentripplanner.ext.legacygraphqlapi.generated.LegacyGraphQLDataFetchers;
@@ -52,16 +54,23 @@ public class LegacyGraphQLTripImpl implements LegacyGraphQLDataFetchers.LegacyGr
 
   @Override
   public DataFetcher<Iterable<TransitAlert>> alerts() {
-    return environment -> {
+    return LegacyGraphQLUtils.async(environment -> {
       TransitAlertService alertService = getTransitService(environment).getTransitAlertService();
       var args = new LegacyGraphQLTypes.LegacyGraphQLTripAlertsArgs(environment.getArguments());
       Iterable<LegacyGraphQLTypes.LegacyGraphQLTripAlertType> types = args.getLegacyGraphQLTypes();
-      if (types != null) {
+      CompletableFuture<Collection<TransitAlert>> tripAlerts = TransitDataLoaders.tripAlerts(
+        environment,
+        getSource(environment).getId()
+      );
+      return tripAlerts.thenApply(alertsOnTrip -> {
+        if (types == null) {
+          return alertsOnTrip;
+        }
         Collection<TransitAlert> alerts = new ArrayList<>();
         types.forEach(type -> {
           switch (type) {
             case TRIP:
-              alerts.addAll(alertService.getTripAlerts(getSource(environment).getId(), null));
+              alerts.addAll(alertsOnTrip);
               break;
             case AGENCY:
               alerts.addAll(alertService.getAgencyAlerts(getAgency(environment).getId()));
@@ -124,10 +133,8 @@ public class LegacyGraphQLTripImpl implements LegacyGraphQLDataFetchers.LegacyGr
           }
         });
         return alerts.stream().distinct().collect(Collectors.toList());
-      } else {
-        return alertService.getTripAlerts(getSource(environment).getId(), null);
-      }
-    };
+      });
+    });
   }
 
   @Override
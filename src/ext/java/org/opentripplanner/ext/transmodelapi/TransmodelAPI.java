@@ -3,6 +3,7 @@ package org.opentripplanner.ext.transmodelapi;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import graphql.ExecutionResult;
 import graphql.schema.GraphQLSchema;
+import io.micrometer.core.instrument.Metrics;
 import io.micrometer.core.instrument.Tag;
 import java.io.IOException;
 import java.util.ArrayList;
@@ -11,7 +12,6 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.Callable;
-import java.util.concurrent.Future;
 import java.util.stream.Collectors;
 import javax.ws.rs.BadRequestException;
 import javax.ws.rs.Consumes;
@@ -26,12 +26,15 @@ import javax.ws.rs.core.Context;
 import javax.ws.rs.core.HttpHeaders;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
-import org.opentripplanner.api.json.GraphQLResponseSerializer;
+import org.glassfish.grizzly.http.server.Request;
+import org.opentripplanner.api.support.GraphQLQueryExecutor;
+import org.opentripplanner.api.support.PreparsedDocumentCache;
 import org.opentripplanner.ext.transmodelapi.mapping.TransitIdMapper;
 import org.opentripplanner.ext.transmodelapi.support.GqlUtil;
 import org.opentripplanner.routing.api.request.RoutingRequest;
 import org.opentripplanner.standalone.api.OtpServerContext;
 import org.opentripplanner.transit.service.TransitModel;
+import org.opentripplanner.util.OTPFeature;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -47,6 +50,7 @@ public class TransmodelAPI {
 
   private static GraphQLSchema schema;
   private static Collection<String> tracingHeaderTags;
+  private static PreparsedDocumentCache preparsedDocumentCache;
 
   private final OtpServerContext serverContext;
   private final TransmodelGraph index;
@@ -61,7 +65,7 @@ public class TransmodelAPI {
     @Deprecated @PathParam("ignoreRouterId") String ignoreRouterId
   ) {
     this.serverContext = serverContext;
-    this.index = new TransmodelGraph(schema);
+    this.index = new TransmodelGraph(schema, preparsedDocumentCache);
   }
 
   /**
@@ -80,6 +84,10 @@ public class TransmodelAPI {
     tracingHeaderTags = config.tracingHeaderTags();
     GqlUtil gqlUtil = new GqlUtil(transitModel.getTimeZone());
     schema = TransmodelGraphQLSchema.create(defaultRoutingRequest, gqlUtil);
+    preparsedDocumentCache = new PreparsedDocumentCache();
+    if (OTPFeature.ActuatorAPI.isOn()) {
+      preparsedDocumentCache.bindTo(Metrics.globalRegistry, "transmodel");
+    }
   }
 
   /**
@@ -154,7 +162,8 @@ public class TransmodelAPI {
     List<HashMap<String, Object>> queries,
     @HeaderParam("OTPTimeout") @DefaultValue("10000") int timeout,
     @HeaderParam("OTPMaxResolves") @DefaultValue("1000000") int maxResolves,
-    @Context HttpHeaders headers
+    @Context HttpHeaders headers,
+    @Context Request grizzlyRequest
   ) {
     List<Callable<ExecutionResult>> futures = new ArrayList<>();
 
@@ -187,16 +196,16 @@ public class TransmodelAPI {
       );
     }
 
-    try {
-      List<Future<ExecutionResult>> results = index.threadPool.invokeAll(futures);
-      return Response
-        .status(Response.Status.OK)
-        .entity(GraphQLResponseSerializer.serializeBatch(queries, results))
-        .build();
-    } catch (InterruptedException e) {
-      LOG.error("Batch query interrupted", e);
-      throw new RuntimeException(e);
-    }
+    return serverContext
+      .graphQLQueryExecutor()
+      .executeBatch(
+        GraphQLQueryExecutor.clientId(
+          grizzlyRequest,
+          serverContext.routerConfig().trustForwardedFor()
+        ),
+        queries,
+        futures
+      );
   }
 
   private static Iterable<Tag> getTagsFromHeaders(HttpHeaders headers) {
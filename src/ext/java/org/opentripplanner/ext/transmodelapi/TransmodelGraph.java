@@ -1,6 +1,5 @@
 package org.opentripplanner.ext.transmodelapi;
 
-import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import graphql.ExecutionInput;
 import graphql.ExecutionResult;
 import graphql.GraphQL;
@@ -12,10 +11,10 @@ import io.micrometer.core.instrument.Metrics;
 import io.micrometer.core.instrument.Tag;
 import java.util.HashMap;
 import java.util.Map;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 import javax.ws.rs.core.Response;
 import org.opentripplanner.api.json.GraphQLResponseSerializer;
+import org.opentripplanner.api.support.PreparsedDocumentCache;
+import org.opentripplanner.api.support.TransitDataLoaders;
 import org.opentripplanner.ext.actuator.MicrometerGraphQLInstrumentation;
 import org.opentripplanner.routing.RoutingService;
 import org.opentripplanner.standalone.api.OtpServerContext;
@@ -30,14 +29,11 @@ class TransmodelGraph {
 
   private final GraphQLSchema indexSchema;
 
-  final ExecutorService threadPool;
+  private final PreparsedDocumentCache preparsedDocumentCache;
 
-  TransmodelGraph(GraphQLSchema schema) {
-    this.threadPool =
-      Executors.newCachedThreadPool(
-        new ThreadFactoryBuilder().setNameFormat("GraphQLExecutor-%d").build()
-      );
+  TransmodelGraph(GraphQLSchema schema, PreparsedDocumentCache preparsedDocumentCache) {
     this.indexSchema = schema;
+    this.preparsedDocumentCache = preparsedDocumentCache;
   }
 
   ExecutionResult getGraphQLExecutionResult(
@@ -57,7 +53,11 @@ class TransmodelGraph {
         );
     }
 
-    GraphQL graphQL = GraphQL.newGraphQL(indexSchema).instrumentation(instrumentation).build();
+    GraphQL graphQL = GraphQL
+      .newGraphQL(indexSchema)
+      .instrumentation(instrumentation)
+      .preparsedDocumentProvider(preparsedDocumentCache)
+      .build();
 
     if (variables == null) {
       variables = new HashMap<>();
@@ -74,6 +74,7 @@ class TransmodelGraph {
       .query(query)
       .operationName(operationName)
       .context(transmodelRequestContext)
+      .dataLoaderRegistry(TransitDataLoaders.createRegistry(serverContext.transitService()))
       .root(serverContext)
       .variables(variables)
       .build();
@@ -314,10 +314,13 @@ public class QuayType {
                 transitModes,
                 environment
               )
-              .sorted(TripTimeOnDate.compareByDeparture())
-              .distinct()
-              .limit(numberOfDepartures)
-              .collect(Collectors.toList());
+              .thenApply(tripTimes ->
+                tripTimes
+                  .sorted(TripTimeOnDate.compareByDeparture())
+                  .distinct()
+                  .limit(numberOfDepartures)
+                  .collect(Collectors.toList())
+              );
           })
           .build()
       )
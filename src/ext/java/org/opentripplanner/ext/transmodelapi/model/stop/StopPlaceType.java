@@ -22,10 +22,13 @@ import java.util.List;
 import java.util.Locale;
 import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import org.locationtech.jts.geom.Coordinate;
 import org.locationtech.jts.geom.Envelope;
+import org.opentripplanner.api.support.TransitDataLoaders;
+import org.opentripplanner.api.support.TransitDataLoaders.StopTimesKey;
 import org.opentripplanner.ext.transmodelapi.TransmodelGraphQLUtils;
 import org.opentripplanner.ext.transmodelapi.model.EnumTypes;
 import org.opentripplanner.ext.transmodelapi.model.TransmodelTransportSubmode;
@@ -338,10 +341,10 @@ public class StopPlaceType {
               ? Instant.ofEpochMilli(environment.getArgument("startTime"))
               : Instant.now();
 
-            return monoOrMultiModalStation
+            var tripTimesByStop = monoOrMultiModalStation
               .getChildStops()
               .stream()
-              .flatMap(singleStop ->
+              .map(singleStop ->
                 getTripTimesForStop(
                   singleStop,
                   startTime,
@@ -356,17 +359,30 @@ public class StopPlaceType {
                   environment
                 )
               )
-              .sorted(TripTimeOnDate.compareByDeparture())
-              .distinct()
-              .limit(numberOfDepartures)
-              .collect(Collectors.toList());
+              .toList();
+
+            return CompletableFuture
+              .allOf(tripTimesByStop.toArray(CompletableFuture[]::new))
+              .thenApply(ignore ->
+                tripTimesByStop
+                  .stream()
+                  .flatMap(CompletableFuture::join)
+                  .sorted(TripTimeOnDate.compareByDeparture())
+                  .distinct()
+                  .limit(numberOfDepartures)
+                  .collect(Collectors.toList())
+              );
           })
           .build()
       )
       .build();
   }
 
-  public static Stream<TripTimeOnDate> getTripTimesForStop(
+  /**
+   * Load the trip times for the stop. The stop times of all stops on the same level of the query
+   * are looked up in one batch, see {@link TransitDataLoaders}.
+   */
+  public static CompletableFuture<Stream<TripTimeOnDate>> getTripTimesForStop(
     StopLocation stop,
     Instant startTimeSeconds,
     Duration timeRage,
@@ -379,21 +395,43 @@ public class StopPlaceType {
     Collection<TransitMode> transitModes,
     DataFetchingEnvironment environment
   ) {
-    TransitService transitService = GqlUtil.getTransitService(environment);
+    return TransitDataLoaders
+      .stopTimesForStop(
+        environment,
+        new StopTimesKey(
+          stop,
+          startTimeSeconds,
+          timeRage,
+          numberOfDepartures,
+          arrivalDeparture,
+          includeCancelledTrips
+        )
+      )
+      .thenApply(stopTimesInPatterns ->
+        filterTripTimes(
+          stopTimesInPatterns,
+          numberOfDepartures,
+          departuresPerLineAndDestinationDisplay,
+          authorityIdsWhiteListed,
+          lineIdsWhiteListed,
+          transitModes
+        )
+      );
+  }
+
+  private static Stream<TripTimeOnDate> filterTripTimes(
+    List<StopTimesInPattern> stopTimesInPatterns,
+    int numberOfDepartures,
+    Integer departuresPerLineAndDestinationDisplay,
+    Collection<FeedScopedId> authorityIdsWhiteListed,
+    Collection<FeedScopedId> lineIdsWhiteListed,
+    Collection<TransitMode> transitModes
+  ) {
     boolean limitOnDestinationDisplay =
       departuresPerLineAndDestinationDisplay != null &&
       departuresPerLineAndDestinationDisplay > 0 &&
       departuresPerLineAndDestinationDisplay < numberOfDepartures;
 
-    List<StopTimesInPattern> stopTimesInPatterns = transitService.stopTimesForStop(
-      stop,
-      startTimeSeconds,
-      timeRage,
-      numberOfDepartures,
-      arrivalDeparture,
-      includeCancelledTrips
-    );
-
     Stream<StopTimesInPattern> stopTimesStream = stopTimesInPatterns.stream();
 
     if (transitModes != null && !transitModes.isEmpty()) {
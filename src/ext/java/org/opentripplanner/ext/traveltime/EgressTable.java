@@ -0,0 +1,116 @@
+package org.opentripplanner.ext.traveltime;
+
+import java.time.Duration;
+import java.util.List;
+import org.locationtech.jts.geom.Coordinate;
+import org.opentripplanner.ext.traveltime.geometry.ZSampleGrid;
+import org.opentripplanner.ext.traveltime.geometry.ZSamplePoint;
+import org.opentripplanner.routing.algorithm.astar.AStarBuilder;
+import org.opentripplanner.routing.core.RoutingContext;
+import org.opentripplanner.routing.core.State;
+import org.opentripplanner.routing.spt.DominanceFunction;
+import org.opentripplanner.routing.spt.ShortestPathTree;
+
+/**
+ * The walk times from a place, the origin or a stop, to the sample grid points around it. The
+ * sample points are stored as primitive arrays, so propagating the arrival times at the stops to
+ * the grid is a loop over integer arrays.
+ */
+class EgressTable {
+
+  /** The size of each sample point of a table in bytes. */
+  static final int BYTES_PER_POINT = 4 * Integer.BYTES;
+
+  /** The table of a place not linked to the street network. */
+  static final EgressTable EMPTY = new EgressTable(0);
+
+  /** The x index of each sample point in the grid. */
+  final int[] x;
+
+  /** The y index of each sample point in the grid. */
+  final int[] y;
+
+  /** The walk time to each sample point in seconds. */
+  final int[] seconds;
+
+  /** The off-road distance of each sample point in meters, see {@link WTWD#d}. */
+  final int[] offRoadMeters;
+
+  private EgressTable(int size) {
+    this.x = new int[size];
+    this.y = new int[size];
+    this.seconds = new int[size];
+    this.offRoadMeters = new int[size];
+  }
+
+  /**
+   * Search the streets from the initial states and sample the walk times up to the max duration
+   * into a grid centered at the given coordinate.
+   */
+  static EgressTable search(
+    List<State> initialStates,
+    Duration maxDuration,
+    Coordinate center,
+    RoutingContext routingContext,
+    TravelTimeRequest traveltimeRequest
+  ) {
+    var spt = streetSearch(initialStates, maxDuration, routingContext);
+    return of(spt, maxDuration, center, traveltimeRequest);
+  }
+
+  /**
+   * Search the streets from the initial states, up to the max duration.
+   */
+  static ShortestPathTree streetSearch(
+    List<State> initialStates,
+    Duration maxDuration,
+    RoutingContext routingContext
+  ) {
+    return AStarBuilder
+      .allDirectionsMaxDuration(maxDuration)
+      .setContext(routingContext)
+      .setDominanceFunction(new DominanceFunction.EarliestArrival())
+      .setInitialStates(initialStates)
+      .getShortestPathTree();
+  }
+
+  /**
+   * Sample the walk times of the street search up to the max duration into a grid centered at the
+   * given coordinate.
+   */
+  static EgressTable of(
+    ShortestPathTree spt,
+    Duration maxDuration,
+    Coordinate center,
+    TravelTimeRequest traveltimeRequest
+  ) {
+    var sampleGrid = SampleGridRenderer.createSampleGrid(
+      center,
+      spt.getVertexCount(),
+      traveltimeRequest
+    );
+    SampleGridRenderer.sampleSPT(spt, sampleGrid, traveltimeRequest, (int) maxDuration.toSeconds());
+    return of(sampleGrid);
+  }
+
+  /**
+   * Create a table from a sample grid with the walk times from a single place.
+   */
+  static EgressTable of(ZSampleGrid<WTWD> sampleGrid) {
+    EgressTable table = new EgressTable(sampleGrid.size());
+    int i = 0;
+    for (ZSamplePoint<WTWD> point : sampleGrid) {
+      WTWD z = point.getZ();
+      table.x[i] = point.getX();
+      table.y[i] = point.getY();
+      table.seconds[i] = (int) Math.round(z.wTime / z.w);
+      table.offRoadMeters[i] = (int) Math.ceil(z.d);
+      i++;
+    }
+    return table;
+  }
+
+  int size() {
+    return seconds.length;
+  }
+}
@@ -0,0 +1,135 @@
+package org.opentripplanner.ext.traveltime;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.binder.cache.GuavaCacheMetrics;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import org.locationtech.jts.geom.Coordinate;
+import org.opentripplanner.routing.api.request.RoutingRequest;
+import org.opentripplanner.routing.api.request.StreetMode;
+import org.opentripplanner.routing.core.RoutingContext;
+import org.opentripplanner.routing.core.State;
+import org.opentripplanner.routing.graph.Graph;
+import org.opentripplanner.routing.graph.Vertex;
+import org.opentripplanner.standalone.api.OtpServerContext;
+import org.opentripplanner.transit.model.site.Stop;
+import org.opentripplanner.transit.service.TransitService;
+import org.opentripplanner.util.WorldEnvelope;
+
+/**
+ * Cache the egress tables of the stops, the walk times from each stop to the sample grid points
+ * around it. The walk from a stop to the grid does not change between requests, so the streets are
+ * searched once for each stop, the first time the stop is reached, and not for each request.
+ * <p>
+ * The grid of all tables is anchored at the center of the graph, so the tables can be combined
+ * with the table of any origin. The tables are keyed by the stop and the egress mode, and include
+ * the walk up to the max egress duration of the mode, so the same tables are used for all cutoffs.
+ * The other street parameters are the defaults of the server, they can not be changed in the
+ * travel time API. The cache is bounded by the size of the tables, and it is owned by the server
+ * context of the graph, see {@link OtpServerContext#egressTableCache()}.
+ */
+public class EgressTableCache {
+
+  private static final long MAXIMUM_BYTES = 128 * 1024 * 1024;
+
+  /** The approximate size of a cache entry, not counting the points of the table. */
+  private static final int ENTRY_OVERHEAD_BYTES = 96;
+
+  private final Graph graph;
+
+  private final Coordinate center;
+
+  private final Cache<Key, EgressTable> cache;
+
+  public EgressTableCache(Graph graph) {
+    this(graph, MAXIMUM_BYTES);
+  }
+
+  EgressTableCache(Graph graph, long maximumBytes) {
+    this.graph = graph;
+    this.cache =
+      CacheBuilder
+        .newBuilder()
+        .maximumWeight(maximumBytes)
+        .weigher((Key key, EgressTable table) -> weigh(table))
+        .recordStats()
+        .build();
+    WorldEnvelope envelope = graph.getEnvelope();
+    this.center =
+      new Coordinate(
+        (envelope.getLowerLeftLongitude() + envelope.getUpperRightLongitude()) / 2,
+        (envelope.getLowerLeftLatitude() + envelope.getUpperRightLatitude()) / 2
+      );
+  }
+
+  /**
+   * The center of the sample grid of all tables.
+   */
+  Coordinate center() {
+    return center;
+  }
+
+  /**
+   * Get the table of the stop, searching the streets from the stop if it is not cached. The table
+   * of a stop not linked to the street network is empty.
+   */
+  EgressTable get(
+    Stop stop,
+    StreetMode egressMode,
+    RoutingRequest routingRequest,
+    TransitService transitService,
+    TravelTimeRequest traveltimeRequest
+  ) {
+    try {
+      return cache.get(
+        new Key(stop, egressMode),
+        () -> search(stop, egressMode, routingRequest, transitService, traveltimeRequest)
+      );
+    } catch (ExecutionException e) {
+      throw new RuntimeException("Failed to get item from egress table cache", e);
+    }
+  }
+
+  /**
+   * Publish the statistics of the cache, this is done once when the cache is created.
+   */
+  public void bindTo(MeterRegistry registry) {
+    new GuavaCacheMetrics(cache, "egressTableCache", List.of(Tag.of("cache", "egressTables")))
+      .bindTo(registry);
+  }
+
+  /**
+   * The approximate size of the table in the cache in bytes.
+   */
+  static int weigh(EgressTable table) {
+    return table.size() * EgressTable.BYTES_PER_POINT + ENTRY_OVERHEAD_BYTES;
+  }
+
+  private EgressTable search(
+    Stop stop,
+    StreetMode egressMode,
+    RoutingRequest routingRequest,
+    TransitService transitService,
+    TravelTimeRequest traveltimeRequest
+  ) {
+    Vertex vertex = transitService.getStopVertexForStop(stop);
+    if (vertex == null) {
+      return EgressTable.EMPTY;
+    }
+    RoutingRequest streetRequest = routingRequest.getStreetSearchRequest(egressMode);
+    var routingContext = new RoutingContext(streetRequest, graph, Set.of(vertex), null);
+    return EgressTable.search(
+      List.of(new State(vertex, streetRequest, routingContext)),
+      routingRequest.getMaxAccessEgressDuration(egressMode),
+      center,
+      routingContext,
+      traveltimeRequest
+    );
+  }
+
+  private record Key(Stop stop, StreetMode egressMode) {}
+}
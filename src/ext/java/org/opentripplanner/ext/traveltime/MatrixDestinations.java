@@ -0,0 +1,137 @@
+package org.opentripplanner.ext.traveltime;
+
+import gnu.trove.map.hash.TLongIntHashMap;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.locationtech.jts.geom.Coordinate;
+import org.opentripplanner.ext.traveltime.TravelTimeMatrixRequest.Point;
+
+/**
+ * The destinations of a travel time matrix, each snapped to the closest point of the sample grid
+ * of the {@link EgressTable}s. The travel time to a destination is the travel time to its grid
+ * point, so destinations closer than the precision of the grid share the travel time.
+ * <p>
+ * The travel times from an origin are propagated from the tables to the grid points with a
+ * destination only. The grid point of each table point is looked up once for each table, and
+ * shared by all origins. This class is thread-safe, the travel times of each origin are kept in
+ * an array owned by the caller.
+ */
+class MatrixDestinations {
+
+  static final int UNREACHED = -1;
+
+  private static final int NO_CELL = -1;
+
+  private final int maxTravelTimeSeconds;
+
+  /** The index of each grid point with a destination, by the x and y index of the point. */
+  private final TLongIntHashMap cellIndex = new TLongIntHashMap(16, 0.5f, Long.MIN_VALUE, NO_CELL);
+
+  private final int[] cellOfDestination;
+
+  /** The cell of each point of a table, {@link #NO_CELL} if the point has no destination. */
+  private final Map<EgressTable, int[]> cellsByTable = new ConcurrentHashMap<>();
+
+  MatrixDestinations(
+    List<Point> destinations,
+    Coordinate center,
+    TravelTimeRequest traveltimeRequest
+  ) {
+    this.maxTravelTimeSeconds = (int) traveltimeRequest.maxCutoff.toSeconds();
+    Coordinate cellSize = SampleGridRenderer
+      .createSampleGrid(center, 1, traveltimeRequest)
+      .getCellSize();
+    cellOfDestination = new int[destinations.size()];
+    for (int i = 0; i < destinations.size(); i++) {
+      Point destination = destinations.get(i);
+      int x = (int) Math.round((destination.lon() - center.x) / cellSize.x);
+      int y = (int) Math.round((destination.lat() - center.y) / cellSize.y);
+      long key = key(x, y);
+      int cell = cellIndex.get(key);
+      if (cell == NO_CELL) {
+        cell = cellIndex.size();
+        cellIndex.put(key, cell);
+      }
+      cellOfDestination[i] = cell;
+    }
+  }
+
+  /**
+   * Create the travel times of the cells for an origin, all cells are unreached.
+   */
+  int[] newCellTravelTimes() {
+    int[] travelTimes = new int[cellIndex.size()];
+    Arrays.fill(travelTimes, Integer.MAX_VALUE);
+    return travelTimes;
+  }
+
+  /**
+   * Propagate the walk times from the origin to the cells with a destination.
+   */
+  void propagateFromOrigin(int[] cellTravelTimes, EgressTable originTable) {
+    propagate(cellTravelTimes, 0, originTable, cellsOf(originTable));
+  }
+
+  /**
+   * Propagate the travel time to the stop of the table to the cells with a destination. The stop
+   * tables are shared by the origins, so the cells of each table are only looked up once.
+   */
+  void propagateFromStop(int[] cellTravelTimes, int travelTimeSeconds, EgressTable stopTable) {
+    int[] cells = cellsByTable.computeIfAbsent(stopTable, this::cellsOf);
+    propagate(cellTravelTimes, travelTimeSeconds, stopTable, cells);
+  }
+
+  /**
+   * The travel times of an origin which does not reach any destination.
+   */
+  int[] unreachedTravelTimes() {
+    int[] travelTimes = new int[cellOfDestination.length];
+    Arrays.fill(travelTimes, UNREACHED);
+    return travelTimes;
+  }
+
+  /**
+   * The travel time to each destination in seconds, {@link #UNREACHED} if the destination is not
+   * reached within the max cutoff.
+   */
+  int[] destinationTravelTimes(int[] cellTravelTimes) {
+    int[] travelTimes = new int[cellOfDestination.length];
+    for (int i = 0; i < travelTimes.length; i++) {
+      int travelTime = cellTravelTimes[cellOfDestination[i]];
+      travelTimes[i] = travelTime == Integer.MAX_VALUE ? UNREACHED : travelTime;
+    }
+    return travelTimes;
+  }
+
+  private void propagate(
+    int[] cellTravelTimes,
+    int travelTimeSeconds,
+    EgressTable table,
+    int[] cells
+  ) {
+    int[] seconds = table.seconds;
+    for (int i = 0; i < cells.length; i++) {
+      int cell = cells[i];
+      if (cell != NO_CELL) {
+        int travelTime = travelTimeSeconds + seconds[i];
+        if (travelTime <= maxTravelTimeSeconds && travelTime < cellTravelTimes[cell]) {
+          cellTravelTimes[cell] = travelTime;
+        }
+      }
+    }
+  }
+
+  private int[] cellsOf(EgressTable table) {
+    int[] cells = new int[table.size()];
+    for (int i = 0; i < cells.length; i++) {
+      cells[i] = cellIndex.get(key(table.x[i], table.y[i]));
+    }
+    return cells;
+  }
+
+  private static long key(int x, int y) {
+    return ((long) x << 32) | (y & 0xFFFFFFFFL);
+  }
+}
@@ -0,0 +1,83 @@
+package org.opentripplanner.ext.traveltime;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Write the rows of a travel time matrix to the response, one row for each origin in the order of
+ * the origins. The travel times of a row are {@link MatrixDestinations#UNREACHED} for the
+ * destinations not reached.
+ */
+interface MatrixRowWriter {
+  /**
+   * Write the matrix as CSV, with a line for each origin and destination reached. The ids are
+   * quoted as described in RFC 4180 if they contain a comma, a quote or a line break.
+   */
+  static MatrixRowWriter csv(TravelTimeMatrixRequest matrixRequest, OutputStream outputStream)
+    throws IOException {
+    Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+    writer.write("origin,destination,travelTime\n");
+    String[] destinationIds = matrixRequest
+      .destinations()
+      .stream()
+      .map(it -> csvField(it.id()))
+      .toArray(String[]::new);
+    return new MatrixRowWriter() {
+      @Override
+      public void write(int origin, int[] travelTimes) throws IOException {
+        String originId = csvField(matrixRequest.origins().get(origin).id());
+        for (int i = 0; i < travelTimes.length; i++) {
+          if (travelTimes[i] != MatrixDestinations.UNREACHED) {
+            writer.write(originId + "," + destinationIds[i] + "," + travelTimes[i] + "\n");
+          }
+        }
+      }
+
+      @Override
+      public void flush() throws IOException {
+        writer.flush();
+      }
+    };
+  }
+
+  /**
+   * Write the matrix as big-endian ints: the number of origins and destinations, followed by the
+   * travel times of each origin.
+   */
+  static MatrixRowWriter binary(TravelTimeMatrixRequest matrixRequest, OutputStream outputStream)
+    throws IOException {
+    var data = new DataOutputStream(new BufferedOutputStream(outputStream));
+    data.writeInt(matrixRequest.origins().size());
+    data.writeInt(matrixRequest.destinations().size());
+    return new MatrixRowWriter() {
+      @Override
+      public void write(int origin, int[] travelTimes) throws IOException {
+        for (int travelTime : travelTimes) {
+          data.writeInt(travelTime);
+        }
+      }
+
+      @Override
+      public void flush() throws IOException {
+        data.flush();
+      }
+    };
+  }
+
+  private static String csvField(String value) {
+    if (value.chars().noneMatch(c -> c == ',' || c == '"' || c == '\r' || c == '\n')) {
+      return value;
+    }
+    return '"' + value.replace("\"", "\"\"") + '"';
+  }
+
+  void write(int origin, int[] travelTimes) throws IOException;
+
+  void flush() throws IOException;
+}
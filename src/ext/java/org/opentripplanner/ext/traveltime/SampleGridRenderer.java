@@ -9,49 +9,47 @@ import org.opentripplanner.ext.traveltime.geometry.ZSampleGrid;
 import org.opentripplanner.ext.traveltime.spt.SPTVisitor;
 import org.opentripplanner.ext.traveltime.spt.SPTWalker;
 import org.opentripplanner.routing.spt.ShortestPathTree;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 
 public class SampleGridRenderer {
 
-  private static final Logger LOG = LoggerFactory.getLogger(SampleGridRenderer.class);
+  /** The off-road walk speed in m/s. */
+  private static final double OFF_ROAD_WALK_SPEED_MPS = 1.00;
 
-  public static ZSampleGrid<WTWD> getSampleGrid(
-    ShortestPathTree spt,
+  /**
+   * Create an empty sample grid centered at the given coordinate, with the cell size given by the
+   * precision of the request.
+   */
+  static SparseMatrixZSampleGrid<WTWD> createSampleGrid(
+    Coordinate center,
+    int totalSize,
     TravelTimeRequest traveltimeRequest
   ) {
-    final double offRoadDistanceMeters = traveltimeRequest.offRoadDistanceMeters;
-    final double offRoadWalkSpeedMps = 1.00; // m/s, off-road walk speed
-
-    // Create a sample grid based on the SPT.
-    long t1 = System.currentTimeMillis();
-    Coordinate coordinateOrigin = spt.getAllStates().iterator().next().getVertex().getCoordinate();
     final double gridSizeMeters = traveltimeRequest.precisionMeters;
-    final double cosLat = Math.cos(Math.toRadians(coordinateOrigin.y));
+    final double cosLat = Math.cos(Math.toRadians(center.y));
     double dY = Math.toDegrees(gridSizeMeters / SphericalDistanceLibrary.RADIUS_OF_EARTH_IN_M);
     double dX = dY / cosLat;
+    return new SparseMatrixZSampleGrid<>(16, totalSize, dX, dY, center);
+  }
 
-    SparseMatrixZSampleGrid<WTWD> sampleGrid = new SparseMatrixZSampleGrid<>(
-      16,
-      spt.getVertexCount(),
-      dX,
-      dY,
-      coordinateOrigin
-    );
+  /**
+   * Sample a SPT into a sample grid created by {@link #createSampleGrid}, the walk times above
+   * {@code maxTimeSec} are not sampled.
+   */
+  static void sampleSPT(
+    ShortestPathTree spt,
+    ZSampleGrid<WTWD> sampleGrid,
+    TravelTimeRequest traveltimeRequest,
+    int maxTimeSec
+  ) {
     sampleSPT(
       spt,
       sampleGrid,
-      gridSizeMeters,
-      offRoadDistanceMeters,
-      offRoadWalkSpeedMps,
-      (int) traveltimeRequest.maxCutoff.getSeconds(),
-      cosLat
+      traveltimeRequest.precisionMeters,
+      traveltimeRequest.offRoadDistanceMeters,
+      OFF_ROAD_WALK_SPEED_MPS,
+      maxTimeSec,
+      Math.cos(Math.toRadians(sampleGrid.getCenter().y))
     );
-
-    long t2 = System.currentTimeMillis();
-    LOG.info("Computed sampling in {}msec", (int) (t2 - t1));
-
-    return sampleGrid;
   }
 
   /**
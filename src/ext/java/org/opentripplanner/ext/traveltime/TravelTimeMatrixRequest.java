@@ -0,0 +1,13 @@
+package org.opentripplanner.ext.traveltime;
+
+import java.util.List;
+
+/**
+ * The origins and destinations of a travel time matrix, posted as JSON to the matrix API.
+ */
+public record TravelTimeMatrixRequest(List<Point> origins, List<Point> destinations) {
+  /**
+   * An origin or a destination of the matrix, the id is used in the CSV output.
+   */
+  public record Point(String id, double lat, double lon) {}
+}
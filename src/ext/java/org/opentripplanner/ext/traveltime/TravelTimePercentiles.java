@@ -0,0 +1,135 @@
+package org.opentripplanner.ext.traveltime;
+
+import gnu.trove.list.array.TIntArrayList;
+import gnu.trove.map.hash.TLongIntHashMap;
+import java.util.Arrays;
+import java.util.List;
+import org.locationtech.jts.geom.Coordinate;
+import org.opentripplanner.ext.traveltime.geometry.ZSampleGrid;
+
+/**
+ * The travel times to the sample grid points for each departure minute in a departure window. The
+ * travel times are summarized as the minimum, median and maximum travel time of each point.
+ * <p>
+ * The travel time to a point for a departure minute is the shortest of the walk time from the
+ * origin, and the travel time to each stop reached for the minute plus the walk time from the stop
+ * to the point. The points reached from each place are listed in an {@link EgressTable}, so the
+ * propagation is a min-plus over integer arrays.
+ */
+class TravelTimePercentiles {
+
+  enum Statistic {
+    MIN,
+    MEDIAN,
+    MAX,
+  }
+
+  private static final int UNREACHED = Integer.MAX_VALUE;
+
+  private final int nMinutes;
+  private final int maxTravelTimeSeconds;
+
+  /** The index of each sample point, by the x and y index of the point. */
+  private final TLongIntHashMap pointIndex = new TLongIntHashMap();
+  private final TIntArrayList xs = new TIntArrayList();
+  private final TIntArrayList ys = new TIntArrayList();
+  private final TIntArrayList offRoadMeters = new TIntArrayList();
+
+  /** The travel times of each point, one for each minute. Indexed by point * nMinutes + minute. */
+  private int[] travelTimes = new int[0];
+
+  TravelTimePercentiles(int nMinutes, int maxTravelTimeSeconds) {
+    this.nMinutes = nMinutes;
+    this.maxTravelTimeSeconds = maxTravelTimeSeconds;
+  }
+
+  /**
+   * Add the points of the table, this must be done for all tables before the travel times are
+   * propagated.
+   *
+   * @return the index of each point of the table, used to propagate the travel times.
+   */
+  int[] addPoints(EgressTable table) {
+    int[] points = new int[table.size()];
+    for (int i = 0; i < table.size(); i++) {
+      long key = ((long) table.x[i] << 32) | (table.y[i] & 0xFFFFFFFFL);
+      int point;
+      if (pointIndex.containsKey(key)) {
+        point = pointIndex.get(key);
+        offRoadMeters.set(point, Math.min(offRoadMeters.get(point), table.offRoadMeters[i]));
+      } else {
+        point = xs.size();
+        pointIndex.put(key, point);
+        xs.add(table.x[i]);
+        ys.add(table.y[i]);
+        offRoadMeters.add(table.offRoadMeters[i]);
+      }
+      points[i] = point;
+    }
+    return points;
+  }
+
+  /**
+   * Propagate the travel time to the place of the table for the given minute to the points of
+   * the table.
+   *
+   * @param points the index of each point of the table returned by {@link #addPoints}.
+   */
+  void propagate(int minute, int travelTimeSeconds, EgressTable table, int[] points) {
+    allocateTravelTimes();
+    int[] seconds = table.seconds;
+    for (int i = 0; i < seconds.length; i++) {
+      int travelTime = travelTimeSeconds + seconds[i];
+      int index = points[i] * nMinutes + minute;
+      if (travelTime <= maxTravelTimeSeconds && travelTime < travelTimes[index]) {
+        travelTimes[index] = travelTime;
+      }
+    }
+  }
+
+  /**
+   * Create a sample grid for each statistic, with the same points in each grid. A point not
+   * reached for the statistic is given a travel time above the max travel time, so the isolines
+   * are closed around the reached points.
+   */
+  List<ZSampleGrid<WTWD>> sampleGrids(
+    Coordinate center,
+    TravelTimeRequest traveltimeRequest,
+    List<Statistic> statistics
+  ) {
+    allocateTravelTimes();
+    List<ZSampleGrid<WTWD>> grids = statistics
+      .stream()
+      .<ZSampleGrid<WTWD>>map(it ->
+        SampleGridRenderer.createSampleGrid(center, xs.size(), traveltimeRequest)
+      )
+      .toList();
+
+    int[] sorted = new int[nMinutes];
+    for (int point = 0; point < xs.size(); point++) {
+      System.arraycopy(travelTimes, point * nMinutes, sorted, 0, nMinutes);
+      Arrays.sort(sorted);
+      for (int i = 0; i < statistics.size(); i++) {
+        int travelTime =
+          switch (statistics.get(i)) {
+            case MIN -> sorted[0];
+            case MEDIAN -> sorted[nMinutes / 2];
+            case MAX -> sorted[nMinutes - 1];
+          };
+        WTWD z = new WTWD();
+        z.w = 1.0;
+        z.wTime = travelTime == UNREACHED ? maxTravelTimeSeconds + 1 : travelTime;
+        z.d = offRoadMeters.get(point);
+        grids.get(i).getOrCreate(xs.get(point), ys.get(point)).setZ(z);
+      }
+    }
+    return grids;
+  }
+
+  private void allocateTravelTimes() {
+    if (travelTimes.length != xs.size() * nMinutes) {
+      travelTimes = new int[xs.size() * nMinutes];
+      Arrays.fill(travelTimes, UNREACHED);
+    }
+  }
+}
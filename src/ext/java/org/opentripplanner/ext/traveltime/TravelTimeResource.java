@@ -2,19 +2,32 @@ package org.opentripplanner.ext.traveltime;
 
 import static javax.imageio.ImageWriteParam.MODE_EXPLICIT;
 
+import gnu.trove.list.array.TIntArrayList;
 import java.awt.image.DataBuffer;
+import java.io.IOException;
+import java.time.Duration;
 import java.time.Instant;
 import java.time.LocalDate;
 import java.time.Period;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
 import java.time.temporal.ChronoUnit;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Deque;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 import javax.media.jai.RasterFactory;
+import javax.ws.rs.BadRequestException;
+import javax.ws.rs.Consumes;
 import javax.ws.rs.DefaultValue;
 import javax.ws.rs.GET;
+import javax.ws.rs.POST;
 import javax.ws.rs.Path;
 import javax.ws.rs.Produces;
 import javax.ws.rs.QueryParam;
@@ -45,8 +58,10 @@ import org.opengis.parameter.GeneralParameterValue;
 import org.opengis.parameter.ParameterValueGroup;
 import org.opentripplanner.api.common.LocationStringParser;
 import org.opentripplanner.api.parameter.QualifiedModeSet;
+import org.opentripplanner.ext.traveltime.TravelTimeMatrixRequest.Point;
+import org.opentripplanner.ext.traveltime.TravelTimePercentiles.Statistic;
 import org.opentripplanner.ext.traveltime.geometry.ZSampleGrid;
-import org.opentripplanner.routing.algorithm.astar.AStarBuilder;
+import org.opentripplanner.model.GenericLocation;
 import org.opentripplanner.routing.algorithm.raptoradapter.router.street.AccessEgressRouter;
 import org.opentripplanner.routing.algorithm.raptoradapter.transit.AccessEgress;
 import org.opentripplanner.routing.algorithm.raptoradapter.transit.Transfer;
@@ -60,10 +75,11 @@ import org.opentripplanner.routing.core.RoutingContext;
 import org.opentripplanner.routing.core.State;
 import org.opentripplanner.routing.core.StateData;
 import org.opentripplanner.routing.core.TemporaryVerticesContainer;
+import org.opentripplanner.routing.error.RoutingValidationException;
 import org.opentripplanner.routing.graph.Graph;
 import org.opentripplanner.routing.graph.Vertex;
 import org.opentripplanner.routing.graphfinder.NearbyStop;
-import org.opentripplanner.routing.spt.DominanceFunction;
+import org.opentripplanner.routing.vertextype.TransitStopVertex;
 import org.opentripplanner.standalone.api.OtpServerContext;
 import org.opentripplanner.transit.model.site.Stop;
 import org.opentripplanner.transit.model.site.StopLocation;
@@ -71,18 +87,30 @@ import org.opentripplanner.transit.raptor.RaptorService;
 import org.opentripplanner.transit.raptor.api.request.RaptorProfile;
 import org.opentripplanner.transit.raptor.api.request.RaptorRequest;
 import org.opentripplanner.transit.raptor.api.request.RaptorRequestBuilder;
-import org.opentripplanner.transit.raptor.api.response.RaptorResponse;
-import org.opentripplanner.transit.raptor.api.response.StopArrivals;
+import org.opentripplanner.transit.raptor.api.response.StopArrivalsIterationListener;
 import org.opentripplanner.transit.raptor.api.transit.RaptorTransfer;
 import org.opentripplanner.transit.service.TransitService;
 import org.opentripplanner.util.time.DurationUtils;
 import org.opentripplanner.util.time.ServiceDateUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 @Path("/traveltime")
 public class TravelTimeResource {
 
+  private static final Logger LOG = LoggerFactory.getLogger(TravelTimeResource.class);
+
   private static final SimpleFeatureType contourSchema = makeContourSchema();
 
+  /**
+   * The max number of origins of a matrix routed ahead of the origin written, this bounds the
+   * rows kept in memory and the tasks queued on the Raptor thread pool.
+   */
+  private static final int MAX_ORIGINS_IN_FLIGHT = 32;
+
+  /** The max number of origin-destination pairs of a matrix. */
+  static final long MAX_MATRIX_SIZE = 10_000_000;
+
   private final RoutingRequest routingRequest;
   private final TransitLayer transitLayer;
   private final RaptorRoutingRequestTransitData requestTransitDataProvider;
@@ -91,22 +119,31 @@ public class TravelTimeResource {
   private final ZonedDateTime startOfTime;
   private final TravelTimeRequest traveltimeRequest;
   private final RaptorService<TripSchedule> raptorService;
+  private final ExecutorService threadPool;
   private final Graph graph;
   private final TransitService transitService;
+  private final EgressTableCache egressTableCache;
+
+  /** The departure window of a search for each departure minute, {@code null} for one departure. */
+  private final Duration departureWindow;
 
   public TravelTimeResource(
     @Context OtpServerContext serverContext,
     @QueryParam("location") String location,
     @QueryParam("time") String time,
     @QueryParam("cutoff") @DefaultValue("60m") List<String> cutoffs,
-    @QueryParam("modes") String modes
+    @QueryParam("modes") String modes,
+    @QueryParam("window") String window
   ) {
     transitLayer = serverContext.transitService().getRealtimeTransitLayer();
     this.graph = serverContext.graph();
     this.transitService = serverContext.transitService();
+    this.egressTableCache = serverContext.egressTableCache();
     ZoneId zoneId = transitLayer.getTransitDataZoneId();
     routingRequest = serverContext.defaultRoutingRequest();
-    routingRequest.from = LocationStringParser.fromOldStyleString(location);
+    if (location != null) {
+      routingRequest.from = LocationStringParser.fromOldStyleString(location);
+    }
     if (modes != null) {
       routingRequest.modes = new QualifiedModeSet(modes).getRequestModes();
     }
@@ -115,6 +152,7 @@ public class TravelTimeResource {
         cutoffs.stream().map(DurationUtils::duration).toList(),
         routingRequest.getMaxAccessEgressDuration(routingRequest.modes.accessMode)
       );
+    departureWindow = window == null ? null : DurationUtils.duration(window);
 
     if (time != null) {
       startTime = Instant.parse(time);
@@ -122,7 +160,10 @@ public class TravelTimeResource {
       startTime = Instant.now();
     }
 
-    endTime = startTime.plus(traveltimeRequest.maxCutoff);
+    endTime =
+      departureWindow == null
+        ? startTime.plus(traveltimeRequest.maxCutoff)
+        : startTime.plus(departureWindow).plus(traveltimeRequest.maxCutoff);
 
     LocalDate startDate = LocalDate.ofInstant(startTime, zoneId);
     LocalDate endDate = LocalDate.ofInstant(endTime, zoneId);
@@ -142,13 +183,14 @@ public class TravelTimeResource {
       );
 
     raptorService = new RaptorService<>(serverContext.raptorConfig());
+    threadPool = serverContext.raptorConfig().threadPool();
   }
 
   @GET
   @Path("/isochrone")
   @Produces(MediaType.APPLICATION_JSON)
   public Response getIsochrones() {
-    ZSampleGrid<WTWD> sampleGrid = getSampleGrid();
+    ZSampleGrid<WTWD> sampleGrid = getSampleGrids(List.of(Statistic.MEDIAN)).get(0);
 
     var isochrones = IsochroneRenderer.renderIsochrones(sampleGrid, traveltimeRequest);
 
@@ -167,7 +209,12 @@ public class TravelTimeResource {
   @Path("/surface")
   @Produces("image/tiff")
   public Response getSurface() {
-    ZSampleGrid<WTWD> sampleGrid = getSampleGrid();
+    // One band for each statistic of a departure window, the grids have the same sample points
+    List<ZSampleGrid<WTWD>> sampleGrids = getSampleGrids(
+      departureWindow == null ? List.of(Statistic.MEDIAN) : List.of(Statistic.values())
+    );
+    int noDataAbove = (int) traveltimeRequest.maxCutoff.toSeconds();
+    ZSampleGrid<WTWD> sampleGrid = sampleGrids.get(0);
 
     int minX = sampleGrid.getXMin();
     int minY = sampleGrid.getYMin();
@@ -181,17 +228,30 @@ public class TravelTimeResource {
     double resX = sampleGrid.getCellSize().x;
     double resY = sampleGrid.getCellSize().y;
 
-    var raster = RasterFactory.createBandedRaster(DataBuffer.TYPE_INT, width, height, 1, null);
+    var raster = RasterFactory.createBandedRaster(
+      DataBuffer.TYPE_INT,
+      width,
+      height,
+      sampleGrids.size(),
+      null
+    );
     var dataBuffer = raster.getDataBuffer();
 
     // Initialize with NO DATA value
-    for (int i = 0; i < dataBuffer.getSize(); i++) {
-      dataBuffer.setElem(i, Integer.MIN_VALUE);
+    for (int band = 0; band < sampleGrids.size(); band++) {
+      for (int i = 0; i < dataBuffer.getSize(); i++) {
+        dataBuffer.setElem(band, i, Integer.MIN_VALUE);
+      }
     }
 
-    for (var s : sampleGrid) {
-      final WTWD z = s.getZ();
-      raster.setSample(s.getX() - minX, maxY - s.getY(), 0, z.wTime / z.w);
+    for (int band = 0; band < sampleGrids.size(); band++) {
+      for (var s : sampleGrids.get(band)) {
+        final WTWD z = s.getZ();
+        int travelTime = (int) (z.wTime / z.w);
+        if (travelTime <= noDataAbove) {
+          raster.setSample(s.getX() - minX, maxY - s.getY(), band, travelTime);
+        }
+      }
     }
 
     Envelope2D geom = new GridGeometry2D(
@@ -217,7 +277,35 @@ public class TravelTimeResource {
     return Response.ok().entity(streamingOutput).build();
   }
 
-  private ZSampleGrid<WTWD> getSampleGrid() {
+  @POST
+  @Path("/matrix.csv")
+  @Consumes(MediaType.APPLICATION_JSON)
+  @Produces("text/csv")
+  public Response getMatrixAsCsv(TravelTimeMatrixRequest matrixRequest) {
+    validate(matrixRequest);
+    StreamingOutput out = outputStream ->
+      routeMatrix(matrixRequest, MatrixRowWriter.csv(matrixRequest, outputStream));
+    return Response.ok().entity(out).build();
+  }
+
+  @POST
+  @Path("/matrix.bin")
+  @Consumes(MediaType.APPLICATION_JSON)
+  @Produces(MediaType.APPLICATION_OCTET_STREAM)
+  public Response getMatrixAsBinary(TravelTimeMatrixRequest matrixRequest) {
+    validate(matrixRequest);
+    StreamingOutput out = outputStream ->
+      routeMatrix(matrixRequest, MatrixRowWriter.binary(matrixRequest, outputStream));
+    return Response.ok().entity(out).build();
+  }
+
+  /**
+   * Search for each departure minute in the departure window using range Raptor, or for the
+   * departure time if there is no window, and propagate the travel times to the stops to the
+   * sample grid for each minute. The walk from each stop to the grid is taken from the {@link
+   * EgressTableCache}, only the walk from the origin is searched for each request.
+   */
+  private List<ZSampleGrid<WTWD>> getSampleGrids(List<Statistic> statistics) {
     final RoutingRequest accessRequest = routingRequest.clone();
 
     accessRequest.maxAccessEgressDuration = traveltimeRequest.maxAccessDuration;
@@ -225,21 +313,225 @@ public class TravelTimeResource {
     try (var temporaryVertices = new TemporaryVerticesContainer(graph, accessRequest)) {
       final Collection<AccessEgress> accessList = getAccess(accessRequest, temporaryVertices);
 
-      var arrivals = route(accessList).getArrivals();
+      // The travel time to the stops reached by transit for each departure minute
+      List<TIntArrayList> stopsByMinute = new ArrayList<>();
+      List<TIntArrayList> travelTimesByMinute = new ArrayList<>();
+      int nStops = transitLayer.getStopIndex().size();
+      routeEachMinute(
+        accessList,
+        (departureTime, arrivals) -> {
+          var stops = new TIntArrayList();
+          var travelTimes = new TIntArrayList();
+          for (int i = 0; i < nStops; i++) {
+            if (arrivals.reachedByTransit(i)) {
+              stops.add(i);
+              travelTimes.add(arrivals.bestTransitArrivalTime(i) - departureTime);
+            }
+          }
+          stopsByMinute.add(stops);
+          travelTimesByMinute.add(travelTimes);
+        }
+      );
 
       RoutingContext routingContext = new RoutingContext(routingRequest, graph, temporaryVertices);
+      StateData stateData = StateData.getInitialStateData(routingRequest);
+      Coordinate center = egressTableCache.center();
+
+      var percentiles = new TravelTimePercentiles(
+        stopsByMinute.size(),
+        (int) traveltimeRequest.maxCutoff.toSeconds()
+      );
 
-      var spt = AStarBuilder
-        .allDirectionsMaxDuration(traveltimeRequest.maxCutoff)
-        .setContext(routingContext)
-        .setDominanceFunction(new DominanceFunction.EarliestArrival())
-        .setInitialStates(getInitialStates(arrivals, temporaryVertices, routingContext))
-        .getShortestPathTree();
+      // The walk directly from the origin is the same for all departure minutes
+      List<State> originStates = new ArrayList<>();
+      for (var vertex : temporaryVertices.getFromVertices()) {
+        originStates.add(new State(vertex, startTime, routingContext, stateData));
+      }
+      EgressTable originTable = EgressTable.search(
+        originStates,
+        traveltimeRequest.maxCutoff,
+        center,
+        routingContext,
+        traveltimeRequest
+      );
+      int[] originPoints = percentiles.addPoints(originTable);
+
+      Map<Integer, EgressTable> stopTables = new HashMap<>();
+      Map<Integer, int[]> stopPoints = new HashMap<>();
+      for (TIntArrayList stops : stopsByMinute) {
+        stops.forEach(stopIndex -> {
+          if (!stopTables.containsKey(stopIndex)) {
+            EgressTable table = stopEgressTable(stopIndex, egressTableCache);
+            stopTables.put(stopIndex, table);
+            stopPoints.put(stopIndex, percentiles.addPoints(table));
+          }
+          return true;
+        });
+      }
+
+      for (int minute = 0; minute < stopsByMinute.size(); minute++) {
+        percentiles.propagate(minute, 0, originTable, originPoints);
+        TIntArrayList stops = stopsByMinute.get(minute);
+        TIntArrayList travelTimes = travelTimesByMinute.get(minute);
+        for (int i = 0; i < stops.size(); i++) {
+          int stopIndex = stops.get(i);
+          EgressTable table = stopTables.get(stopIndex);
+          percentiles.propagate(minute, travelTimes.get(i), table, stopPoints.get(stopIndex));
+        }
+      }
 
-      return SampleGridRenderer.getSampleGrid(spt, traveltimeRequest);
+      return percentiles.sampleGrids(center, traveltimeRequest, statistics);
     }
   }
 
+  private void validate(TravelTimeMatrixRequest matrixRequest) {
+    if (matrixRequest == null || matrixRequest.origins() == null) {
+      throw new BadRequestException("The origins of the matrix are missing");
+    }
+    if (matrixRequest.destinations() == null) {
+      throw new BadRequestException("The destinations of the matrix are missing");
+    }
+    if (departureWindow != null) {
+      throw new BadRequestException("A departure window is not supported for a matrix");
+    }
+    long size = (long) matrixRequest.origins().size() * matrixRequest.destinations().size();
+    if (size > MAX_MATRIX_SIZE) {
+      throw new BadRequestException(
+        "The matrix has " + size + " origin-destination pairs, the max is " + MAX_MATRIX_SIZE
+      );
+    }
+  }
+
+  /**
+   * Route from each origin of the matrix, in parallel on the Raptor thread pool if Raptor is
+   * multi-threaded. The rows are written in the order of the origins. The response is already
+   * being written, so an origin which can not be routed gets a row with all destinations
+   * unreached instead of failing the response.
+   */
+  private void routeMatrix(TravelTimeMatrixRequest matrixRequest, MatrixRowWriter rowWriter)
+    throws IOException {
+    var destinations = new MatrixDestinations(
+      matrixRequest.destinations(),
+      egressTableCache.center(),
+      traveltimeRequest
+    );
+    List<Point> origins = matrixRequest.origins();
+
+    if (threadPool == null) {
+      for (int i = 0; i < origins.size(); i++) {
+        rowWriter.write(i, travelTimesFromOrigin(origins.get(i), destinations, egressTableCache));
+      }
+      rowWriter.flush();
+      return;
+    }
+
+    Deque<Future<int[]>> pending = new ArrayDeque<>();
+    try {
+      int next = 0;
+      for (int i = 0; i < origins.size(); i++) {
+        while (next < origins.size() && pending.size() < MAX_ORIGINS_IN_FLIGHT) {
+          Point origin = origins.get(next++);
+          pending.add(
+            threadPool.submit(() -> travelTimesFromOrigin(origin, destinations, egressTableCache))
+          );
+        }
+        rowWriter.write(i, pending.poll().get());
+      }
+      rowWriter.flush();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new RuntimeException("Interrupted while routing the matrix", e);
+    } catch (ExecutionException e) {
+      throw new RuntimeException("Failed to route an origin of the matrix", e.getCause());
+    } finally {
+      pending.forEach(it -> it.cancel(true));
+    }
+  }
+
+  /**
+   * The travel time from the origin to each destination. A single street search from the origin
+   * finds both the access to the stops and the travel time without transit.
+   */
+  private int[] travelTimesFromOrigin(
+    Point origin,
+    MatrixDestinations destinations,
+    EgressTableCache egressTableCache
+  ) {
+    RoutingRequest originRequest = routingRequest.getStreetSearchRequest(
+      routingRequest.modes.accessMode
+    );
+    originRequest.from = new GenericLocation(origin.lat(), origin.lon());
+
+    try (var temporaryVertices = new TemporaryVerticesContainer(graph, originRequest)) {
+      RoutingContext routingContext = new RoutingContext(originRequest, graph, temporaryVertices);
+      StateData stateData = StateData.getInitialStateData(originRequest);
+      List<State> originStates = new ArrayList<>();
+      for (var vertex : temporaryVertices.getFromVertices()) {
+        originStates.add(new State(vertex, startTime, routingContext, stateData));
+      }
+      var spt = EgressTable.streetSearch(originStates, traveltimeRequest.maxCutoff, routingContext);
+
+      long maxAccessSeconds = traveltimeRequest.maxAccessDuration.toSeconds();
+      List<NearbyStop> accessStops = new ArrayList<>();
+      for (State state : spt.getAllStates()) {
+        if (
+          state.getVertex() instanceof TransitStopVertex stopVertex &&
+          state.isFinal() &&
+          state.getElapsedTimeSeconds() <= maxAccessSeconds
+        ) {
+          accessStops.add(NearbyStop.nearbyStopForState(state, stopVertex.getStop()));
+        }
+      }
+      var accessList = new AccessEgressMapper(transitLayer.getStopIndex())
+        .mapNearbyStops(accessStops, false);
+
+      int[] cellTravelTimes = destinations.newCellTravelTimes();
+      EgressTable originTable = EgressTable.of(
+        spt,
+        traveltimeRequest.maxCutoff,
+        egressTableCache.center(),
+        traveltimeRequest
+      );
+      destinations.propagateFromOrigin(cellTravelTimes, originTable);
+
+      int nStops = transitLayer.getStopIndex().size();
+      routeEachMinute(
+        accessList,
+        (departureTime, arrivals) -> {
+          for (int i = 0; i < nStops; i++) {
+            if (arrivals.reachedByTransit(i)) {
+              int travelTime = arrivals.bestTransitArrivalTime(i) - departureTime;
+              EgressTable table = stopEgressTable(i, egressTableCache);
+              destinations.propagateFromStop(cellTravelTimes, travelTime, table);
+            }
+          }
+        }
+      );
+      return destinations.destinationTravelTimes(cellTravelTimes);
+    } catch (RoutingValidationException e) {
+      LOG.debug("The matrix origin {} could not be routed: {}", origin.id(), e.getMessage());
+      return destinations.unreachedTravelTimes();
+    }
+  }
+
+  /**
+   * The walk times from the stop to the sample grid, the table is empty if the stop is not linked
+   * to the street network.
+   */
+  private EgressTable stopEgressTable(int stopIndex, EgressTableCache egressTableCache) {
+    StopLocation stopLocation = transitLayer.getStopIndex().stopByIndex(stopIndex);
+    if (stopLocation instanceof Stop stop) {
+      return egressTableCache.get(
+        stop,
+        routingRequest.modes.egressMode,
+        routingRequest,
+        transitService,
+        traveltimeRequest
+      );
+    }
+    return EgressTable.EMPTY;
+  }
+
   private Collection<AccessEgress> getAccess(
     RoutingRequest accessRequest,
     TemporaryVerticesContainer temporaryVertices
@@ -253,53 +545,28 @@ public class TravelTimeResource {
     return new AccessEgressMapper(transitLayer.getStopIndex()).mapNearbyStops(accessStops, false);
   }
 
-  private List<State> getInitialStates(
-    StopArrivals arrivals,
-    TemporaryVerticesContainer temporaryVertices,
-    RoutingContext routingContext
+  /**
+   * Run a range Raptor search over the departure window, the listener is notified with the stop
+   * arrivals for each departure minute. Without a departure window only the departure time is
+   * searched.
+   */
+  private void routeEachMinute(
+    Collection<? extends RaptorTransfer> accessList,
+    StopArrivalsIterationListener listener
   ) {
-    List<State> initialStates = new ArrayList<>();
-
-    StateData stateData = StateData.getInitialStateData(routingRequest);
-
-    for (var vertex : temporaryVertices.getFromVertices()) {
-      initialStates.add(new State(vertex, startTime, routingContext, stateData));
-    }
-
-    for (int i = 0; i < transitLayer.getStopIndex().size(); i++) {
-      if (arrivals.reachedByTransit(i)) {
-        final int arrivalTime = arrivals.bestTransitArrivalTime(i);
-        StopLocation stopLocation = transitLayer.getStopIndex().stopByIndex(i);
-        if (stopLocation instanceof Stop stop) {
-          Vertex v = transitService.getStopVertexForStop(stop);
-          if (v != null) {
-            Instant time = startOfTime.plusSeconds(arrivalTime).toInstant();
-            State s = new State(v, time, routingContext, stateData.clone());
-            s.weight = startTime.until(time, ChronoUnit.SECONDS);
-            // TODO: This shouldn't be overridden in state initialization
-            s.stateData.startTime = stateData.startTime;
-            initialStates.add(s);
-          }
-        }
-      }
-    }
-    return initialStates;
-  }
-
-  private RaptorResponse<TripSchedule> route(Collection<? extends RaptorTransfer> accessList) {
     final RaptorRequest<TripSchedule> request = new RaptorRequestBuilder<TripSchedule>()
       .profile(RaptorProfile.BEST_TIME)
       .searchParams()
       .earliestDepartureTime(ServiceDateUtils.secondsSinceStartOfTime(startOfTime, startTime))
       .latestArrivalTime(ServiceDateUtils.secondsSinceStartOfTime(startOfTime, endTime))
+      .searchWindow(departureWindow == null ? Duration.ZERO : departureWindow)
       .addAccessPaths(accessList)
-      .searchOneIterationOnly()
       .timetableEnabled(false)
       .allowEmptyEgressPaths(true)
       .constrainedTransfersEnabled(false) // TODO: Not compatible with best times
       .build();
 
-    return raptorService.route(request, requestTransitDataProvider);
+    raptorService.routeEachIteration(request, requestTransitDataProvider, listener);
   }
 
   static SimpleFeatureType makeContourSchema() {
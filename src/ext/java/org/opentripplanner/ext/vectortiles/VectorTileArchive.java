@@ -0,0 +1,244 @@
+package org.opentripplanner.ext.vectortiles;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+
+/**
+ * A file with pre-rendered encoded vector tile layers, indexed by the layer, zoom level and tile
+ * coordinates. The file is memory mapped when it is read, so the tiles are kept in the OS page
+ * cache and not loaded onto the JVM heap.
+ * <p>
+ * The file starts with a header listing the layers, each with its zoom levels and the encoding of
+ * the empty layer. The header is followed by the index of the tiles, sorted by the key, and the
+ * encoded tiles. Only the tiles with features are stored, a tile within the zoom levels of a layer
+ * which is not in the index is the empty layer.
+ * <p>
+ * The graph build time is stored in the header, an archive rendered from another graph is not
+ * used. The type, mapper and expansion factor of each layer are stored with it, so a layer can be
+ * ignored if it is configured differently when it is served.
+ */
+class VectorTileArchive {
+
+  private static final int MAGIC = 0x4f545654;
+  private static final int VERSION = 3;
+
+  /** The size of an index entry: the key, the offset and the length of the tile. */
+  private static final int INDEX_ENTRY_BYTES = Long.BYTES + Long.BYTES + Integer.BYTES;
+
+  /** The tile coordinates are stored in 25 bits, which is enough for zoom level 25. */
+  private static final int COORDINATE_BITS = 25;
+
+  /** The zoom level is stored in 5 bits, above the tile coordinates. */
+  private static final int ZOOM_BITS = 5;
+
+  private final long graphBuildTime;
+  private final List<Layer> layers;
+  private final Map<String, Integer> layerIndexByName = new HashMap<>();
+  private final ByteBuffer index;
+  private final ByteBuffer data;
+
+  private VectorTileArchive(
+    long graphBuildTime,
+    List<Layer> layers,
+    ByteBuffer index,
+    ByteBuffer data
+  ) {
+    this.graphBuildTime = graphBuildTime;
+    this.layers = layers;
+    this.index = index;
+    this.data = data;
+    for (int i = 0; i < layers.size(); i++) {
+      layerIndexByName.put(layers.get(i).name(), i);
+    }
+  }
+
+  /**
+   * Memory map and read the header of the archive file.
+   */
+  static VectorTileArchive open(File file) throws IOException {
+    MappedByteBuffer buffer;
+    try (var channel = new RandomAccessFile(file, "r").getChannel()) {
+      if (channel.size() > Integer.MAX_VALUE) {
+        throw new IOException("The vector tile archive is too large: " + file);
+      }
+      // Closing the channel does not invalidate the mapped buffer
+      buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+    }
+    if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+      throw new IOException("Not a vector tile archive of a supported version: " + file);
+    }
+    long graphBuildTime = buffer.getLong();
+
+    int numberOfLayers = buffer.getInt();
+    List<Layer> layers = new ArrayList<>();
+    for (int i = 0; i < numberOfLayers; i++) {
+      String name = readString(buffer);
+      String type = readString(buffer);
+      String mapper = readString(buffer);
+      double expansionFactor = buffer.getDouble();
+      int minZoom = buffer.getInt();
+      int maxZoom = buffer.getInt();
+      byte[] emptyLayer = new byte[buffer.getInt()];
+      buffer.get(emptyLayer);
+      layers.add(new Layer(name, type, mapper, expansionFactor, minZoom, maxZoom, emptyLayer));
+    }
+
+    int numberOfTiles = buffer.getInt();
+    ByteBuffer index = slice(buffer, buffer.position(), numberOfTiles * INDEX_ENTRY_BYTES);
+    int dataStart = buffer.position() + index.remaining();
+    ByteBuffer data = slice(buffer, dataStart, buffer.limit() - dataStart);
+    return new VectorTileArchive(graphBuildTime, layers, index, data);
+  }
+
+  /**
+   * Write the archive file.
+   *
+   * @param layers the layers in the archive, the index of each layer is its position in the list.
+   * @param tiles  the encoded tiles by the key, see {@link #key(int, int, int, int)}.
+   */
+  static void write(
+    File file,
+    long graphBuildTime,
+    List<Layer> layers,
+    SortedMap<Long, byte[]> tiles
+  ) throws IOException {
+    try (
+      var out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)))
+    ) {
+      out.writeInt(MAGIC);
+      out.writeInt(VERSION);
+      out.writeLong(graphBuildTime);
+
+      out.writeInt(layers.size());
+      for (Layer layer : layers) {
+        writeString(out, layer.name());
+        writeString(out, layer.type());
+        writeString(out, layer.mapper());
+        out.writeDouble(layer.expansionFactor());
+        out.writeInt(layer.minZoom());
+        out.writeInt(layer.maxZoom());
+        out.writeInt(layer.emptyLayer().length);
+        out.write(layer.emptyLayer());
+      }
+
+      out.writeInt(tiles.size());
+      long offset = 0;
+      for (Map.Entry<Long, byte[]> it : tiles.entrySet()) {
+        out.writeLong(it.getKey());
+        out.writeLong(offset);
+        out.writeInt(it.getValue().length);
+        offset += it.getValue().length;
+      }
+      for (byte[] tile : tiles.values()) {
+        out.write(tile);
+      }
+    }
+  }
+
+  /**
+   * The key of a tile in the index, tiles of the same layer and zoom level are stored together.
+   */
+  static long key(int layerIndex, int x, int y, int z) {
+    return (
+      ((long) layerIndex << (2 * COORDINATE_BITS + ZOOM_BITS)) |
+      ((long) z << (2 * COORDINATE_BITS)) |
+      ((long) x << COORDINATE_BITS) |
+      y
+    );
+  }
+
+  long graphBuildTime() {
+    return graphBuildTime;
+  }
+
+  List<Layer> layers() {
+    return layers;
+  }
+
+  /**
+   * Get the encoded layer of the tile, or {@code null} if the layer is not in the archive for the
+   * zoom level or the tile does not exist. The returned buffer is a read-only view of the mapped
+   * file.
+   */
+  ByteBuffer get(String layerName, int x, int y, int z) {
+    Integer layerIndex = layerIndexByName.get(layerName);
+    if (layerIndex == null) {
+      return null;
+    }
+    Layer layer = layers.get(layerIndex);
+    if (z < layer.minZoom() || z > layer.maxZoom()) {
+      return null;
+    }
+    int tilesPerAxis = 1 << z;
+    if (x < 0 || y < 0 || x >= tilesPerAxis || y >= tilesPerAxis) {
+      return null;
+    }
+    long key = key(layerIndex, x, y, z);
+
+    int low = 0;
+    int high = index.limit() / INDEX_ENTRY_BYTES - 1;
+    while (low <= high) {
+      int mid = (low + high) >>> 1;
+      int position = mid * INDEX_ENTRY_BYTES;
+      long midKey = index.getLong(position);
+      if (midKey < key) {
+        low = mid + 1;
+      } else if (midKey > key) {
+        high = mid - 1;
+      } else {
+        long offset = index.getLong(position + Long.BYTES);
+        int length = index.getInt(position + 2 * Long.BYTES);
+        return slice(data, (int) offset, length);
+      }
+    }
+    return ByteBuffer.wrap(layer.emptyLayer()).asReadOnlyBuffer();
+  }
+
+  private static void writeString(DataOutputStream out, String value) throws IOException {
+    byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+    out.writeShort(bytes.length);
+    out.write(bytes);
+  }
+
+  private static String readString(ByteBuffer buffer) {
+    byte[] bytes = new byte[buffer.getShort()];
+    buffer.get(bytes);
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+
+  private static ByteBuffer slice(ByteBuffer buffer, int position, int length) {
+    return buffer
+      .duplicate()
+      .position(position)
+      .limit(position + length)
+      .slice()
+      .asReadOnlyBuffer();
+  }
+
+  /**
+   * A layer in the archive, with the layer parameters it is rendered with, the zoom levels it is
+   * rendered for and the encoding of the layer without any features.
+   */
+  record Layer(
+    String name,
+    String type,
+    String mapper,
+    double expansionFactor,
+    int minZoom,
+    int maxZoom,
+    byte[] emptyLayer
+  ) {}
+}
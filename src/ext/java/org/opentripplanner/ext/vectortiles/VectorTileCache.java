@@ -0,0 +1,138 @@
+package org.opentripplanner.ext.vectortiles;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.binder.cache.GuavaCacheMetrics;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import org.opentripplanner.common.geometry.WebMercatorTile;
+import org.opentripplanner.ext.vectortiles.VectorTilesResource.LayerParameters;
+import org.opentripplanner.ext.vectortiles.VectorTilesResource.LayerType;
+import org.opentripplanner.routing.graph.Graph;
+import org.opentripplanner.routing.vehicle_parking.VehicleParkingService;
+import org.opentripplanner.routing.vehicle_rental.VehicleRentalStationService;
+import org.opentripplanner.standalone.api.OtpServerContext;
+import org.opentripplanner.standalone.config.VectorTileConfig;
+
+/**
+ * Cache the encoded layers of the vector tiles, keyed by the layer name and the tile coordinates.
+ * A tile with several layers is the concatenation of the encoded layers, so the layers are shared
+ * between requests for different combinations of layers. The cache is bounded by the number of
+ * bytes cached.
+ * <p>
+ * The stop and station layers only change when the graph changes, and the cache is owned by the
+ * server context of the graph, see {@link OtpServerContext#vectorTileCache()}. The vehicle rental
+ * and vehicle parking layers are updated by the real-time updaters, so the tiles around each place
+ * added, updated or removed are invalidated. If there is no service
+ * for a real-time layer when the cache is created, that layer is not cached.
+ */
+public class VectorTileCache {
+
+  private static final long MAXIMUM_BYTES = 64 * 1024 * 1024;
+
+  /** The approximate size of a cache entry, not counting the bytes of the layer. */
+  private static final int ENTRY_OVERHEAD_BYTES = 64;
+
+  private final Cache<Key, byte[]> cache = CacheBuilder
+    .newBuilder()
+    .maximumWeight(MAXIMUM_BYTES)
+    .weigher((Key key, byte[] bytes) -> bytes.length + ENTRY_OVERHEAD_BYTES)
+    .recordStats()
+    .build();
+
+  /** The layers not cached, because they change and the changes can not be tracked. */
+  private final List<String> uncachedLayers = new ArrayList<>();
+
+  /**
+   * Incremented for each change of a real-time layer, before the tiles are invalidated. A layer is
+   * only kept in the cache if there is no change from before it is built until after it is cached,
+   * so a layer built from stale data is never kept.
+   */
+  private final AtomicLong changes = new AtomicLong();
+
+  public VectorTileCache(Graph graph, List<LayerParameters> layers) {
+    List<LayerParameters> rentalLayers = ofType(layers, LayerType.VehicleRental);
+    List<LayerParameters> parkingLayers = ofType(layers, LayerType.VehicleParking);
+
+    VehicleRentalStationService rentalService = graph.getVehicleRentalStationService();
+    if (rentalService != null) {
+      rentalService.addChangeListener(place ->
+        invalidate(rentalLayers, place.getLongitude(), place.getLatitude())
+      );
+    } else {
+      rentalLayers.forEach(it -> uncachedLayers.add(it.name()));
+    }
+
+    VehicleParkingService parkingService = graph.getVehicleParkingService();
+    if (parkingService != null) {
+      parkingService.addChangeListener(parking ->
+        invalidate(parkingLayers, parking.getX(), parking.getY())
+      );
+    } else {
+      parkingLayers.forEach(it -> uncachedLayers.add(it.name()));
+    }
+  }
+
+  /**
+   * Get the encoded layer of the tile, building it if it is not cached.
+   */
+  byte[] get(LayerParameters layer, int x, int y, int z, Supplier<byte[]> buildLayer) {
+    if (uncachedLayers.contains(layer.name())) {
+      return buildLayer.get();
+    }
+    var key = new Key(layer.name(), x, y, z);
+    byte[] bytes = cache.getIfPresent(key);
+    if (bytes == null) {
+      long changesBefore = changes.get();
+      bytes = buildLayer.get();
+      if (changes.get() == changesBefore) {
+        cache.put(key, bytes);
+        // A change between the check and the put may have invalidated the tile before it was put
+        if (changes.get() != changesBefore) {
+          cache.invalidate(key);
+        }
+      }
+    }
+    return bytes;
+  }
+
+  /**
+   * Publish the statistics of the cache, this is done once when the server context is created.
+   */
+  public void bindTo(MeterRegistry registry) {
+    new GuavaCacheMetrics(cache, "vectorTileCache", List.of(Tag.of("cache", "vectorTiles")))
+      .bindTo(registry);
+  }
+
+  /**
+   * Invalidate the tiles of the given layers which may contain the location, for all zoom levels.
+   * Each layer is built from the features in the tile envelope expanded by the expansion factor,
+   * so the neighbouring tiles are invalidated as well.
+   */
+  private void invalidate(List<LayerParameters> layers, double lon, double lat) {
+    changes.incrementAndGet();
+    for (LayerParameters layer : layers) {
+      int neighbours = (int) Math.ceil(layer.expansionFactor());
+      int minZoom = Math.max(layer.minZoom(), VectorTileConfig.MIN_ZOOM);
+      for (int z = minZoom; z <= layer.maxZoom(); z++) {
+        int x = WebMercatorTile.lon2tileX(lon, z);
+        int y = WebMercatorTile.lat2tileY(lat, z);
+        for (int dx = -neighbours; dx <= neighbours; dx++) {
+          for (int dy = -neighbours; dy <= neighbours; dy++) {
+            cache.invalidate(new Key(layer.name(), x + dx, y + dy, z));
+          }
+        }
+      }
+    }
+  }
+
+  private static List<LayerParameters> ofType(List<LayerParameters> layers, LayerType type) {
+    return layers.stream().filter(it -> LayerType.valueOf(it.type()) == type).toList();
+  }
+
+  private record Key(String layer, int x, int y, int z) {}
+}
@@ -0,0 +1,279 @@
+package org.opentripplanner.ext.vectortiles;
+
+import com.wdtinc.mapbox_vector_tile.VectorTile;
+import com.wdtinc.mapbox_vector_tile.build.MvtLayerBuild;
+import com.wdtinc.mapbox_vector_tile.build.MvtLayerParams;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import javax.annotation.Nullable;
+import org.opentripplanner.common.geometry.WebMercatorTile;
+import org.opentripplanner.datastore.api.DataSource;
+import org.opentripplanner.datastore.file.FileDataSource;
+import org.opentripplanner.ext.vectortiles.VectorTilesResource.LayerParameters;
+import org.opentripplanner.ext.vectortiles.VectorTilesResource.LayerType;
+import org.opentripplanner.routing.graph.Graph;
+import org.opentripplanner.standalone.config.VectorTileConfig;
+import org.opentripplanner.transit.model.basic.WgsCoordinate;
+import org.opentripplanner.transit.model.site.Station;
+import org.opentripplanner.transit.model.site.StopLocation;
+import org.opentripplanner.transit.service.DefaultTransitService;
+import org.opentripplanner.transit.service.TransitModel;
+import org.opentripplanner.transit.service.TransitService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Pre-render the {@code Stop} and {@code Station} layers configured with a {@code
+ * prerenderMaxZoom} when the graph is built, and serve them from a {@link VectorTileArchive} next
+ * to the graph file. These layers only change when the graph changes, so there is no need to build
+ * them again for each server or after each restart.
+ * <p>
+ * Only the tiles with a stop or station inside the tile, or inside the part of the neighbouring
+ * tiles included by the expansion factor, are rendered. The archive is only written if the graph
+ * is saved to a local file.
+ * <p>
+ * An instance holds the archive loaded for the server, it is owned by the server context. A layer
+ * in the archive is only served if it is configured with the same type, mapper and expansion
+ * factor as it is rendered with.
+ */
+public class VectorTilePyramid {
+
+  static final String FILE_NAME = "vectorTiles.otpvt";
+
+  private static final Logger LOG = LoggerFactory.getLogger(VectorTilePyramid.class);
+
+  private static final VectorTilePyramid EMPTY = new VectorTilePyramid(null, Set.of());
+
+  @Nullable
+  private final VectorTileArchive archive;
+
+  private final Set<String> servedLayers;
+
+  private VectorTilePyramid(@Nullable VectorTileArchive archive, Set<String> servedLayers) {
+    this.archive = archive;
+    this.servedLayers = servedLayers;
+  }
+
+  /**
+   * Render the pre-rendered layers and write the archive next to the saved graph. An archive of a
+   * previous graph is deleted, also if no layers are pre-rendered.
+   */
+  public static void render(
+    Graph graph,
+    TransitModel transitModel,
+    List<LayerParameters> layers,
+    @Nullable DataSource graphOutput
+  ) {
+    List<LayerParameters> prerendered = layers
+      .stream()
+      .filter(VectorTilePyramid::isPrerendered)
+      .toList();
+    File file = archiveFile(graphOutput);
+    if (file == null) {
+      if (!prerendered.isEmpty()) {
+        LOG.warn("The vector tiles are only pre-rendered when the graph is saved to a local file");
+      }
+      return;
+    }
+    if (file.exists() && !file.delete()) {
+      LOG.warn("Could not delete the vector tile archive of the previous graph: {}", file);
+    }
+    if (prerendered.isEmpty()) {
+      return;
+    }
+
+    // The property mappers look up the patterns of the stops in the index
+    if (transitModel.getTransitModelIndex() == null) {
+      transitModel.index();
+    }
+    TransitService transitService = new DefaultTransitService(transitModel);
+
+    List<VectorTileArchive.Layer> archiveLayers = new ArrayList<>();
+    SortedMap<Long, byte[]> tiles = new ConcurrentSkipListMap<>();
+    for (int i = 0; i < prerendered.size(); i++) {
+      LayerParameters layer = prerendered.get(i);
+      int minZoom = Math.max(layer.minZoom(), VectorTileConfig.MIN_ZOOM);
+      int maxZoom = Math.min(layer.maxZoom(), layer.prerenderMaxZoom());
+      byte[] emptyLayer = VectorTile.Tile
+        .newBuilder()
+        .addLayers(MvtLayerBuild.newLayerBuilder(layer.name(), MvtLayerParams.DEFAULT).build())
+        .build()
+        .toByteArray();
+      archiveLayers.add(
+        new VectorTileArchive.Layer(
+          layer.name(),
+          layer.type(),
+          layer.mapper(),
+          layer.expansionFactor(),
+          minZoom,
+          maxZoom,
+          emptyLayer
+        )
+      );
+
+      Collection<WgsCoordinate> coordinates = coordinates(transitService, layer);
+      for (int z = minZoom; z <= maxZoom; z++) {
+        final int layerIndex = i;
+        final int zoom = z;
+        Set<Tile> tilesWithFeatures = tilesWithFeatures(coordinates, layer, z);
+        tilesWithFeatures
+          .parallelStream()
+          .forEach(tile -> {
+            byte[] bytes = VectorTilesResource.encodeLayer(
+              graph,
+              transitService,
+              layer,
+              tile.x,
+              tile.y,
+              zoom
+            );
+            if (!Arrays.equals(bytes, emptyLayer)) {
+              tiles.put(VectorTileArchive.key(layerIndex, tile.x, tile.y, zoom), bytes);
+            }
+          });
+        LOG.info(
+          "Pre-rendered {} vector tiles of layer {} at zoom level {}",
+          tilesWithFeatures.size(),
+          layer.name(),
+          z
+        );
+      }
+    }
+
+    try {
+      VectorTileArchive.write(file, graph.buildTime.toEpochMilli(), archiveLayers, tiles);
+      LOG.info("Vector tile archive with {} tiles written to {}", tiles.size(), file);
+    } catch (IOException e) {
+      LOG.error("Could not write the vector tile archive {}: {}", file, e.getMessage());
+    }
+  }
+
+  /**
+   * Load the archive next to the graph file for the server, if it exists and is rendered from
+   * the given graph. The layers rendered with another configuration than the given layers are
+   * not served.
+   */
+  public static VectorTilePyramid load(
+    Graph graph,
+    @Nullable DataSource graphSource,
+    List<LayerParameters> layers
+  ) {
+    File file = archiveFile(graphSource);
+    if (file == null || !file.exists()) {
+      return EMPTY;
+    }
+    VectorTileArchive archive;
+    try {
+      archive = VectorTileArchive.open(file);
+    } catch (IOException e) {
+      LOG.warn("Could not read the vector tile archive {}: {}", file, e.getMessage());
+      return EMPTY;
+    }
+    if (archive.graphBuildTime() != graph.buildTime.toEpochMilli()) {
+      LOG.warn("The vector tile archive {} is rendered from another graph, it is not used", file);
+      return EMPTY;
+    }
+    Set<String> servedLayers = new HashSet<>();
+    for (VectorTileArchive.Layer rendered : archive.layers()) {
+      if (layers.stream().anyMatch(it -> isRenderedWith(rendered, it))) {
+        servedLayers.add(rendered.name());
+      } else {
+        LOG.warn(
+          "The pre-rendered vector tile layer {} is configured differently, it is not used",
+          rendered.name()
+        );
+      }
+    }
+    LOG.info("Serving pre-rendered vector tile layers {} from {}", servedLayers, file);
+    return new VectorTilePyramid(archive, servedLayers);
+  }
+
+  /**
+   * Get the pre-rendered encoded layer of the tile, or {@code null} if the layer is not
+   * pre-rendered for the zoom level.
+   */
+  @Nullable
+  ByteBuffer get(String layerName, int x, int y, int z) {
+    if (archive == null || !servedLayers.contains(layerName)) {
+      return null;
+    }
+    return archive.get(layerName, x, y, z);
+  }
+
+  private static boolean isRenderedWith(VectorTileArchive.Layer rendered, LayerParameters layer) {
+    return (
+      rendered.name().equals(layer.name()) &&
+      rendered.type().equals(layer.type()) &&
+      rendered.mapper().equals(layer.mapper()) &&
+      rendered.expansionFactor() == layer.expansionFactor()
+    );
+  }
+
+  private static boolean isPrerendered(LayerParameters layer) {
+    if (layer.prerenderMaxZoom() < VectorTileConfig.MIN_ZOOM) {
+      return false;
+    }
+    LayerType type = LayerType.valueOf(layer.type());
+    if (type != LayerType.Stop && type != LayerType.Station) {
+      LOG.warn("The real-time layer {} is not pre-rendered", layer.name());
+      return false;
+    }
+    return true;
+  }
+
+  private static File archiveFile(@Nullable DataSource graphSource) {
+    if (!(graphSource instanceof FileDataSource)) {
+      return null;
+    }
+    return new File(new File(graphSource.path()).getAbsoluteFile().getParentFile(), FILE_NAME);
+  }
+
+  private static Collection<WgsCoordinate> coordinates(
+    TransitService transitService,
+    LayerParameters layer
+  ) {
+    if (LayerType.valueOf(layer.type()) == LayerType.Stop) {
+      return transitService.getAllStops().stream().map(StopLocation::getCoordinate).toList();
+    }
+    return transitService.getStations().stream().map(Station::getCoordinate).toList();
+  }
+
+  /**
+   * The tiles containing a coordinate, and the neighbouring tiles which include the coordinate in
+   * the envelope expanded by the expansion factor.
+   */
+  private static Set<Tile> tilesWithFeatures(
+    Collection<WgsCoordinate> coordinates,
+    LayerParameters layer,
+    int z
+  ) {
+    int neighbours = (int) Math.ceil(layer.expansionFactor());
+    int tilesPerAxis = 1 << z;
+    Set<Tile> tiles = new HashSet<>();
+    for (WgsCoordinate coordinate : coordinates) {
+      int x = WebMercatorTile.lon2tileX(coordinate.longitude(), z);
+      int y = WebMercatorTile.lat2tileY(coordinate.latitude(), z);
+      for (int dx = -neighbours; dx <= neighbours; dx++) {
+        for (int dy = -neighbours; dy <= neighbours; dy++) {
+          int tx = x + dx;
+          int ty = y + dy;
+          if (tx >= 0 && ty >= 0 && tx < tilesPerAxis && ty < tilesPerAxis) {
+            tiles.add(new Tile(tx, ty));
+          }
+        }
+      }
+    }
+    return tiles;
+  }
+
+  private record Tile(int x, int y) {}
+}
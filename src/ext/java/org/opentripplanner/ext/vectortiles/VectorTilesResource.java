@@ -1,7 +1,13 @@
 package org.opentripplanner.ext.vectortiles;
 
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
 import com.wdtinc.mapbox_vector_tile.VectorTile;
 import java.io.Serializable;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
@@ -15,9 +21,12 @@ import javax.ws.rs.PathParam;
 import javax.ws.rs.Produces;
 import javax.ws.rs.core.CacheControl;
 import javax.ws.rs.core.Context;
+import javax.ws.rs.core.EntityTag;
 import javax.ws.rs.core.HttpHeaders;
 import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Request;
 import javax.ws.rs.core.Response;
+import javax.ws.rs.core.StreamingOutput;
 import javax.ws.rs.core.UriInfo;
 import org.geotools.geometry.Envelope2D;
 import org.locationtech.jts.geom.Envelope;
@@ -65,37 +74,57 @@ public class VectorTilesResource {
     @PathParam("x") int x,
     @PathParam("y") int y,
     @PathParam("z") int z,
-    @PathParam("layers") String requestedLayers
+    @PathParam("layers") String requestedLayers,
+    @Context Request request
   ) {
-    VectorTile.Tile.Builder mvtBuilder = VectorTile.Tile.newBuilder();
-
     if (z < VectorTileConfig.MIN_ZOOM) {
-      return Response.status(Response.Status.OK).entity(mvtBuilder.build().toByteArray()).build();
+      return Response
+        .status(Response.Status.OK)
+        .entity(VectorTile.Tile.newBuilder().build().toByteArray())
+        .build();
     }
 
-    Envelope2D env = WebMercatorTile.tile2Envelope(x, y, z);
-    Envelope envelope = new Envelope(env.getMaxX(), env.getMinX(), env.getMaxY(), env.getMinY());
-
     List<String> layers = Arrays.asList(requestedLayers.split(","));
 
     int cacheMaxSeconds = Integer.MAX_VALUE;
 
-    for (LayerParameters layerParameters : serverContext
+    List<LayerParameters> layerParametersList = serverContext
       .routerConfig()
       .vectorTileLayers()
-      .layers()) {
+      .layers();
+    VectorTileCache cache = serverContext.vectorTileCache();
+    VectorTilePyramid pyramid = serverContext.vectorTilePyramid();
+
+    // A tile is a list of layers, so the encoded tile is the concatenation of the encoded layers
+    List<ByteBuffer> tileLayers = new ArrayList<>();
+    for (LayerParameters layerParameters : layerParametersList) {
       if (
         layers.contains(layerParameters.name()) &&
         layerParameters.minZoom() <= z &&
         z <= layerParameters.maxZoom()
       ) {
         cacheMaxSeconds = Math.min(cacheMaxSeconds, layerParameters.cacheMaxSeconds());
-        mvtBuilder.addLayers(
-          VectorTilesResource.layers
-            .get(LayerType.valueOf(layerParameters.type()))
-            .create(serverContext.graph(), serverContext.transitService(), layerParameters)
-            .build(envelope, layerParameters)
-        );
+        ByteBuffer prerendered = pyramid.get(layerParameters.name(), x, y, z);
+        if (prerendered != null) {
+          tileLayers.add(prerendered);
+        } else {
+          byte[] bytes = cache.get(
+            layerParameters,
+            x,
+            y,
+            z,
+            () ->
+              encodeLayer(
+                serverContext.graph(),
+                serverContext.transitService(),
+                layerParameters,
+                x,
+                y,
+                z
+              )
+          );
+          tileLayers.add(ByteBuffer.wrap(bytes));
+        }
       }
     }
 
@@ -103,8 +132,28 @@ public class VectorTilesResource {
     if (cacheMaxSeconds != Integer.MAX_VALUE) {
       cacheControl.setMaxAge(cacheMaxSeconds);
     }
-    byte[] bytes = mvtBuilder.build().toByteArray();
-    return Response.status(Response.Status.OK).cacheControl(cacheControl).entity(bytes).build();
+    Hasher hasher = Hashing.sipHash24().newHasher();
+    tileLayers.forEach(it -> hasher.putBytes(it.duplicate()));
+    EntityTag etag = new EntityTag(hasher.hash().toString());
+    Response.ResponseBuilder notModified = request.evaluatePreconditions(etag);
+    if (notModified != null) {
+      return notModified.cacheControl(cacheControl).build();
+    }
+    return Response
+      .status(Response.Status.OK)
+      .cacheControl(cacheControl)
+      .tag(etag)
+      .entity(
+        (StreamingOutput) out -> {
+          // The pre-rendered layers are written from the mapped file, the tiles are not kept on
+          // the heap
+          WritableByteChannel channel = Channels.newChannel(out);
+          for (ByteBuffer tileLayer : tileLayers) {
+            channel.write(tileLayer.duplicate());
+          }
+        }
+      )
+      .build();
   }
 
   @GET
@@ -124,6 +173,31 @@ public class VectorTilesResource {
     );
   }
 
+  /**
+   * Build and encode a layer of a tile, as a tile with only that layer.
+   */
+  static byte[] encodeLayer(
+    Graph graph,
+    TransitService transitService,
+    LayerParameters layerParameters,
+    int x,
+    int y,
+    int z
+  ) {
+    Envelope2D env = WebMercatorTile.tile2Envelope(x, y, z);
+    Envelope envelope = new Envelope(env.getMaxX(), env.getMinX(), env.getMaxY(), env.getMinY());
+    return VectorTile.Tile
+      .newBuilder()
+      .addLayers(
+        layers
+          .get(LayerType.valueOf(layerParameters.type()))
+          .create(graph, transitService, layerParameters)
+          .build(envelope, layerParameters)
+      )
+      .build()
+      .toByteArray();
+  }
+
   private String getBaseAddress(UriInfo uri, HttpHeaders headers) {
     String protocol;
     if (headers.getRequestHeader("X-Forwarded-Proto") != null) {
@@ -169,6 +243,12 @@ public class VectorTilesResource {
     int cacheMaxSeconds();
 
     double expansionFactor();
+
+    /**
+     * The highest zoom level the layer is pre-rendered for when the graph is built, a value below
+     * {@link VectorTileConfig#MIN_ZOOM} if the layer is not pre-rendered.
+     */
+    int prerenderMaxZoom();
   }
 
   private class TileJson implements Serializable {
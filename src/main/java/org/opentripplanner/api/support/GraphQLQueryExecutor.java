@@ -0,0 +1,258 @@
+package org.opentripplanner.api.support;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import graphql.ExecutionResult;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.Nullable;
+import javax.ws.rs.ServiceUnavailableException;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response;
+import org.glassfish.grizzly.http.server.Request;
+import org.opentripplanner.api.json.GraphQLResponseSerializer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A bounded executor for the parts of batched GraphQL queries, shared by the GraphQL APIs. The
+ * number of threads is fixed, so a client sending large batches can not create hundreds of threads
+ * competing with the routing threads.
+ * <p>
+ * The queued tasks are kept in one queue for each client, and the clients are served round-robin.
+ * A client sending a large batch only delays the other clients by one task for each of its
+ * queued tasks, not by the whole batch. When more than {@code maxQueued} tasks are waiting, or
+ * more than {@code maxQueuedPerClient} tasks of the same client, new batches are rejected. So one
+ * client can not fill the queue and have the batches of the other clients rejected. A batch is
+ * always accepted when nothing is waiting before it, so a large batch is not rejected by an idle
+ * executor.
+ * <p>
+ * The executor is shared by all requests, and owned by the server context, see
+ * {@link org.opentripplanner.standalone.api.OtpServerContext#graphQLQueryExecutor()}.
+ * <p>
+ * The queue wait time, number of active threads, number of queued tasks and number of rejected
+ * batches are registered as Micrometer metrics.
+ */
+public class GraphQLQueryExecutor {
+
+  private static final Logger LOG = LoggerFactory.getLogger(GraphQLQueryExecutor.class);
+
+  private static final String FORWARDED_FOR_HEADER = "X-Forwarded-For";
+
+  private final ThreadPoolExecutor threadPool;
+  private final int maxQueued;
+  private final int maxQueuedPerClient;
+
+  /** The queued tasks of each client, the first client is served next. Guarded by this. */
+  private final Map<String, Deque<QueuedTask<?>>> queuedByClient = new LinkedHashMap<>();
+  private int queued = 0;
+
+  private final Timer queueWaitTimer;
+  private final Counter rejectedCounter;
+
+  /**
+   * Create an executor with one thread for each processor.
+   */
+  public GraphQLQueryExecutor(int maxQueued, int maxQueuedPerClient, MeterRegistry registry) {
+    this(Runtime.getRuntime().availableProcessors(), maxQueued, maxQueuedPerClient, registry);
+  }
+
+  GraphQLQueryExecutor(int threads, int maxQueued, int maxQueuedPerClient, MeterRegistry registry) {
+    this.maxQueued = maxQueued;
+    this.maxQueuedPerClient = maxQueuedPerClient;
+    this.threadPool =
+      new ThreadPoolExecutor(
+        threads,
+        threads,
+        60,
+        TimeUnit.SECONDS,
+        new LinkedBlockingQueue<>(),
+        new ThreadFactoryBuilder().setNameFormat("GraphQLExecutor-%d").setDaemon(true).build()
+      );
+    this.threadPool.allowCoreThreadTimeOut(true);
+
+    this.queueWaitTimer =
+      Timer
+        .builder("graphql.executor.queue.wait")
+        .description("The time a batched query part waits before it is executed")
+        .register(registry);
+    this.rejectedCounter =
+      Counter
+        .builder("graphql.executor.rejected")
+        .description("The number of batches rejected because the executor is saturated")
+        .register(registry);
+    Gauge
+      .builder("graphql.executor.active", threadPool, ThreadPoolExecutor::getActiveCount)
+      .description("The number of threads executing batched query parts")
+      .register(registry);
+    Gauge
+      .builder("graphql.executor.queued", this, GraphQLQueryExecutor::getQueued)
+      .description("The number of batched query parts waiting to be executed")
+      .register(registry);
+  }
+
+  /**
+   * The client sending the request, used to serve the clients in turn. This is the remote address
+   * of the request, or if {@code trustForwardedFor} is set, the last address of the
+   * X-Forwarded-For header. The last address is the one added by the proxy in front of OTP, the
+   * addresses before it are set by the client and can not be trusted.
+   */
+  public static String clientId(Request grizzlyRequest, boolean trustForwardedFor) {
+    return clientId(
+      grizzlyRequest.getRemoteAddr(),
+      grizzlyRequest.getHeader(FORWARDED_FOR_HEADER),
+      trustForwardedFor
+    );
+  }
+
+  static String clientId(
+    String remoteAddress,
+    @Nullable String forwardedFor,
+    boolean trustForwardedFor
+  ) {
+    if (!trustForwardedFor || forwardedFor == null) {
+      return remoteAddress;
+    }
+    String address = forwardedFor.substring(forwardedFor.lastIndexOf(',') + 1).trim();
+    return address.isEmpty() ? remoteAddress : address;
+  }
+
+  /**
+   * Execute the queries of a batch for the given client, and return the response with the result
+   * of each query.
+   *
+   * @throws ServiceUnavailableException if the queue is full, no query is run.
+   */
+  public Response executeBatch(
+    String clientId,
+    List<HashMap<String, Object>> queries,
+    List<? extends Callable<ExecutionResult>> tasks
+  ) {
+    try {
+      List<Future<ExecutionResult>> results = invokeAll(clientId, tasks);
+      return Response
+        .status(Response.Status.OK)
+        .entity(GraphQLResponseSerializer.serializeBatch(queries, results))
+        .build();
+    } catch (RejectedExecutionException e) {
+      throw new ServiceUnavailableException(
+        e.getMessage(),
+        Response
+          .status(Response.Status.SERVICE_UNAVAILABLE)
+          .type(MediaType.TEXT_PLAIN_TYPE)
+          .build()
+      );
+    } catch (InterruptedException e) {
+      LOG.error("Batch query interrupted", e);
+      throw new RuntimeException(e);
+    }
+  }
+
+  /**
+   * Execute the tasks for the given client and wait for all of them to complete, like {@link
+   * java.util.concurrent.ExecutorService#invokeAll}.
+   *
+   * @throws RejectedExecutionException if the tasks do not fit in the queue, no task is run.
+   */
+  public <T> List<Future<T>> invokeAll(String clientId, List<? extends Callable<T>> tasks)
+    throws InterruptedException {
+    List<QueuedTask<T>> futures = new ArrayList<>(tasks.size());
+    for (Callable<T> task : tasks) {
+      futures.add(new QueuedTask<>(task));
+    }
+    enqueue(clientId, futures);
+
+    try {
+      for (Future<T> future : futures) {
+        try {
+          future.get();
+        } catch (ExecutionException | CancellationException ignore) {
+          // The caller inspects the result of each future
+        }
+      }
+    } catch (InterruptedException e) {
+      futures.forEach(it -> it.cancel(true));
+      throw e;
+    }
+    return List.copyOf(futures);
+  }
+
+  synchronized int getQueued() {
+    return queued;
+  }
+
+  private void enqueue(String clientId, List<? extends QueuedTask<?>> tasks) {
+    synchronized (this) {
+      if (queued > 0 && queued + tasks.size() > maxQueued) {
+        rejectedCounter.increment();
+        throw new RejectedExecutionException(
+          "Too many queued GraphQL queries, " + queued + " queries are waiting"
+        );
+      }
+      Deque<QueuedTask<?>> clientQueue = queuedByClient.get(clientId);
+      int clientQueued = clientQueue == null ? 0 : clientQueue.size();
+      if (clientQueued > 0 && clientQueued + tasks.size() > maxQueuedPerClient) {
+        rejectedCounter.increment();
+        throw new RejectedExecutionException(
+          "Too many queued GraphQL queries from the client, " +
+          clientQueued +
+          " queries are waiting"
+        );
+      }
+      queuedByClient.computeIfAbsent(clientId, k -> new ArrayDeque<>()).addAll(tasks);
+      queued += tasks.size();
+    }
+    // Each task is run by the next free thread, which picks the task of the next client in turn
+    for (int i = 0; i < tasks.size(); i++) {
+      threadPool.execute(this::runNext);
+    }
+  }
+
+  private void runNext() {
+    QueuedTask<?> task = pollNext();
+    queueWaitTimer.record(System.nanoTime() - task.queuedTime, TimeUnit.NANOSECONDS);
+    task.run();
+  }
+
+  /**
+   * Take the first task of the first client, and move the client last in turn.
+   */
+  private synchronized QueuedTask<?> pollNext() {
+    Iterator<Map.Entry<String, Deque<QueuedTask<?>>>> it = queuedByClient.entrySet().iterator();
+    Map.Entry<String, Deque<QueuedTask<?>>> first = it.next();
+    it.remove();
+    QueuedTask<?> task = first.getValue().poll();
+    if (!first.getValue().isEmpty()) {
+      queuedByClient.put(first.getKey(), first.getValue());
+    }
+    queued--;
+    return task;
+  }
+
+  private static class QueuedTask<T> extends FutureTask<T> {
+
+    private final long queuedTime = System.nanoTime();
+
+    private QueuedTask(Callable<T> callable) {
+      super(callable);
+    }
+  }
+}
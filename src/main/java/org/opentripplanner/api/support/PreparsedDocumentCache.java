@@ -0,0 +1,57 @@
+package org.opentripplanner.api.support;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import graphql.ExecutionInput;
+import graphql.execution.preparsed.PreparsedDocumentEntry;
+import graphql.execution.preparsed.PreparsedDocumentProvider;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.binder.cache.GuavaCacheMetrics;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Function;
+
+/**
+ * Cache the parsed and validated GraphQL query documents, keyed by the query text and the operation
+ * name. The clients send the same queries many times with different variables, so this avoids
+ * parsing and validating each query against the schema on every request. The query complexity is
+ * still checked for each request, when the operation is executed.
+ */
+public class PreparsedDocumentCache implements PreparsedDocumentProvider {
+
+  private static final int MAXIMUM_SIZE = 1000;
+
+  private final Cache<Key, PreparsedDocumentEntry> cache = CacheBuilder
+    .newBuilder()
+    .maximumSize(MAXIMUM_SIZE)
+    .recordStats()
+    .build();
+
+  @Override
+  public PreparsedDocumentEntry getDocument(
+    ExecutionInput executionInput,
+    Function<ExecutionInput, PreparsedDocumentEntry> parseAndValidateFunction
+  ) {
+    var key = new Key(executionInput.getQuery(), executionInput.getOperationName());
+    try {
+      return cache.get(key, () -> parseAndValidateFunction.apply(executionInput));
+    } catch (ExecutionException e) {
+      throw new IllegalStateException(e.getCause());
+    }
+  }
+
+  /**
+   * Register the cache size, hit and miss metrics, tagged with the name of the API.
+   */
+  public void bindTo(MeterRegistry registry, String apiName) {
+    new GuavaCacheMetrics(
+      cache,
+      "graphQLPreparsedDocumentCache",
+      List.of(Tag.of("cache", "graphQLPreparsedDocuments"), Tag.of("api", apiName))
+    )
+      .bindTo(registry);
+  }
+
+  private record Key(String query, String operationName) {}
+}
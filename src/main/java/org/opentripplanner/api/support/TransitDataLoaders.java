@@ -0,0 +1,194 @@
+package org.opentripplanner.api.support;
+
+import graphql.schema.DataFetchingEnvironment;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+import org.dataloader.DataLoader;
+import org.dataloader.DataLoaderFactory;
+import org.dataloader.DataLoaderRegistry;
+import org.opentripplanner.model.StopTimesInPattern;
+import org.opentripplanner.routing.alertpatch.EntitySelector;
+import org.opentripplanner.routing.alertpatch.TransitAlert;
+import org.opentripplanner.routing.stoptimes.ArrivalDeparture;
+import org.opentripplanner.transit.model.framework.FeedScopedId;
+import org.opentripplanner.transit.model.network.TripPattern;
+import org.opentripplanner.transit.model.site.StopLocation;
+import org.opentripplanner.transit.service.TransitService;
+
+/**
+ * GraphQL data loaders for the relationships that are resolved for many sibling objects in the
+ * same query, like the departures and alerts of all stops on a departure board. A new registry is
+ * created for each request, so the loaded values are cached for the duration of the request only.
+ * <p>
+ * The loads requested by the data fetchers on one level of the query are collected and dispatched
+ * together. Each distinct key is looked up once, and the alerts for stops on routes and trips are
+ * found with one scan of all alerts, instead of one scan for each stop.
+ * <p>
+ * Only use loaders from data fetchers that are dispatched by graphql-java. A load chained on the
+ * result of another load is not dispatched until the next level of the query is fetched.
+ */
+public class TransitDataLoaders {
+
+  public static final String PATTERNS_FOR_STOP = "patternsForStop";
+  public static final String STOP_TIMES_FOR_STOP = "stopTimesForStop";
+  public static final String TRIP_ALERTS = "tripAlerts";
+  public static final String STOP_ON_ROUTE_OR_TRIP_ALERTS = "stopOnRouteOrTripAlerts";
+
+  private TransitDataLoaders() {}
+
+  public static DataLoaderRegistry createRegistry(TransitService transitService) {
+    var registry = new DataLoaderRegistry();
+    registry.register(
+      PATTERNS_FOR_STOP,
+      TransitDataLoaders.<StopLocation, Iterable<TripPattern>>loader(stop ->
+        transitService.getPatternsForStop(stop, true)
+      )
+    );
+    registry.register(
+      STOP_TIMES_FOR_STOP,
+      loader((StopTimesKey key) ->
+        transitService.stopTimesForStop(
+          key.stop(),
+          key.startTime(),
+          key.timeRange(),
+          key.numberOfDepartures(),
+          key.arrivalDeparture(),
+          key.includeCancelledTrips()
+        )
+      )
+    );
+    registry.register(
+      TRIP_ALERTS,
+      loader((FeedScopedId tripId) ->
+        transitService.getTransitAlertService().getTripAlerts(tripId, null)
+      )
+    );
+    registry.register(
+      STOP_ON_ROUTE_OR_TRIP_ALERTS,
+      DataLoaderFactory.<FeedScopedId, StopOnRouteOrTripAlerts>newDataLoader(stopIds ->
+        CompletableFuture.completedFuture(stopOnRouteOrTripAlerts(transitService, stopIds))
+      )
+    );
+    return registry;
+  }
+
+  public static CompletableFuture<Iterable<TripPattern>> patternsForStop(
+    DataFetchingEnvironment environment,
+    StopLocation stop
+  ) {
+    DataLoader<StopLocation, Iterable<TripPattern>> loader = environment.getDataLoader(
+      PATTERNS_FOR_STOP
+    );
+    return loader.load(stop);
+  }
+
+  public static CompletableFuture<List<StopTimesInPattern>> stopTimesForStop(
+    DataFetchingEnvironment environment,
+    StopTimesKey key
+  ) {
+    DataLoader<StopTimesKey, List<StopTimesInPattern>> loader = environment.getDataLoader(
+      STOP_TIMES_FOR_STOP
+    );
+    return loader.load(key);
+  }
+
+  public static CompletableFuture<Collection<TransitAlert>> tripAlerts(
+    DataFetchingEnvironment environment,
+    FeedScopedId tripId
+  ) {
+    DataLoader<FeedScopedId, Collection<TransitAlert>> loader = environment.getDataLoader(
+      TRIP_ALERTS
+    );
+    return loader.load(tripId);
+  }
+
+  public static CompletableFuture<StopOnRouteOrTripAlerts> stopOnRouteOrTripAlerts(
+    DataFetchingEnvironment environment,
+    FeedScopedId stopId
+  ) {
+    DataLoader<FeedScopedId, StopOnRouteOrTripAlerts> loader = environment.getDataLoader(
+      STOP_ON_ROUTE_OR_TRIP_ALERTS
+    );
+    return loader.load(stopId);
+  }
+
+  /**
+   * Find the alerts for the given stops on a route or trip with one scan of all alerts.
+   */
+  static List<StopOnRouteOrTripAlerts> stopOnRouteOrTripAlerts(
+    TransitService transitService,
+    List<FeedScopedId> stopIds
+  ) {
+    Set<FeedScopedId> requested = new HashSet<>(stopIds);
+    Map<FeedScopedId, Set<TransitAlert>> onRoutes = new HashMap<>();
+    Map<FeedScopedId, Set<TransitAlert>> onTrips = new HashMap<>();
+    for (TransitAlert alert : transitService.getTransitAlertService().getAllAlerts()) {
+      for (EntitySelector entity : alert.getEntities()) {
+        if (
+          entity instanceof EntitySelector.StopAndRoute stopAndRoute &&
+          requested.contains(stopAndRoute.stopAndRoute.stop)
+        ) {
+          onRoutes
+            .computeIfAbsent(stopAndRoute.stopAndRoute.stop, k -> new LinkedHashSet<>())
+            .add(alert);
+        } else if (
+          entity instanceof EntitySelector.StopAndTrip stopAndTrip &&
+          requested.contains(stopAndTrip.stopAndTrip.stop)
+        ) {
+          onTrips
+            .computeIfAbsent(stopAndTrip.stopAndTrip.stop, k -> new LinkedHashSet<>())
+            .add(alert);
+        }
+      }
+    }
+    return stopIds
+      .stream()
+      .map(id ->
+        new StopOnRouteOrTripAlerts(
+          List.copyOf(onRoutes.getOrDefault(id, Set.of())),
+          List.copyOf(onTrips.getOrDefault(id, Set.of()))
+        )
+      )
+      .toList();
+  }
+
+  /**
+   * A loader looking up each distinct key of a batch once.
+   */
+  private static <K, V> DataLoader<K, V> loader(Function<K, V> lookup) {
+    return DataLoaderFactory.newDataLoader(keys -> {
+      List<V> values = new ArrayList<>(keys.size());
+      for (K key : keys) {
+        values.add(lookup.apply(key));
+      }
+      return CompletableFuture.completedFuture(values);
+    });
+  }
+
+  /**
+   * The arguments of a stop times lookup, equal keys are looked up once.
+   */
+  public record StopTimesKey(
+    StopLocation stop,
+    Instant startTime,
+    Duration timeRange,
+    int numberOfDepartures,
+    ArrivalDeparture arrivalDeparture,
+    boolean includeCancelledTrips
+  ) {}
+
+  /**
+   * The alerts for a stop on one of its routes or trips, in the order of the alert service.
+   */
+  public record StopOnRouteOrTripAlerts(List<TransitAlert> onRoutes, List<TransitAlert> onTrips) {}
+}
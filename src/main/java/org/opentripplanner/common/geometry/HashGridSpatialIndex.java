@@ -10,6 +10,9 @@ import java.util.List;
 import java.util.Locale;
 import java.util.Set;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.LongConsumer;
+import java.util.stream.IntStream;
 import org.locationtech.jts.geom.Coordinate;
 import org.locationtech.jts.geom.Envelope;
 import org.locationtech.jts.geom.LineString;
@@ -41,11 +44,11 @@ public class HashGridSpatialIndex<T> implements SpatialIndex, Serializable {
 
   /* Computation done based on geographical coordinates. */
   // private static final double DEFAULT_Y_BIN_SIZE = 0.010; // ~1km
-  private static final double DEFAULT_Y_BIN_SIZE = 0.005; // ~500m
+  static final double DEFAULT_Y_BIN_SIZE = 0.005; // ~500m
 
   /* Computation done based on geographical coordinates at ~45 degree lat */
   // private static final double DEFAULT_X_BIN_SIZE = 0.007; // ~1km
-  private static final double DEFAULT_X_BIN_SIZE = 0.0035; // ~500m
+  static final double DEFAULT_X_BIN_SIZE = 0.0035; // ~500m
 
   /* Size of bin in X and Y direction, in coordinates units. */
   private final double xBinSize, yBinSize;
@@ -147,28 +150,23 @@ public class HashGridSpatialIndex<T> implements SpatialIndex, Serializable {
   }
 
   public final void insert(LineString geom, final Object item) {
-    Coordinate[] coord = geom.getCoordinates();
-    final TLongSet keys = new TLongHashSet(coord.length * 8);
-    for (int i = 0; i < coord.length - 1; i++) {
-      // TODO Cut the segment if longer than bin size
-      // to reduce the number of wrong bins
-      Envelope env = new Envelope(coord[i], coord[i + 1]);
-      visit(
-        env,
-        true,
-        (bin, mapKey) -> {
-          keys.add(mapKey);
-          return false;
-        }
-      );
+    insert(binKeys(xBinSize, yBinSize, geom), (T) item);
+  }
+
+  /**
+   * Insert all the items with the given geometries. The bins of each item are computed in
+   * parallel, then the items are added to the bins in the given order.
+   */
+  public final <S extends T> void insertAll(List<S> items, Function<S, LineString> geometry) {
+    long[][] keys = new long[items.size()][];
+    IntStream
+      .range(0, items.size())
+      .parallel()
+      .forEach(i -> keys[i] = binKeys(xBinSize, yBinSize, geometry.apply(items.get(i))));
+
+    for (int i = 0; i < keys.length; i++) {
+      insert(keys[i], items.get(i));
     }
-    keys.forEach(key -> {
-      // Note: bins have been initialized in the previous visit
-      bins.get(key).add((T) item);
-      nEntries++;
-      return true;
-    });
-    nObjects++;
   }
 
   public String toString() {
@@ -185,6 +183,54 @@ public class HashGridSpatialIndex<T> implements SpatialIndex, Serializable {
     );
   }
 
+  /**
+   * The keys of all bins touching the segments of the line string, each key is returned once.
+   */
+  static long[] binKeys(double xBinSize, double yBinSize, LineString geom) {
+    Coordinate[] coord = geom.getCoordinates();
+    final TLongSet keys = new TLongHashSet(coord.length * 8);
+    for (int i = 0; i < coord.length - 1; i++) {
+      // TODO Cut the segment if longer than bin size
+      // to reduce the number of wrong bins
+      Envelope env = new Envelope(coord[i], coord[i + 1]);
+      forEachBinKey(xBinSize, yBinSize, env, keys::add);
+    }
+    return keys.toArray();
+  }
+
+  /**
+   * Call the consumer with the key of each bin touching the envelope.
+   */
+  static void forEachBinKey(
+    double xBinSize,
+    double yBinSize,
+    Envelope envelope,
+    LongConsumer keyConsumer
+  ) {
+    Coordinate min = new Coordinate(envelope.getMinX(), envelope.getMinY());
+    Coordinate max = new Coordinate(envelope.getMaxX(), envelope.getMaxY());
+
+    // clamp coordinates to earth. TODO: handle cross-date-line envelopes.
+    min = clamp(min);
+    max = clamp(max);
+
+    long minXKey = Math.round(min.x / xBinSize);
+    long maxXKey = Math.round(max.x / xBinSize);
+    long minYKey = Math.round(min.y / yBinSize);
+    long maxYKey = Math.round(max.y / yBinSize);
+    for (long xKey = minXKey; xKey <= maxXKey; xKey++) {
+      for (long yKey = minYKey; yKey <= maxYKey; yKey++) {
+        /*
+         * For all known use, the average absolute value of x/y keys will be rather small
+         * compared to Integer.MAX_VALUE. We need to swap the two words (MSB and LSB) of
+         * xKey in order to have a well-behaving long hash, fitting in an int, because the
+         * default implementation is: hashInt = (int)(value ^ (value >>> 32));
+         */
+        keyConsumer.accept((yKey << 32) | ((xKey & 0xFFFF) << 16) | ((xKey >> 16) & 0xFFFF));
+      }
+    }
+  }
+
   /** Clamp a coordinate to allowable lat/lon values */
   private static Coordinate clamp(Coordinate coord) {
     if (Math.abs(coord.x) > 180 || Math.abs(coord.y) > 90) {
@@ -221,32 +267,12 @@ public class HashGridSpatialIndex<T> implements SpatialIndex, Serializable {
    * @param binVisitor    The callback to call for each visited bin.
    */
   private void visit(Envelope envelope, boolean createIfEmpty, final BinVisitor<T> binVisitor) {
-    Coordinate min = new Coordinate(envelope.getMinX(), envelope.getMinY());
-    Coordinate max = new Coordinate(envelope.getMaxX(), envelope.getMaxY());
-
-    // clamp coordinates to earth. TODO: handle cross-date-line envelopes.
-    min = clamp(min);
-    max = clamp(max);
-
-    long minXKey = Math.round(min.x / xBinSize);
-    long maxXKey = Math.round(max.x / xBinSize);
-    long minYKey = Math.round(min.y / yBinSize);
-    long maxYKey = Math.round(max.y / yBinSize);
-    for (long xKey = minXKey; xKey <= maxXKey; xKey++) {
-      for (long yKey = minYKey; yKey <= maxYKey; yKey++) {
-        /*
-         * For all known use, the average absolute value of x/y keys will be rather small
-         * compared to Integer.MAX_VALUE. We need to swap the two words (MSB and LSB) of
-         * xKey in order to have a well-behaving long hash, fitting in an int, because the
-         * default implementation is: hashInt = (int)(value ^ (value >>> 32));
-         */
-        long mapKey = (yKey << 32) | ((xKey & 0xFFFF) << 16) | ((xKey >> 16) & 0xFFFF);
-        List<T> bin = bins.get(mapKey);
-        if (createIfEmpty && bin == null) {
-          bin = new ArrayList<>();
-          bins.put(mapKey, bin);
-          nBins++;
-        }
+    forEachBinKey(
+      xBinSize,
+      yBinSize,
+      envelope,
+      mapKey -> {
+        List<T> bin = createIfEmpty ? bin(mapKey) : bins.get(mapKey);
         if (bin != null) {
           boolean modified = binVisitor.visit(bin, mapKey);
           if (modified && bin.isEmpty()) {
@@ -255,7 +281,26 @@ public class HashGridSpatialIndex<T> implements SpatialIndex, Serializable {
           }
         }
       }
+    );
+  }
+
+  private void insert(long[] keys, T item) {
+    for (long key : keys) {
+      bin(key).add(item);
+      nEntries++;
+    }
+    nObjects++;
+  }
+
+  /** Return the bin for the given key, create the bin if it does not exist. */
+  private List<T> bin(long mapKey) {
+    List<T> bin = bins.get(mapKey);
+    if (bin == null) {
+      bin = new ArrayList<>();
+      bins.put(mapKey, bin);
+      nBins++;
     }
+    return bin;
   }
 
   private interface BinVisitor<T> {
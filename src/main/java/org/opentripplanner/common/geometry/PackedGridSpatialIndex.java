@@ -0,0 +1,182 @@
+package org.opentripplanner.common.geometry;
+
+import gnu.trove.set.TIntSet;
+import gnu.trove.set.hash.TIntHashSet;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Function;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+import org.locationtech.jts.geom.Envelope;
+import org.locationtech.jts.geom.LineString;
+
+/**
+ * An immutable version of the {@link HashGridSpatialIndex}, using the same grid bins. The bins are
+ * packed into a sorted array of bin keys, with the start offset of each bin in one array of item
+ * indexes. This uses far fewer objects than a hash map of lists, and the index is built in
+ * parallel.
+ * <p>
+ * As for the {@link HashGridSpatialIndex} no bounding envelope is stored for each item, so a query
+ * may return false positives that the client need to filter out. The index is thread-safe.
+ *
+ * @param <T> Type of objects to be spatial indexed.
+ */
+public class PackedGridSpatialIndex<T> implements Serializable {
+
+  private static final long serialVersionUID = 1L;
+
+  private final double xBinSize, yBinSize;
+
+  private final List<T> items;
+
+  /** The keys of the non-empty bins, sorted. */
+  private final long[] binKeys;
+
+  /**
+   * The items of the bin with index {@code i} in {@link #binKeys} are the items with the indexes in
+   * {@code entries[binStart[i]]} to {@code entries[binStart[i+1] - 1]}.
+   */
+  private final int[] binStart;
+
+  private final int[] entries;
+
+  private PackedGridSpatialIndex(List<T> items, long[][] keysByItem) {
+    this.xBinSize = HashGridSpatialIndex.DEFAULT_X_BIN_SIZE;
+    this.yBinSize = HashGridSpatialIndex.DEFAULT_Y_BIN_SIZE;
+    this.items = List.copyOf(items);
+    this.binKeys =
+      Arrays
+        .stream(keysByItem)
+        .parallel()
+        .flatMapToLong(Arrays::stream)
+        .distinct()
+        .sorted()
+        .toArray();
+
+    // Find the bin index for each key of each item in parallel
+    int[][] binsByItem = new int[keysByItem.length][];
+    IntStream
+      .range(0, keysByItem.length)
+      .parallel()
+      .forEach(i -> {
+        long[] keys = keysByItem[i];
+        int[] bins = new int[keys.length];
+        for (int j = 0; j < keys.length; j++) {
+          bins[j] = Arrays.binarySearch(binKeys, keys[j]);
+        }
+        binsByItem[i] = bins;
+      });
+
+    // Lay out the items grouped by bin, the items keep the given order within each bin
+    this.binStart = new int[binKeys.length + 1];
+    for (int[] bins : binsByItem) {
+      for (int bin : bins) {
+        binStart[bin + 1]++;
+      }
+    }
+    for (int i = 0; i < binKeys.length; i++) {
+      binStart[i + 1] += binStart[i];
+    }
+    this.entries = new int[binStart[binKeys.length]];
+    int[] next = Arrays.copyOf(binStart, binKeys.length);
+    for (int i = 0; i < binsByItem.length; i++) {
+      for (int bin : binsByItem[i]) {
+        entries[next[bin]++] = i;
+      }
+    }
+  }
+
+  /**
+   * Index the items in all bins touching the segments of their geometry.
+   */
+  public static <T> PackedGridSpatialIndex<T> ofLineStrings(
+    List<T> items,
+    Function<T, LineString> geometry
+  ) {
+    long[][] keys = new long[items.size()][];
+    IntStream
+      .range(0, items.size())
+      .parallel()
+      .forEach(i ->
+        keys[i] =
+          HashGridSpatialIndex.binKeys(
+            HashGridSpatialIndex.DEFAULT_X_BIN_SIZE,
+            HashGridSpatialIndex.DEFAULT_Y_BIN_SIZE,
+            geometry.apply(items.get(i))
+          )
+      );
+    return new PackedGridSpatialIndex<>(items, keys);
+  }
+
+  /**
+   * Index the items in all bins touching their envelope.
+   */
+  public static <T> PackedGridSpatialIndex<T> ofEnvelopes(
+    List<T> items,
+    Function<T, Envelope> envelope
+  ) {
+    long[][] keys = new long[items.size()][];
+    IntStream
+      .range(0, items.size())
+      .parallel()
+      .forEach(i -> {
+        var builder = LongStream.builder();
+        HashGridSpatialIndex.forEachBinKey(
+          HashGridSpatialIndex.DEFAULT_X_BIN_SIZE,
+          HashGridSpatialIndex.DEFAULT_Y_BIN_SIZE,
+          envelope.apply(items.get(i)),
+          builder::add
+        );
+        keys[i] = builder.build().toArray();
+      });
+    return new PackedGridSpatialIndex<>(items, keys);
+  }
+
+  /**
+   * Return the items in the bins touching the envelope, each item is returned once. The returned
+   * list can be modified by the caller.
+   */
+  public List<T> query(Envelope envelope) {
+    TIntSet found = new TIntHashSet();
+    List<T> result = new ArrayList<>();
+    HashGridSpatialIndex.forEachBinKey(
+      xBinSize,
+      yBinSize,
+      envelope,
+      key -> {
+        int bin = Arrays.binarySearch(binKeys, key);
+        if (bin < 0) {
+          return;
+        }
+        for (int i = binStart[bin]; i < binStart[bin + 1]; i++) {
+          if (found.add(entries[i])) {
+            result.add(items.get(entries[i]));
+          }
+        }
+      }
+    );
+    return result;
+  }
+
+  public int size() {
+    return items.size();
+  }
+
+  @Override
+  public String toString() {
+    return String.format(
+      Locale.ROOT,
+      "PackedGridSpatialIndex %f x %f, %d bins, %d objs, %d entries (avg %.2f entries/bin, %.2f entries/object)",
+      xBinSize,
+      yBinSize,
+      binKeys.length,
+      items.size(),
+      entries.length,
+      entries.length * 1.0 / binKeys.length,
+      entries.length * 1.0 / items.size()
+    );
+  }
+}
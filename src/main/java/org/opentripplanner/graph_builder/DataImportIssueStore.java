@@ -35,7 +35,11 @@ public class DataImportIssueStore {
     return DataImportIssueStore.noopIssueStore();
   }
 
-  public void add(DataImportIssue issue) {
+  /**
+   * Add an issue. This is synchronized since some of the graph builder modules process their
+   * input in parallel.
+   */
+  public synchronized void add(DataImportIssue issue) {
     ISSUE_LOG.debug("{} - {}", issue.getType(), issue.getMessage());
     if (storeIssues) {
       this.issues.add(issue);
@@ -150,6 +150,15 @@ public class GraphBuilder implements Runnable {
       graphBuilder.addModuleOptional(factory.dataOverlayFactory());
     }
 
+    // Run after all modules creating or splitting street edges
+    if (loadStreetGraph || hasOsm) {
+      graphBuilder.addModule(factory.streetEdgeDeduplicationModule());
+    }
+
+    if (hasTransitData && config.transitLayerSnapshot) {
+      graphBuilder.addModule(factory.transitLayerSnapshotModule());
+    }
+
     return graphBuilder;
   }
 
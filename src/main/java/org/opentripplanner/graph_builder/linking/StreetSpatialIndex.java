@@ -1,5 +1,7 @@
 package org.opentripplanner.graph_builder.linking;
 
+import java.util.List;
+import java.util.function.Function;
 import java.util.stream.Stream;
 import org.locationtech.jts.geom.Envelope;
 import org.locationtech.jts.geom.LineString;
@@ -48,6 +50,13 @@ class StreetSpatialIndex {
     }
   }
 
+  /**
+   * Insert all the edges into the permanent index, the bins of the edges are computed in parallel.
+   */
+  <T extends Edge> void insertPermanent(List<T> edges, Function<T, LineString> geometry) {
+    permanentIndex.insertAll(edges, geometry);
+  }
+
   void remove(Envelope envelope, final Object item, Scope scope) {
     switch (scope) {
       case PERMANENT:
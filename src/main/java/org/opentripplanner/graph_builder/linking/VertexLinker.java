@@ -74,9 +74,10 @@ public class VertexLinker {
    * given time.
    */
   public VertexLinker(Graph graph, StopModel stopModel) {
-    for (StreetEdge se : graph.getEdgesOfType(StreetEdge.class)) {
-      streetSpatialIndex.insert(se.getGeometry(), se, Scope.PERMANENT);
-    }
+    streetSpatialIndex.insertPermanent(
+      graph.getEdgesOfType(StreetEdge.class),
+      StreetEdge::getGeometry
+    );
     this.graph = graph;
     this.stopModel = stopModel;
   }
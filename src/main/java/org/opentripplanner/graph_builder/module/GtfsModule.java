@@ -1,14 +1,22 @@
 package org.opentripplanner.graph_builder.module;
 
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import java.awt.Color;
 import java.io.IOException;
 import java.io.Serializable;
+import java.util.ArrayDeque;
 import java.util.Collection;
+import java.util.Deque;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import org.onebusaway.csv_entities.EntityHandler;
 import org.onebusaway.gtfs.impl.GtfsRelationalDaoImpl;
 import org.onebusaway.gtfs.model.Agency;
@@ -25,6 +33,7 @@ import org.onebusaway.gtfs.serialization.GtfsReader;
 import org.onebusaway.gtfs.services.GenericMutableDao;
 import org.onebusaway.gtfs.services.GtfsMutableRelationalDao;
 import org.opentripplanner.ext.fares.impl.DefaultFareServiceFactory;
+import org.opentripplanner.ext.fares.model.FareRulesData;
 import org.opentripplanner.ext.flex.FlexTripsMapper;
 import org.opentripplanner.graph_builder.DataImportIssueStore;
 import org.opentripplanner.graph_builder.model.GraphBuilderModule;
@@ -46,13 +55,14 @@ import org.opentripplanner.standalone.config.BuildConfig;
 import org.opentripplanner.transit.model.framework.FeedScopedId;
 import org.opentripplanner.transit.service.TransitModel;
 import org.opentripplanner.util.OTPFeature;
+import org.opentripplanner.util.time.DurationUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 public class GtfsModule implements GraphBuilderModule {
 
   private static final Logger LOG = LoggerFactory.getLogger(GtfsModule.class);
-  private final EntityHandler counter = new EntityCounter();
+
   private final Set<String> agencyIdsSeen = new HashSet<>();
   /**
    * @see BuildConfig#transitServiceStart
@@ -64,6 +74,13 @@ public class GtfsModule implements GraphBuilderModule {
   private final boolean discardMinTransferTimes;
   private final boolean blockBasedInterlining;
   private final int maxInterlineDistance;
+  /**
+   * The number of feeds read and mapped in parallel, ahead of the feed processed. Each mapped feed
+   * is kept in memory until it is processed, so this bounds the memory used by the build.
+   *
+   * @see BuildConfig#gtfsFeedsInParallel
+   */
+  private final int feedsInParallel;
 
   private final TransitModel transitModel;
   private final Graph graph;
@@ -79,7 +96,8 @@ public class GtfsModule implements GraphBuilderModule {
     FareServiceFactory fareServiceFactory,
     boolean discardMinTransferTimes,
     boolean blockBasedInterlining,
-    int maxInterlineDistance
+    int maxInterlineDistance,
+    int feedsInParallel
   ) {
     this.gtfsBundles = bundles;
     this.transitModel = transitModel;
@@ -90,6 +108,7 @@ public class GtfsModule implements GraphBuilderModule {
     this.discardMinTransferTimes = discardMinTransferTimes;
     this.blockBasedInterlining = blockBasedInterlining;
     this.maxInterlineDistance = maxInterlineDistance;
+    this.feedsInParallel = Math.max(1, feedsInParallel);
   }
 
   public GtfsModule(
@@ -107,7 +126,8 @@ public class GtfsModule implements GraphBuilderModule {
       new DefaultFareServiceFactory(),
       false,
       true,
-      100
+      100,
+      2
     );
   }
 
@@ -118,67 +138,15 @@ public class GtfsModule implements GraphBuilderModule {
     boolean hasTransit = false;
 
     try {
-      for (GtfsBundle gtfsBundle : gtfsBundles) {
-        GtfsMutableRelationalDao gtfsDao = loadBundle(gtfsBundle);
-        GTFSToOtpTransitServiceMapper mapper = new GTFSToOtpTransitServiceMapper(
-          gtfsBundle.getFeedId().getId(),
-          issueStore,
-          discardMinTransferTimes,
-          gtfsDao
-        );
-        mapper.mapStopTripAndRouteDataIntoBuilder();
-
-        OtpTransitServiceBuilder builder = mapper.getBuilder();
-        var fareRulesService = mapper.getFareRulesService();
-
-        builder.limitServiceDays(transitPeriodLimit);
-
-        calendarServiceData.add(builder.buildCalendarServiceData());
-
-        if (OTPFeature.FlexRouting.isOn()) {
-          builder.getFlexTripsById().addAll(FlexTripsMapper.createFlexTrips(builder, issueStore));
+      // The feeds are independent, so the next feeds are read and mapped in parallel while the
+      // current feed is processed. The rest of the processing updates the graph and the transit
+      // model, and is done one feed at the time in the configured order - this keep the build
+      // reproducible. Only the feeds in flight are kept in memory, not all mapped feeds.
+      try (var feeds = new MappedFeedLoader()) {
+        for (int i = 0; i < gtfsBundles.size(); ++i) {
+          hasTransit = processFeed(feeds.next(), calendarServiceData) || hasTransit;
         }
-
-        repairStopTimesForEachTrip(builder.getStopTimesSortedByTrip(), issueStore);
-
-        GeometryProcessor geometryProcessor = new GeometryProcessor(
-          builder,
-          gtfsBundle.getMaxStopToShapeSnapDistance(),
-          issueStore
-        );
-
-        // NB! The calls below have side effects - the builder state is updated!
-        createTripPatterns(
-          graph,
-          transitModel,
-          builder,
-          calendarServiceData.getServiceIds(),
-          geometryProcessor,
-          issueStore
-        );
-
-        OtpTransitService otpTransitService = builder.build();
-
-        // if this or previously processed gtfs bundle has transit that has not been filtered out
-        hasTransit = hasTransit || otpTransitService.hasActiveTransit();
-
-        addTransitModelToGraph(graph, transitModel, gtfsBundle, otpTransitService);
-
-        if (blockBasedInterlining) {
-          new InterlineProcessor(
-            transitModel.getTransferService(),
-            builder.getStaySeatedNotAllowed(),
-            maxInterlineDistance,
-            issueStore
-          )
-            .run(transitModel.getAllTripPatterns());
-        }
-
-        fareServiceFactory.processGtfs(fareRulesService, otpTransitService);
-        graph.putService(FareService.class, fareServiceFactory.makeFareService());
       }
-    } catch (IOException e) {
-      throw new RuntimeException(e);
     } finally {
       // Note the close method of each bundle should NOT throw an exception, so this
       // code should be safe without the try/catch block.
@@ -199,6 +167,176 @@ public class GtfsModule implements GraphBuilderModule {
 
   /* Private Methods */
 
+  /**
+   * Add a mapped feed to the graph and the transit model.
+   *
+   * @return {@code true} if the feed has transit that is not filtered out.
+   */
+  private boolean processFeed(MappedFeed feed, CalendarServiceData calendarServiceData) {
+    GtfsBundle gtfsBundle = feed.bundle();
+    OtpTransitServiceBuilder builder = feed.builder();
+    long startTime = System.currentTimeMillis();
+
+    calendarServiceData.add(builder.buildCalendarServiceData());
+
+    GeometryProcessor geometryProcessor = new GeometryProcessor(
+      builder,
+      gtfsBundle.getMaxStopToShapeSnapDistance(),
+      issueStore
+    );
+
+    // NB! The calls below have side effects - the builder state is updated!
+    createTripPatterns(
+      graph,
+      transitModel,
+      builder,
+      calendarServiceData.getServiceIds(),
+      geometryProcessor,
+      issueStore
+    );
+
+    OtpTransitService otpTransitService = builder.build();
+    boolean hasActiveTransit = otpTransitService.hasActiveTransit();
+
+    addTransitModelToGraph(graph, transitModel, gtfsBundle, otpTransitService);
+
+    if (blockBasedInterlining) {
+      new InterlineProcessor(
+        transitModel.getTransferService(),
+        builder.getStaySeatedNotAllowed(),
+        maxInterlineDistance,
+        issueStore
+      )
+        .run(transitModel.getAllTripPatterns());
+    }
+
+    fareServiceFactory.processGtfs(feed.fareRulesData(), otpTransitService);
+    graph.putService(FareService.class, fareServiceFactory.makeFareService());
+
+    issueStore.add(
+      "GtfsFeedTimings",
+      "GTFS feed %s processed: %s, add to graph %s",
+      gtfsBundle.getFeedId().getId(),
+      feed.timings(),
+      DurationUtils.msToSecondsStr(System.currentTimeMillis() - startTime)
+    );
+    return hasActiveTransit;
+  }
+
+  /**
+   * Read a feed and map it into a new {@link OtpTransitServiceBuilder}. This only touch the state
+   * of the given feed, except for the agency ids, which are resolved in feed order.
+   */
+  private MappedFeed loadAndMapFeed(
+    GtfsBundle gtfsBundle,
+    CountDownLatch previousAgencyIdsResolved,
+    CountDownLatch agencyIdsResolved
+  ) throws IOException, InterruptedException {
+    long t0 = System.currentTimeMillis();
+    GtfsMutableRelationalDao gtfsDao = loadBundle(
+      gtfsBundle,
+      previousAgencyIdsResolved,
+      agencyIdsResolved
+    );
+    long t1 = System.currentTimeMillis();
+
+    GTFSToOtpTransitServiceMapper mapper = new GTFSToOtpTransitServiceMapper(
+      gtfsBundle.getFeedId().getId(),
+      issueStore,
+      discardMinTransferTimes,
+      gtfsDao
+    );
+    mapper.mapStopTripAndRouteDataIntoBuilder();
+
+    OtpTransitServiceBuilder builder = mapper.getBuilder();
+    builder.limitServiceDays(transitPeriodLimit);
+
+    if (OTPFeature.FlexRouting.isOn()) {
+      builder.getFlexTripsById().addAll(FlexTripsMapper.createFlexTrips(builder, issueStore));
+    }
+    long t2 = System.currentTimeMillis();
+
+    repairStopTimesForEachTrip(builder.getStopTimesSortedByTrip(), issueStore);
+    long t3 = System.currentTimeMillis();
+
+    String timings = String.format(
+      "read %s, map %s, repair stop times %s",
+      DurationUtils.msToSecondsStr(t1 - t0),
+      DurationUtils.msToSecondsStr(t2 - t1),
+      DurationUtils.msToSecondsStr(t3 - t2)
+    );
+    return new MappedFeed(gtfsBundle, builder, mapper.getFareRulesService(), timings);
+  }
+
+  /**
+   * Read and map the feeds in the order of the bundles, on a thread pool. The next feeds are read
+   * in parallel while the current feed is processed, but no more than {@link #feedsInParallel}
+   * feeds are read or kept ahead of the feed processed, so the memory used is bounded by the
+   * largest feeds and not by the sum of all feeds.
+   */
+  private class MappedFeedLoader implements AutoCloseable {
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(
+      feedsInParallel,
+      new ThreadFactoryBuilder().setNameFormat("GtfsLoader-%d").build()
+    );
+    private final Deque<Future<MappedFeed>> pending = new ArrayDeque<>();
+    private int nextBundle = 0;
+
+    // Agency ids are made unique across feeds in the order of the feeds. Each feed waits for the
+    // previous feed to finish this before resolving its own agency ids. The executor start the
+    // tasks in submission order, so a task never waits for a task which is not started.
+    private CountDownLatch previousAgencyIdsResolved = null;
+
+    /**
+     * Wait for the next feed to be read and mapped, and start reading the feeds after it.
+     */
+    MappedFeed next() {
+      while (nextBundle < gtfsBundles.size() && pending.size() < feedsInParallel) {
+        submit(gtfsBundles.get(nextBundle++));
+      }
+      MappedFeed feed = waitFor(pending.poll());
+      if (nextBundle < gtfsBundles.size()) {
+        submit(gtfsBundles.get(nextBundle++));
+      }
+      return feed;
+    }
+
+    @Override
+    public void close() {
+      executor.shutdownNow();
+    }
+
+    private void submit(GtfsBundle gtfsBundle) {
+      final CountDownLatch previous = previousAgencyIdsResolved;
+      final CountDownLatch current = new CountDownLatch(1);
+      previousAgencyIdsResolved = current;
+      pending.add(
+        executor.submit(() -> {
+          try {
+            return loadAndMapFeed(gtfsBundle, previous, current);
+          } finally {
+            current.countDown();
+          }
+        })
+      );
+    }
+  }
+
+  private static MappedFeed waitFor(Future<MappedFeed> task) {
+    try {
+      return task.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new RuntimeException(e);
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) e.getCause();
+      }
+      throw new RuntimeException(e.getCause());
+    }
+  }
+
   /**
    * This method has side effects, the {@code stopTimesByTrip} is updated.
    */
@@ -251,7 +389,11 @@ public class GtfsModule implements GraphBuilderModule {
     );
   }
 
-  private GtfsMutableRelationalDao loadBundle(GtfsBundle gtfsBundle) throws IOException {
+  private GtfsMutableRelationalDao loadBundle(
+    GtfsBundle gtfsBundle,
+    CountDownLatch previousAgencyIdsResolved,
+    CountDownLatch agencyIdsResolved
+  ) throws IOException, InterruptedException {
     StoreImpl store = new StoreImpl(new GtfsRelationalDaoImpl());
     store.open();
     LOG.info("reading {}", gtfsBundle.toString());
@@ -264,7 +406,7 @@ public class GtfsModule implements GraphBuilderModule {
     reader.setInternStrings(true);
     reader.setDefaultAgencyId(gtfsFeedId.getId());
 
-    if (LOG.isDebugEnabled()) reader.addEntityHandler(counter);
+    if (LOG.isDebugEnabled()) reader.addEntityHandler(new EntityCounter());
 
     for (Class<?> entityClass : reader.getEntityClasses()) {
       LOG.info("reading entities: " + entityClass.getName());
@@ -274,29 +416,11 @@ public class GtfsModule implements GraphBuilderModule {
       // set the agencyId here. Each feed ("bundle") is loaded by a separate reader, so there is no risk of
       // agency mappings accumulating.
       if (entityClass == Agency.class) {
-        for (Agency agency : reader.getAgencies()) {
-          String agencyId = agency.getId();
-          LOG.info("This Agency has the ID {}", agencyId);
-          // Somehow, when the agency's id field is missing, OBA replaces it with the agency's name.
-          // TODO Figure out how and why this is happening.
-          if (agencyId == null || agencyIdsSeen.contains(gtfsFeedId.getId() + agencyId)) {
-            // Loop in case generated name is already in use.
-            String generatedAgencyId = null;
-            while (generatedAgencyId == null || agencyIdsSeen.contains(generatedAgencyId)) {
-              generatedAgencyId = "F" + nextAgencyId;
-              nextAgencyId++;
-            }
-            LOG.warn(
-              "The agency ID '{}' was already seen, or I think it's bad. Replacing with '{}'.",
-              agencyId,
-              generatedAgencyId
-            );
-            reader.addAgencyIdMapping(agencyId, generatedAgencyId); // NULL key should work
-            agency.setId(generatedAgencyId);
-            agencyId = generatedAgencyId;
-          }
-          if (agencyId != null) agencyIdsSeen.add(gtfsFeedId.getId() + agencyId);
+        if (previousAgencyIdsResolved != null) {
+          previousAgencyIdsResolved.await();
         }
+        resolveAgencyIds(reader, gtfsFeedId);
+        agencyIdsResolved.countDown();
       }
     }
 
@@ -332,6 +456,36 @@ public class GtfsModule implements GraphBuilderModule {
     return store.dao;
   }
 
+  /**
+   * Make sure the agency ids are unique across all feeds. This must be called for one feed at the
+   * time, in the order of the feeds.
+   */
+  private synchronized void resolveAgencyIds(GtfsReader reader, GtfsFeedId gtfsFeedId) {
+    for (Agency agency : reader.getAgencies()) {
+      String agencyId = agency.getId();
+      LOG.info("This Agency has the ID {}", agencyId);
+      // Somehow, when the agency's id field is missing, OBA replaces it with the agency's name.
+      // TODO Figure out how and why this is happening.
+      if (agencyId == null || agencyIdsSeen.contains(gtfsFeedId.getId() + agencyId)) {
+        // Loop in case generated name is already in use.
+        String generatedAgencyId = null;
+        while (generatedAgencyId == null || agencyIdsSeen.contains(generatedAgencyId)) {
+          generatedAgencyId = "F" + nextAgencyId;
+          nextAgencyId++;
+        }
+        LOG.warn(
+          "The agency ID '{}' was already seen, or I think it's bad. Replacing with '{}'.",
+          agencyId,
+          generatedAgencyId
+        );
+        reader.addAgencyIdMapping(agencyId, generatedAgencyId); // NULL key should work
+        agency.setId(generatedAgencyId);
+        agencyId = generatedAgencyId;
+      }
+      if (agencyId != null) agencyIdsSeen.add(gtfsFeedId.getId() + agencyId);
+    }
+  }
+
   /**
    * Generates routeText colors for routes with routeColor and without routeTextColor
    * <p>
@@ -455,4 +609,14 @@ public class GtfsModule implements GraphBuilderModule {
       return value;
     }
   }
+
+  /**
+   * A feed read and mapped to the OTP model, ready to be added to the graph.
+   */
+  private record MappedFeed(
+    GtfsBundle bundle,
+    OtpTransitServiceBuilder builder,
+    FareRulesData fareRulesData,
+    String timings
+  ) {}
 }
@@ -0,0 +1,40 @@
+package org.opentripplanner.graph_builder.module;
+
+import javax.inject.Inject;
+import org.opentripplanner.graph_builder.model.GraphBuilderModule;
+import org.opentripplanner.routing.edgetype.StreetEdge;
+import org.opentripplanner.routing.graph.Graph;
+import org.opentripplanner.transit.model.framework.Deduplicator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Let all street edges with equal names or equal packed geometries share the same instance. The
+ * graph is serialized with references, so the shared instances are also only written once and the
+ * sharing is kept when the graph is loaded. This should run after all modules creating or
+ * splitting street edges.
+ */
+public class StreetEdgeDeduplicationModule implements GraphBuilderModule {
+
+  private static final Logger LOG = LoggerFactory.getLogger(StreetEdgeDeduplicationModule.class);
+
+  private final Graph graph;
+
+  @Inject
+  public StreetEdgeDeduplicationModule(Graph graph) {
+    this.graph = graph;
+  }
+
+  @Override
+  public void buildGraph() {
+    // Use a separate deduplicator, the tables are not needed after this module is done
+    var deduplicator = new Deduplicator();
+    for (StreetEdge edge : graph.getStreetEdges()) {
+      edge.deduplicate(deduplicator);
+    }
+    LOG.info("Street edge names and geometries deduplicated: {}", deduplicator);
+  }
+
+  @Override
+  public void checkInputs() {}
+}
@@ -0,0 +1,32 @@
+package org.opentripplanner.graph_builder.module;
+
+import javax.inject.Inject;
+import org.opentripplanner.graph_builder.model.GraphBuilderModule;
+import org.opentripplanner.routing.algorithm.raptoradapter.transit.mappers.TransitLayerMapper;
+import org.opentripplanner.transit.service.TransitModel;
+
+/**
+ * Create the Raptor transit data for the transit model and keep it in the transit model, so it is
+ * saved with the graph. This must run after all other modules changing the transit model.
+ *
+ * @see org.opentripplanner.routing.algorithm.raptoradapter.transit.TransitLayerSnapshot
+ */
+public class TransitLayerSnapshotModule implements GraphBuilderModule {
+
+  private final TransitModel transitModel;
+
+  @Inject
+  public TransitLayerSnapshotModule(TransitModel transitModel) {
+    this.transitModel = transitModel;
+  }
+
+  @Override
+  public void buildGraph() {
+    // Index the final transit model, the snapshot depend on the stop index
+    transitModel.index();
+    transitModel.setTransitLayerSnapshot(TransitLayerMapper.createSnapshot(transitModel));
+  }
+
+  @Override
+  public void checkInputs() {}
+}
@@ -16,8 +16,10 @@ import org.opentripplanner.graph_builder.module.GraphCoherencyCheckerModule;
 import org.opentripplanner.graph_builder.module.GtfsModule;
 import org.opentripplanner.graph_builder.module.OsmBoardingLocationsModule;
 import org.opentripplanner.graph_builder.module.PruneNoThruIslands;
+import org.opentripplanner.graph_builder.module.StreetEdgeDeduplicationModule;
 import org.opentripplanner.graph_builder.module.StreetLinkerModule;
 import org.opentripplanner.graph_builder.module.TimeZoneAdjusterModule;
+import org.opentripplanner.graph_builder.module.TransitLayerSnapshotModule;
 import org.opentripplanner.graph_builder.module.TripPatternNamer;
 import org.opentripplanner.graph_builder.module.map.BusRouteStreetMatcher;
 import org.opentripplanner.graph_builder.module.ned.ElevationModule;
@@ -48,6 +50,8 @@ public interface GraphBuilderFactory {
   GraphCoherencyCheckerModule graphCoherencyCheckerModule();
   EdgeUpdaterModule dataOverlayFactory();
   DataImportIssuesToHTML dataImportIssuesToHTML();
+  StreetEdgeDeduplicationModule streetEdgeDeduplicationModule();
+  TransitLayerSnapshotModule transitLayerSnapshotModule();
 
   @Component.Builder
   interface Builder {
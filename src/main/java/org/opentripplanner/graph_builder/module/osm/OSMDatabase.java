@@ -57,8 +57,8 @@ public class OSMDatabase {
 
   private final DataImportIssueStore issueStore;
 
-  /* Map of all nodes used in ways/areas keyed by their OSM ID */
-  private final TLongObjectMap<OSMNode> nodesById = new TLongObjectHashMap<>();
+  /* All nodes used in ways/areas, untagged nodes are stored in a compact primitive form */
+  private final OSMNodeStore nodesById = new OSMNodeStore();
 
   /* Map of all bike parking nodes, keyed by their OSM ID */
   private final TLongObjectMap<OSMNode> bikeParkingNodes = new TLongObjectHashMap<>();
@@ -227,10 +227,7 @@ public class OSMDatabase {
       return;
     }
 
-    if (nodesById.containsKey(node.getId())) {
-      return;
-    }
-    nodesById.put(node.getId(), node);
+    nodesById.add(node);
   }
 
   public void addWay(OSMWay way) {
@@ -368,6 +365,7 @@ public class OSMDatabase {
    * and nodes are loaded, handle areas.
    */
   public void doneThirdPhaseNodes() {
+    nodesById.trimToSize();
     processMultipolygonRelations();
     processSingleWayAreas();
   }
@@ -696,7 +694,7 @@ public class OSMDatabase {
     node.setId(virtualNodeId);
     virtualNodeId--;
     waysNodeIds.add(node.getId());
-    nodesById.put(node.getId(), node);
+    nodesById.add(node);
     return node;
   }
 
@@ -745,7 +743,7 @@ public class OSMDatabase {
       TLongIterator longIterator = way.getNodeRefs().iterator();
       while (longIterator.hasNext()) {
         long nodeRef = longIterator.next();
-        if (!nodesById.containsKey(nodeRef)) {
+        if (!nodesById.contains(nodeRef)) {
           continue AREA;
         }
       }
@@ -800,7 +798,7 @@ public class OSMDatabase {
         TLongIterator wayNodeIterator = way.getNodeRefs().iterator();
         while (wayNodeIterator.hasNext()) {
           long nodeId = wayNodeIterator.next();
-          if (nodesById.containsKey(nodeId)) {
+          if (nodesById.contains(nodeId)) {
             MapUtils.addToMapSet(areasForNode, nodeId, way);
           } else {
             // this area is missing some nodes, perhaps because it is on
@@ -1147,7 +1145,7 @@ public class OSMDatabase {
         } else {
           issueStore.add(new TooManyAreasInRelation(relation.getId()));
         }
-      } else if ("node".equals(member.getType()) && nodesById.containsKey(member.getRef())) {
+      } else if ("node".equals(member.getType()) && nodesById.contains(member.getRef())) {
         platformsNodes.add(nodesById.get(member.getRef()));
       }
     }
@@ -0,0 +1,123 @@
+package org.opentripplanner.graph_builder.module.osm;
+
+import gnu.trove.map.TLongObjectMap;
+import gnu.trove.map.hash.TLongObjectHashMap;
+import java.util.Arrays;
+import org.opentripplanner.openstreetmap.model.OSMNode;
+
+/**
+ * Compact storage for the OSM nodes kept during graph build. Most kept nodes are plain way nodes
+ * without any tags, and holding each of them as an {@link OSMNode} object (plus a hash map entry)
+ * dominates the memory used by the {@link OSMDatabase} on large extracts.
+ * <p>
+ * Untagged nodes arriving in ascending id order - which is the order of a sorted PBF file - are
+ * stored in parallel primitive arrays: sorted ids and fixed-point latitude/longitude. They are
+ * looked up with a binary search and materialized as a new {@link OSMNode} on every access.
+ * Tagged nodes (barriers, parking, boarding locations, elevators...), nodes arriving out of order
+ * and virtual nodes created during the build are kept as full objects in a map.
+ * <p>
+ * Because untagged nodes are materialized on demand, callers must not rely on object identity of
+ * the returned nodes. {@link OSMNode} equality is based on the OSM id.
+ */
+class OSMNodeStore {
+
+  /**
+   * Coordinates are stored as fixed-point integers with a resolution of 1e-7 degrees, which is the
+   * precision used by the OSM database itself.
+   */
+  private static final double FIXED_POINT_SCALE = 1e7;
+
+  private static final int INITIAL_CAPACITY = 1024;
+
+  private long[] ids = new long[INITIAL_CAPACITY];
+  private int[] lats = new int[INITIAL_CAPACITY];
+  private int[] lons = new int[INITIAL_CAPACITY];
+  private int packedSize = 0;
+
+  private final TLongObjectMap<OSMNode> nodeObjects = new TLongObjectHashMap<>();
+
+  /**
+   * Add a node to the store. Adding a node with an id that is already present has no effect.
+   */
+  void add(OSMNode node) {
+    long id = node.getId();
+    if (contains(id)) {
+      return;
+    }
+    if (isPackable(node)) {
+      ensureCapacity(packedSize + 1);
+      ids[packedSize] = id;
+      lats[packedSize] = toFixedPoint(node.lat);
+      lons[packedSize] = toFixedPoint(node.lon);
+      ++packedSize;
+    } else {
+      nodeObjects.put(id, node);
+    }
+  }
+
+  boolean contains(long id) {
+    return nodeObjects.containsKey(id) || indexOf(id) >= 0;
+  }
+
+  /**
+   * @return the node with the given id, or {@code null} if the node is not in the store.
+   */
+  OSMNode get(long id) {
+    OSMNode node = nodeObjects.get(id);
+    if (node != null) {
+      return node;
+    }
+    int index = indexOf(id);
+    if (index < 0) {
+      return null;
+    }
+    node = new OSMNode();
+    node.setId(id);
+    node.lat = fromFixedPoint(lats[index]);
+    node.lon = fromFixedPoint(lons[index]);
+    return node;
+  }
+
+  int size() {
+    return packedSize + nodeObjects.size();
+  }
+
+  /**
+   * Release the unused part of the packed arrays, call this when all nodes are loaded.
+   */
+  void trimToSize() {
+    if (ids.length > packedSize) {
+      ids = Arrays.copyOf(ids, packedSize);
+      lats = Arrays.copyOf(lats, packedSize);
+      lons = Arrays.copyOf(lons, packedSize);
+    }
+  }
+
+  private boolean isPackable(OSMNode node) {
+    boolean untagged = node.getTags() == null || node.getTags().isEmpty();
+    boolean inOrder = packedSize == 0 || node.getId() > ids[packedSize - 1];
+    return untagged && inOrder;
+  }
+
+  private int indexOf(long id) {
+    return Arrays.binarySearch(ids, 0, packedSize, id);
+  }
+
+  private void ensureCapacity(int capacity) {
+    if (capacity <= ids.length) {
+      return;
+    }
+    int newCapacity = Math.max(capacity, ids.length + (ids.length >> 1));
+    ids = Arrays.copyOf(ids, newCapacity);
+    lats = Arrays.copyOf(lats, newCapacity);
+    lons = Arrays.copyOf(lons, newCapacity);
+  }
+
+  private static int toFixedPoint(double degrees) {
+    return (int) Math.round(degrees * FIXED_POINT_SCALE);
+  }
+
+  private static double fromFixedPoint(int value) {
+    return value / FIXED_POINT_SCALE;
+  }
+}
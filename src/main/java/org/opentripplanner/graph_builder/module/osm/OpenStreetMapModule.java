@@ -14,6 +14,7 @@ import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.OptionalInt;
 import java.util.Set;
 import java.util.stream.Collectors;
@@ -917,17 +918,20 @@ public class OpenStreetMapModule implements GraphBuilderModule {
       ProgressTracker progress = ProgressTracker.track("Build street graph", 5_000, wayCount);
       LOG.info(progress.startMessage());
 
-      WAY:for (OSMWay way : osmdb.getWays()) {
-        WayProperties wayData = wayPropertySet.getDataForWay(way);
-        setWayName(way);
-        StreetTraversalPermission permissions = OSMFilter.getPermissionsForWay(
-          way,
-          wayData.getPermission(),
-          banDiscouragedWalking,
-          banDiscouragedBiking,
-          issueStore
-        );
-        if (!OSMFilter.isWayRoutable(way) || permissions.allowsNothing()) continue;
+      // The tag matching is independent of the graph, so do it for all ways in parallel before
+      // the edges are created in a single thread. The list keeps the order of the ways, so
+      // the resulting graph is the same as if it was built sequentially.
+      List<ProcessedWay> processedWays = List
+        .copyOf(osmdb.getWays())
+        .parallelStream()
+        .map(this::processWay)
+        .filter(Objects::nonNull)
+        .toList();
+
+      WAY:for (ProcessedWay processedWay : processedWays) {
+        OSMWay way = processedWay.way();
+        WayProperties wayData = processedWay.properties();
+        StreetTraversalPermission permissions = processedWay.permissions();
 
         // handle duplicate nodes in OSM ways
         // this is a workaround for crappy OSM data quality
@@ -1072,6 +1076,29 @@ public class OpenStreetMapModule implements GraphBuilderModule {
       LOG.info(progress.completeMessage());
     }
 
+    /**
+     * Match the way against the way property set, name it and compute its permissions. This is
+     * called concurrently for different ways, so it must not modify the graph or any shared
+     * state.
+     *
+     * @return the processed way or {@code null} if the way is not routable.
+     */
+    private ProcessedWay processWay(OSMWay way) {
+      WayProperties wayData = wayPropertySet.getDataForWay(way);
+      setWayName(way);
+      StreetTraversalPermission permissions = OSMFilter.getPermissionsForWay(
+        way,
+        wayData.getPermission(),
+        banDiscouragedWalking,
+        banDiscouragedBiking,
+        issueStore
+      );
+      if (!OSMFilter.isWayRoutable(way) || permissions.allowsNothing()) {
+        return null;
+      }
+      return new ProcessedWay(way, wayData, permissions);
+    }
+
     private void setWayName(OSMWithTags way) {
       if (!way.hasTag("name")) {
         I18NString creativeName = wayPropertySet.getCreativeNameForWay(way);
@@ -1686,4 +1713,14 @@ public class OpenStreetMapModule implements GraphBuilderModule {
       return vertices.get(level);
     }
   }
+
+  /**
+   * The result of matching an OSM way against the {@link WayPropertySet}, computed in parallel
+   * before the street edges are created.
+   */
+  private record ProcessedWay(
+    OSMWay way,
+    WayProperties properties,
+    StreetTraversalPermission permissions
+  ) {}
 }
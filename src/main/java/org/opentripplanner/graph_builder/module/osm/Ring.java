@@ -1,7 +1,6 @@
 package org.opentripplanner.graph_builder.module.osm;
 
 import gnu.trove.list.TLongList;
-import gnu.trove.map.TLongObjectMap;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Iterator;
@@ -43,7 +42,7 @@ public class Ring {
     jtsPolygon = calculateJtsPolygon();
   }
 
-  public Ring(TLongList osmNodes, TLongObjectMap<OSMNode> _nodes) {
+  Ring(TLongList osmNodes, OSMNodeStore _nodes) {
     ArrayList<Coordinate> vertices = new ArrayList<>();
     nodes = new ArrayList<>(osmNodes.size());
     osmNodes.forEach(nodeId -> {
@@ -5,10 +5,12 @@ import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 import java.util.stream.Stream;
 import org.locationtech.jts.geom.Coordinate;
 import org.locationtech.jts.geom.Geometry;
@@ -18,6 +20,8 @@ import org.locationtech.jts.geom.MultiLineString;
 import org.locationtech.jts.geom.MultiPolygon;
 import org.locationtech.jts.geom.Point;
 import org.locationtech.jts.geom.Polygon;
+import org.locationtech.jts.geom.prep.PreparedGeometry;
+import org.locationtech.jts.geom.prep.PreparedGeometryFactory;
 import org.opentripplanner.common.geometry.SphericalDistanceLibrary;
 import org.opentripplanner.common.model.P2;
 import org.opentripplanner.graph_builder.DataImportIssueStore;
@@ -207,7 +211,8 @@ public class WalkableAreaBuilder {
 
       // the points corresponding to concave or hole vertices
       // or those linked to ways
-      HashSet<OSMNode> visibilityNodes = new HashSet<>();
+      // A linked set keeps the insertion order, so the edges are created in a reproducible order
+      Set<OSMNode> visibilityNodes = new LinkedHashSet<>();
       HashSet<P2<OSMNode>> alreadyAddedEdges = new HashSet<>();
       HashSet<IntersectionVertex> platformLinkingVertices = new HashSet<>();
       // we need to accumulate visibility points from all contained areas
@@ -322,37 +327,43 @@ public class WalkableAreaBuilder {
 
       createNamedAreas(edgeList, ring, group.areas);
 
-      for (OSMNode nodeI : visibilityNodes) {
-        IntersectionVertex startEndpoint = handler.getVertexForOsmNode(nodeI, areaEntity);
-        if (startingNodes.contains(nodeI)) {
+      // Create the vertices up front, the visibility check below runs in parallel and must not
+      // modify the graph.
+      List<OSMNode> nodes = List.copyOf(visibilityNodes);
+      List<IntersectionVertex> vertices = nodes
+        .stream()
+        .map(node -> handler.getVertexForOsmNode(node, areaEntity))
+        .toList();
+
+      // The prepared polygon indexes the ring segments, so each visibility check only needs to
+      // test the segments close to the line instead of the whole polygon boundary.
+      PreparedGeometry preparedPolygon = PreparedGeometryFactory.prepare(polygon);
+      List<int[]> visibleNodes = IntStream
+        .range(0, nodes.size())
+        .parallel()
+        .mapToObj(i -> findVisibleNodes(i, nodes, vertices, preparedPolygon, alreadyAddedEdges))
+        .toList();
+
+      for (int i = 0; i < nodes.size(); ++i) {
+        IntersectionVertex startEndpoint = vertices.get(i);
+        if (startingNodes.contains(nodes.get(i))) {
           startingVertices.add(startEndpoint);
         }
 
-        for (OSMNode nodeJ : visibilityNodes) {
-          P2<OSMNode> nodePair = new P2<>(nodeI, nodeJ);
-          if (alreadyAddedEdges.contains(nodePair)) continue;
-
-          IntersectionVertex endEndpoint = handler.getVertexForOsmNode(nodeJ, areaEntity);
-
-          Coordinate[] coordinates = new Coordinate[] {
-            startEndpoint.getCoordinate(),
-            endEndpoint.getCoordinate(),
-          };
-          LineString line = geometryFactory.createLineString(coordinates);
-          if (polygon.contains(line)) {
-            Set<AreaEdge> segments = createSegments(
-              startEndpoint,
-              endEndpoint,
-              group.areas,
-              edgeList
-            );
-            edges.addAll(segments);
-            if (platformLinkingVertices.contains(startEndpoint)) {
-              ringEdges.addAll(segments);
-            }
-            if (platformLinkingVertices.contains(endEndpoint)) {
-              ringEdges.addAll(segments);
-            }
+        for (int j : visibleNodes.get(i)) {
+          IntersectionVertex endEndpoint = vertices.get(j);
+          Set<AreaEdge> segments = createSegments(
+            startEndpoint,
+            endEndpoint,
+            group.areas,
+            edgeList
+          );
+          edges.addAll(segments);
+          if (platformLinkingVertices.contains(startEndpoint)) {
+            ringEdges.addAll(segments);
+          }
+          if (platformLinkingVertices.contains(endEndpoint)) {
+            ringEdges.addAll(segments);
           }
         }
       }
@@ -360,6 +371,36 @@ public class WalkableAreaBuilder {
     pruneAreaEdges(startingVertices, edges, ringEdges);
   }
 
+  /**
+   * Find the indices of all the nodes which are visible from node {@code i}, that is the line
+   * between them lies within the area polygon. This does not modify any state, so it may be called
+   * concurrently.
+   */
+  private static int[] findVisibleNodes(
+    int i,
+    List<OSMNode> nodes,
+    List<IntersectionVertex> vertices,
+    PreparedGeometry polygon,
+    Set<P2<OSMNode>> alreadyAddedEdges
+  ) {
+    GeometryFactory geometryFactory = GeometryUtils.getGeometryFactory();
+    OSMNode nodeI = nodes.get(i);
+    Coordinate from = vertices.get(i).getCoordinate();
+    IntStream.Builder visible = IntStream.builder();
+
+    for (int j = 0; j < nodes.size(); ++j) {
+      // A zero-length segment never produces any edges
+      if (i == j || alreadyAddedEdges.contains(new P2<>(nodeI, nodes.get(j)))) {
+        continue;
+      }
+      Coordinate[] coordinates = new Coordinate[] { from, vertices.get(j).getCoordinate() };
+      if (polygon.contains(geometryFactory.createLineString(coordinates))) {
+        visible.add(j);
+      }
+    }
+    return visible.build().toArray();
+  }
+
   private Set<String> getStopReferences(AreaGroup group) {
     return group.areas
       .stream()
@@ -50,34 +50,48 @@ public class RepairStopTimesForEachTripOperation {
 
   public void run() {
     final int tripSize = stopTimesByTrip.size();
-    int tripCount = 0;
+    LOG.debug("Repair StopTimes for {} trips", tripSize);
 
-    for (Trip trip : stopTimesByTrip.keys()) {
-      if (++tripCount % 100000 == 0) {
-        LOG.debug("Repair StopTimes for trips {}/{}", tripCount, tripSize);
-      }
+    // The trips are repaired in parallel, but the result is applied in the original trip order
+    List<Trip> trips = new ArrayList<>(tripSize);
+    stopTimesByTrip.keys().forEach(trips::add);
 
-      /* Fetch the stop times for this trip. Copy the list since it's immutable. */
-      List<StopTime> stopTimes = new ArrayList<>(stopTimesByTrip.get(trip));
+    List<List<StopTime>> repairedStopTimes = trips
+      .parallelStream()
+      .map(this::repairStopTimesForTrip)
+      .toList();
 
-      // if we don't have flex routing enabled then remove all the flex locations and location
-      // groups
-      if (OTPFeature.FlexRouting.isOff()) {
-        stopTimes.removeIf(st -> !(st.getStop() instanceof Stop));
-      }
+    for (int i = 0; i < trips.size(); ++i) {
+      stopTimesByTrip.replace(trips.get(i), repairedStopTimes.get(i));
+    }
+  }
 
-      /* Stop times frequently contain duplicate, missing, or incorrect entries. Repair them. */
-      TIntList removedStopSequences = removeRepeatedStops(stopTimes);
-      if (!removedStopSequences.isEmpty()) {
-        issueStore.add(new RepeatedStops(trip, removedStopSequences));
-      }
-      if (!filterStopTimes(stopTimes)) {
-        stopTimesByTrip.replace(trip, List.of());
-      } else {
-        interpolateStopTimes(stopTimes);
-        stopTimesByTrip.replace(trip, stopTimes);
-      }
+  /**
+   * Repair the stop times of a single trip. This does not modify any shared state, so it is safe
+   * to call this concurrently for different trips.
+   *
+   * @return the repaired stop times, an empty list if the trip is not usable.
+   */
+  private List<StopTime> repairStopTimesForTrip(Trip trip) {
+    /* Fetch the stop times for this trip. Copy the list since it's immutable. */
+    List<StopTime> stopTimes = new ArrayList<>(stopTimesByTrip.get(trip));
+
+    // if we don't have flex routing enabled then remove all the flex locations and location
+    // groups
+    if (OTPFeature.FlexRouting.isOff()) {
+      stopTimes.removeIf(st -> !(st.getStop() instanceof Stop));
+    }
+
+    /* Stop times frequently contain duplicate, missing, or incorrect entries. Repair them. */
+    TIntList removedStopSequences = removeRepeatedStops(stopTimes);
+    if (!removedStopSequences.isEmpty()) {
+      issueStore.add(new RepeatedStops(trip, removedStopSequences));
+    }
+    if (!filterStopTimes(stopTimes)) {
+      return List.of();
     }
+    interpolateStopTimes(stopTimes);
+    return stopTimes;
   }
 
   /**
@@ -1,10 +1,20 @@
 package org.opentripplanner.netex;
 
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import java.io.Closeable;
 import java.io.IOException;
-import java.util.List;
+import java.io.InputStream;
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.Iterator;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import javax.xml.bind.JAXBException;
+import javax.xml.stream.XMLStreamException;
 import org.opentripplanner.datastore.api.CompositeDataSource;
 import org.opentripplanner.datastore.api.DataSource;
 import org.opentripplanner.graph_builder.DataImportIssueStore;
@@ -18,7 +28,6 @@ import org.opentripplanner.netex.mapping.NetexMapper;
 import org.opentripplanner.netex.validation.Validator;
 import org.opentripplanner.standalone.config.NetexConfig;
 import org.opentripplanner.transit.model.framework.Deduplicator;
-import org.rutebanken.netex.model.PublicationDeliveryStructure;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -36,6 +45,15 @@ public class NetexBundle implements Closeable {
 
   private static final Logger LOG = LoggerFactory.getLogger(NetexBundle.class);
 
+  /**
+   * The maximum number of independent group files parsed in parallel. Each parsed file is kept in
+   * memory until it is mapped, so this also limit the memory used.
+   */
+  private static final int MAX_FILES_PARSED_AHEAD = Math.min(
+    4,
+    Runtime.getRuntime().availableProcessors()
+  );
+
   private final CompositeDataSource source;
 
   private final NetexDataSourceHierarchy hierarchy;
@@ -120,12 +138,8 @@ public class NetexBundle implements Closeable {
         // Load shared group files
         loadFilesThenMapToOtpTransitModel("shared group file", group.sharedEntries());
 
-        for (DataSource entry : group.independentEntries()) {
-          scopeInputData(() -> {
-            // Load each independent file in group
-            loadFilesThenMapToOtpTransitModel("group file", List.of(entry));
-          });
-        }
+        // Load each independent file in group
+        loadIndependentFilesThenMapToOtpTransitModel(group.independentEntries());
       });
     }
     mapper.finnishUp();
@@ -156,9 +170,79 @@ public class NetexBundle implements Closeable {
   ) {
     for (DataSource entry : entries) {
       // Load entry and store it in the index
-      loadSingeFileEntry(fileDescription, entry);
+      loadSingeFileEntry(fileDescription, entry, index, xmlParser);
     }
+    validateAndMapToOtpTransitModel();
+  }
 
+  /**
+   * Load the independent files of a group and map each of them to the OTP Transit model. The
+   * files are parsed in parallel, each into its own index on top of the group index. To keep the
+   * memory usage bounded only a few files are parsed ahead of the mapping, which is done one file
+   * at the time in the original file order.
+   */
+  private void loadIndependentFilesThenMapToOtpTransitModel(Collection<DataSource> entries) {
+    if (entries.isEmpty()) {
+      return;
+    }
+    final NetexEntityIndex groupIndex = index;
+    int nThreads = Math.min(entries.size(), MAX_FILES_PARSED_AHEAD);
+    ExecutorService executor = Executors.newFixedThreadPool(
+      nThreads,
+      new ThreadFactoryBuilder().setNameFormat("NetexParser-%d").build()
+    );
+    try {
+      Iterator<DataSource> it = entries.iterator();
+      Deque<Future<NetexEntityIndex>> parsedFiles = new ArrayDeque<>();
+
+      while (parsedFiles.size() < nThreads && it.hasNext()) {
+        parsedFiles.add(submitParseFile(executor, groupIndex, it.next()));
+      }
+      while (!parsedFiles.isEmpty()) {
+        NetexEntityIndex fileIndex = waitFor(parsedFiles.poll());
+        if (it.hasNext()) {
+          parsedFiles.add(submitParseFile(executor, groupIndex, it.next()));
+        }
+        index = fileIndex;
+        mapper = mapper.push();
+        validateAndMapToOtpTransitModel();
+        mapper = mapper.pop();
+        index = groupIndex;
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  private Future<NetexEntityIndex> submitParseFile(
+    ExecutorService executor,
+    NetexEntityIndex groupIndex,
+    DataSource entry
+  ) {
+    return executor.submit(() -> {
+      NetexEntityIndex fileIndex = groupIndex.push();
+      // The xml parser is not thread-safe, so each file get its own
+      loadSingeFileEntry("group file", entry, fileIndex, new NetexXmlParser());
+      return fileIndex;
+    });
+  }
+
+  private static NetexEntityIndex waitFor(Future<NetexEntityIndex> parsedFile) {
+    try {
+      return parsedFile.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new RuntimeException(e.getMessage(), e);
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) e.getCause();
+      }
+      throw new RuntimeException(e.getCause().getMessage(), e.getCause());
+    }
+  }
+
+  /** Validate the current index and map it to the OTP Transit model. */
+  private void validateAndMapToOtpTransitModel() {
     // Validate input data, and remove invalid data
     Validator.validate(index, issueStore);
 
@@ -166,14 +250,18 @@ public class NetexBundle implements Closeable {
     mapper.mapNetexToOtp(index.readOnlyView());
   }
 
-  /** Load a single entry and store it in the index for later */
-  private void loadSingeFileEntry(String fileDescription, DataSource entry) {
-    try {
-      LOG.info("reading entity {}: {}", fileDescription, entry.name());
+  /** Load a single entry and store it in the given index for later */
+  private static void loadSingeFileEntry(
+    String fileDescription,
+    DataSource entry,
+    NetexEntityIndex index,
+    NetexXmlParser xmlParser
+  ) {
+    LOG.info("reading entity {}: {}", fileDescription, entry.name());
 
-      PublicationDeliveryStructure doc = xmlParser.parseXmlDoc(entry.asInputStream());
-      NetexDocumentParser.parseAndPopulateIndex(index, doc);
-    } catch (JAXBException e) {
+    try (InputStream stream = entry.asInputStream()) {
+      NetexDocumentParser.parseAndPopulateIndex(index, xmlParser, stream);
+    } catch (JAXBException | XMLStreamException | IOException e) {
       throw new RuntimeException(e.getMessage(), e);
     }
   }
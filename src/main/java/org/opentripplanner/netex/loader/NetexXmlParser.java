@@ -1,38 +1,123 @@
 package org.opentripplanner.netex.loader;
 
 import java.io.InputStream;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.function.Consumer;
 import javax.xml.bind.JAXBContext;
-import javax.xml.bind.JAXBElement;
 import javax.xml.bind.JAXBException;
+import javax.xml.bind.JAXBIntrospector;
 import javax.xml.bind.Unmarshaller;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import org.rutebanken.netex.model.Common_VersionFrameStructure;
 import org.rutebanken.netex.model.PublicationDeliveryStructure;
+import org.rutebanken.netex.model.VersionFrameDefaultsStructure;
 
-/** Simple wrapper to perform typesafe xml parsing and simple error handling. */
+/**
+ * Simple wrapper to perform typesafe xml parsing and simple error handling.
+ * <p>
+ * The document is read as a stream, and only one frame at the time is unmarshalled into JAXB
+ * objects. Composite frames are not unmarshalled as a whole, instead the frames inside them are
+ * passed on one by one. This keep the memory usage down to the size of the largest frame, not the
+ * size of the whole document.
+ * <p>
+ * THIS CLASS IS NOT THREAD-SAFE, create one parser for each thread.
+ */
 public class NetexXmlParser {
 
+  private static final String DATA_OBJECTS = "dataObjects";
+  private static final String COMPOSITE_FRAME = "CompositeFrame";
+  private static final String FRAMES = "frames";
+  private static final String FRAME_DEFAULTS = "FrameDefaults";
+
+  /** The context is expensive to create, but thread-safe - so we share it. */
+  private static final JAXBContext JAXB_CONTEXT = createJaxbContext();
+
   /** used to parse the XML. */
   private final Unmarshaller unmarshaller;
 
+  private final XMLInputFactory xmlInputFactory;
+
   public NetexXmlParser() {
     this.unmarshaller = createUnmarshaller();
+    this.xmlInputFactory = XMLInputFactory.newFactory();
   }
 
   /**
-   * Parse an input stream and return the root document type for the given xml file (stream).
+   * Parse an input stream and pass each frame in the document on to the given {@code frameHandler}
+   * as soon as it is read. Composite frames are not passed on, but the frames they contain are.
+   * The frame defaults of each composite frame are passed on to the {@code
+   * compositeFrameDefaultsHandler} before any of its child frames, with {@code null} if the
+   * composite frame does not have any defaults.
    */
-  public PublicationDeliveryStructure parseXmlDoc(InputStream stream) throws JAXBException {
-    JAXBElement<PublicationDeliveryStructure> root;
+  public void parseFrames(
+    InputStream stream,
+    Consumer<Common_VersionFrameStructure> frameHandler,
+    Consumer<VersionFrameDefaultsStructure> compositeFrameDefaultsHandler
+  ) throws JAXBException, XMLStreamException {
+    XMLStreamReader reader = xmlInputFactory.createXMLStreamReader(stream);
+    try {
+      // The names of the elements enclosing the current position in the document
+      Deque<String> path = new ArrayDeque<>();
+      boolean frameDefaultsPending = false;
 
-    //noinspection unchecked
-    root = (JAXBElement<PublicationDeliveryStructure>) unmarshaller.unmarshal(stream);
+      while (reader.hasNext()) {
+        if (reader.isStartElement()) {
+          String name = reader.getLocalName();
+          String parent = path.peek();
 
-    return root.getValue();
+          if (COMPOSITE_FRAME.equals(parent) && FRAME_DEFAULTS.equals(name)) {
+            frameDefaultsPending = false;
+            compositeFrameDefaultsHandler.accept(
+              unmarshaller.unmarshal(reader, VersionFrameDefaultsStructure.class).getValue()
+            );
+            // The unmarshaller leaves the reader at the event after the end element
+            continue;
+          }
+          if (COMPOSITE_FRAME.equals(parent) && FRAMES.equals(name) && frameDefaultsPending) {
+            frameDefaultsPending = false;
+            compositeFrameDefaultsHandler.accept(null);
+          }
+          if (isFrameContainer(parent) && !COMPOSITE_FRAME.equals(name)) {
+            frameHandler.accept(
+              (Common_VersionFrameStructure) JAXBIntrospector.getValue(
+                unmarshaller.unmarshal(reader)
+              )
+            );
+            continue;
+          }
+          if (isFrameContainer(parent)) {
+            frameDefaultsPending = true;
+          }
+          path.push(name);
+        } else if (reader.isEndElement()) {
+          if (COMPOSITE_FRAME.equals(path.pop()) && frameDefaultsPending) {
+            // An empty composite frame
+            frameDefaultsPending = false;
+            compositeFrameDefaultsHandler.accept(null);
+          }
+        }
+        reader.next();
+      }
+    } finally {
+      reader.close();
+    }
+  }
+
+  /**
+   * Frames are found in the data objects of the publication delivery and in the frames of a
+   * composite frame.
+   */
+  private static boolean isFrameContainer(String elementName) {
+    return DATA_OBJECTS.equals(elementName) || FRAMES.equals(elementName);
   }
 
   /** factory method for unmarshaller */
   private static Unmarshaller createUnmarshaller() {
     try {
-      return JAXBContext.newInstance(PublicationDeliveryStructure.class).createUnmarshaller();
+      return JAXB_CONTEXT.createUnmarshaller();
     } catch (JAXBException e) {
       // This is a programming error - not expected!
       // We abort early and also allow for this to happen in the constructor;
@@ -40,4 +125,13 @@ public class NetexXmlParser {
       throw new RuntimeException(e);
     }
   }
+
+  private static JAXBContext createJaxbContext() {
+    try {
+      return JAXBContext.newInstance(PublicationDeliveryStructure.class);
+    } catch (JAXBException e) {
+      // This is a programming error - not expected!
+      throw new RuntimeException(e);
+    }
+  }
 }
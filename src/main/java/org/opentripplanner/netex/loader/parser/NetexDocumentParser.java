@@ -1,14 +1,13 @@
 package org.opentripplanner.netex.loader.parser;
 
-import java.util.Collection;
-import java.util.List;
-import javax.xml.bind.JAXBElement;
+import java.io.InputStream;
+import javax.xml.bind.JAXBException;
+import javax.xml.stream.XMLStreamException;
 import org.opentripplanner.netex.index.NetexEntityIndex;
+import org.opentripplanner.netex.loader.NetexXmlParser;
 import org.rutebanken.netex.model.Common_VersionFrameStructure;
-import org.rutebanken.netex.model.CompositeFrame;
 import org.rutebanken.netex.model.GeneralFrame;
 import org.rutebanken.netex.model.InfrastructureFrame;
-import org.rutebanken.netex.model.PublicationDeliveryStructure;
 import org.rutebanken.netex.model.ResourceFrame;
 import org.rutebanken.netex.model.ServiceCalendarFrame;
 import org.rutebanken.netex.model.ServiceFrame;
@@ -35,30 +34,24 @@ public class NetexDocumentParser {
 
   /**
    * This static method create a new parser and parse the document. The result is added to given
-   * index for further processing.
+   * index for further processing. The document is streamed, frame by frame, so the document is
+   * never held in memory as a whole.
    */
   public static void parseAndPopulateIndex(
     NetexEntityIndex index,
-    PublicationDeliveryStructure doc
-  ) {
-    new NetexDocumentParser(index).parse(doc);
+    NetexXmlParser xmlParser,
+    InputStream stream
+  ) throws JAXBException, XMLStreamException {
+    NetexDocumentParser parser = new NetexDocumentParser(index);
+    // Composite frames are not passed on by the xml parser, only their frame defaults and the
+    // frames they contain.
+    xmlParser.parseFrames(stream, parser::parseCommonFrame, parser::parseFrameDefaultsLikeTimeZone);
   }
 
   public static void finnishUp() {
     ServiceFrameParser.logSummary();
   }
 
-  /** Top level parse method - parses the document. */
-  private void parse(PublicationDeliveryStructure doc) {
-    parseFrameList(doc.getDataObjects().getCompositeFrameOrCommonFrame());
-  }
-
-  private void parseFrameList(List<JAXBElement<? extends Common_VersionFrameStructure>> frames) {
-    for (JAXBElement<? extends Common_VersionFrameStructure> frame : frames) {
-      parseCommonFrame(frame.getValue());
-    }
-  }
-
   private void parseCommonFrame(Common_VersionFrameStructure value) {
     if (value instanceof ResourceFrame) {
       parse((ResourceFrame) value, new ResourceFrameParser());
@@ -70,12 +63,6 @@ public class NetexDocumentParser {
       parse((ServiceFrame) value, new ServiceFrameParser(netexIndex.flexibleStopPlaceById));
     } else if (value instanceof SiteFrame) {
       parse((SiteFrame) value, new SiteFrameParser());
-    } else if (value instanceof CompositeFrame) {
-      // We recursively parse composite frames and content until there
-      // is no more nested frames - this is accepting documents which
-      // are not withing the specification, but we leave this for the
-      // document schema validation - not a OTP responsibility
-      parseCompositeFrame((CompositeFrame) value);
     } else if (value instanceof GeneralFrame || value instanceof InfrastructureFrame) {
       NetexParser.informOnElementIntentionallySkipped(LOG, value);
     } else {
@@ -83,24 +70,11 @@ public class NetexDocumentParser {
     }
   }
 
-  private void parseCompositeFrame(CompositeFrame frame) {
-    // Declare some ugly types to prevent obstructing the reading later...
-    Collection<JAXBElement<? extends Common_VersionFrameStructure>> frames;
-
-    // TODO OTP2 #2781 - Frame defaults can be set on any frame according to the Norwegian
-    //                 - profile. This only set it on the composite frame, and further
-    //                 - overriding it at a sub-level will not be acknowledged, or even
-    //                 - given any kind of warning. This should be fixed as part of Issue
-    //                 - https://github.com/opentripplanner/OpenTripPlanner/issues/2781
-    parseFrameDefaultsLikeTimeZone(frame.getFrameDefaults());
-
-    frames = frame.getFrames().getCommonFrame();
-
-    for (JAXBElement<? extends Common_VersionFrameStructure> it : frames) {
-      parseCommonFrame(it.getValue());
-    }
-  }
-
+  // TODO OTP2 #2781 - Frame defaults can be set on any frame according to the Norwegian
+  //                 - profile. This only set it on the composite frame, and further
+  //                 - overriding it at a sub-level will not be acknowledged, or even
+  //                 - given any kind of warning. This should be fixed as part of Issue
+  //                 - https://github.com/opentripplanner/OpenTripPlanner/issues/2781
   private void parseFrameDefaultsLikeTimeZone(VersionFrameDefaultsStructure frameDefaults) {
     String timeZone = "GMT";
 
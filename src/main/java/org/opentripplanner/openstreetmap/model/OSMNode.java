@@ -67,6 +67,26 @@ public class OSMNode extends OSMWithTags {
     );
   }
 
+  /**
+   * Nodes are equal if they have the same OSM id. The graph builder may materialize several
+   * instances of the same node, see {@code OSMNodeStore}.
+   */
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (o == null || getClass() != o.getClass()) {
+      return false;
+    }
+    return id == ((OSMNode) o).id;
+  }
+
+  @Override
+  public int hashCode() {
+    return Long.hashCode(id);
+  }
+
   @Override
   public String getOpenStreetMapLink() {
     return String.format("https://www.openstreetmap.org/node/%d", getId());
@@ -11,6 +11,7 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionException;
+import org.opentripplanner.ext.flex.FlexParameters;
 import org.opentripplanner.model.plan.Itinerary;
 import org.opentripplanner.model.plan.PagingSearchWindowAdjuster;
 import org.opentripplanner.routing.algorithm.filterchain.ItineraryListFilterChain;
@@ -62,6 +63,8 @@ public class RoutingWorker {
    */
   private final ZonedDateTime transitSearchTimeZero;
   private final AdditionalSearchDays additionalSearchDays;
+  /** Shared by the direct flex search and the flex access and egress, see the template deadline. */
+  private final FlexParameters flexParameters;
   private SearchParams raptorSearchParamsUsed = null;
   private Itinerary firstRemovedItinerary = null;
 
@@ -80,6 +83,7 @@ public class RoutingWorker {
         zoneId,
         request
       );
+    this.flexParameters = serverContext.routerConfig().flexParameters(request);
   }
 
   public RoutingResponse route() {
@@ -234,7 +238,9 @@ public class RoutingWorker {
 
     debugTimingAggregator.startedDirectFlexRouter();
     try {
-      itineraries.addAll(DirectFlexRouter.route(serverContext, request, additionalSearchDays));
+      itineraries.addAll(
+        DirectFlexRouter.route(serverContext, request, additionalSearchDays, flexParameters)
+      );
     } catch (RoutingValidationException e) {
       routingErrors.addAll(e.getRoutingErrors());
     } finally {
@@ -250,6 +256,7 @@ public class RoutingWorker {
         serverContext,
         transitSearchTimeZero,
         additionalSearchDays,
+        flexParameters,
         debugTimingAggregator
       );
       raptorSearchParamsUsed = transitResults.getSearchParams();
@@ -6,6 +6,7 @@ import java.util.Collection;
 import java.util.List;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionException;
+import org.opentripplanner.ext.flex.FlexParameters;
 import org.opentripplanner.routing.algorithm.mapping.RaptorPathToItineraryMapper;
 import org.opentripplanner.routing.algorithm.raptoradapter.router.street.AccessEgressRouter;
 import org.opentripplanner.routing.algorithm.raptoradapter.router.street.FlexAccessEgressRouter;
@@ -45,18 +46,21 @@ public class TransitRouter {
   private final DebugTimingAggregator debugTimingAggregator;
   private final ZonedDateTime transitSearchTimeZero;
   private final AdditionalSearchDays additionalSearchDays;
+  private final FlexParameters flexParameters;
 
   private TransitRouter(
     RoutingRequest request,
     OtpServerContext serverContext,
     ZonedDateTime transitSearchTimeZero,
     AdditionalSearchDays additionalSearchDays,
+    FlexParameters flexParameters,
     DebugTimingAggregator debugTimingAggregator
   ) {
     this.request = request;
     this.serverContext = serverContext;
     this.transitSearchTimeZero = transitSearchTimeZero;
     this.additionalSearchDays = additionalSearchDays;
+    this.flexParameters = flexParameters;
     this.debugTimingAggregator = debugTimingAggregator;
   }
 
@@ -65,6 +69,7 @@ public class TransitRouter {
     OtpServerContext serverContext,
     ZonedDateTime transitSearchTimeZero,
     AdditionalSearchDays additionalSearchDays,
+    FlexParameters flexParameters,
     DebugTimingAggregator debugTimingAggregator
   ) {
     var transitRouter = new TransitRouter(
@@ -72,6 +77,7 @@ public class TransitRouter {
       serverContext,
       transitSearchTimeZero,
       additionalSearchDays,
+      flexParameters,
       debugTimingAggregator
     );
     return transitRouter.route();
@@ -230,7 +236,8 @@ public class TransitRouter {
           routingContext,
           serverContext.transitService(),
           additionalSearchDays,
-          serverContext.routerConfig().flexParameters(request),
+          flexParameters,
+          serverContext.flexPathTableCache(),
           isEgress
         );
 
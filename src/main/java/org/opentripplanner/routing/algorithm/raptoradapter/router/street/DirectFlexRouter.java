@@ -4,6 +4,7 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
+import org.opentripplanner.ext.flex.FlexParameters;
 import org.opentripplanner.ext.flex.FlexRouter;
 import org.opentripplanner.model.plan.Itinerary;
 import org.opentripplanner.routing.algorithm.raptoradapter.router.AdditionalSearchDays;
@@ -19,7 +20,8 @@ public class DirectFlexRouter {
   public static List<Itinerary> route(
     OtpServerContext serverContext,
     RoutingRequest request,
-    AdditionalSearchDays additionalSearchDays
+    AdditionalSearchDays additionalSearchDays,
+    FlexParameters flexParameters
   ) {
     if (!StreetMode.FLEXIBLE.equals(request.modes.directMode)) {
       return Collections.emptyList();
@@ -51,7 +53,8 @@ public class DirectFlexRouter {
       FlexRouter flexRouter = new FlexRouter(
         serverContext.graph(),
         serverContext.transitService(),
-        serverContext.routerConfig().flexParameters(request),
+        flexParameters,
+        serverContext.flexPathTableCache(),
         directRequest.getDateTime(),
         directRequest.arriveBy,
         additionalSearchDays.additionalSearchDaysInPast(),
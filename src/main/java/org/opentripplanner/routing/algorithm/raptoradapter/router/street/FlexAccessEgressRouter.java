@@ -5,6 +5,7 @@ import java.util.List;
 import org.opentripplanner.ext.flex.FlexAccessEgress;
 import org.opentripplanner.ext.flex.FlexParameters;
 import org.opentripplanner.ext.flex.FlexRouter;
+import org.opentripplanner.ext.flex.flexpathcalculator.FlexPathTableCache;
 import org.opentripplanner.routing.algorithm.raptoradapter.router.AdditionalSearchDays;
 import org.opentripplanner.routing.api.request.StreetMode;
 import org.opentripplanner.routing.core.RoutingContext;
@@ -20,6 +21,7 @@ public class FlexAccessEgressRouter {
     TransitService transitService,
     AdditionalSearchDays searchDays,
     FlexParameters params,
+    FlexPathTableCache flexPathTableCache,
     boolean isEgress
   ) {
     Collection<NearbyStop> accessStops = !isEgress
@@ -34,6 +36,7 @@ public class FlexAccessEgressRouter {
       routingContext.graph,
       transitService,
       params,
+      flexPathTableCache,
       routingContext.opt.getDateTime(),
       routingContext.opt.arriveBy,
       searchDays.additionalSearchDaysInPast(),
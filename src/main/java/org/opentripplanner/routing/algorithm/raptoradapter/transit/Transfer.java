@@ -1,5 +1,6 @@
 package org.opentripplanner.routing.algorithm.raptoradapter.transit;
 
+import java.io.Serializable;
 import java.time.Instant;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -15,7 +16,9 @@ import org.opentripplanner.routing.core.StateEditor;
 import org.opentripplanner.routing.graph.Edge;
 import org.opentripplanner.transit.raptor.api.transit.RaptorTransfer;
 
-public class Transfer {
+public class Transfer implements Serializable {
+
+  private static final long serialVersionUID = 1L;
 
   private final int toStop;
 
@@ -0,0 +1,36 @@
+package org.opentripplanner.routing.algorithm.raptoradapter.transit;
+
+/**
+ * The window of running dates, relative to today, for which the Raptor transit data is kept in
+ * the transit layer. The window is created at startup and rolls forward each day when the
+ * realtime transit layer is updated. Transit data for dates outside the window is created when a
+ * search needs it, and a limited number of these service dates are kept in an LRU cache.
+ *
+ * @param daysBefore    number of days before today included in the window.
+ * @param daysAfter     number of days after today included in the window.
+ * @param maxCachedDays the max number of service dates outside the window to keep.
+ * @param onDemandDays  number of days before and after the window for which transit data is
+ *                      created on demand, there is no transit data for the dates further away.
+ */
+public record TransitDataWindow(
+  int daysBefore,
+  int daysAfter,
+  int maxCachedDays,
+  int onDemandDays
+) {
+  public TransitDataWindow {
+    if (daysBefore < 0 || daysAfter < 0 || maxCachedDays < 1 || onDemandDays < 0) {
+      throw new IllegalArgumentException(
+        "Invalid transit data window, daysBefore, daysAfter and onDemandDays can not be " +
+        "negative and maxCachedDays must be at least one. daysBefore: " +
+        daysBefore +
+        ", daysAfter: " +
+        daysAfter +
+        ", maxCachedDays: " +
+        maxCachedDays +
+        ", onDemandDays: " +
+        onDemandDays
+      );
+    }
+  }
+}
@@ -11,6 +11,7 @@ import java.util.stream.Collectors;
 import javax.annotation.Nullable;
 import org.opentripplanner.model.transfer.TransferService;
 import org.opentripplanner.routing.algorithm.raptoradapter.transit.constrainedtransfer.TransferIndexGenerator;
+import org.opentripplanner.routing.algorithm.raptoradapter.transit.mappers.LazyTripPatternForDateProvider;
 import org.opentripplanner.routing.algorithm.raptoradapter.transit.mappers.TripPatternMapper;
 import org.opentripplanner.routing.algorithm.raptoradapter.transit.request.RaptorRequestTransferCache;
 import org.opentripplanner.routing.core.RoutingContext;
@@ -49,6 +50,13 @@ public class TransitLayer {
 
   private final int[] stopBoardAlightCosts;
 
+  /**
+   * If the transit data is only kept for a window of dates, this provides the transit data for
+   * the dates not in this layer. If {@code null} all dates are created at startup.
+   */
+  @Nullable
+  private final LazyTripPatternForDateProvider lazyTripPatternForDateProvider;
+
   /**
    * Makes a shallow copy of the TransitLayer, except for the tripPatternsForDate, where a shallow
    * copy of the HashMap is made. This is sufficient, as the TransitLayerUpdater will replace entire
@@ -64,7 +72,8 @@ public class TransitLayer {
       transitLayer.transferCache,
       transitLayer.tripPatternMapper,
       transitLayer.transferIndexGenerator,
-      transitLayer.stopBoardAlightCosts
+      transitLayer.stopBoardAlightCosts,
+      transitLayer.lazyTripPatternForDateProvider
     );
   }
 
@@ -77,7 +86,8 @@ public class TransitLayer {
     RaptorRequestTransferCache transferCache,
     TripPatternMapper tripPatternMapper,
     TransferIndexGenerator transferIndexGenerator,
-    int[] stopBoardAlightCosts
+    int[] stopBoardAlightCosts,
+    @Nullable LazyTripPatternForDateProvider lazyTripPatternForDateProvider
   ) {
     this.tripPatternsRunningOnDate = new HashMap<>(tripPatternsRunningOnDate);
     this.transfersByStopIndex = transfersByStopIndex;
@@ -88,6 +98,7 @@ public class TransitLayer {
     this.tripPatternMapper = tripPatternMapper;
     this.transferIndexGenerator = transferIndexGenerator;
     this.stopBoardAlightCosts = stopBoardAlightCosts;
+    this.lazyTripPatternForDateProvider = lazyTripPatternForDateProvider;
   }
 
   public int getIndexByStop(Stop stop) {
@@ -104,7 +115,14 @@ public class TransitLayer {
   }
 
   public Collection<TripPatternForDate> getTripPatternsForDate(LocalDate date) {
-    return tripPatternsRunningOnDate.getOrDefault(date, List.of());
+    List<TripPatternForDate> tripPatternForDate = tripPatternsRunningOnDate.get(date);
+    if (tripPatternForDate != null) {
+      return tripPatternForDate;
+    }
+    if (lazyTripPatternForDateProvider != null) {
+      return lazyTripPatternForDateProvider.getTripPatternsRunningOnDate(date);
+    }
+    return List.of();
   }
 
   /**
@@ -122,8 +140,7 @@ public class TransitLayer {
   }
 
   public List<TripPatternForDate> getTripPatternsRunningOnDateCopy(LocalDate runningPeriodDate) {
-    List<TripPatternForDate> tripPatternForDate = tripPatternsRunningOnDate.get(runningPeriodDate);
-    return tripPatternForDate != null ? new ArrayList<>(tripPatternForDate) : new ArrayList<>();
+    return new ArrayList<>(getTripPatternsForDate(runningPeriodDate));
   }
 
   public List<TripPatternForDate> getTripPatternsStartingOnDateCopy(LocalDate date) {
@@ -158,14 +175,41 @@ public class TransitLayer {
     return stopBoardAlightCosts;
   }
 
+  @Nullable
+  public LazyTripPatternForDateProvider getLazyTripPatternForDateProvider() {
+    return lazyTripPatternForDateProvider;
+  }
+
   /**
    * Replaces all the TripPatternForDates for a single date. This is an atomic operation according
-   * to the HashMap implementation.
+   * to the HashMap implementation. Dates created on demand are kept in this transit layer after
+   * they are updated, the provider only serves the scheduled data.
    */
   public void replaceTripPatternsForDate(
     LocalDate date,
     List<TripPatternForDate> tripPatternForDates
   ) {
-    this.tripPatternsRunningOnDate.replace(date, tripPatternForDates);
+    if (lazyTripPatternForDateProvider != null) {
+      this.tripPatternsRunningOnDate.put(date, tripPatternForDates);
+    } else {
+      this.tripPatternsRunningOnDate.replace(date, tripPatternForDates);
+    }
+  }
+
+  /**
+   * Drop the dates before the window of the {@link LazyTripPatternForDateProvider}, and add the
+   * dates which have entered the window since this layer was created. The dates in this layer
+   * are kept, so the realtime updates are not lost. Like the other updates, this must only be
+   * done on a copy which is not yet in use.
+   */
+  public void trimToTransitDataWindow() {
+    if (lazyTripPatternForDateProvider == null) {
+      return;
+    }
+    var provider = lazyTripPatternForDateProvider;
+    tripPatternsRunningOnDate.keySet().removeIf(provider::isBeforeWindow);
+    for (LocalDate date : provider.windowDates()) {
+      tripPatternsRunningOnDate.computeIfAbsent(date, provider::getTripPatternsRunningOnDate);
+    }
   }
 }
@@ -0,0 +1,71 @@
+package org.opentripplanner.routing.algorithm.raptoradapter.transit;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import org.opentripplanner.transit.model.network.TripPattern;
+import org.opentripplanner.transit.model.site.StopLocation;
+import org.opentripplanner.transit.service.StopModelIndex;
+
+/**
+ * The part of the {@link TransitLayer} that only depends on the transit model, created when the
+ * graph is built and serialized with it. This allows the server to skip mapping the trip patterns,
+ * dates and transfers at startup. The parts that depend on the router config, like the stop
+ * transfer costs and the constrained transfers, are still created at startup.
+ * <p>
+ * The Raptor data uses the stop index positions, so the snapshot can only be used if the stop
+ * index created at startup has the same order as the one used to create the snapshot.
+ */
+public class TransitLayerSnapshot implements Serializable {
+
+  private static final long serialVersionUID = 1L;
+
+  private final List<StopLocation> stopsByIndex;
+
+  private final Map<TripPattern, TripPatternWithRaptorStopIndexes> newTripPatternForOld;
+
+  private final Map<LocalDate, List<TripPatternForDate>> tripPatternsRunningOnDate;
+
+  private final List<List<Transfer>> transfersByStopIndex;
+
+  public TransitLayerSnapshot(
+    List<StopLocation> stopsByIndex,
+    Map<TripPattern, TripPatternWithRaptorStopIndexes> newTripPatternForOld,
+    Map<LocalDate, List<TripPatternForDate>> tripPatternsRunningOnDate,
+    List<List<Transfer>> transfersByStopIndex
+  ) {
+    this.stopsByIndex = stopsByIndex;
+    this.newTripPatternForOld = newTripPatternForOld;
+    this.tripPatternsRunningOnDate = tripPatternsRunningOnDate;
+    this.transfersByStopIndex = transfersByStopIndex;
+  }
+
+  /**
+   * Return {@code true} if the given stop index has the same stops in the same order as the stop
+   * index used to create this snapshot.
+   */
+  public boolean isCompatibleWith(StopModelIndex stopIndex) {
+    if (stopIndex.size() != stopsByIndex.size()) {
+      return false;
+    }
+    for (int i = 0; i < stopsByIndex.size(); ++i) {
+      if (!stopsByIndex.get(i).equals(stopIndex.stopByIndex(i))) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  public Map<TripPattern, TripPatternWithRaptorStopIndexes> newTripPatternForOld() {
+    return newTripPatternForOld;
+  }
+
+  public Map<LocalDate, List<TripPatternForDate>> tripPatternsRunningOnDate() {
+    return tripPatternsRunningOnDate;
+  }
+
+  public List<List<Transfer>> transfersByStopIndex() {
+    return transfersByStopIndex;
+  }
+}
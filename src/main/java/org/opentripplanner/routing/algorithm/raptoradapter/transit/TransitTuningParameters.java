@@ -2,6 +2,7 @@ package org.opentripplanner.routing.algorithm.raptoradapter.transit;
 
 import java.time.Duration;
 import java.util.List;
+import javax.annotation.Nullable;
 import org.opentripplanner.transit.model.site.StopTransferPriority;
 import org.opentripplanner.util.time.DurationUtils;
 
@@ -50,6 +51,11 @@ public interface TransitTuningParameters {
     public List<Duration> pagingSearchWindowAdjustments() {
       return PAGING_SEARCH_WINDOW_ADJUSTMENTS;
     }
+
+    @Override
+    public TransitDataWindow transitDataWindow() {
+      return null;
+    }
   };
 
   /**
@@ -96,4 +102,14 @@ public interface TransitTuningParameters {
    * The default values are: {@link #PAGING_SEARCH_WINDOW_ADJUSTMENTS}
    */
   List<Duration> pagingSearchWindowAdjustments();
+
+  /**
+   * Create the Raptor transit data at startup only for the running dates inside this window, the
+   * other dates are created when a search needs them and kept in an LRU cache. This reduces the
+   * startup time and memory usage for feeds with a long validity period.
+   * <p>
+   * Return {@code null} to create the transit data for all dates at startup, this is the default.
+   */
+  @Nullable
+  TransitDataWindow transitDataWindow();
 }
@@ -1,5 +1,6 @@
 package org.opentripplanner.routing.algorithm.raptoradapter.transit;
 
+import java.io.Serializable;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
@@ -16,7 +17,9 @@ import org.opentripplanner.util.time.ServiceDateUtils;
  * A TripPattern with its TripSchedules filtered by validity on a particular date. This is to avoid
  * having to do any filtering by date during the search itself.
  */
-public class TripPatternForDate {
+public class TripPatternForDate implements Serializable {
+
+  private static final long serialVersionUID = 1L;
 
   /**
    * The original TripPattern whose TripSchedules were filtered to produce this.tripSchedules. Its
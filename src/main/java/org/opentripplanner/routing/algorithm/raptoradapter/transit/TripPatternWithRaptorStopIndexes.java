@@ -1,5 +1,6 @@
 package org.opentripplanner.routing.algorithm.raptoradapter.transit;
 
+import java.io.Serializable;
 import java.util.BitSet;
 import java.util.Objects;
 import org.opentripplanner.routing.algorithm.raptoradapter.transit.constrainedtransfer.ConstrainedBoardingSearch;
@@ -11,7 +12,9 @@ import org.opentripplanner.transit.model.network.TripPattern;
 import org.opentripplanner.transit.raptor.api.transit.RaptorConstrainedTripScheduleBoardingSearch;
 import org.opentripplanner.transit.raptor.api.transit.RaptorTripPattern;
 
-public class TripPatternWithRaptorStopIndexes {
+public class TripPatternWithRaptorStopIndexes implements Serializable {
+
+  private static final long serialVersionUID = 1L;
 
   private final TripPattern pattern;
   private final int[] stopIndexes;
@@ -2,6 +2,7 @@ package org.opentripplanner.routing.algorithm.raptoradapter.transit.constrainedt
 
 import gnu.trove.map.TIntObjectMap;
 import gnu.trove.map.hash.TIntObjectHashMap;
+import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
@@ -9,7 +10,9 @@ import java.util.List;
 /**
  * Index to a list of transfers by the stop position in pattern
  */
-public class TransferForPatternByStopPos {
+public class TransferForPatternByStopPos implements Serializable {
+
+  private static final long serialVersionUID = 1L;
 
   private final TIntObjectMap<List<TransferForPattern>> transfers = new TIntObjectHashMap<>();
 
@@ -0,0 +1,226 @@
+package org.opentripplanner.routing.algorithm.raptoradapter.transit.mappers;
+
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import javax.annotation.Nonnull;
+import org.opentripplanner.routing.algorithm.raptoradapter.transit.TransitDataWindow;
+import org.opentripplanner.routing.algorithm.raptoradapter.transit.TripPatternForDate;
+import org.opentripplanner.transit.model.network.TripPattern;
+import org.opentripplanner.transit.model.timetable.FrequencyEntry;
+import org.opentripplanner.transit.model.timetable.TripTimes;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Create the TripPatternForDates for running dates outside the {@link TransitDataWindow} when they
+ * are needed. The TripPatternForDates are created and cached for each service date, a running date
+ * is then served by combining all service dates with trips running through it. The service dates
+ * are evicted using a least-recently-used policy. Only the dates up to
+ * {@link TransitDataWindow#onDemandDays()} from the window are created on demand.
+ * <p>
+ * The window is moved forward by {@link #roll()}, the transit layer then drops the dates before
+ * the window and adds the dates which entered it.
+ * <p>
+ * This class is THREAD SAFE, the cache is thread safe, the {@link TripPatternForDateMapper} is
+ * thread safe and the window is replaced atomically.
+ */
+public class LazyTripPatternForDateProvider {
+
+  private static final Logger LOG = LoggerFactory.getLogger(LazyTripPatternForDateProvider.class);
+
+  private static final int SECONDS_PER_DAY = 24 * 60 * 60;
+
+  private final TripPatternForDateMapper tripPatternForDateMapper;
+
+  private final Collection<TripPattern> allTripPatterns;
+
+  private final Set<LocalDate> allServiceDates;
+
+  private final TransitDataWindow window;
+
+  private final ZoneId zoneId;
+
+  private volatile DateWindow dateWindow;
+
+  /**
+   * The trips of a service date may start the day before (negative times) and run into the
+   * following days. These offsets are the min and max number of days from the service date to
+   * the running dates of any trip.
+   */
+  private final int minDayOffset;
+
+  private final int maxDayOffset;
+
+  private final LoadingCache<LocalDate, List<TripPatternForDate>> tripPatternsByServiceDate;
+
+  private final Timer mappingTimer = Timer
+    .builder("transitLayer.lazyServiceDateMapping")
+    .register(Metrics.globalRegistry);
+
+  LazyTripPatternForDateProvider(
+    TransitDataWindow window,
+    ZoneId zoneId,
+    LocalDate today,
+    TripPatternForDateMapper tripPatternForDateMapper,
+    Collection<TripPattern> allTripPatterns,
+    Set<LocalDate> allServiceDates
+  ) {
+    this.tripPatternForDateMapper = tripPatternForDateMapper;
+    this.allTripPatterns = allTripPatterns;
+    this.allServiceDates = allServiceDates;
+    this.window = window;
+    this.zoneId = zoneId;
+    this.dateWindow = new DateWindow(window, today);
+
+    int minTime = 0;
+    int maxTime = 0;
+    for (TripPattern pattern : allTripPatterns) {
+      for (TripTimes tripTimes : pattern.getScheduledTimetable().getTripTimes()) {
+        minTime = Math.min(minTime, tripTimes.getDepartureTime(0));
+        maxTime = Math.max(maxTime, tripTimes.getArrivalTime(tripTimes.getNumStops() - 1));
+      }
+      for (FrequencyEntry frequency : pattern.getScheduledTimetable().getFrequencyEntries()) {
+        minTime = Math.min(minTime, frequency.startTime);
+        maxTime = Math.max(maxTime, frequency.endTime);
+      }
+    }
+    this.minDayOffset = Math.floorDiv(minTime, SECONDS_PER_DAY);
+    this.maxDayOffset = Math.floorDiv(maxTime, SECONDS_PER_DAY);
+
+    this.tripPatternsByServiceDate =
+      CacheBuilder
+        .newBuilder()
+        .maximumSize(window.maxCachedDays())
+        .recordStats()
+        .build(
+          new CacheLoader<>() {
+            @Override
+            public List<TripPatternForDate> load(@Nonnull LocalDate serviceDate) {
+              return mappingTimer.record(() -> mapServiceDate(serviceDate));
+            }
+          }
+        );
+  }
+
+  /**
+   * Move the window to today in the time zone of the transit data. Return {@code true} if the
+   * window moved, the transit layers should then be trimmed to the new window.
+   */
+  public boolean roll() {
+    return roll(LocalDate.now(zoneId));
+  }
+
+  boolean roll(LocalDate today) {
+    if (!today.isAfter(dateWindow.today())) {
+      return false;
+    }
+    dateWindow = new DateWindow(window, today);
+    return true;
+  }
+
+  /**
+   * The running dates inside the window, in order.
+   */
+  public List<LocalDate> windowDates() {
+    DateWindow current = dateWindow;
+    return current.start().datesUntil(current.end().plusDays(1)).toList();
+  }
+
+  /**
+   * Return {@code true} if the running date is inside the window.
+   */
+  public boolean isInWindow(LocalDate runningDate) {
+    DateWindow current = dateWindow;
+    return !runningDate.isBefore(current.start()) && !runningDate.isAfter(current.end());
+  }
+
+  /**
+   * Return {@code true} if the running date is before the window, and no longer kept in the
+   * transit layer.
+   */
+  public boolean isBeforeWindow(LocalDate runningDate) {
+    return runningDate.isBefore(dateWindow.start());
+  }
+
+  /**
+   * Return {@code true} if all trips of the service date run before the window.
+   */
+  public boolean isServiceDateBeforeWindow(LocalDate serviceDate) {
+    return isBeforeWindow(serviceDate.plusDays(maxDayOffset));
+  }
+
+  /**
+   * Return {@code true} if the TripPatternForDates of the given service date are needed to serve
+   * the running dates inside the window.
+   */
+  boolean isServiceDateNeededInWindow(LocalDate serviceDate) {
+    return (
+      !isServiceDateBeforeWindow(serviceDate) &&
+      !serviceDate.plusDays(minDayOffset).isAfter(dateWindow.end())
+    );
+  }
+
+  /**
+   * Get all TripPatternForDates running through the given date. The service dates needed are
+   * created if they are not cached. There are no TripPatternForDates for the dates more than
+   * {@link TransitDataWindow#onDemandDays()} from the window.
+   */
+  public List<TripPatternForDate> getTripPatternsRunningOnDate(LocalDate runningDate) {
+    DateWindow current = dateWindow;
+    if (
+      runningDate.isBefore(current.start().minusDays(window.onDemandDays())) ||
+      runningDate.isAfter(current.end().plusDays(window.onDemandDays()))
+    ) {
+      LOG.debug("No transit data is created for {}, it is too far from today", runningDate);
+      return List.of();
+    }
+    List<TripPatternForDate> result = new ArrayList<>();
+    for (int offset = maxDayOffset; offset >= minDayOffset; --offset) {
+      LocalDate serviceDate = runningDate.minusDays(offset);
+      if (!allServiceDates.contains(serviceDate)) {
+        continue;
+      }
+      for (TripPatternForDate it : tripPatternsByServiceDate.getUnchecked(serviceDate)) {
+        if (it.getRunningPeriodDates().contains(runningDate)) {
+          result.add(it);
+        }
+      }
+    }
+    return result;
+  }
+
+  public LoadingCache<LocalDate, List<TripPatternForDate>> getTripPatternsByServiceDateCache() {
+    return tripPatternsByServiceDate;
+  }
+
+  private List<TripPatternForDate> mapServiceDate(LocalDate serviceDate) {
+    LOG.info("Creating transit data outside the startup window for service date {}", serviceDate);
+    List<TripPatternForDate> result = new ArrayList<>();
+    for (TripPattern pattern : allTripPatterns) {
+      TripPatternForDate tripPatternForDate = tripPatternForDateMapper.map(
+        pattern.getScheduledTimetable(),
+        serviceDate
+      );
+      if (tripPatternForDate != null) {
+        result.add(tripPatternForDate);
+      }
+    }
+    return List.copyOf(result);
+  }
+
+  /** The first and last running date of the window, for the given day. */
+  private record DateWindow(LocalDate today, LocalDate start, LocalDate end) {
+    DateWindow(TransitDataWindow window, LocalDate today) {
+      this(today, today.minusDays(window.daysBefore()), today.plusDays(window.daysAfter()));
+    }
+  }
+}
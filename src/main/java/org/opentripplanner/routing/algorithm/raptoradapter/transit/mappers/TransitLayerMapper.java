@@ -3,7 +3,9 @@ package org.opentripplanner.routing.algorithm.raptoradapter.transit.mappers;
 import static org.opentripplanner.routing.algorithm.raptoradapter.transit.mappers.TransfersMapper.mapTransfers;
 
 import com.google.common.collect.ArrayListMultimap;
+import gnu.trove.set.TIntSet;
 import java.time.LocalDate;
+import java.time.ZoneId;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
@@ -13,8 +15,12 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import javax.annotation.Nullable;
 import org.opentripplanner.model.Timetable;
 import org.opentripplanner.routing.algorithm.raptoradapter.transit.Transfer;
+import org.opentripplanner.routing.algorithm.raptoradapter.transit.TransitDataWindow;
+import org.opentripplanner.routing.algorithm.raptoradapter.transit.TransitLayerSnapshot;
 import org.opentripplanner.routing.algorithm.raptoradapter.transit.TransitLayer;
 import org.opentripplanner.routing.algorithm.raptoradapter.transit.TransitTuningParameters;
 import org.opentripplanner.routing.algorithm.raptoradapter.transit.TripPatternForDate;
@@ -59,6 +65,10 @@ public class TransitLayerMapper {
     return new TransitLayerMapper(transitModel).map(tuningParameters);
   }
 
+  public static TransitLayerSnapshot createSnapshot(TransitModel transitModel) {
+    return new TransitLayerMapper(transitModel).createSnapshot();
+  }
+
   // TODO We can save time by either pre-sorting these or use a sorting algorithm that is
   //      optimized for sorting nearly sorted list
   static List<TripTimes> getSortedTripTimes(Timetable timetable) {
@@ -79,14 +89,68 @@ public class TransitLayerMapper {
 
     stopIndex = transitModel.getStopModel().getStopModelIndex();
 
+    TransitLayerSnapshot snapshot = compatibleSnapshot(stopIndex);
+
     Collection<TripPattern> allTripPatterns = transitModel.getAllTripPatterns();
-    TripPatternMapper tripPatternMapper = new TripPatternMapper();
+    TripPatternMapper tripPatternMapper = snapshot == null
+      ? new TripPatternMapper()
+      : new TripPatternMapper(snapshot.newTripPatternForOld());
     newTripPatternForOld =
       tripPatternMapper.mapOldTripPatternToRaptorTripPattern(stopIndex, allTripPatterns);
 
-    tripPatternsByStopByDate = mapTripPatterns(allTripPatterns, newTripPatternForOld);
+    TripPatternForDateMapper tripPatternForDateMapper = new TripPatternForDateMapper(
+      transitModel.getTransitModelIndex().getServiceCodesRunningForDate(),
+      newTripPatternForOld
+    );
+    Set<LocalDate> allServiceDates = transitModel
+      .getTransitModelIndex()
+      .getServiceCodesRunningForDate()
+      .keySet();
+
+    LazyTripPatternForDateProvider lazyTripPatternForDateProvider = null;
+    TransitDataWindow window = tuningParameters.transitDataWindow();
+    Set<LocalDate> serviceDatesToMap = allServiceDates;
+
+    if (window != null) {
+      // A transit model without transit data has no time zone
+      ZoneId zoneId = transitModel.getTimeZone() == null
+        ? ZoneId.systemDefault()
+        : transitModel.getTimeZone();
+      lazyTripPatternForDateProvider =
+        new LazyTripPatternForDateProvider(
+          window,
+          zoneId,
+          LocalDate.now(zoneId),
+          tripPatternForDateMapper,
+          allTripPatterns,
+          allServiceDates
+        );
+      serviceDatesToMap =
+        allServiceDates
+          .stream()
+          .filter(lazyTripPatternForDateProvider::isServiceDateNeededInWindow)
+          .collect(Collectors.toSet());
+    }
 
-    transferByStopIndex = mapTransfers(stopIndex, transitModel);
+    if (snapshot != null) {
+      tripPatternsByStopByDate = new HashMap<>(snapshot.tripPatternsRunningOnDate());
+      transferByStopIndex = snapshot.transfersByStopIndex();
+    } else {
+      tripPatternsByStopByDate =
+        mapTripPatterns(allTripPatterns, serviceDatesToMap, tripPatternForDateMapper);
+      transferByStopIndex = mapTransfers(stopIndex, transitModel);
+    }
+
+    if (lazyTripPatternForDateProvider != null) {
+      // Running dates at the edge of the window are only partially mapped, these are served by
+      // the lazy provider together with all other dates outside the window
+      var provider = lazyTripPatternForDateProvider;
+      tripPatternsByStopByDate.keySet().removeIf(date -> !provider.isInWindow(date));
+      LOG.info(
+        "Transit data created for {} running dates, other dates are created on demand.",
+        tripPatternsByStopByDate.size()
+      );
+    }
 
     TransferIndexGenerator transferIndexGenerator = null;
     if (OTPFeature.TransferConstraints.isOn()) {
@@ -112,8 +176,57 @@ public class TransitLayerMapper {
       transferCache,
       tripPatternMapper,
       transferIndexGenerator,
-      createStopTransferCosts(stopIndex, tuningParameters)
+      createStopTransferCosts(stopIndex, tuningParameters),
+      lazyTripPatternForDateProvider
+    );
+  }
+
+  /**
+   * Create the part of the transit layer which only depends on the transit model, so it can be
+   * saved with the graph. The transit model must be indexed.
+   */
+  private TransitLayerSnapshot createSnapshot() {
+    LOG.info("Creating transit layer snapshot...");
+    StopModelIndex stopIndex = transitModel.getStopModel().getStopModelIndex();
+    Collection<TripPattern> allTripPatterns = transitModel.getAllTripPatterns();
+    Map<TripPattern, TripPatternWithRaptorStopIndexes> newTripPatternForOld = new TripPatternMapper()
+      .mapOldTripPatternToRaptorTripPattern(stopIndex, allTripPatterns);
+    Map<LocalDate, TIntSet> serviceCodesRunningForDate = transitModel
+      .getTransitModelIndex()
+      .getServiceCodesRunningForDate();
+
+    var snapshot = new TransitLayerSnapshot(
+      IntStream.range(0, stopIndex.size()).mapToObj(stopIndex::stopByIndex).toList(),
+      newTripPatternForOld,
+      mapTripPatterns(
+        allTripPatterns,
+        serviceCodesRunningForDate.keySet(),
+        new TripPatternForDateMapper(serviceCodesRunningForDate, newTripPatternForOld)
+      ),
+      mapTransfers(stopIndex, transitModel)
     );
+    LOG.info("Transit layer snapshot created.");
+    return snapshot;
+  }
+
+  /**
+   * Return the snapshot saved with the graph, if it exists and match the stop index.
+   */
+  @Nullable
+  private TransitLayerSnapshot compatibleSnapshot(StopModelIndex stopIndex) {
+    TransitLayerSnapshot snapshot = transitModel.getTransitLayerSnapshot();
+    if (snapshot == null) {
+      return null;
+    }
+    if (!snapshot.isCompatibleWith(stopIndex)) {
+      LOG.warn(
+        "The transit layer snapshot saved with the graph does not match the stop index, the " +
+        "transit layer is mapped from the transit model instead."
+      );
+      return null;
+    }
+    LOG.info("Using the transit layer snapshot saved with the graph.");
+    return snapshot;
   }
 
   /**
@@ -124,18 +237,9 @@ public class TransitLayerMapper {
    */
   private HashMap<LocalDate, List<TripPatternForDate>> mapTripPatterns(
     Collection<TripPattern> allTripPatterns,
-    Map<TripPattern, TripPatternWithRaptorStopIndexes> newTripPatternForOld
+    Set<LocalDate> allServiceDates,
+    TripPatternForDateMapper tripPatternForDateMapper
   ) {
-    TripPatternForDateMapper tripPatternForDateMapper = new TripPatternForDateMapper(
-      transitModel.getTransitModelIndex().getServiceCodesRunningForDate(),
-      newTripPatternForOld
-    );
-
-    Set<LocalDate> allServiceDates = transitModel
-      .getTransitModelIndex()
-      .getServiceCodesRunningForDate()
-      .keySet();
-
     List<TripPatternForDate> tripPatternForDates = Collections.synchronizedList(new ArrayList<>());
 
     // THIS CODE RUNS IN PARALLEL
@@ -72,6 +72,7 @@ public class TransitLayerUpdater {
     // Make a shallow copy of the realtime transit layer. Only the objects that are copied will be
     // changed during this update process.
     TransitLayer realtimeTransitLayer = new TransitLayer(transitModel.getRealtimeTransitLayer());
+    rollTransitDataWindow(realtimeTransitLayer);
 
     // Map TripPatterns for this update to Raptor TripPatterns
     final Map<TripPattern, TripPatternWithRaptorStopIndexes> newTripPatternForOld = realtimeTransitLayer
@@ -238,4 +239,57 @@ public class TransitLayerUpdater {
       System.currentTimeMillis() - startTime
     );
   }
+
+  /**
+   * {@code true} if the transit data is only kept for a window of dates, which must be moved when
+   * the day changes, see {@link #rollTransitDataWindow()}.
+   */
+  public boolean hasTransitDataWindow() {
+    return (
+      transitModel.hasRealtimeTransitLayer() &&
+      transitModel.getRealtimeTransitLayer().getLazyTripPatternForDateProvider() != null
+    );
+  }
+
+  /**
+   * Move the transit data window to today, if the day changed since it was last moved. This is
+   * also done by {@link #update(Set, Map)}, but is called on a schedule so that the window moves
+   * without real-time updates. Like the update, this must be called on the graph writer thread.
+   */
+  public void rollTransitDataWindow() {
+    if (!hasTransitDataWindow()) {
+      return;
+    }
+    TransitLayer realtimeTransitLayer = new TransitLayer(transitModel.getRealtimeTransitLayer());
+    if (rollTransitDataWindow(realtimeTransitLayer)) {
+      transitModel.setRealtimeTransitLayer(realtimeTransitLayer);
+    }
+  }
+
+  /**
+   * If the transit data is only kept for a window of dates, move the window to today when the
+   * day changes. The days before the window are dropped from the transit layers and the caches
+   * of this updater, and the days which entered the window are added to the transit layers.
+   *
+   * @return {@code true} if the window moved, and the given realtime transit layer was changed.
+   */
+  private boolean rollTransitDataWindow(TransitLayer realtimeTransitLayer) {
+    var provider = realtimeTransitLayer.getLazyTripPatternForDateProvider();
+    if (provider == null || !provider.roll()) {
+      return false;
+    }
+    realtimeTransitLayer.trimToTransitDataWindow();
+
+    TransitLayer scheduledTransitLayer = new TransitLayer(transitModel.getTransitLayer());
+    scheduledTransitLayer.trimToTransitDataWindow();
+    transitModel.setTransitLayer(scheduledTransitLayer);
+
+    tripPatternsStartingOnDateMapCache.keySet().removeIf(provider::isServiceDateBeforeWindow);
+    tripPatternsForTripIdAndServiceDateCache
+      .keySet()
+      .removeIf(it -> provider.isServiceDateBeforeWindow(it.serviceDate()));
+    tripPatternsRunningOnDateMapCache.keySet().removeIf(provider::isBeforeWindow);
+    LOG.info("Moved the transit data window, it starts {}", provider.windowDates().get(0));
+    return true;
+  }
 }
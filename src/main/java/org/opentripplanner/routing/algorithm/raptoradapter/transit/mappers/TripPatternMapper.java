@@ -9,7 +9,18 @@ import org.opentripplanner.transit.service.StopModelIndex;
 
 public class TripPatternMapper {
 
-  private final Map<TripPattern, TripPatternWithRaptorStopIndexes> newTripPatternForOld = new HashMap<>();
+  private final Map<TripPattern, TripPatternWithRaptorStopIndexes> newTripPatternForOld;
+
+  public TripPatternMapper() {
+    this.newTripPatternForOld = new HashMap<>();
+  }
+
+  /**
+   * Continue with the patterns already mapped, for example from a snapshot saved with the graph.
+   */
+  TripPatternMapper(Map<TripPattern, TripPatternWithRaptorStopIndexes> newTripPatternForOld) {
+    this.newTripPatternForOld = new HashMap<>(newTripPatternForOld);
+  }
 
   /**
    * Convert all old TripPatterns into new ones, keeping a Map between the two. Do this conversion
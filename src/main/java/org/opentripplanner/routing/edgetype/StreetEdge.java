@@ -31,6 +31,7 @@ import org.opentripplanner.routing.vertextype.SplitterVertex;
 import org.opentripplanner.routing.vertextype.StreetVertex;
 import org.opentripplanner.transit.model.basic.I18NString;
 import org.opentripplanner.transit.model.basic.NonLocalizedString;
+import org.opentripplanner.transit.model.framework.Deduplicator;
 import org.opentripplanner.util.BitSetUtils;
 import org.opentripplanner.util.geometry.CompactLineStringUtils;
 import org.opentripplanner.util.geometry.GeometryUtils;
@@ -531,6 +532,11 @@ public class StreetEdge
     return true;
   }
 
+  /** The packed geometry, for testing that it is shared. */
+  byte[] getCompactGeometry() {
+    return compactGeometry;
+  }
+
   public void shareData(StreetEdge reversedEdge) {
     if (Arrays.equals(compactGeometry, reversedEdge.compactGeometry)) {
       compactGeometry = reversedEdge.compactGeometry;
@@ -539,6 +545,15 @@ public class StreetEdge
     }
   }
 
+  /**
+   * Replace the name and the packed geometry with the canonical instances of the deduplicator, so
+   * edges with equal names or shapes share the same objects in memory and in the serialized graph.
+   */
+  public void deduplicate(Deduplicator deduplicator) {
+    name = deduplicator.deduplicateObject(I18NString.class, name);
+    compactGeometry = deduplicator.deduplicateByteArray(compactGeometry);
+  }
+
   @Override
   public boolean isWheelchairAccessible() {
     return BitSetUtils.get(flags, WHEELCHAIR_ACCESSIBLE_FLAG_INDEX);
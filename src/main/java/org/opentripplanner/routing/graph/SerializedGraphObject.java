@@ -13,20 +13,27 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
 import javax.annotation.Nullable;
 import org.opentripplanner.common.geometry.CompactElevationProfile;
 import org.opentripplanner.datastore.api.DataSource;
 import org.opentripplanner.model.projectinfo.GraphFileHeader;
 import org.opentripplanner.model.projectinfo.OtpProjectInfo;
 import org.opentripplanner.routing.graph.kryosupport.KryoBuilder;
+import org.opentripplanner.routing.graph.kryosupport.ReadAheadInputStream;
 import org.opentripplanner.standalone.config.BuildConfig;
 import org.opentripplanner.standalone.config.RouterConfig;
 import org.opentripplanner.transit.model.basic.SubMode;
 import org.opentripplanner.transit.service.TransitModel;
 import org.opentripplanner.util.OtpAppException;
 import org.opentripplanner.util.logging.ProgressTracker;
+import org.opentripplanner.util.logging.StartupPhases;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -45,6 +52,20 @@ public class SerializedGraphObject implements Serializable {
 
   private static final Logger LOG = LoggerFactory.getLogger(SerializedGraphObject.class);
 
+  /**
+   * The graph is large, use a bigger buffer than the Kryo default of 4 KB to reduce the number of
+   * reads from the underlying stream.
+   */
+  private static final int INPUT_BUFFER_SIZE = 1 << 16;
+
+  /**
+   * The graph file is read ahead on a background thread in chunks of this size, while the
+   * previous chunks are deserialized.
+   */
+  private static final int READ_AHEAD_CHUNK_SIZE = 1 << 22;
+
+  private static final int READ_AHEAD_MAX_CHUNKS = 8;
+
   public final Graph graph;
   public final TransitModel transitModel;
 
@@ -112,17 +133,43 @@ public class SerializedGraphObject implements Serializable {
    * After deserialization, the vertices will all have null outgoing and incoming edge lists because
    * those edge lists are marked transient, to prevent excessive recursion depth while serializing.
    * This method will reconstruct all those edge lists after deserialization.
+   * <p>
+   * Adding the edges one at the time to each vertex copies the edge arrays for each edge, so
+   * instead we count the degree of each vertex, lay out all edges grouped by vertex in two flat
+   * arrays, and then create the exact-size edge arrays for each vertex in parallel. The edges keep
+   * the same order on each vertex as if they were added one by one.
    */
   public void reconstructEdgeLists() {
-    for (Vertex v : graph.getVertices()) {
-      v.initEdgeLists();
+    List<Vertex> vertices = new ArrayList<>(graph.getVertices());
+    Map<Vertex, Integer> vertexIndex = new IdentityHashMap<>(vertices.size());
+    for (Vertex v : vertices) {
+      vertexIndex.put(v, vertexIndex.size());
     }
-    for (Edge e : edges) {
-      Vertex fromVertex = e.getFromVertex();
-      Vertex toVertex = e.getToVertex();
-      fromVertex.addOutgoing(e);
-      toVertex.addIncoming(e);
+
+    Edge[] edgeArray = edges.toArray(new Edge[0]);
+    int[] fromIndex = new int[edgeArray.length];
+    int[] toIndex = new int[edgeArray.length];
+    for (int i = 0; i < edgeArray.length; ++i) {
+      fromIndex[i] = indexOf(edgeArray[i].getFromVertex(), vertexIndex, vertices);
+      toIndex[i] = indexOf(edgeArray[i].getToVertex(), vertexIndex, vertices);
     }
+
+    int[] outgoingStart = startOffsets(fromIndex, vertices.size());
+    int[] incomingStart = startOffsets(toIndex, vertices.size());
+    Edge[] outgoing = groupByVertex(edgeArray, fromIndex, outgoingStart);
+    Edge[] incoming = groupByVertex(edgeArray, toIndex, incomingStart);
+
+    IntStream
+      .range(0, vertices.size())
+      .parallel()
+      .forEach(i ->
+        vertices
+          .get(i)
+          .initEdgeLists(
+            Arrays.copyOfRange(outgoing, outgoingStart[i], outgoingStart[i + 1]),
+            Arrays.copyOfRange(incoming, incomingStart[i], incomingStart[i + 1])
+          )
+      );
   }
 
   /**
@@ -140,24 +187,38 @@ public class SerializedGraphObject implements Serializable {
 
   private static SerializedGraphObject load(InputStream inputStream, String sourceDescription) {
     // TODO store version information, halt load if versions mismatch
-    try (inputStream) {
+    try (
+      var readAheadInputStream = new ReadAheadInputStream(
+        inputStream,
+        READ_AHEAD_CHUNK_SIZE,
+        READ_AHEAD_MAX_CHUNKS
+      )
+    ) {
       LOG.info("Reading graph from '{}'", sourceDescription);
-      Input input = new Input(inputStream);
+      SerializedGraphObject serObj;
+      try (var phase = StartupPhases.start("readGraph")) {
+        Input input = new Input(readAheadInputStream, INPUT_BUFFER_SIZE);
 
-      validateGraphSerializationId(
-        input.readBytes(GraphFileHeader.headerLength()),
-        sourceDescription
-      );
+        validateGraphSerializationId(
+          input.readBytes(GraphFileHeader.headerLength()),
+          sourceDescription
+        );
 
-      Kryo kryo = KryoBuilder.create();
-      SerializedGraphObject serObj = (SerializedGraphObject) kryo.readClassAndObject(input);
-      SubMode.deserializeSubModeCache(serObj.allTransitSubModes);
-      CompactElevationProfile.setDistanceBetweenSamplesM(
-        serObj.graph.getDistanceBetweenElevationSamples()
-      );
-      Graph graph = serObj.graph;
+        Kryo kryo = KryoBuilder.create();
+        serObj = (SerializedGraphObject) kryo.readClassAndObject(input);
+        SubMode.deserializeSubModeCache(serObj.allTransitSubModes);
+        CompactElevationProfile.setDistanceBetweenSamplesM(
+          serObj.graph.getDistanceBetweenElevationSamples()
+        );
+        phase.processed("bytes", input.total());
+      }
       LOG.debug("Graph read.");
-      serObj.reconstructEdgeLists();
+
+      Graph graph = serObj.graph;
+      try (var phase = StartupPhases.start("reconstructEdgeLists")) {
+        serObj.reconstructEdgeLists();
+        phase.processed("vertices", graph.countVertices()).processed("edges", serObj.edges.size());
+      }
       LOG.info("Graph read. |V|={} |E|={}", graph.countVertices(), graph.countEdges());
       return serObj;
     } catch (IOException e) {
@@ -178,6 +239,45 @@ public class SerializedGraphObject implements Serializable {
     }
   }
 
+  /**
+   * Edges may in theory reference vertices not in the graph, these are given an index after the
+   * graph vertices.
+   */
+  private static int indexOf(Vertex v, Map<Vertex, Integer> vertexIndex, List<Vertex> vertices) {
+    Integer index = vertexIndex.get(v);
+    if (index == null) {
+      index = vertices.size();
+      vertexIndex.put(v, index);
+      vertices.add(v);
+    }
+    return index;
+  }
+
+  /**
+   * Count the edges of each vertex and return the start offset of each vertex in an array of all
+   * edges grouped by vertex. The returned array has one extra element with the total number of
+   * edges, so the edges of vertex {@code i} are in the range {@code [start[i], start[i+1])}.
+   */
+  private static int[] startOffsets(int[] vertexIndexOfEdge, int nVertices) {
+    int[] start = new int[nVertices + 1];
+    for (int v : vertexIndexOfEdge) {
+      ++start[v + 1];
+    }
+    for (int i = 0; i < nVertices; ++i) {
+      start[i + 1] += start[i];
+    }
+    return start;
+  }
+
+  private static Edge[] groupByVertex(Edge[] edges, int[] vertexIndexOfEdge, int[] start) {
+    Edge[] result = new Edge[edges.length];
+    int[] next = Arrays.copyOf(start, start.length - 1);
+    for (int i = 0; i < edges.length; ++i) {
+      result[next[vertexIndexOfEdge[i]]++] = edges[i];
+    }
+    return result;
+  }
+
   @SuppressWarnings("Convert2MethodRef")
   private static OutputStream wrapOutputStreamWithProgressTracker(
     OutputStream outputStream,
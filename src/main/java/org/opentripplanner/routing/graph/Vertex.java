@@ -76,6 +76,15 @@ public abstract class Vertex implements Serializable, Cloneable {
     this.incoming = new Edge[0];
   }
 
+  /**
+   * Set the edge lists in bulk, the arrays are used as is and must not be modified by the caller.
+   * This is used to reconstruct the edge lists after deserialization.
+   */
+  void initEdgeLists(Edge[] outgoing, Edge[] incoming) {
+    this.outgoing = outgoing;
+    this.incoming = incoming;
+  }
+
   /* EDGE UTILITY METHODS (use arrays to eliminate copy-on-write set objects) */
 
   public void addOutgoing(Edge edge) {
@@ -0,0 +1,145 @@
+package org.opentripplanner.routing.graph.kryosupport;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Read the source stream in chunks on a background thread, so reading the bytes (from disk, a
+ * remote data source or through decompression) is done in parallel with the deserialization of the
+ * bytes already read. At most {@code maxChunksAhead} chunks are buffered.
+ * <p>
+ * This stream should be read by one thread only. The source is only used by the background
+ * thread, which closes it when it stops. Closing this stream stops the background thread and waits
+ * for it, so the source is closed when {@link #close()} returns.
+ */
+public class ReadAheadInputStream extends InputStream {
+
+  private static final Chunk END = new Chunk(new byte[0], 0, null);
+
+  private final InputStream source;
+  private final BlockingQueue<Chunk> chunks;
+  private final Thread reader;
+
+  private volatile boolean closed = false;
+
+  /** Set by the background thread if closing the source fails, read after the thread is joined. */
+  private IOException closeError = null;
+
+  private Chunk current = new Chunk(new byte[0], 0, null);
+  private int position = 0;
+
+  public ReadAheadInputStream(InputStream source, int chunkSize, int maxChunksAhead) {
+    this.source = source;
+    this.chunks = new ArrayBlockingQueue<>(maxChunksAhead);
+    this.reader = new Thread(() -> readAhead(chunkSize), "read-ahead");
+    this.reader.setDaemon(true);
+    this.reader.start();
+  }
+
+  @Override
+  public int read() throws IOException {
+    if (!nextChunkIfNeeded()) {
+      return -1;
+    }
+    return current.bytes[position++] & 0xFF;
+  }
+
+  @Override
+  public int read(byte[] b, int off, int len) throws IOException {
+    if (len == 0) {
+      return 0;
+    }
+    if (!nextChunkIfNeeded()) {
+      return -1;
+    }
+    int n = Math.min(len, current.length - position);
+    System.arraycopy(current.bytes, position, b, off, n);
+    position += n;
+    return n;
+  }
+
+  @Override
+  public int available() {
+    return current.length - position;
+  }
+
+  @Override
+  public void close() throws IOException {
+    if (closed) {
+      return;
+    }
+    closed = true;
+    // The thread stops when it has read the current chunk, or at once if it is waiting for space
+    // in the queue
+    reader.interrupt();
+    try {
+      reader.join();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("Interrupted while waiting for the read-ahead to stop");
+    }
+    if (closeError != null) {
+      throw closeError;
+    }
+  }
+
+  /**
+   * Take the next chunk from the queue if the current chunk is fully read.
+   *
+   * @return {@code false} if the end of the source stream is reached.
+   */
+  private boolean nextChunkIfNeeded() throws IOException {
+    while (position == current.length) {
+      if (current.error != null) {
+        throw new IOException(current.error.getMessage(), current.error);
+      }
+      if (current == END) {
+        return false;
+      }
+      if (closed) {
+        throw new IOException("Stream closed");
+      }
+      try {
+        current = chunks.take();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new InterruptedIOException("Interrupted while waiting for the next chunk");
+      }
+      position = 0;
+    }
+    return true;
+  }
+
+  private void readAhead(int chunkSize) {
+    try {
+      while (!closed) {
+        byte[] bytes = new byte[chunkSize];
+        int length = source.readNBytes(bytes, 0, chunkSize);
+        if (length == 0) {
+          chunks.put(END);
+          return;
+        }
+        chunks.put(new Chunk(bytes, length, null));
+      }
+    } catch (IOException e) {
+      try {
+        chunks.put(new Chunk(new byte[0], 0, e));
+      } catch (InterruptedException ie) {
+        // The stream is closed
+      }
+    } catch (InterruptedException e) {
+      // The stream is closed
+    } finally {
+      try {
+        source.close();
+      } catch (IOException e) {
+        closeError = e;
+      }
+    }
+  }
+
+  private record Chunk(byte[] bytes, int length, IOException error) {}
+}
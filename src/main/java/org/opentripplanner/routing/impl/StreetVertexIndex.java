@@ -8,7 +8,7 @@ import java.util.UUID;
 import org.locationtech.jts.geom.Coordinate;
 import org.locationtech.jts.geom.Envelope;
 import org.locationtech.jts.geom.LineString;
-import org.opentripplanner.common.geometry.HashGridSpatialIndex;
+import org.opentripplanner.common.geometry.PackedGridSpatialIndex;
 import org.opentripplanner.common.geometry.SphericalDistanceLibrary;
 import org.opentripplanner.common.model.P2;
 import org.opentripplanner.graph_builder.linking.DisposableEdgeCollection;
@@ -31,7 +31,6 @@ import org.opentripplanner.transit.model.basic.LocalizedString;
 import org.opentripplanner.transit.model.basic.NonLocalizedString;
 import org.opentripplanner.transit.service.StopModel;
 import org.opentripplanner.util.geometry.GeometryUtils;
-import org.opentripplanner.util.logging.ProgressTracker;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -54,8 +53,8 @@ public class StreetVertexIndex {
   /**
    * Contains only instances of {@link StreetEdge}
    */
-  private final HashGridSpatialIndex<Edge> edgeTree;
-  private final HashGridSpatialIndex<Vertex> verticesTree;
+  private final PackedGridSpatialIndex<Edge> edgeTree;
+  private final PackedGridSpatialIndex<Vertex> verticesTree;
 
   /**
    * Should only be called by the graph.
@@ -63,10 +62,24 @@ public class StreetVertexIndex {
   public StreetVertexIndex(Graph graph, StopModel stopModel) {
     this.graph = graph;
     this.stopModel = stopModel;
-    edgeTree = new HashGridSpatialIndex<>();
-    verticesTree = new HashGridSpatialIndex<>();
+    LOG.info("Index street vertices and edges...");
+    List<Vertex> vertices = List.copyOf(graph.getVertices());
+    /*
+     * We add all edges with geometry, skipping transit, filtering them out after. We do not
+     * index transit edges as we do not need them and some GTFS do not have shape data, so
+     * long straight lines between 2 faraway stations will wreck performance on a hash grid
+     * spatial index.
+     *
+     * If one need to store transit edges in the index, we could improve the hash grid
+     * rasterizing splitting long segments.
+     */
+    List<Edge> edges = vertices.stream().flatMap(v -> v.getOutgoing().stream()).toList();
+    edgeTree =
+      PackedGridSpatialIndex.ofLineStrings(edges, StreetVertexIndex::edgeGeometryOrStraightLine);
+    verticesTree =
+      PackedGridSpatialIndex.ofEnvelopes(vertices, v -> new Envelope(v.getCoordinate()));
     vertexLinker = new VertexLinker(graph, stopModel);
-    postSetup();
+    LOG.info("Index street vertices and edges complete. {}", this);
   }
 
   /**
@@ -382,31 +395,4 @@ public class StreetVertexIndex {
     }
     return nonTransitMode;
   }
-
-  private void postSetup() {
-    var progress = ProgressTracker.track("Index street vertex", 1000, graph.getVertices().size());
-    LOG.info(progress.startMessage());
-
-    for (Vertex gv : graph.getVertices()) {
-      /*
-       * We add all edges with geometry, skipping transit, filtering them out after. We do not
-       * index transit edges as we do not need them and some GTFS do not have shape data, so
-       * long straight lines between 2 faraway stations will wreck performance on a hash grid
-       * spatial index.
-       *
-       * If one need to store transit edges in the index, we could improve the hash grid
-       * rasterizing splitting long segments.
-       */
-      for (Edge e : gv.getOutgoing()) {
-        LineString geometry = edgeGeometryOrStraightLine(e);
-        edgeTree.insert(geometry, e);
-      }
-      Envelope env = new Envelope(gv.getCoordinate());
-      verticesTree.insert(env, gv);
-
-      //noinspection Convert2MethodRef
-      progress.step(m -> LOG.info(m));
-    }
-    LOG.info(progress.completeMessage());
-  }
 }
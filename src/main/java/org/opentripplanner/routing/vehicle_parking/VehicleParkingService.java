@@ -2,7 +2,10 @@ package org.opentripplanner.routing.vehicle_parking;
 
 import java.io.Serializable;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
 import java.util.stream.Stream;
 
 public class VehicleParkingService implements Serializable {
@@ -11,12 +14,36 @@ public class VehicleParkingService implements Serializable {
 
   private final Set<VehicleParking> vehicleParkings = new HashSet<>();
 
+  private transient volatile List<Consumer<VehicleParking>> changeListeners;
+
   public void addVehicleParking(VehicleParking vehicleParking) {
     vehicleParkings.add(vehicleParking);
+    notifyChange(vehicleParking);
   }
 
   public void removeVehicleParking(VehicleParking vehicleParking) {
-    vehicleParkings.remove(vehicleParking);
+    if (vehicleParkings.remove(vehicleParking)) {
+      notifyChange(vehicleParking);
+    }
+  }
+
+  public void updateVehicleParkingAvailability(
+    VehicleParking vehicleParking,
+    VehicleParkingSpaces availability
+  ) {
+    vehicleParking.updateAvailability(availability);
+    notifyChange(vehicleParking);
+  }
+
+  /**
+   * Add a listener called with each vehicle parking added, updated or removed. The listeners are
+   * called by the thread applying the update, and are not serialized with the graph.
+   */
+  public synchronized void addChangeListener(Consumer<VehicleParking> listener) {
+    if (changeListeners == null) {
+      changeListeners = new CopyOnWriteArrayList<>();
+    }
+    changeListeners.add(listener);
   }
 
   public Stream<VehicleParking> getBikeParks() {
@@ -30,4 +57,11 @@ public class VehicleParkingService implements Serializable {
   public Stream<VehicleParking> getVehicleParkings() {
     return vehicleParkings.stream();
   }
+
+  private void notifyChange(VehicleParking vehicleParking) {
+    var listeners = changeListeners;
+    if (listeners != null) {
+      listeners.forEach(it -> it.accept(vehicleParking));
+    }
+  }
 }
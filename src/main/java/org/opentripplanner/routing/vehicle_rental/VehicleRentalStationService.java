@@ -5,6 +5,9 @@ import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 import org.locationtech.jts.geom.Coordinate;
 import org.locationtech.jts.geom.Envelope;
@@ -16,6 +19,8 @@ public class VehicleRentalStationService implements Serializable {
 
   private final Map<FeedScopedId, VehicleRentalPlace> vehicleRentalStations = new HashMap<>();
 
+  private transient volatile List<Consumer<VehicleRentalPlace>> changeListeners;
+
   public Collection<VehicleRentalPlace> getVehicleRentalPlaces() {
     return vehicleRentalStations.values();
   }
@@ -58,12 +63,34 @@ public class VehicleRentalStationService implements Serializable {
 
   public void addVehicleRentalStation(VehicleRentalPlace vehicleRentalStation) {
     // Remove old reference first, as adding will be a no-op if already present
-    vehicleRentalStations.remove(vehicleRentalStation.getId());
+    VehicleRentalPlace old = vehicleRentalStations.remove(vehicleRentalStation.getId());
     vehicleRentalStations.put(vehicleRentalStation.getId(), vehicleRentalStation);
+    // The updaters add all places on each poll, only the new and changed places are notified
+    if (old == null) {
+      notifyChange(vehicleRentalStation);
+    } else if (old == vehicleRentalStation || !hasSameState(old, vehicleRentalStation)) {
+      notifyChange(old);
+      notifyChange(vehicleRentalStation);
+    }
   }
 
   public void removeVehicleRentalStation(FeedScopedId vehicleRentalStationId) {
-    vehicleRentalStations.remove(vehicleRentalStationId);
+    VehicleRentalPlace removed = vehicleRentalStations.remove(vehicleRentalStationId);
+    if (removed != null) {
+      notifyChange(removed);
+    }
+  }
+
+  /**
+   * Add a listener called with each vehicle rental place added, updated or removed. For an update
+   * the listener is called with both the old and the new place. The listeners are called by the
+   * thread applying the update, and are not serialized with the graph.
+   */
+  public synchronized void addChangeListener(Consumer<VehicleRentalPlace> listener) {
+    if (changeListeners == null) {
+      changeListeners = new CopyOnWriteArrayList<>();
+    }
+    changeListeners.add(listener);
   }
 
   /**
@@ -88,4 +115,40 @@ public class VehicleRentalStationService implements Serializable {
       .filter(b -> envelope.contains(new Coordinate(b.getLongitude(), b.getLatitude())))
       .collect(Collectors.toList());
   }
+
+  /**
+   * Compare the state of two versions of a place, as seen through {@link VehicleRentalPlace}. The
+   * same instance may have been modified, so it is not compared.
+   */
+  private static boolean hasSameState(VehicleRentalPlace a, VehicleRentalPlace b) {
+    return (
+      Objects.equals(a.getStationId(), b.getStationId()) &&
+      Objects.equals(a.getNetwork(), b.getNetwork()) &&
+      Objects.equals(String.valueOf(a.getName()), String.valueOf(b.getName())) &&
+      a.getLongitude() == b.getLongitude() &&
+      a.getLatitude() == b.getLatitude() &&
+      a.getVehiclesAvailable() == b.getVehiclesAvailable() &&
+      a.getSpacesAvailable() == b.getSpacesAvailable() &&
+      Objects.equals(a.getCapacity(), b.getCapacity()) &&
+      a.isAllowDropoff() == b.isAllowDropoff() &&
+      a.isAllowOverloading() == b.isAllowOverloading() &&
+      a.isAllowPickup() == b.isAllowPickup() &&
+      a.allowPickupNow() == b.allowPickupNow() &&
+      a.allowDropoffNow() == b.allowDropoffNow() &&
+      a.isFloatingVehicle() == b.isFloatingVehicle() &&
+      a.isCarStation() == b.isCarStation() &&
+      a.isRealTimeData() == b.isRealTimeData() &&
+      a.isKeepingVehicleRentalAtDestinationAllowed() ==
+      b.isKeepingVehicleRentalAtDestinationAllowed() &&
+      a.getAvailablePickupFormFactors(true).equals(b.getAvailablePickupFormFactors(true)) &&
+      a.getAvailableDropoffFormFactors(true).equals(b.getAvailableDropoffFormFactors(true))
+    );
+  }
+
+  private void notifyChange(VehicleRentalPlace place) {
+    var listeners = changeListeners;
+    if (listeners != null) {
+      listeners.forEach(it -> it.accept(place));
+    }
+  }
 }
@@ -7,17 +7,21 @@ import com.beust.jcommander.ParameterException;
 import org.geotools.referencing.factory.DeferredAuthorityFactory;
 import org.geotools.util.WeakCollectionCleaner;
 import org.opentripplanner.datastore.api.DataSource;
+import org.opentripplanner.ext.vectortiles.VectorTilePyramid;
 import org.opentripplanner.graph_builder.GraphBuilder;
 import org.opentripplanner.routing.graph.SerializedGraphObject;
 import org.opentripplanner.standalone.config.CommandLineParameters;
 import org.opentripplanner.standalone.configure.OTPAppConstruction;
 import org.opentripplanner.standalone.configure.OTPApplicationFactory;
+import org.opentripplanner.standalone.configure.StartupTasks;
 import org.opentripplanner.standalone.server.GrizzlyServer;
 import org.opentripplanner.transit.raptor.configure.RaptorConfig;
 import org.opentripplanner.transit.service.TransitModel;
 import org.opentripplanner.updater.GraphUpdaterConfigurator;
+import org.opentripplanner.util.OTPFeature;
 import org.opentripplanner.util.OtpAppException;
 import org.opentripplanner.util.ThrowableUtils;
+import org.opentripplanner.util.logging.StartupPhases;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.slf4j.bridge.SLF4JBridgeHandler;
@@ -123,7 +127,7 @@ public class OTPMain {
         ? datastore.getGraph()
         : datastore.getStreetGraph();
       SerializedGraphObject obj = SerializedGraphObject.load(graphFile);
-      app.updateModel(obj.graph, obj.transitModel);
+      app.updateModel(obj.graph, obj.transitModel, graphFile);
       configModel.updateConfigFromSerializedGraph(obj.buildConfig, obj.routerConfig);
       graphAvailable = true;
     }
@@ -153,6 +157,17 @@ public class OTPMain {
         .save(app.graphOutputDataSource());
       // Log size info for the deduplicator
       LOG.info("Memory optimized {}", app.graph().deduplicator.toString());
+      // The tiles are rendered with the router config layers and written next to the saved
+      // graph file, so this is done after the graph is saved and not as a graph builder module.
+      // The street graph has no stops, so the tiles are only rendered with the transit data.
+      if (params.doBuildTransit() && OTPFeature.SandboxAPIMapboxVectorTilesApi.isOn()) {
+        VectorTilePyramid.render(
+          app.graph(),
+          app.transitModel(),
+          configModel.routerConfig().vectorTileLayers().layers(),
+          app.graphOutputDataSource()
+        );
+      }
     }
 
     if (!graphAvailable) {
@@ -168,9 +183,19 @@ public class OTPMain {
   }
 
   private static void startOtpWebServer(CommandLineParameters params, OTPAppConstruction app) {
-    // Index graph for travel search
-    app.transitModel().index();
-    app.graph().index();
+    // Index graph for travel search, the street index does not depend on the transit index
+    try (var tasks = new StartupTasks()) {
+      var indexGraph = tasks.run(() -> {
+        try (var phase = StartupPhases.start("indexGraph")) {
+          app.graph().index();
+          phase.processed("vertices", app.graph().countVertices());
+        }
+      });
+      try (var phase = StartupPhases.start("indexTransitModel")) {
+        app.transitModel().index();
+      }
+      StartupTasks.await(indexGraph);
+    }
 
     // publishing the config version info make it available to the APIs
     setOtpConfigVersionsOnServerInfo(app.getFactory());
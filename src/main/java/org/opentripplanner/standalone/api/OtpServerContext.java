@@ -2,6 +2,11 @@ package org.opentripplanner.standalone.api;
 
 import io.micrometer.core.instrument.MeterRegistry;
 import java.util.Locale;
+import org.opentripplanner.api.support.GraphQLQueryExecutor;
+import org.opentripplanner.ext.flex.flexpathcalculator.FlexPathTableCache;
+import org.opentripplanner.ext.traveltime.EgressTableCache;
+import org.opentripplanner.ext.vectortiles.VectorTileCache;
+import org.opentripplanner.ext.vectortiles.VectorTilePyramid;
 import org.opentripplanner.inspector.TileRendererManager;
 import org.opentripplanner.routing.RoutingService;
 import org.opentripplanner.routing.algorithm.astar.TraverseVisitor;
@@ -77,6 +82,34 @@ public interface OtpServerContext {
   /** Inspector/debug services */
   TileRendererManager tileRendererManager();
 
+  /**
+   * The cache of the vector tile layers, shared by all requests on this graph.
+   */
+  VectorTileCache vectorTileCache();
+
+  /**
+   * The vector tile layers pre-rendered when the graph was built, shared by all requests on this
+   * graph.
+   */
+  VectorTilePyramid vectorTilePyramid();
+
+  /**
+   * The cache of the walk from the stops used by the travel time API, shared by all requests on
+   * this graph.
+   */
+  EgressTableCache egressTableCache();
+
+  /**
+   * The cache of the flex street searches from the vertices of the graph, shared by all requests
+   * on this graph.
+   */
+  FlexPathTableCache flexPathTableCache();
+
+  /**
+   * The executor of the batched GraphQL queries, shared by all requests and the GraphQL APIs.
+   */
+  GraphQLQueryExecutor graphQLQueryExecutor();
+
   /**
    * Callback witch is injected into the {@code DirectStreetRouter}, used to visualize the
    * search.
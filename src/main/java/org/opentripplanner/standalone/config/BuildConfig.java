@@ -86,6 +86,12 @@ public class BuildConfig {
    */
   public final boolean transit;
 
+  /**
+   * Create the Raptor transit data when building the graph and save it with the graph, so the
+   * server does not need to create it at startup.
+   */
+  public final boolean transitLayerSnapshot;
+
   /**
    * Link GTFS stops to their parent stops.
    */
@@ -232,6 +238,11 @@ public class BuildConfig {
    * same vehicle
    */
   public int maxInterlineDistance;
+  /**
+   * The number of GTFS feeds read and mapped in parallel. Each feed read is kept in memory until it
+   * is added to the graph, so a higher number uses more memory.
+   */
+  public int gtfsFeedsInParallel;
   /**
    * The distance between elevation samples in meters. Defaults to 10m, the approximate resolution
    * of 1/3 arc-second NED data. This should not be smaller than the horizontal resolution of the
@@ -365,6 +376,7 @@ public class BuildConfig {
     maxDataImportIssuesPerFile = c.asInt("maxDataImportIssuesPerFile", 1000);
     maxInterlineDistance = c.asInt("maxInterlineDistance", 200);
     blockBasedInterlining = c.asBoolean("blockBasedInterlining", true);
+    gtfsFeedsInParallel = c.asInt("gtfsFeedsInParallel", 2);
     maxTransferDurationSeconds =
       c.asDouble("maxTransferDurationSeconds", Duration.ofMinutes(30).toSeconds());
     maxStopToShapeSnapDistance = c.asDouble("maxStopToShapeSnapDistance", 150);
@@ -380,6 +392,7 @@ public class BuildConfig {
     streets = c.asBoolean("streets", true);
     subwayAccessTime = c.asDouble("subwayAccessTime", DEFAULT_SUBWAY_ACCESS_TIME_MINUTES);
     transit = c.asBoolean("transit", true);
+    transitLayerSnapshot = c.asBoolean("transitLayerSnapshot", false);
     transitServiceStart = c.asDateOrRelativePeriod("transitServiceStart", "-P1Y");
     transitServiceEnd = c.asDateOrRelativePeriod("transitServiceEnd", "P3Y");
     writeCachedElevations = c.asBoolean("writeCachedElevations", false);
@@ -38,6 +38,9 @@ public class RouterConfig implements Serializable {
   private final JsonNode rawJson;
   private final String configVersion;
   private final String requestLogFile;
+  private final boolean trustForwardedFor;
+  private final int graphQLMaxQueued;
+  private final int graphQLMaxQueuedPerClient;
   private final TransmodelAPIConfig transmodelApi;
   private final Duration streetRoutingTimeout;
   private final RoutingRequest routingRequestDefaults;
@@ -51,6 +54,9 @@ public class RouterConfig implements Serializable {
     this.rawJson = node;
     this.configVersion = adapter.asText("configVersion", null);
     this.requestLogFile = adapter.asText("requestLogFile", null);
+    this.trustForwardedFor = adapter.asBoolean("trustForwardedFor", false);
+    this.graphQLMaxQueued = adapter.asInt("graphQLMaxQueued", 1000);
+    this.graphQLMaxQueuedPerClient = adapter.asInt("graphQLMaxQueuedPerClient", 100);
     this.transmodelApi = new TransmodelAPIConfig(adapter.path("transmodelApi"));
     this.streetRoutingTimeout = parseStreetRoutingTimeout(adapter);
     this.transitConfig = new TransitRoutingConfig(adapter.path("transit"));
@@ -85,6 +91,31 @@ public class RouterConfig implements Serializable {
     return requestLogFile;
   }
 
+  /**
+   * Identify the clients sending batched GraphQL queries by the X-Forwarded-For header, instead of
+   * the remote address of the request. Only set this when OTP runs behind a proxy setting the
+   * header, otherwise the clients can choose their own id.
+   */
+  public boolean trustForwardedFor() {
+    return trustForwardedFor;
+  }
+
+  /**
+   * The max number of batched GraphQL queries waiting to be executed. A new batch is rejected when
+   * it does not fit, unless nothing is waiting.
+   */
+  public int graphQLMaxQueued() {
+    return graphQLMaxQueued;
+  }
+
+  /**
+   * The max number of batched GraphQL queries of the same client waiting to be executed. A new
+   * batch is rejected when it does not fit, unless nothing of the client is waiting.
+   */
+  public int graphQLMaxQueuedPerClient() {
+    return graphQLMaxQueuedPerClient;
+  }
+
   /**
    * The preferred way to limit the search is to limit the distance for each street mode(WALK, BIKE,
    * CAR). So the default timeout for a street search is set quite high. This is used to abort the
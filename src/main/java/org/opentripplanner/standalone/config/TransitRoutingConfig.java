@@ -3,6 +3,7 @@ package org.opentripplanner.standalone.config;
 import java.time.Duration;
 import java.util.List;
 import java.util.Map;
+import org.opentripplanner.routing.algorithm.raptoradapter.transit.TransitDataWindow;
 import org.opentripplanner.routing.algorithm.raptoradapter.transit.TransitTuningParameters;
 import org.opentripplanner.transit.model.site.StopTransferPriority;
 import org.opentripplanner.transit.raptor.api.request.DynamicSearchWindowCoefficients;
@@ -19,6 +20,7 @@ public final class TransitRoutingConfig implements RaptorTuningParameters, Trans
   private final int searchThreadPoolSize;
   private final int transferCacheMaxSize;
   private final List<Duration> pagingSearchWindowAdjustments;
+  private final TransitDataWindow transitDataWindow;
 
   private final Map<StopTransferPriority, Integer> stopTransferCost;
   private final DynamicSearchWindowCoefficients dynamicSearchWindowCoefficients;
@@ -46,6 +48,8 @@ public final class TransitRoutingConfig implements RaptorTuningParameters, Trans
 
     this.dynamicSearchWindowCoefficients =
       new DynamicSearchWindowConfig(c.path("dynamicSearchWindow"));
+
+    this.transitDataWindow = mapTransitDataWindow(c.path("transitDataWindow"));
   }
 
   @Override
@@ -93,6 +97,23 @@ public final class TransitRoutingConfig implements RaptorTuningParameters, Trans
     return pagingSearchWindowAdjustments;
   }
 
+  @Override
+  public TransitDataWindow transitDataWindow() {
+    return transitDataWindow;
+  }
+
+  private static TransitDataWindow mapTransitDataWindow(NodeAdapter c) {
+    if (c.isEmpty()) {
+      return null;
+    }
+    return new TransitDataWindow(
+      c.asInt("daysBefore", 1),
+      c.asInt("daysAfter", 14),
+      c.asInt("maxCachedDays", 10),
+      c.asInt("onDemandDays", 365)
+    );
+  }
+
   private static class DynamicSearchWindowConfig implements DynamicSearchWindowCoefficients {
 
     private final double minTransitTimeCoefficient;
@@ -10,6 +10,7 @@ public class VectorTileConfig implements VectorTilesResource.LayersParameters {
   public static final int MAX_ZOOM = 20;
   public static final int CACHE_MAX_SECONDS = -1;
   public static final double EXPANSION_FACTOR = 0.25d;
+  public static final int PRERENDER_MAX_ZOOM = -1;
 
   List<VectorTilesResource.LayerParameters> layers;
 
@@ -31,6 +32,7 @@ public class VectorTileConfig implements VectorTilesResource.LayersParameters {
     private final Integer minZoom;
     private final Integer cacheMaxSeconds;
     private final double expansionFactor;
+    private final int prerenderMaxZoom;
 
     public Layer(NodeAdapter node) {
       name = node.asText("name");
@@ -40,6 +42,7 @@ public class VectorTileConfig implements VectorTilesResource.LayersParameters {
       minZoom = node.asInt("minZoom", MIN_ZOOM);
       cacheMaxSeconds = node.asInt("cacheMaxSeconds", CACHE_MAX_SECONDS);
       expansionFactor = node.asDouble("expansionFactor", EXPANSION_FACTOR);
+      prerenderMaxZoom = node.asInt("prerenderMaxZoom", PRERENDER_MAX_ZOOM);
     }
 
     @Override
@@ -76,5 +79,10 @@ public class VectorTileConfig implements VectorTilesResource.LayersParameters {
     public double expansionFactor() {
       return expansionFactor;
     }
+
+    @Override
+    public int prerenderMaxZoom() {
+      return prerenderMaxZoom;
+    }
   }
 }
@@ -1,5 +1,6 @@
 package org.opentripplanner.standalone.config.sandbox;
 
+import java.time.Duration;
 import org.opentripplanner.ext.flex.FlexParameters;
 import org.opentripplanner.routing.api.request.RoutingRequest;
 import org.opentripplanner.standalone.config.NodeAdapter;
@@ -7,13 +8,23 @@ import org.opentripplanner.standalone.config.NodeAdapter;
 public class FlexConfig {
 
   public static final int DEFAULT_MAX_TRANSFER_SECONDS = 60 * 5; // 5 minutes
+  public static final int DEFAULT_TEMPLATE_EVALUATION_TIMEOUT_SECONDS = 5;
   public final int maxTransferSeconds;
+  public final int templateEvaluationTimeoutSeconds;
 
   public FlexConfig(NodeAdapter json) {
     maxTransferSeconds = json.asInt("maxTransferDurationSeconds", DEFAULT_MAX_TRANSFER_SECONDS);
+    templateEvaluationTimeoutSeconds =
+      json.asInt(
+        "templateEvaluationTimeoutSeconds",
+        DEFAULT_TEMPLATE_EVALUATION_TIMEOUT_SECONDS
+      );
   }
 
   public FlexParameters toFlexParameters(RoutingRequest request) {
-    return new FlexParameters((maxTransferSeconds * request.walkSpeed));
+    return new FlexParameters(
+      (maxTransferSeconds * request.walkSpeed),
+      Duration.ofSeconds(templateEvaluationTimeoutSeconds)
+    );
   }
 }
@@ -1,6 +1,7 @@
 package org.opentripplanner.standalone.configure;
 
 import io.micrometer.core.instrument.Metrics;
+import java.util.concurrent.CompletableFuture;
 import javax.annotation.Nullable;
 import javax.ws.rs.core.Application;
 import org.opentripplanner.datastore.api.DataSource;
@@ -27,6 +28,7 @@ import org.opentripplanner.transit.raptor.configure.RaptorConfig;
 import org.opentripplanner.transit.service.TransitModel;
 import org.opentripplanner.updater.GraphUpdaterConfigurator;
 import org.opentripplanner.util.OTPFeature;
+import org.opentripplanner.util.logging.StartupPhases;
 import org.opentripplanner.visualizer.GraphVisualizer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -71,8 +73,15 @@ public class OTPAppConstruction {
   /**
    * After the graph and transitModel is read from file or build, then it should be set here,
    * so it can be used during construction of the web server.
+   *
+   * @param graphSource the file the graph is read from, or {@code null} if it is not read from
+   *                    file.
    */
-  public void updateModel(Graph graph, TransitModel transitModel) {
+  public void updateModel(
+    Graph graph,
+    TransitModel transitModel,
+    @Nullable DataSource graphSource
+  ) {
     getFactory().graph().set(graph);
     getFactory().transitModel().set(transitModel);
 
@@ -82,6 +91,7 @@ public class OTPAppConstruction {
         factory.raptorConfig(),
         factory.graph().get(),
         factory.transitModel().get(),
+        graphSource,
         Metrics.globalRegistry,
         traverseVisitor()
       );
@@ -160,27 +170,56 @@ public class OTPAppConstruction {
     return gv == null ? null : gv.traverseVisitor;
   }
 
+  /**
+   * The startup tasks run concurrently where they do not depend on each other. The server is
+   * started when the tasks needed for routing are done, the geocoder index is created in the
+   * background.
+   */
   private void setupTransitRoutingServer() {
-    new MetricsLogging(transitModel(), raptorConfig());
+    try (var tasks = new StartupTasks()) {
+      var transitLayer = tasks.run(() ->
+        creatTransitLayerForRaptor(transitModel(), routerConfig())
+      );
+      var geoidDifference = tasks.run(() -> graph().initEllipsoidToGeoidDifference());
+      CompletableFuture<Void> transmodelApi = CompletableFuture.completedFuture(null);
+      if (OTPFeature.SandboxAPITransmodelApi.isOn()) {
+        transmodelApi =
+          tasks.run(() ->
+            TransmodelAPI.setUp(
+              routerConfig().transmodelApi(),
+              transitModel(),
+              routerConfig().routingRequestDefaults()
+            )
+          );
+      }
 
-    creatTransitLayerForRaptor(transitModel(), routerConfig());
+      if (OTPFeature.SandboxAPIGeocoder.isOn()) {
+        tasks.runInBackground(
+          "geocoderIndex",
+          () -> {
+            LOG.info("Creating debug client geocoder lucene index");
+            try (var phase = StartupPhases.start("geocoderIndex")) {
+              LuceneIndex.forServer(context);
+            }
+          }
+        );
+      }
 
-    /* Create Graph updater modules from JSON config. */
-    GraphUpdaterConfigurator.setupGraph(graph(), transitModel(), routerConfig().updaterConfig());
+      StartupTasks.await(transitLayer);
 
-    graph().initEllipsoidToGeoidDifference();
+      // The metrics include the transit layer caches, so this must be done after it is created
+      new MetricsLogging(transitModel(), raptorConfig());
 
-    if (OTPFeature.SandboxAPITransmodelApi.isOn()) {
-      TransmodelAPI.setUp(
-        routerConfig().transmodelApi(),
-        transitModel(),
-        routerConfig().routingRequestDefaults()
-      );
-    }
+      /* Create Graph updater modules from JSON config. The updaters use the transit layer. */
+      try (var phase = StartupPhases.start("setupUpdaters")) {
+        GraphUpdaterConfigurator.setupGraph(
+          graph(),
+          transitModel(),
+          routerConfig().updaterConfig()
+        );
+      }
 
-    if (OTPFeature.SandboxAPIGeocoder.isOn()) {
-      LOG.info("Creating debug client geocoder lucene index");
-      LuceneIndex.forServer(context);
+      StartupTasks.await(geoidDifference, transmodelApi);
     }
   }
 
@@ -197,16 +236,21 @@ public class OTPAppConstruction {
       );
     }
     LOG.info("Creating transit layer for Raptor routing.");
-    transitModel.setTransitLayer(
-      TransitLayerMapper.map(routerConfig.transitTuningParameters(), transitModel)
-    );
-    transitModel.setRealtimeTransitLayer(new TransitLayer(transitModel.getTransitLayer()));
-    transitModel.setTransitLayerUpdater(
-      new TransitLayerUpdater(
-        transitModel,
-        transitModel.getTransitModelIndex().getServiceCodesRunningForDate()
-      )
-    );
+    try (var phase = StartupPhases.start("createTransitLayer")) {
+      transitModel.setTransitLayer(
+        TransitLayerMapper.map(routerConfig.transitTuningParameters(), transitModel)
+      );
+      // The transit layer now holds what it needs from the snapshot saved with the graph
+      transitModel.setTransitLayerSnapshot(null);
+      transitModel.setRealtimeTransitLayer(new TransitLayer(transitModel.getTransitLayer()));
+      transitModel.setTransitLayerUpdater(
+        new TransitLayerUpdater(
+          transitModel,
+          transitModel.getTransitModelIndex().getServiceCodesRunningForDate()
+        )
+      );
+      phase.processed("tripPatterns", transitModel.getAllTripPatterns().size());
+    }
   }
 
   public RaptorConfig<TripSchedule> raptorConfig() {
@@ -0,0 +1,68 @@
+package org.opentripplanner.standalone.configure;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Run the server startup tasks concurrently. Each task is started when the tasks it depends on are
+ * done, so the startup is expressed as a dependency graph of tasks. Use {@link #await} to wait for
+ * the tasks required before the server can start. Tasks not awaited keep running in the
+ * background after the executor is closed.
+ */
+public class StartupTasks implements AutoCloseable {
+
+  private static final Logger LOG = LoggerFactory.getLogger(StartupTasks.class);
+
+  private final ExecutorService executor = Executors.newCachedThreadPool(
+    new ThreadFactoryBuilder().setNameFormat("startup-%d").setDaemon(true).build()
+  );
+
+  /**
+   * Run the task when all the given tasks are done. If one of them fails, the task is not run and
+   * the returned future fails with the same exception.
+   */
+  public CompletableFuture<Void> run(Runnable task, CompletableFuture<?>... dependsOn) {
+    return CompletableFuture.allOf(dependsOn).thenRunAsync(task, executor);
+  }
+
+  /**
+   * Run a task the server does not need to be ready. Errors are logged, not thrown.
+   */
+  public void runInBackground(String name, Runnable task, CompletableFuture<?>... dependsOn) {
+    run(task, dependsOn)
+      .exceptionally(e -> {
+        LOG.error("Startup task '{}' failed: {}", name, e.getMessage(), e);
+        return null;
+      });
+  }
+
+  /**
+   * Wait for the given tasks to complete. An exception thrown by a task is rethrown.
+   */
+  public static void await(CompletableFuture<?>... tasks) {
+    try {
+      CompletableFuture.allOf(tasks).join();
+    } catch (CompletionException e) {
+      if (e.getCause() instanceof RuntimeException re) {
+        throw re;
+      }
+      if (e.getCause() instanceof Error error) {
+        throw error;
+      }
+      throw e;
+    }
+  }
+
+  /**
+   * Stop accepting new tasks, the tasks already started run to completion.
+   */
+  @Override
+  public void close() {
+    executor.shutdown();
+  }
+}
@@ -5,9 +5,17 @@ import ch.qos.logback.classic.LoggerContext;
 import ch.qos.logback.classic.encoder.PatternLayoutEncoder;
 import ch.qos.logback.classic.spi.ILoggingEvent;
 import ch.qos.logback.core.FileAppender;
+import com.google.common.base.Suppliers;
 import io.micrometer.core.instrument.MeterRegistry;
 import java.util.Locale;
+import java.util.function.Supplier;
 import javax.annotation.Nullable;
+import org.opentripplanner.api.support.GraphQLQueryExecutor;
+import org.opentripplanner.datastore.api.DataSource;
+import org.opentripplanner.ext.flex.flexpathcalculator.FlexPathTableCache;
+import org.opentripplanner.ext.traveltime.EgressTableCache;
+import org.opentripplanner.ext.vectortiles.VectorTileCache;
+import org.opentripplanner.ext.vectortiles.VectorTilePyramid;
 import org.opentripplanner.inspector.TileRendererManager;
 import org.opentripplanner.routing.RoutingService;
 import org.opentripplanner.routing.algorithm.astar.TraverseVisitor;
@@ -20,6 +28,7 @@ import org.opentripplanner.transit.raptor.configure.RaptorConfig;
 import org.opentripplanner.transit.service.DefaultTransitService;
 import org.opentripplanner.transit.service.TransitModel;
 import org.opentripplanner.transit.service.TransitService;
+import org.opentripplanner.util.OTPFeature;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -35,6 +44,11 @@ public class DefaultServerContext implements OtpServerContext {
   private final RaptorConfig<TripSchedule> raptorConfig;
   public final Logger requestLogger;
   private final TileRendererManager tileRendererManager;
+  private final Supplier<VectorTileCache> vectorTileCache;
+  private final Supplier<VectorTilePyramid> vectorTilePyramid;
+  private final Supplier<EgressTableCache> egressTableCache;
+  private final Supplier<FlexPathTableCache> flexPathTableCache;
+  private final Supplier<GraphQLQueryExecutor> graphQLQueryExecutor;
   public final TraverseVisitor traverseVisitor;
 
   /**
@@ -49,6 +63,11 @@ public class DefaultServerContext implements OtpServerContext {
     RaptorConfig<TripSchedule> raptorConfig,
     Logger requestLogger,
     TileRendererManager tileRendererManager,
+    Supplier<VectorTileCache> vectorTileCache,
+    Supplier<VectorTilePyramid> vectorTilePyramid,
+    Supplier<EgressTableCache> egressTableCache,
+    Supplier<FlexPathTableCache> flexPathTableCache,
+    Supplier<GraphQLQueryExecutor> graphQLQueryExecutor,
     TraverseVisitor traverseVisitor
   ) {
     this.graph = graph;
@@ -58,18 +77,27 @@ public class DefaultServerContext implements OtpServerContext {
     this.raptorConfig = raptorConfig;
     this.requestLogger = requestLogger;
     this.tileRendererManager = tileRendererManager;
+    this.vectorTileCache = vectorTileCache;
+    this.vectorTilePyramid = vectorTilePyramid;
+    this.egressTableCache = egressTableCache;
+    this.flexPathTableCache = flexPathTableCache;
+    this.graphQLQueryExecutor = graphQLQueryExecutor;
     this.traverseVisitor = traverseVisitor;
   }
 
   /**
    * Create a default server context witch can be cloned by calling
    * {@link #createHttpRequestScopedCopy()} for each HTTP request.
+   *
+   * @param graphSource the file the graph is loaded from, the pre-rendered vector tiles are read
+   *                    from the same directory. {@code null} if the graph is not loaded from file.
    */
   public static DefaultServerContext create(
     RouterConfig routerConfig,
     RaptorConfig<TripSchedule> raptorConfig,
     Graph graph,
     TransitModel transitModel,
+    @Nullable DataSource graphSource,
     MeterRegistry meterRegistry,
     @Nullable TraverseVisitor traverseVisitor
   ) {
@@ -83,6 +111,21 @@ public class DefaultServerContext implements OtpServerContext {
       raptorConfig,
       createLogger(routerConfig.requestLogFile()),
       new TileRendererManager(graph, defaultRoutingRequest),
+      // The cache is created on the first request, after the updaters have set up the real-time
+      // services it listens to
+      Suppliers.memoize(() -> createVectorTileCache(graph, routerConfig, meterRegistry)),
+      Suppliers.memoize(() ->
+        VectorTilePyramid.load(graph, graphSource, routerConfig.vectorTileLayers().layers())
+      ),
+      Suppliers.memoize(() -> createEgressTableCache(graph, meterRegistry)),
+      Suppliers.memoize(() -> createFlexPathTableCache(meterRegistry)),
+      Suppliers.memoize(() ->
+        new GraphQLQueryExecutor(
+          routerConfig.graphQLMaxQueued(),
+          routerConfig.graphQLMaxQueuedPerClient(),
+          meterRegistry
+        )
+      ),
       traverseVisitor
     );
   }
@@ -147,6 +190,31 @@ public class DefaultServerContext implements OtpServerContext {
     return tileRendererManager;
   }
 
+  @Override
+  public VectorTileCache vectorTileCache() {
+    return vectorTileCache.get();
+  }
+
+  @Override
+  public VectorTilePyramid vectorTilePyramid() {
+    return vectorTilePyramid.get();
+  }
+
+  @Override
+  public EgressTableCache egressTableCache() {
+    return egressTableCache.get();
+  }
+
+  @Override
+  public FlexPathTableCache flexPathTableCache() {
+    return flexPathTableCache.get();
+  }
+
+  @Override
+  public GraphQLQueryExecutor graphQLQueryExecutor() {
+    return graphQLQueryExecutor.get();
+  }
+
   @Override
   public TraverseVisitor traverseVisitor() {
     return traverseVisitor;
@@ -161,10 +229,43 @@ public class DefaultServerContext implements OtpServerContext {
       raptorConfig,
       requestLogger,
       tileRendererManager,
+      vectorTileCache,
+      vectorTilePyramid,
+      egressTableCache,
+      flexPathTableCache,
+      graphQLQueryExecutor,
       traverseVisitor
     );
   }
 
+  private static VectorTileCache createVectorTileCache(
+    Graph graph,
+    RouterConfig routerConfig,
+    MeterRegistry meterRegistry
+  ) {
+    var cache = new VectorTileCache(graph, routerConfig.vectorTileLayers().layers());
+    if (OTPFeature.ActuatorAPI.isOn()) {
+      cache.bindTo(meterRegistry);
+    }
+    return cache;
+  }
+
+  private static EgressTableCache createEgressTableCache(Graph graph, MeterRegistry meterRegistry) {
+    var cache = new EgressTableCache(graph);
+    if (OTPFeature.ActuatorAPI.isOn()) {
+      cache.bindTo(meterRegistry);
+    }
+    return cache;
+  }
+
+  private static FlexPathTableCache createFlexPathTableCache(MeterRegistry meterRegistry) {
+    var cache = new FlexPathTableCache();
+    if (OTPFeature.ActuatorAPI.isOn()) {
+      cache.bindTo(meterRegistry);
+    }
+    return cache;
+  }
+
   /**
    * Programmatically (i.e. not in XML) create a Logback logger for requests happening on this
    * router. http://stackoverflow.com/a/17215011/778449
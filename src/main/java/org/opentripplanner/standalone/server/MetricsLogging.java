@@ -46,6 +46,16 @@ public class MetricsLogging {
         List.of(Tag.of("cache", "raptorTransfers"))
       )
         .bindTo(Metrics.globalRegistry);
+
+      var lazyProvider = transitModel.getTransitLayer().getLazyTripPatternForDateProvider();
+      if (lazyProvider != null) {
+        new GuavaCacheMetrics(
+          lazyProvider.getTripPatternsByServiceDateCache(),
+          "lazyTransitDataCache",
+          List.of(Tag.of("cache", "lazyTransitData"))
+        )
+          .bindTo(Metrics.globalRegistry);
+      }
     }
     new ExecutorServiceMetrics(
       ForkJoinPool.commonPool(),
@@ -22,6 +22,7 @@ import org.opentripplanner.api.configuration.APIEndpoints;
 import org.opentripplanner.api.json.JSONObjectMapperProvider;
 import org.opentripplanner.standalone.api.OtpServerContext;
 import org.opentripplanner.util.OTPFeature;
+import org.opentripplanner.util.logging.StartupPhases;
 import org.slf4j.bridge.SLF4JBridgeHandler;
 
 /**
@@ -151,6 +152,8 @@ public class OTPWebApplication extends Application {
     );
 
     Metrics.globalRegistry.add(prometheusRegistry);
+    // Most startup phases are done before the server is started, publish them now
+    StartupPhases.bindTo(Metrics.globalRegistry);
 
     return new AbstractBinder() {
       @Override
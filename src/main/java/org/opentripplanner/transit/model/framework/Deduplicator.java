@@ -23,6 +23,7 @@ public class Deduplicator implements Serializable {
 
   private final Map<BitSet, BitSet> canonicalBitSets = new HashMap<>();
   private final Map<IntArray, IntArray> canonicalIntArrays = new HashMap<>();
+  private final Map<ByteArray, ByteArray> canonicalByteArrays = new HashMap<>();
   private final Map<String, String> canonicalStrings = new HashMap<>();
   private final Map<StringArray, StringArray> canonicalStringArrays = new HashMap<>();
   private final Map<String2DArray, String2DArray> canonicalString2DArrays = new HashMap<>();
@@ -35,6 +36,7 @@ public class Deduplicator implements Serializable {
   public void reset() {
     canonicalBitSets.clear();
     canonicalIntArrays.clear();
+    canonicalByteArrays.clear();
     canonicalStrings.clear();
     canonicalStringArrays.clear();
     canonicalString2DArrays.clear();
@@ -72,6 +74,18 @@ public class Deduplicator implements Serializable {
     return canonical.array;
   }
 
+  /** Used to deduplicate packed geometries. Many short street edges have the same shape. */
+  @Nullable
+  public byte[] deduplicateByteArray(byte[] original) {
+    if (original == null) {
+      return null;
+    }
+    ByteArray byteArray = new ByteArray(original);
+    ByteArray canonical = canonicalByteArrays.putIfAbsent(byteArray, byteArray);
+    incrementEffectCounter(ByteArray.class);
+    return canonical == null ? original : canonical.array;
+  }
+
   @Nullable
   public String deduplicateString(String original) {
     if (original == null) {
@@ -166,6 +180,7 @@ public class Deduplicator implements Serializable {
       .of(Deduplicator.class)
       .addObj("BitSet", sizeAndCount(canonicalBitSets.size(), BitSet.class))
       .addObj("IntArray", sizeAndCount(canonicalIntArrays.size(), IntArray.class))
+      .addObj("ByteArray", sizeAndCount(canonicalByteArrays.size(), ByteArray.class))
       .addObj("String", sizeAndCount(canonicalStrings.size(), String.class))
       .addObj("StringArray", sizeAndCount(canonicalStringArrays.size(), StringArray.class))
       .addObj("String2DArray", sizeAndCount(canonicalString2DArrays.size(), String2DArray.class));
@@ -231,6 +246,27 @@ public class Deduplicator implements Serializable {
     }
   }
 
+  /** A wrapper for a primitive byte array. */
+  private static class ByteArray implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+    final byte[] array;
+
+    ByteArray(byte[] array) {
+      this.array = array;
+    }
+
+    @Override
+    public int hashCode() {
+      return Arrays.hashCode(array);
+    }
+
+    @Override
+    public boolean equals(Object other) {
+      return other instanceof ByteArray that && Arrays.equals(array, that.array);
+    }
+  }
+
   /** A wrapper for a String array. Optionally, the individual Strings may be deduplicated too. */
   private class StringArray implements Serializable {
 
@@ -89,13 +89,17 @@ public class TripTimes implements Serializable, Comparable<TripTimes> {
 
   /**
    * States of the stops in the trip. If the state is DEFAULT for a stop, {@link #realTimeState}
-   * should determine the realtime state of the stop.
+   * should determine the realtime state of the stop. The array is {@code null} until the state of a
+   * stop is set, this is the same as all stops having the DEFAULT state.
    * <p>
    * This is only for API-purposes (does not affect routing). Non-final to allow updates.
    */
   private StopRealTimeState[] stopRealTimeStates;
 
   /**
+   * The array is {@code null} until the occupancy of a stop is set, this is the same as NO_DATA for
+   * all stops.
+   * <p>
    * This is only for API-purposes (does not affect routing). Non-final to allow updates.
    */
   private OccupancyStatus[] occupancyStatus;
@@ -251,23 +255,19 @@ public class TripTimes implements Serializable, Comparable<TripTimes> {
   }
 
   public void setRecorded(int stop) {
-    prepareForRealTimeUpdates();
-    stopRealTimeStates[stop] = StopRealTimeState.RECORDED;
+    setStopRealTimeState(stop, StopRealTimeState.RECORDED);
   }
 
   public void setCancelled(int stop) {
-    prepareForRealTimeUpdates();
-    stopRealTimeStates[stop] = StopRealTimeState.CANCELLED;
+    setStopRealTimeState(stop, StopRealTimeState.CANCELLED);
   }
 
   public void setNoData(int stop) {
-    prepareForRealTimeUpdates();
-    stopRealTimeStates[stop] = StopRealTimeState.NO_DATA;
+    setStopRealTimeState(stop, StopRealTimeState.NO_DATA);
   }
 
   public void setPredictionInaccurate(int stop) {
-    prepareForRealTimeUpdates();
-    stopRealTimeStates[stop] = StopRealTimeState.INACCURATE_PREDICTIONS;
+    setStopRealTimeState(stop, StopRealTimeState.INACCURATE_PREDICTIONS);
   }
 
   public boolean isCancelledStop(int stop) {
@@ -302,6 +302,10 @@ public class TripTimes implements Serializable, Comparable<TripTimes> {
 
   public void setOccupancyStatus(int stop, OccupancyStatus occupancyStatus) {
     prepareForRealTimeUpdates();
+    if (this.occupancyStatus == null) {
+      this.occupancyStatus = new OccupancyStatus[getNumStops()];
+      Arrays.fill(this.occupancyStatus, OccupancyStatus.NO_DATA);
+    }
     this.occupancyStatus[stop] = occupancyStatus;
   }
 
@@ -593,9 +597,19 @@ public class TripTimes implements Serializable, Comparable<TripTimes> {
     return vias;
   }
 
+  private void setStopRealTimeState(int stop, StopRealTimeState state) {
+    prepareForRealTimeUpdates();
+    if (stopRealTimeStates == null) {
+      stopRealTimeStates = new StopRealTimeState[getNumStops()];
+      Arrays.fill(stopRealTimeStates, StopRealTimeState.DEFAULT);
+    }
+    stopRealTimeStates[stop] = state;
+  }
+
   /**
    * If they don't already exist, create arrays for updated arrival and departure times that are
-   * just time-shifted copies of the zero-based scheduled departure times.
+   * just time-shifted copies of the zero-based scheduled departure times. The arrays for stop
+   * states and occupancy are created when they are first set, most updates only change the times.
    * <p>
    * Also sets the realtime state to UPDATED.
    */
@@ -603,14 +617,13 @@ public class TripTimes implements Serializable, Comparable<TripTimes> {
     if (arrivalTimes == null) {
       this.arrivalTimes = Arrays.copyOf(scheduledArrivalTimes, scheduledArrivalTimes.length);
       this.departureTimes = Arrays.copyOf(scheduledDepartureTimes, scheduledDepartureTimes.length);
-      this.stopRealTimeStates = new StopRealTimeState[arrivalTimes.length];
-      this.occupancyStatus = new OccupancyStatus[arrivalTimes.length];
       for (int i = 0; i < arrivalTimes.length; i++) {
         arrivalTimes[i] += timeShift;
         departureTimes[i] += timeShift;
-        stopRealTimeStates[i] = StopRealTimeState.DEFAULT;
-        occupancyStatus[i] = OccupancyStatus.NO_DATA;
       }
+      // The stop states may be shared with the TripTimes this is copied from
+      this.stopRealTimeStates = null;
+      this.occupancyStatus = null;
 
       // Update the real-time state
       realTimeState = RealTimeState.UPDATED;
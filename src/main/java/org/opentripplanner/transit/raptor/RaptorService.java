@@ -3,6 +3,7 @@ package org.opentripplanner.transit.raptor;
 import java.util.stream.Collectors;
 import org.opentripplanner.transit.raptor.api.request.RaptorRequest;
 import org.opentripplanner.transit.raptor.api.response.RaptorResponse;
+import org.opentripplanner.transit.raptor.api.response.StopArrivalsIterationListener;
 import org.opentripplanner.transit.raptor.api.transit.RaptorTransitDataProvider;
 import org.opentripplanner.transit.raptor.api.transit.RaptorTripSchedule;
 import org.opentripplanner.transit.raptor.configure.RaptorConfig;
@@ -50,6 +51,26 @@ public class RaptorService<T extends RaptorTripSchedule> {
     return response;
   }
 
+  /**
+   * Route using the standard Range Raptor worker, and notify the listener with the stop arrivals
+   * after each iteration (departure time) in the search window. This is used to find the travel
+   * times to all stops for each departure time, the paths are not returned.
+   */
+  public RaptorResponse<T> routeEachIteration(
+    RaptorRequest<T> request,
+    RaptorTransitDataProvider<T> transitData,
+    StopArrivalsIterationListener iterationListener
+  ) {
+    if (request.isDynamicSearch()) {
+      throw new IllegalArgumentException(
+        "Only searches using the standard worker notify each iteration: " + request
+      );
+    }
+    Worker<T> worker = config.createStdWorker(transitData, request, iterationListener);
+    worker.route();
+    return new RaptorResponse<>(worker.paths(), worker.stopArrivals(), request, request);
+  }
+
   /**
    * TODO Add back the possibility to compare heuristics using a test - like the SpeedTest,
    *      but maybe better to make a separate test.
@@ -0,0 +1,18 @@
+package org.opentripplanner.transit.raptor.api.response;
+
+/**
+ * Listen to the stop arrivals after each Range Raptor iteration. Each iteration is a search for a
+ * departure time in the search window, starting with the latest departure time. The arrival time
+ * at a stop is the earliest arrival for a departure at the iteration departure time or later.
+ */
+@FunctionalInterface
+public interface StopArrivalsIterationListener {
+  /**
+   * The stop arrivals are a view of the worker state, which is modified by the next iteration;
+   * Hence the listener must copy any information it wants to retain before returning.
+   *
+   * @param departureTime the departure time of the iteration
+   * @param arrivals      the stop arrivals for the departure time
+   */
+  void iterationComplete(int departureTime, StopArrivals arrivals);
+}
@@ -2,9 +2,11 @@ package org.opentripplanner.transit.raptor.configure;
 
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicReference;
 import javax.annotation.Nullable;
 import org.opentripplanner.transit.raptor.api.request.RaptorRequest;
 import org.opentripplanner.transit.raptor.api.request.RaptorTuningParameters;
+import org.opentripplanner.transit.raptor.api.response.StopArrivalsIterationListener;
 import org.opentripplanner.transit.raptor.api.transit.RaptorTransitDataProvider;
 import org.opentripplanner.transit.raptor.api.transit.RaptorTripSchedule;
 import org.opentripplanner.transit.raptor.rangeraptor.RangeRaptorWorker;
@@ -52,6 +54,31 @@ public class RaptorConfig<T extends RaptorTripSchedule> {
     return new StdRangeRaptorConfig<>(context).createSearch((s, w) -> createWorker(context, s, w));
   }
 
+  /**
+   * Create a standard worker and notify the listener with the stop arrivals after each iteration.
+   */
+  public Worker<T> createStdWorker(
+    RaptorTransitDataProvider<T> transitData,
+    RaptorRequest<T> request,
+    StopArrivalsIterationListener iterationListener
+  ) {
+    SearchContext<T> context = context(transitData, request);
+    // The listener is subscribed before the worker is created, the life cycle publisher is
+    // created with the worker, so the worker is accessed through a reference.
+    AtomicReference<Worker<T>> worker = new AtomicReference<>();
+    int[] departureTime = new int[1];
+    context.lifeCycle().onSetupIteration(time -> departureTime[0] = time);
+    context
+      .lifeCycle()
+      .onIterationComplete(() ->
+        iterationListener.iterationComplete(departureTime[0], worker.get().stopArrivals())
+      );
+    worker.set(
+      new StdRangeRaptorConfig<>(context).createSearch((s, w) -> createWorker(context, s, w))
+    );
+    return worker.get();
+  }
+
   public Worker<T> createMcWorker(
     RaptorTransitDataProvider<T> transitData,
     RaptorRequest<T> request,
@@ -31,6 +31,7 @@ import org.opentripplanner.model.calendar.CalendarServiceData;
 import org.opentripplanner.model.calendar.impl.CalendarServiceImpl;
 import org.opentripplanner.model.transfer.DefaultTransferService;
 import org.opentripplanner.routing.algorithm.raptoradapter.transit.TransitLayer;
+import org.opentripplanner.routing.algorithm.raptoradapter.transit.TransitLayerSnapshot;
 import org.opentripplanner.routing.algorithm.raptoradapter.transit.mappers.TransitLayerUpdater;
 import org.opentripplanner.routing.impl.DelegatingTransitAlertServiceImpl;
 import org.opentripplanner.routing.services.TransitAlertService;
@@ -99,9 +100,12 @@ public class TransitModel implements Serializable {
 
   private final Map<FeedScopedId, FlexTrip<?, ?>> flexTripsById = new HashMap<>();
 
-  private transient TransitLayer transitLayer;
+  private transient volatile TransitLayer transitLayer;
   private transient TransitLayerUpdater transitLayerUpdater;
 
+  /** Saved with the graph if enabled in the build config, used to create the transit layer. */
+  private TransitLayerSnapshot transitLayerSnapshot;
+
   private transient TransitAlertService transitAlertService;
 
   public TransitModel(StopModel stopModel, Deduplicator deduplicator) {
@@ -164,6 +168,15 @@ public class TransitModel implements Serializable {
     this.transitLayer = transitLayer;
   }
 
+  @Nullable
+  public TransitLayerSnapshot getTransitLayerSnapshot() {
+    return transitLayerSnapshot;
+  }
+
+  public void setTransitLayerSnapshot(@Nullable TransitLayerSnapshot transitLayerSnapshot) {
+    this.transitLayerSnapshot = transitLayerSnapshot;
+  }
+
   /** Data model for Raptor routing, with realtime updates applied (if any). */
   public TransitLayer getRealtimeTransitLayer() {
     return realtimeTransitLayer.get();
@@ -76,8 +76,8 @@ public abstract class GraphUpdaterConfigurator {
     GraphUpdaterManager updaterManager = new GraphUpdaterManager(graph, transitModel, updaters);
     updaterManager.startUpdaters();
 
-    // Stop the updater manager if it contains nothing
-    if (updaterManager.numberOfUpdaters() == 0) {
+    // Stop the updater manager if it contains nothing, and does not move the transit data window
+    if (updaterManager.numberOfUpdaters() == 0 && !updaterManager.rollsTransitDataWindow()) {
       updaterManager.stop();
     }
     // Otherwise add it to the graph
@@ -14,6 +14,7 @@ import java.util.function.Predicate;
 import java.util.stream.Collectors;
 import org.opentripplanner.routing.graph.Graph;
 import org.opentripplanner.transit.service.TransitModel;
+import org.opentripplanner.util.logging.StartupPhases;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -32,6 +33,12 @@ public class GraphUpdaterManager implements WriteToGraphCallback, GraphUpdaterSt
 
   private static final Logger LOG = LoggerFactory.getLogger(GraphUpdaterManager.class);
 
+  /**
+   * How often to check if the day changed and the transit data window must be moved. The window
+   * includes the day before today, so it does not matter that it moves up to this late.
+   */
+  private static final long TRANSIT_DATA_WINDOW_CHECK_INTERVAL_MINUTES = 60;
+
   /**
    * OTP's multi-version concurrency control model for graph updating allows simultaneous reads, but
    * never simultaneous writes. We ensure this policy is respected by having a single writer thread,
@@ -61,6 +68,8 @@ public class GraphUpdaterManager implements WriteToGraphCallback, GraphUpdaterSt
   private final Graph graph;
   private final TransitModel transitModel;
 
+  private boolean rollsTransitDataWindow = false;
+
   /**
    * Constructor.
    *
@@ -96,6 +105,7 @@ public class GraphUpdaterManager implements WriteToGraphCallback, GraphUpdaterSt
       });
     }
     reportReadinessForUpdaters();
+    scheduleTransitDataWindowRoll();
   }
 
   public void stop() {
@@ -143,6 +153,14 @@ public class GraphUpdaterManager implements WriteToGraphCallback, GraphUpdaterSt
     });
   }
 
+  /**
+   * {@code true} if the manager moves the transit data window every day. Then the manager is
+   * needed even without updaters.
+   */
+  public boolean rollsTransitDataWindow() {
+    return rollsTransitDataWindow;
+  }
+
   @Override
   public int numberOfUpdaters() {
     return updaterList.size();
@@ -204,6 +222,31 @@ public class GraphUpdaterManager implements WriteToGraphCallback, GraphUpdaterSt
     return scheduler;
   }
 
+  /**
+   * The transit data window is moved by the real-time updates, but there may be no real-time
+   * updaters or no updates for a while. So the window is also moved on the writer thread, where it
+   * does not race with the updates.
+   */
+  private void scheduleTransitDataWindowRoll() {
+    var transitLayerUpdater = transitModel.getTransitLayerUpdater();
+    if (transitLayerUpdater == null || !transitLayerUpdater.hasTransitDataWindow()) {
+      return;
+    }
+    rollsTransitDataWindow = true;
+    scheduler.scheduleWithFixedDelay(
+      () -> {
+        try {
+          transitLayerUpdater.rollTransitDataWindow();
+        } catch (Exception e) {
+          LOG.error("Error while moving the transit data window", e);
+        }
+      },
+      TRANSIT_DATA_WINDOW_CHECK_INTERVAL_MINUTES,
+      TRANSIT_DATA_WINDOW_CHECK_INTERVAL_MINUTES,
+      TimeUnit.MINUTES
+    );
+  }
+
   /**
    * This method start a task during startup and log a message when all updaters are initialized.
    * When all updaters are ready, then OTP is ready for processing routing requests.
@@ -213,12 +256,14 @@ public class GraphUpdaterManager implements WriteToGraphCallback, GraphUpdaterSt
    * mostly idle, and it is short-lived, so the busy-wait is a compromise.
    */
   private void reportReadinessForUpdaters() {
+    var phase = StartupPhases.start("primeUpdaters").processed("updaters", updaterList.size());
     Executors
       .newSingleThreadExecutor()
       .submit(() -> {
         while (true) {
           try {
             if (updaterList.stream().allMatch(GraphUpdater::isPrimed)) {
+              phase.close();
               LOG.info("OTP UPDATERS INITIALIZED - OTP is ready for routing!");
               return;
             }
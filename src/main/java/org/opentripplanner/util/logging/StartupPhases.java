@@ -0,0 +1,159 @@
+package org.opentripplanner.util.logging;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Keep track of the startup phases of the server, like reading the graph, indexing and creating the
+ * transit layer. Each phase has a duration and optionally the number of bytes or objects processed.
+ * The phases are logged and listed by the actuator API. This makes it possible to tell a slow
+ * startup from one that is stuck, and to tune startup timeouts.
+ * <p>
+ * Most phases run before the web server is started. They are published as Micrometer gauges when
+ * the server binds its meter registry, see {@link #bindTo(MeterRegistry)}, and the phases started
+ * later are published as they start.
+ * <p>
+ * There is only one server in each JVM, so the phases are kept in a static list.
+ */
+public final class StartupPhases {
+
+  private static final Logger LOG = LoggerFactory.getLogger(StartupPhases.class);
+
+  private static final String DURATION_METER_NAME = "otp.startup.phase.duration";
+  private static final String PROCESSED_METER_NAME = "otp.startup.phase.processed";
+
+  private static final List<Phase> PHASES = new ArrayList<>();
+  private static final List<MeterRegistry> REGISTRIES = new ArrayList<>();
+
+  private StartupPhases() {}
+
+  /**
+   * Start a new phase. The phase ends when it is closed, use it in a try-with-resources block so
+   * that the phase also ends if it fails.
+   */
+  public static synchronized Phase start(String name) {
+    var phase = new Phase(name);
+    PHASES.add(phase);
+    REGISTRIES.forEach(phase::bindTo);
+    return phase;
+  }
+
+  /**
+   * Publish the phases started so far, and the phases started later, as gauges in the given
+   * registry.
+   */
+  public static synchronized void bindTo(MeterRegistry registry) {
+    REGISTRIES.add(registry);
+    PHASES.forEach(phase -> phase.bindTo(registry));
+  }
+
+  /**
+   * All phases started, in the order they were started.
+   */
+  public static synchronized List<Phase> phases() {
+    return List.copyOf(PHASES);
+  }
+
+  public static final class Phase implements AutoCloseable {
+
+    private final String name;
+    private final long startTime = System.nanoTime();
+    private final Map<String, Long> processed = new LinkedHashMap<>();
+    private final List<MeterRegistry> registries = new ArrayList<>();
+    private volatile long endTime = -1;
+
+    private Phase(String name) {
+      this.name = name;
+    }
+
+    public String getName() {
+      return name;
+    }
+
+    public boolean isDone() {
+      return endTime != -1;
+    }
+
+    /**
+     * The duration of the phase, or the time since it started if it is still running.
+     */
+    public double getDurationSeconds() {
+      long end = isDone() ? endTime : System.nanoTime();
+      return (end - startTime) / (double) TimeUnit.SECONDS.toNanos(1);
+    }
+
+    /**
+     * The number of bytes or objects processed in this phase, by unit.
+     */
+    public synchronized Map<String, Long> getProcessed() {
+      return Map.copyOf(processed);
+    }
+
+    /**
+     * Record the number of bytes or objects of the given unit processed in this phase.
+     */
+    public synchronized Phase processed(String unit, long count) {
+      if (processed.put(unit, count) == null) {
+        registries.forEach(registry -> bindProcessed(registry, unit));
+      }
+      return this;
+    }
+
+    /**
+     * End the phase, and log its duration. Only the first call ends the phase.
+     */
+    @Override
+    public void close() {
+      synchronized (this) {
+        if (isDone()) {
+          return;
+        }
+        endTime = System.nanoTime();
+      }
+      var processed = getProcessed();
+      if (processed.isEmpty()) {
+        LOG.info("Startup phase '{}' done in {} s.", name, durationAsText());
+      } else {
+        LOG.info(
+          "Startup phase '{}' done in {} s. Processed: {}",
+          name,
+          durationAsText(),
+          processed
+        );
+      }
+    }
+
+    private synchronized void bindTo(MeterRegistry registry) {
+      registries.add(registry);
+      Gauge
+        .builder(DURATION_METER_NAME, this, Phase::getDurationSeconds)
+        .description("The duration of the startup phase, updated while the phase is running")
+        .baseUnit("seconds")
+        .tag("phase", name)
+        .strongReference(true)
+        .register(registry);
+      processed.keySet().forEach(unit -> bindProcessed(registry, unit));
+    }
+
+    private void bindProcessed(MeterRegistry registry, String unit) {
+      Gauge
+        .builder(PROCESSED_METER_NAME, () -> getProcessed().get(unit))
+        .description("The number of bytes or objects processed in the startup phase")
+        .tag("phase", name)
+        .tag("unit", unit)
+        .strongReference(true)
+        .register(registry);
+    }
+
+    private String durationAsText() {
+      return String.format("%.1f", getDurationSeconds());
+    }
+  }
+}
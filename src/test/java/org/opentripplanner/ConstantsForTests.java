@@ -316,7 +316,8 @@ public class ConstantsForTests {
       fareServiceFactory,
       false,
       true,
-      300
+      300,
+      2
     );
 
     module.buildGraph();
@@ -24,6 +24,7 @@ public class TestServerContext {
       new RaptorConfig<>(routerConfig.raptorTuningParameters()),
       graph,
       transitModel,
+      null,
       Metrics.globalRegistry,
       null
     );
@@ -0,0 +1,173 @@
+package org.opentripplanner.api.support;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import org.junit.jupiter.api.Test;
+
+class GraphQLQueryExecutorTest {
+
+  private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+  @Test
+  void clientsAreServedInTurn() throws Exception {
+    var subject = new GraphQLQueryExecutor(1, 10, 10, registry);
+    var started = new CountDownLatch(1);
+    var release = new CountDownLatch(1);
+    List<String> executed = Collections.synchronizedList(new ArrayList<>());
+
+    Callable<String> blocker = () -> {
+      started.countDown();
+      release.await();
+      return "blocker";
+    };
+    var clientA = CompletableFuture.runAsync(() ->
+      invokeAll(subject, "A", List.of(blocker, task("a1", executed), task("a2", executed)))
+    );
+    started.await();
+    var clientB = CompletableFuture.runAsync(() ->
+      invokeAll(subject, "B", List.of(task("b1", executed)))
+    );
+    while (subject.getQueued() < 3) {
+      Thread.sleep(1);
+    }
+    release.countDown();
+    clientA.join();
+    clientB.join();
+
+    assertEquals(List.of("a1", "b1", "a2"), executed);
+    assertEquals(4, registry.get("graphql.executor.queue.wait").timer().count());
+  }
+
+  @Test
+  void rejectWhenQueueIsFull() throws Exception {
+    var subject = new GraphQLQueryExecutor(1, 2, 10, registry);
+    var started = new CountDownLatch(1);
+    var release = new CountDownLatch(1);
+    List<String> executed = Collections.synchronizedList(new ArrayList<>());
+
+    Callable<String> blocker = () -> {
+      started.countDown();
+      release.await();
+      return "blocker";
+    };
+    var clientA = CompletableFuture.runAsync(() ->
+      invokeAll(subject, "A", List.of(blocker, task("a1", executed)))
+    );
+    started.await();
+    while (subject.getQueued() < 1) {
+      Thread.sleep(1);
+    }
+
+    assertThrows(
+      RejectedExecutionException.class,
+      () -> subject.invokeAll("B", List.of(task("b1", executed), task("b2", executed)))
+    );
+    assertEquals(List.of(), executed);
+    assertEquals(1, registry.get("graphql.executor.rejected").counter().count());
+
+    var clientB = CompletableFuture.runAsync(() ->
+      invokeAll(subject, "B", List.of(task("b1", executed)))
+    );
+    while (subject.getQueued() < 2) {
+      Thread.sleep(1);
+    }
+    release.countDown();
+    clientA.join();
+    clientB.join();
+
+    assertEquals(List.of("a1", "b1"), executed);
+  }
+
+  @Test
+  void largeBatchIsAcceptedWhenNothingIsWaiting() throws Exception {
+    var subject = new GraphQLQueryExecutor(1, 2, 2, registry);
+    List<String> executed = Collections.synchronizedList(new ArrayList<>());
+
+    var result = subject.invokeAll(
+      "A",
+      List.of(task("a1", executed), task("a2", executed), task("a3", executed))
+    );
+
+    assertEquals("a3", result.get(2).get());
+    assertEquals(List.of("a1", "a2", "a3"), executed);
+    assertEquals(0, registry.get("graphql.executor.rejected").counter().count());
+  }
+
+  @Test
+  void rejectWhenTheClientQueueIsFull() throws Exception {
+    var subject = new GraphQLQueryExecutor(1, 10, 2, registry);
+    var started = new CountDownLatch(1);
+    var release = new CountDownLatch(1);
+    List<String> executed = Collections.synchronizedList(new ArrayList<>());
+
+    Callable<String> blocker = () -> {
+      started.countDown();
+      release.await();
+      return "blocker";
+    };
+    var clientA = CompletableFuture.runAsync(() ->
+      invokeAll(subject, "A", List.of(blocker, task("a1", executed), task("a2", executed)))
+    );
+    started.await();
+    while (subject.getQueued() < 2) {
+      Thread.sleep(1);
+    }
+
+    assertThrows(
+      RejectedExecutionException.class,
+      () -> subject.invokeAll("A", List.of(task("a3", executed)))
+    );
+    assertEquals(1, registry.get("graphql.executor.rejected").counter().count());
+
+    // The other clients are not limited by the queue of client A
+    var clientB = CompletableFuture.runAsync(() ->
+      invokeAll(subject, "B", List.of(task("b1", executed)))
+    );
+    while (subject.getQueued() < 3) {
+      Thread.sleep(1);
+    }
+    release.countDown();
+    clientA.join();
+    clientB.join();
+
+    assertEquals(List.of("a1", "b1", "a2"), executed);
+  }
+
+  @Test
+  void clientIdIsTheRemoteAddressUnlessForwardedForIsTrusted() {
+    assertEquals("10.0.0.1", GraphQLQueryExecutor.clientId("10.0.0.1", "1.2.3.4", false));
+    assertEquals("10.0.0.1", GraphQLQueryExecutor.clientId("10.0.0.1", null, true));
+    assertEquals("1.2.3.4", GraphQLQueryExecutor.clientId("10.0.0.1", "1.2.3.4", true));
+    // The last address is added by the proxy, the ones before are sent by the client
+    assertEquals("1.2.3.4", GraphQLQueryExecutor.clientId("10.0.0.1", "9.9.9.9, 1.2.3.4", true));
+    assertEquals("10.0.0.1", GraphQLQueryExecutor.clientId("10.0.0.1", " ", true));
+  }
+
+  private static Callable<String> task(String name, List<String> executed) {
+    return () -> {
+      executed.add(name);
+      return name;
+    };
+  }
+
+  private static void invokeAll(
+    GraphQLQueryExecutor subject,
+    String clientId,
+    List<Callable<String>> tasks
+  ) {
+    try {
+      subject.invokeAll(clientId, tasks);
+    } catch (InterruptedException e) {
+      throw new RuntimeException(e);
+    }
+  }
+}
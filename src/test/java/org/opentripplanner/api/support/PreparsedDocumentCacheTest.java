@@ -0,0 +1,48 @@
+package org.opentripplanner.api.support;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import graphql.ExecutionInput;
+import graphql.execution.preparsed.PreparsedDocumentEntry;
+import graphql.language.Document;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import org.junit.jupiter.api.Test;
+
+class PreparsedDocumentCacheTest {
+
+  private final AtomicInteger parseCount = new AtomicInteger();
+
+  private final Function<ExecutionInput, PreparsedDocumentEntry> parseAndValidate = input -> {
+    parseCount.incrementAndGet();
+    return new PreparsedDocumentEntry(Document.newDocument().build());
+  };
+
+  private final PreparsedDocumentCache subject = new PreparsedDocumentCache();
+
+  @Test
+  void sameQueryIsOnlyParsedOnce() {
+    var first = subject.getDocument(input("{ stops { id } }", null), parseAndValidate);
+    var second = subject.getDocument(input("{ stops { id } }", null), parseAndValidate);
+
+    assertSame(first, second);
+    assertEquals(1, parseCount.get());
+  }
+
+  @Test
+  void queryAndOperationNameIsTheKey() {
+    var first = subject.getDocument(input("query A { a } query B { b }", "A"), parseAndValidate);
+    var second = subject.getDocument(input("query A { a } query B { b }", "B"), parseAndValidate);
+    var third = subject.getDocument(input("{ b }", null), parseAndValidate);
+
+    assertNotSame(first, second);
+    assertNotSame(second, third);
+    assertEquals(3, parseCount.get());
+  }
+
+  private static ExecutionInput input(String query, String operationName) {
+    return ExecutionInput.newExecutionInput().query(query).operationName(operationName).build();
+  }
+}
@@ -0,0 +1,91 @@
+package org.opentripplanner.api.support;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import org.dataloader.DataLoader;
+import org.junit.jupiter.api.Test;
+import org.opentripplanner.routing.alertpatch.EntitySelector;
+import org.opentripplanner.routing.alertpatch.TransitAlert;
+import org.opentripplanner.routing.impl.TransitAlertServiceImpl;
+import org.opentripplanner.transit.model.framework.FeedScopedId;
+import org.opentripplanner.transit.model.network.TripPattern;
+import org.opentripplanner.transit.model.site.StopLocation;
+import org.opentripplanner.transit.service.TransitService;
+
+class TransitDataLoadersTest {
+
+  private static final FeedScopedId STOP_A = new FeedScopedId("F", "A");
+  private static final FeedScopedId STOP_B = new FeedScopedId("F", "B");
+  private static final FeedScopedId ROUTE = new FeedScopedId("F", "R");
+  private static final FeedScopedId TRIP = new FeedScopedId("F", "T");
+
+  private final TransitService transitService = mock(TransitService.class);
+
+  @Test
+  void siblingLoadsAreLookedUpOnce() {
+    StopLocation stop = mock(StopLocation.class);
+    when(transitService.getPatternsForStop(stop, true)).thenReturn(List.of());
+
+    var registry = TransitDataLoaders.createRegistry(transitService);
+    DataLoader<StopLocation, Iterable<TripPattern>> loader = registry.getDataLoader(
+      TransitDataLoaders.PATTERNS_FOR_STOP
+    );
+    CompletableFuture<Iterable<TripPattern>> first = loader.load(stop);
+    CompletableFuture<Iterable<TripPattern>> second = loader.load(stop);
+    registry.dispatchAll();
+
+    assertEquals(List.of(), first.join());
+    assertEquals(List.of(), second.join());
+    verify(transitService, times(1)).getPatternsForStop(stop, true);
+  }
+
+  @Test
+  void stopOnRouteOrTripAlerts() {
+    var onRoute = alert("onRoute", new EntitySelector.StopAndRoute(STOP_A, ROUTE));
+    var onTrip = alert("onTrip", new EntitySelector.StopAndTrip(STOP_A, TRIP));
+    var otherStop = alert("otherStop", new EntitySelector.StopAndRoute(STOP_B, ROUTE));
+    var alertService = new TransitAlertServiceImpl(null);
+    alertService.setAlerts(List.of(onRoute, onTrip, otherStop));
+    when(transitService.getTransitAlertService()).thenReturn(alertService);
+
+    var result = TransitDataLoaders.stopOnRouteOrTripAlerts(
+      transitService,
+      List.of(STOP_A, new FeedScopedId("F", "C"))
+    );
+
+    assertEquals(2, result.size());
+    assertEquals(List.of(onRoute), result.get(0).onRoutes());
+    assertEquals(List.of(onTrip), result.get(0).onTrips());
+    assertEquals(List.of(), result.get(1).onRoutes());
+    assertEquals(List.of(), result.get(1).onTrips());
+  }
+
+  @Test
+  void stopOnRouteOrTripAlertsAreInTheOrderOfTheAlertService() {
+    var alerts = List.of(
+      alert("1", new EntitySelector.StopAndRoute(STOP_A, ROUTE)),
+      alert("2", new EntitySelector.StopAndRoute(STOP_A, new FeedScopedId("F", "R2"))),
+      alert("3", new EntitySelector.StopAndRoute(STOP_A, new FeedScopedId("F", "R3")))
+    );
+    var alertService = new TransitAlertServiceImpl(null);
+    alertService.setAlerts(alerts);
+    when(transitService.getTransitAlertService()).thenReturn(alertService);
+
+    var result = TransitDataLoaders.stopOnRouteOrTripAlerts(transitService, List.of(STOP_A));
+
+    assertEquals(List.copyOf(alertService.getAllAlerts()), result.get(0).onRoutes());
+  }
+
+  private static TransitAlert alert(String id, EntitySelector entity) {
+    var alert = new TransitAlert();
+    alert.setId(id);
+    alert.addEntity(entity);
+    return alert;
+  }
+}
@@ -0,0 +1,74 @@
+package org.opentripplanner.common.geometry;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.Envelope;
+import org.locationtech.jts.geom.LineString;
+import org.opentripplanner.util.geometry.GeometryUtils;
+
+class PackedGridSpatialIndexTest {
+
+  private static final double X0 = -0.05;
+  private static final double Y0 = 44.0;
+  private static final double DX = 0.1;
+  private static final double DY = 0.1;
+
+  private final Random rand = new Random(42);
+
+  /**
+   * The packed index should return the same objects as the hash grid for the same input, both for
+   * line strings and envelopes.
+   */
+  @Test
+  void sameResultAsHashGrid() {
+    List<LineString> lines = new ArrayList<>();
+    for (int i = 0; i < 1000; i++) {
+      lines.add(
+        GeometryUtils
+          .getGeometryFactory()
+          .createLineString(new Coordinate[] { coordinate(), coordinate(), coordinate() })
+      );
+    }
+    var hashGrid = new HashGridSpatialIndex<LineString>();
+    lines.forEach(it -> hashGrid.insert(it, it));
+    var hashGridInsertAll = new HashGridSpatialIndex<LineString>();
+    hashGridInsertAll.insertAll(lines, it -> it);
+    var packedLines = PackedGridSpatialIndex.ofLineStrings(lines, it -> it);
+
+    List<Envelope> envelopes = lines.stream().map(LineString::getEnvelopeInternal).toList();
+    var hashGridEnvelopes = new HashGridSpatialIndex<Envelope>();
+    envelopes.forEach(it -> hashGridEnvelopes.insert(it, it));
+    var packedEnvelopes = PackedGridSpatialIndex.ofEnvelopes(envelopes, it -> it);
+
+    for (int i = 0; i < 1000; i++) {
+      Envelope searchEnv = new Envelope(coordinate(), coordinate());
+
+      var expected = new HashSet<>(hashGrid.query(searchEnv));
+      assertEquals(expected, new HashSet<>(hashGridInsertAll.query(searchEnv)));
+      List<LineString> result = packedLines.query(searchEnv);
+      assertEquals(expected.size(), result.size());
+      assertEquals(expected, new HashSet<>(result));
+
+      assertEquals(
+        new HashSet<>(hashGridEnvelopes.query(searchEnv)),
+        new HashSet<>(packedEnvelopes.query(searchEnv))
+      );
+    }
+  }
+
+  @Test
+  void emptyIndex() {
+    var subject = PackedGridSpatialIndex.<Envelope>ofEnvelopes(List.of(), it -> it);
+    assertEquals(List.of(), subject.query(new Envelope(coordinate(), coordinate())));
+  }
+
+  private Coordinate coordinate() {
+    return new Coordinate(rand.nextDouble() * DX + X0, rand.nextDouble() * DY + Y0);
+  }
+}
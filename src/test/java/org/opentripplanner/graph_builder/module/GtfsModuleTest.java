@@ -2,11 +2,15 @@ package org.opentripplanner.graph_builder.module;
 
 import static graphql.Assert.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.io.File;
 import java.util.List;
 import org.junit.jupiter.api.Test;
 import org.opentripplanner.ConstantsForTests;
+import org.opentripplanner.ext.fares.impl.DefaultFareServiceFactory;
+import org.opentripplanner.graph_builder.DataImportIssue;
+import org.opentripplanner.graph_builder.DataImportIssueStore;
 import org.opentripplanner.graph_builder.model.GtfsBundle;
 import org.opentripplanner.model.calendar.ServiceDateInterval;
 import org.opentripplanner.routing.graph.Graph;
@@ -49,4 +53,58 @@ class GtfsModuleTest {
     assertNotNull(pattern.getGeometry());
     assertNotNull(pattern.getHopGeometry(0));
   }
+
+  @Test
+  public void feedsReadInParallelAreAddedInOrder() {
+    var deduplicator = new Deduplicator();
+    var stopModel = new StopModel();
+    var graph = new Graph(stopModel, deduplicator);
+    var transitModel = new TransitModel(stopModel, deduplicator);
+    var issueStore = new DataImportIssueStore();
+
+    List<String> feedIds = List.of("F1", "F2", "F3");
+    var bundles = feedIds.stream().map(GtfsModuleTest::bundle).toList();
+    var module = new GtfsModule(
+      bundles,
+      transitModel,
+      graph,
+      issueStore,
+      ServiceDateInterval.unbounded(),
+      new DefaultFareServiceFactory(),
+      false,
+      true,
+      100,
+      2
+    );
+
+    module.buildGraph();
+
+    assertEquals(
+      feedIds,
+      transitModel
+        .getAllTripPatterns()
+        .stream()
+        .map(p -> p.getId().getFeedId())
+        .distinct()
+        .sorted()
+        .toList()
+    );
+    // The timings of each feed are in the build report, in the order of the feeds
+    var timings = issueStore
+      .getIssues()
+      .stream()
+      .filter(it -> it.getType().equals("GtfsFeedTimings"))
+      .map(DataImportIssue::getMessage)
+      .toList();
+    assertEquals(3, timings.size());
+    for (int i = 0; i < feedIds.size(); ++i) {
+      assertTrue(timings.get(i).startsWith("GTFS feed " + feedIds.get(i) + " processed: read "));
+    }
+  }
+
+  private static GtfsBundle bundle(String feedId) {
+    var bundle = new GtfsBundle(new File(ConstantsForTests.FAKE_GTFS));
+    bundle.setFeedId(new GtfsFeedId.Builder().id(feedId).build());
+    return bundle;
+  }
 }
@@ -0,0 +1,71 @@
+package org.opentripplanner.graph_builder.module.osm;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+import org.opentripplanner.openstreetmap.model.OSMNode;
+
+class OSMNodeStoreTest {
+
+  @Test
+  void untaggedNodesAreMaterializedOnAccess() {
+    OSMNodeStore store = new OSMNodeStore();
+    store.add(node(10, 59.9138688, 10.7522454));
+    store.add(node(20, 60.3912628, 5.3220544));
+
+    assertEquals(2, store.size());
+    assertTrue(store.contains(10));
+    assertFalse(store.contains(15));
+    assertNull(store.get(15));
+
+    OSMNode node = store.get(20);
+    assertEquals(20, node.getId());
+    assertEquals(60.3912628, node.lat, 1e-9);
+    assertEquals(5.3220544, node.lon, 1e-9);
+    assertEquals(node, store.get(20));
+  }
+
+  @Test
+  void taggedAndUnorderedNodesAreKeptAsObjects() {
+    OSMNodeStore store = new OSMNodeStore();
+    OSMNode barrier = node(30, 1.0, 2.0);
+    barrier.addTag("barrier", "bollard");
+    OSMNode unordered = node(5, 3.0, 4.0);
+
+    store.add(node(20, 0.0, 0.0));
+    store.add(barrier);
+    store.add(unordered);
+    store.add(node(-100000, 5.0, 6.0));
+
+    assertEquals(4, store.size());
+    assertSame(barrier, store.get(30));
+    assertSame(unordered, store.get(5));
+    assertEquals("bollard", store.get(30).getTag("barrier"));
+    assertEquals(5.0, store.get(-100000).lat);
+  }
+
+  @Test
+  void duplicatesAreIgnored() {
+    OSMNodeStore store = new OSMNodeStore();
+    store.add(node(1, 1.0, 1.0));
+    store.add(node(1, 2.0, 2.0));
+    store.trimToSize();
+    store.add(node(2, 3.0, 3.0));
+
+    assertEquals(2, store.size());
+    assertEquals(1.0, store.get(1).lat, 1e-9);
+    assertEquals(3.0, store.get(2).lat, 1e-9);
+  }
+
+  private static OSMNode node(long id, double lat, double lon) {
+    OSMNode node = new OSMNode();
+    node.setId(id);
+    node.lat = lat;
+    node.lon = lon;
+    return node;
+  }
+}
@@ -0,0 +1,67 @@
+package org.opentripplanner.netex.loader;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.rutebanken.netex.model.Common_VersionFrameStructure;
+import org.rutebanken.netex.model.ResourceFrame;
+import org.rutebanken.netex.model.ServiceFrame;
+import org.rutebanken.netex.model.SiteFrame;
+import org.rutebanken.netex.model.VersionFrameDefaultsStructure;
+
+public class NetexXmlParserTest {
+
+  private static final String DOC =
+    """
+    <?xml version="1.0" encoding="UTF-8"?>
+    <PublicationDelivery xmlns="http://www.netex.org.uk/netex" version="1.0">
+      <PublicationTimestamp>2022-01-01T00:00:00</PublicationTimestamp>
+      <ParticipantRef>RB</ParticipantRef>
+      <dataObjects>
+        <CompositeFrame id="CF:1" version="1">
+          <FrameDefaults>
+            <DefaultLocale><TimeZone>Europe/Oslo</TimeZone></DefaultLocale>
+          </FrameDefaults>
+          <frames>
+            <ResourceFrame id="RF:1" version="1"/>
+            <ServiceFrame id="SF:1" version="1"/>
+          </frames>
+        </CompositeFrame>
+        <CompositeFrame id="CF:2" version="1">
+          <frames>
+            <SiteFrame id="SiF:1" version="1"/>
+          </frames>
+        </CompositeFrame>
+      </dataObjects>
+    </PublicationDelivery>
+    """;
+
+  @Test
+  public void parseFramesOneByOne() throws Exception {
+    List<Common_VersionFrameStructure> frames = new ArrayList<>();
+    List<VersionFrameDefaultsStructure> frameDefaults = new ArrayList<>();
+
+    new NetexXmlParser()
+      .parseFrames(
+        new ByteArrayInputStream(DOC.getBytes(StandardCharsets.UTF_8)),
+        frames::add,
+        frameDefaults::add
+      );
+
+    assertEquals(3, frames.size());
+    assertEquals(ResourceFrame.class, frames.get(0).getClass());
+    assertEquals("RF:1", frames.get(0).getId());
+    assertEquals(ServiceFrame.class, frames.get(1).getClass());
+    assertEquals(SiteFrame.class, frames.get(2).getClass());
+    assertEquals("SiF:1", frames.get(2).getId());
+
+    assertEquals(2, frameDefaults.size());
+    assertEquals("Europe/Oslo", frameDefaults.get(0).getDefaultLocale().getTimeZone());
+    assertNull(frameDefaults.get(1));
+  }
+}
@@ -0,0 +1,37 @@
+package org.opentripplanner.routing.algorithm.raptoradapter.transit;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+import org.opentripplanner.transit.model._data.TransitModelForTest;
+import org.opentripplanner.transit.model.site.StopLocation;
+import org.opentripplanner.transit.service.StopIndexMock;
+
+class TransitLayerSnapshotTest {
+
+  private static final StopLocation STOP_A = TransitModelForTest.stopForTest("A", 60.0, 10.0);
+  private static final StopLocation STOP_B = TransitModelForTest.stopForTest("B", 60.1, 10.1);
+  private static final StopLocation STOP_C = TransitModelForTest.stopForTest("C", 60.2, 10.2);
+
+  private final TransitLayerSnapshot subject = new TransitLayerSnapshot(
+    List.of(STOP_A, STOP_B),
+    Map.of(),
+    Map.of(),
+    List.of(List.of(), List.of())
+  );
+
+  @Test
+  void isCompatibleWithStopIndexInSameOrder() {
+    assertTrue(subject.isCompatibleWith(new StopIndexMock(List.of(STOP_A, STOP_B))));
+  }
+
+  @Test
+  void isNotCompatibleWithOtherStopIndex() {
+    assertFalse(subject.isCompatibleWith(new StopIndexMock(List.of(STOP_B, STOP_A))));
+    assertFalse(subject.isCompatibleWith(new StopIndexMock(List.of(STOP_A, STOP_C))));
+    assertFalse(subject.isCompatibleWith(new StopIndexMock(List.of(STOP_A, STOP_B, STOP_C))));
+  }
+}
@@ -0,0 +1,166 @@
+package org.opentripplanner.routing.algorithm.raptoradapter.transit.mappers;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import gnu.trove.set.TIntSet;
+import gnu.trove.set.hash.TIntHashSet;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+import org.opentripplanner.model.StopTime;
+import org.opentripplanner.routing.algorithm.raptoradapter.transit.TransitDataWindow;
+import org.opentripplanner.routing.algorithm.raptoradapter.transit.TripPatternForDate;
+import org.opentripplanner.routing.algorithm.raptoradapter.transit.TripPatternWithRaptorStopIndexes;
+import org.opentripplanner.transit.model._data.TransitModelForTest;
+import org.opentripplanner.transit.model.framework.Deduplicator;
+import org.opentripplanner.transit.model.network.Route;
+import org.opentripplanner.transit.model.network.StopPattern;
+import org.opentripplanner.transit.model.network.TripPattern;
+import org.opentripplanner.transit.model.site.Stop;
+import org.opentripplanner.transit.model.timetable.Trip;
+import org.opentripplanner.transit.model.timetable.TripTimes;
+
+class LazyTripPatternForDateProviderTest {
+
+  private static final LocalDate TODAY = LocalDate.of(2022, 6, 15);
+  private static final int SERVICE_CODE = 7;
+
+  private final TripPattern pattern = createNightTripPattern();
+
+  private final Map<LocalDate, TIntSet> serviceCodesRunningForDate = Map.of(
+    TODAY.plusDays(20),
+    new TIntHashSet(new int[] { SERVICE_CODE }),
+    TODAY.plusDays(21),
+    new TIntHashSet(new int[] { SERVICE_CODE })
+  );
+
+  private final LazyTripPatternForDateProvider subject = new LazyTripPatternForDateProvider(
+    new TransitDataWindow(1, 14, 2, 30),
+    ZoneId.of("Europe/Oslo"),
+    TODAY,
+    new TripPatternForDateMapper(
+      serviceCodesRunningForDate,
+      Map.of(pattern, new TripPatternWithRaptorStopIndexes(pattern, new int[] { 0, 1 }))
+    ),
+    List.of(pattern),
+    serviceCodesRunningForDate.keySet()
+  );
+
+  @Test
+  void window() {
+    assertFalse(subject.isInWindow(TODAY.minusDays(2)));
+    assertTrue(subject.isInWindow(TODAY.minusDays(1)));
+    assertTrue(subject.isInWindow(TODAY.plusDays(14)));
+    assertFalse(subject.isInWindow(TODAY.plusDays(15)));
+
+    // The trip runs into the next day, so the service date before the window is needed
+    assertFalse(subject.isServiceDateNeededInWindow(TODAY.minusDays(3)));
+    assertTrue(subject.isServiceDateNeededInWindow(TODAY.minusDays(2)));
+    assertTrue(subject.isServiceDateNeededInWindow(TODAY.plusDays(14)));
+    assertFalse(subject.isServiceDateNeededInWindow(TODAY.plusDays(15)));
+  }
+
+  @Test
+  void windowRollsForward() {
+    assertFalse(subject.roll(TODAY));
+    assertFalse(subject.roll(TODAY.minusDays(1)));
+
+    assertTrue(subject.roll(TODAY.plusDays(1)));
+
+    assertTrue(subject.isBeforeWindow(TODAY.minusDays(1)));
+    assertFalse(subject.isInWindow(TODAY.minusDays(1)));
+    assertTrue(subject.isInWindow(TODAY));
+    assertTrue(subject.isInWindow(TODAY.plusDays(15)));
+    assertFalse(subject.isBeforeWindow(TODAY.plusDays(16)));
+    assertEquals(TODAY, subject.windowDates().get(0));
+    assertEquals(TODAY.plusDays(15), subject.windowDates().get(15));
+    assertEquals(16, subject.windowDates().size());
+
+    // The trip of the service date before the window runs into the window
+    assertFalse(subject.isServiceDateBeforeWindow(TODAY.minusDays(1)));
+    assertTrue(subject.isServiceDateBeforeWindow(TODAY.minusDays(2)));
+  }
+
+  @Test
+  void noTripPatternsAreCreatedFarFromTheWindow() {
+    var subject = new LazyTripPatternForDateProvider(
+      new TransitDataWindow(1, 14, 2, 6),
+      ZoneId.of("Europe/Oslo"),
+      TODAY,
+      new TripPatternForDateMapper(
+        serviceCodesRunningForDate,
+        Map.of(pattern, new TripPatternWithRaptorStopIndexes(pattern, new int[] { 0, 1 }))
+      ),
+      List.of(pattern),
+      serviceCodesRunningForDate.keySet()
+    );
+
+    // Only the first day of the trip is within six days after the window
+    assertEquals(
+      List.of(TODAY.plusDays(20)),
+      serviceDates(subject.getTripPatternsRunningOnDate(TODAY.plusDays(20)))
+    );
+    assertEquals(List.of(), subject.getTripPatternsRunningOnDate(TODAY.plusDays(21)));
+    assertEquals(1, subject.getTripPatternsByServiceDateCache().size());
+  }
+
+  @Test
+  void tripPatternsAreCreatedForServiceDatesRunningThroughTheDate() {
+    assertEquals(List.of(), subject.getTripPatternsRunningOnDate(TODAY.plusDays(19)));
+
+    assertEquals(
+      List.of(TODAY.plusDays(20)),
+      serviceDates(subject.getTripPatternsRunningOnDate(TODAY.plusDays(20)))
+    );
+    assertEquals(
+      List.of(TODAY.plusDays(20), TODAY.plusDays(21)),
+      serviceDates(subject.getTripPatternsRunningOnDate(TODAY.plusDays(21)))
+    );
+    assertEquals(
+      List.of(TODAY.plusDays(21)),
+      serviceDates(subject.getTripPatternsRunningOnDate(TODAY.plusDays(22)))
+    );
+    assertEquals(2, subject.getTripPatternsByServiceDateCache().size());
+  }
+
+  private static List<LocalDate> serviceDates(List<TripPatternForDate> tripPatterns) {
+    return tripPatterns.stream().map(TripPatternForDate::getLocalDate).toList();
+  }
+
+  /** A pattern with one trip departing at 23:00 and arriving at 01:00 the next day. */
+  private static TripPattern createNightTripPattern() {
+    Route route = TransitModelForTest.route("1").build();
+    Trip trip = TransitModelForTest.trip("T1").withRoute(route).build();
+    Stop stopA = TransitModelForTest.stopForTest("A", 60.0, 10.0);
+    Stop stopB = TransitModelForTest.stopForTest("B", 60.1, 10.1);
+
+    List<StopTime> stopTimes = List.of(
+      stopTime(trip, stopA, 0, 23 * 3600),
+      stopTime(trip, stopB, 1, 25 * 3600)
+    );
+
+    TripPattern pattern = TripPattern
+      .of(TransitModelForTest.id("P1"))
+      .withRoute(route)
+      .withStopPattern(new StopPattern(stopTimes))
+      .build();
+    TripTimes tripTimes = new TripTimes(trip, stopTimes, new Deduplicator());
+    tripTimes.setServiceCode(SERVICE_CODE);
+    pattern.add(tripTimes);
+    return pattern;
+  }
+
+  private static StopTime stopTime(Trip trip, Stop stop, int sequence, int time) {
+    StopTime stopTime = new StopTime();
+    stopTime.setTrip(trip);
+    stopTime.setStop(stop);
+    stopTime.setStopSequence(sequence);
+    stopTime.setArrivalTime(time);
+    stopTime.setDepartureTime(time);
+    return stopTime;
+  }
+}
@@ -0,0 +1,87 @@
+package org.opentripplanner.routing.algorithm.raptoradapter.transit.mappers;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+import org.opentripplanner.routing.algorithm.raptoradapter.transit.TransitDataWindow;
+import org.opentripplanner.routing.algorithm.raptoradapter.transit.TransitLayer;
+import org.opentripplanner.transit.service.TransitModel;
+
+class TransitLayerUpdaterTest {
+
+  private static final ZoneId ZONE_ID = ZoneId.of("Europe/Oslo");
+
+  private final LocalDate today = LocalDate.now(ZONE_ID);
+
+  @Test
+  void transitDataWindowIsMovedWithoutRealtimeUpdates() {
+    var lastRolled = today.minusDays(3);
+    var provider = new LazyTripPatternForDateProvider(
+      new TransitDataWindow(1, 14, 2, 30),
+      ZONE_ID,
+      lastRolled,
+      new TripPatternForDateMapper(Map.of(), Map.of()),
+      List.of(),
+      Set.of()
+    );
+    var transitModel = new TransitModel();
+    var scheduledLayer = transitLayer(provider);
+    transitModel.setTransitLayer(scheduledLayer);
+    transitModel.setRealtimeTransitLayer(new TransitLayer(scheduledLayer));
+    var realtimeLayer = transitModel.getRealtimeTransitLayer();
+    var subject = new TransitLayerUpdater(transitModel, Map.of());
+
+    assertTrue(subject.hasTransitDataWindow());
+    subject.rollTransitDataWindow();
+
+    assertEquals(today.minusDays(1), provider.windowDates().get(0));
+    assertTrue(provider.isBeforeWindow(lastRolled));
+    assertNotSame(scheduledLayer, transitModel.getTransitLayer());
+    assertNotSame(realtimeLayer, transitModel.getRealtimeTransitLayer());
+
+    // The window is only moved once a day
+    realtimeLayer = transitModel.getRealtimeTransitLayer();
+    subject.rollTransitDataWindow();
+    assertSame(realtimeLayer, transitModel.getRealtimeTransitLayer());
+  }
+
+  @Test
+  void noTransitDataWindow() {
+    var transitModel = new TransitModel();
+    var scheduledLayer = transitLayer(null);
+    transitModel.setTransitLayer(scheduledLayer);
+    transitModel.setRealtimeTransitLayer(new TransitLayer(scheduledLayer));
+    var realtimeLayer = transitModel.getRealtimeTransitLayer();
+    var subject = new TransitLayerUpdater(transitModel, Map.of());
+
+    assertFalse(subject.hasTransitDataWindow());
+    subject.rollTransitDataWindow();
+
+    assertSame(scheduledLayer, transitModel.getTransitLayer());
+    assertSame(realtimeLayer, transitModel.getRealtimeTransitLayer());
+  }
+
+  private TransitLayer transitLayer(LazyTripPatternForDateProvider provider) {
+    return new TransitLayer(
+      Map.of(today.minusDays(4), List.of()),
+      List.of(),
+      null,
+      null,
+      ZONE_ID,
+      null,
+      null,
+      null,
+      null,
+      provider
+    );
+  }
+}
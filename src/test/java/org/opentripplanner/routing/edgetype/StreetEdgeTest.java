@@ -4,7 +4,9 @@ import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.time.Instant;
@@ -23,6 +25,8 @@ import org.opentripplanner.routing.core.TraverseModeSet;
 import org.opentripplanner.routing.graph.Graph;
 import org.opentripplanner.routing.vertextype.IntersectionVertex;
 import org.opentripplanner.routing.vertextype.StreetVertex;
+import org.opentripplanner.transit.model.basic.NonLocalizedString;
+import org.opentripplanner.transit.model.framework.Deduplicator;
 import org.opentripplanner.util.geometry.GeometryUtils;
 
 public class StreetEdgeTest {
@@ -288,6 +292,42 @@ public class StreetEdgeTest {
     );
   }
 
+  @Test
+  public void testDeduplicate() {
+    // Two edges with the same shape, shifted one degree east
+    StreetVertex v3 = vertex("maple_3rd", 1.0, 0.0);
+    StreetEdge e1 = new StreetEdge(
+      v0,
+      v2,
+      GeometryUtils.makeLineString(0.0, 0.0, 0.5, 0.5, 1.0, 2.0),
+      "maple_0th_2nd",
+      1.0,
+      StreetTraversalPermission.ALL,
+      false
+    );
+    StreetEdge e2 = new StreetEdge(
+      v3,
+      v1,
+      GeometryUtils.makeLineString(1.0, 0.0, 1.5, 0.5, 2.0, 2.0),
+      "maple_3rd_1st",
+      1.0,
+      StreetTraversalPermission.ALL,
+      false
+    );
+    e1.setName(new NonLocalizedString("Maple Street"));
+    e2.setName(new NonLocalizedString("Maple Street"));
+    LineString geometry = e2.getGeometry();
+    assertNotSame(e1.getCompactGeometry(), e2.getCompactGeometry());
+
+    var deduplicator = new Deduplicator();
+    e1.deduplicate(deduplicator);
+    e2.deduplicate(deduplicator);
+
+    assertSame(e1.getName(), e2.getName());
+    assertSame(e1.getCompactGeometry(), e2.getCompactGeometry());
+    assertEquals(geometry, e2.getGeometry());
+  }
+
   /****
    * Private Methods
    ****/
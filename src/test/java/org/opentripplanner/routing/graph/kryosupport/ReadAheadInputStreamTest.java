@@ -0,0 +1,100 @@
+package org.opentripplanner.routing.graph.kryosupport;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.junit.jupiter.api.Test;
+
+class ReadAheadInputStreamTest {
+
+  @Test
+  void readAcrossChunks() throws IOException {
+    byte[] content = new byte[1000];
+    for (int i = 0; i < content.length; ++i) {
+      content[i] = (byte) (i * 7);
+    }
+
+    try (var in = new ReadAheadInputStream(new ByteArrayInputStream(content), 64, 2)) {
+      assertEquals(0, in.read());
+      byte[] rest = in.readAllBytes();
+      assertEquals(999, rest.length);
+      assertEquals(content[1], rest[0]);
+      assertEquals(content[999], rest[998]);
+      assertEquals(-1, in.read());
+    }
+  }
+
+  @Test
+  void readEmptyStream() throws IOException {
+    try (var in = new ReadAheadInputStream(new ByteArrayInputStream(new byte[0]), 64, 2)) {
+      assertArrayEquals(new byte[0], in.readAllBytes());
+      assertEquals(-1, in.read());
+    }
+  }
+
+  @Test
+  void sourceIsClosedAfterTheReadInProgress() throws Exception {
+    var readStarted = new CountDownLatch(1);
+    var reading = new AtomicBoolean(false);
+    var closedWhileReading = new AtomicBoolean(false);
+    var closed = new AtomicBoolean(false);
+    InputStream slow = new InputStream() {
+      @Override
+      public int read() {
+        return read(new byte[1], 0, 1);
+      }
+
+      @Override
+      public int read(byte[] b, int off, int len) {
+        reading.set(true);
+        readStarted.countDown();
+        try {
+          Thread.sleep(100);
+        } catch (InterruptedException e) {
+          // Like a file read, the read is not stopped by the interrupt
+        }
+        reading.set(false);
+        return len;
+      }
+
+      @Override
+      public void close() {
+        closedWhileReading.set(reading.get());
+        closed.set(true);
+      }
+    };
+
+    var in = new ReadAheadInputStream(slow, 64, 2);
+    readStarted.await();
+    in.close();
+
+    assertTrue(closed.get());
+    assertFalse(closedWhileReading.get());
+  }
+
+  @Test
+  void sourceErrorIsThrownByReader() throws IOException {
+    InputStream failing = new InputStream() {
+      @Override
+      public int read() throws IOException {
+        throw new IOException("Disk failure");
+      }
+    };
+    var source = new SequenceInputStream(new ByteArrayInputStream(new byte[10]), failing);
+
+    try (var in = new ReadAheadInputStream(source, 64, 2)) {
+      var ex = assertThrows(IOException.class, in::readAllBytes);
+      assertEquals("Disk failure", ex.getMessage());
+      assertThrows(IOException.class, in::read);
+    }
+  }
+}
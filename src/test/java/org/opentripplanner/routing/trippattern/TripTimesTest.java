@@ -12,6 +12,7 @@ import org.opentripplanner.transit.model._data.TransitModelForTest;
 import org.opentripplanner.transit.model.framework.Deduplicator;
 import org.opentripplanner.transit.model.framework.FeedScopedId;
 import org.opentripplanner.transit.model.site.Stop;
+import org.opentripplanner.transit.model.timetable.OccupancyStatus;
 import org.opentripplanner.transit.model.timetable.RealTimeState;
 import org.opentripplanner.transit.model.timetable.Trip;
 import org.opentripplanner.transit.model.timetable.TripTimes;
@@ -139,6 +140,19 @@ public class TripTimesTest {
     assertFalse(updatedTripTimesA.isNoDataStop(2));
   }
 
+  @Test
+  public void testStopStateAndOccupancyDefaultsAfterTimeUpdate() {
+    TripTimes updatedTripTimesA = new TripTimes(originalTripTimes);
+    updatedTripTimesA.updateArrivalDelay(1, 10);
+    assertEquals(RealTimeState.UPDATED, updatedTripTimesA.getRealTimeState());
+    assertFalse(updatedTripTimesA.isCancelledStop(1));
+    assertEquals(OccupancyStatus.NO_DATA, updatedTripTimesA.getOccupancyStatus(1));
+
+    updatedTripTimesA.setOccupancyStatus(2, OccupancyStatus.FULL);
+    assertEquals(OccupancyStatus.NO_DATA, updatedTripTimesA.getOccupancyStatus(1));
+    assertEquals(OccupancyStatus.FULL, updatedTripTimesA.getOccupancyStatus(2));
+  }
+
   @Test
   public void testApply() {
     Trip trip = TransitModelForTest.trip(TRIP_ID).build();
@@ -0,0 +1,53 @@
+package org.opentripplanner.standalone.configure;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import org.junit.jupiter.api.Test;
+
+class StartupTasksTest {
+
+  @Test
+  void taskRunsAfterItsDependencies() {
+    List<String> done = new CopyOnWriteArrayList<>();
+    var startA = new CountDownLatch(1);
+
+    try (var tasks = new StartupTasks()) {
+      var a = tasks.run(() -> {
+        await(startA);
+        done.add("A");
+      });
+      var b = tasks.run(() -> done.add("B"));
+      var c = tasks.run(() -> done.add("C"), a, b);
+
+      StartupTasks.await(b);
+      startA.countDown();
+      StartupTasks.await(c);
+    }
+    assertEquals(List.of("B", "A", "C"), done);
+  }
+
+  @Test
+  void awaitRethrowsTaskException() {
+    try (var tasks = new StartupTasks()) {
+      var failing = tasks.run(() -> {
+        throw new IllegalStateException("Failed");
+      });
+      var dependent = tasks.run(() -> {}, failing);
+
+      var ex = assertThrows(IllegalStateException.class, () -> StartupTasks.await(dependent));
+      assertEquals("Failed", ex.getMessage());
+    }
+  }
+
+  private static void await(CountDownLatch latch) {
+    try {
+      latch.await();
+    } catch (InterruptedException e) {
+      throw new RuntimeException(e);
+    }
+  }
+}
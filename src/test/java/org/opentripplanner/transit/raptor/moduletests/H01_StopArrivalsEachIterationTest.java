@@ -0,0 +1,88 @@
+package org.opentripplanner.transit.raptor.moduletests;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.opentripplanner.transit.raptor._data.transit.TestRoute.route;
+import static org.opentripplanner.transit.raptor._data.transit.TestTransfer.walk;
+import static org.opentripplanner.transit.raptor._data.transit.TestTripPattern.pattern;
+import static org.opentripplanner.transit.raptor._data.transit.TestTripSchedule.schedule;
+import static org.opentripplanner.util.time.TimeUtils.hm2time;
+
+import java.util.Map;
+import java.util.TreeMap;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.opentripplanner.transit.raptor.RaptorService;
+import org.opentripplanner.transit.raptor._data.RaptorTestConstants;
+import org.opentripplanner.transit.raptor._data.transit.TestTransitData;
+import org.opentripplanner.transit.raptor._data.transit.TestTripSchedule;
+import org.opentripplanner.transit.raptor.api.request.RaptorProfile;
+import org.opentripplanner.transit.raptor.api.request.RaptorRequestBuilder;
+import org.opentripplanner.transit.raptor.configure.RaptorConfig;
+
+/**
+ * FEATURE UNDER TEST
+ * <p>
+ * Raptor should notify the listener with the best arrival times at each stop after each iteration
+ * in the search window, the arrival times are the earliest arrivals departing at the iteration
+ * departure time.
+ */
+public class H01_StopArrivalsEachIterationTest implements RaptorTestConstants {
+
+  private final TestTransitData data = new TestTransitData();
+  private final RaptorRequestBuilder<TestTripSchedule> requestBuilder = new RaptorRequestBuilder<>();
+  private final RaptorService<TestTripSchedule> raptorService = new RaptorService<>(
+    RaptorConfig.defaultConfigForTest()
+  );
+
+  /**
+   * Stops: 0..2
+   *
+   * Stop on route (stop indexes):
+   *   R1:  1 - 2
+   *
+   * Schedule:
+   *   R1: 00:05 - 00:08
+   *   R1: 00:15 - 00:18
+   *
+   * Access (toStop & duration):
+   *   1  30s
+   */
+  @BeforeEach
+  public void setup() {
+    data.withRoute(
+      route(pattern("R1", STOP_B, STOP_C))
+        .withTimetable(schedule("00:05, 00:08"), schedule("00:15, 00:18"))
+    );
+    requestBuilder
+      .profile(RaptorProfile.BEST_TIME)
+      .searchParams()
+      .addAccessPaths(walk(STOP_B, D30s))
+      .earliestDepartureTime(T00_00)
+      .searchWindowInSeconds(D10m)
+      .latestArrivalTime(hm2time(0, 30))
+      .allowEmptyEgressPaths(true)
+      .timetableEnabled(false);
+
+    ModuleTestDebugLogging.setupDebugLogging(data, requestBuilder);
+  }
+
+  @Test
+  public void arrivalsForEachDepartureTime() {
+    Map<Integer, Integer> arrivalByDepartureTime = new TreeMap<>();
+
+    raptorService.routeEachIteration(
+      requestBuilder.build(),
+      data,
+      (departureTime, arrivals) -> {
+        if (arrivals.reachedByTransit(STOP_C)) {
+          arrivalByDepartureTime.put(departureTime, arrivals.bestTransitArrivalTime(STOP_C));
+        }
+      }
+    );
+
+    assertEquals(hm2time(0, 8), arrivalByDepartureTime.get(T00_00));
+    assertEquals(hm2time(0, 8), arrivalByDepartureTime.get(hm2time(0, 4)));
+    assertEquals(hm2time(0, 18), arrivalByDepartureTime.get(hm2time(0, 5)));
+    assertEquals(hm2time(0, 18), arrivalByDepartureTime.get(hm2time(0, 9)));
+  }
+}
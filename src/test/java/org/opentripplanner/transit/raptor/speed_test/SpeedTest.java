@@ -76,6 +76,7 @@ public class SpeedTest {
         new RaptorConfig<>(routerConfig.raptorTuningParameters()),
         graph,
         transitModel,
+        null,
         timer.getRegistry(),
         null
       );
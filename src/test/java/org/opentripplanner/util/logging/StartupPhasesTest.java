@@ -0,0 +1,63 @@
+package org.opentripplanner.util.logging;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+public class StartupPhasesTest {
+
+  @Test
+  public void phaseEndsWhenItFails() {
+    StartupPhases.Phase[] started = new StartupPhases.Phase[1];
+
+    assertThrows(
+      IllegalStateException.class,
+      () -> {
+        try (var phase = StartupPhases.start("failingPhase")) {
+          started[0] = phase;
+          throw new IllegalStateException();
+        }
+      }
+    );
+
+    assertTrue(started[0].isDone());
+  }
+
+  @Test
+  public void phaseOnlyEndsOnce() throws InterruptedException {
+    var phase = StartupPhases.start("closedTwice");
+    phase.close();
+    double duration = phase.getDurationSeconds();
+
+    Thread.sleep(10);
+    phase.close();
+
+    assertEquals(duration, phase.getDurationSeconds());
+  }
+
+  @Test
+  public void phasesStartedBeforeTheRegistryIsBoundArePublished() {
+    try (var phase = StartupPhases.start("beforeBind")) {
+      phase.processed("objects", 7);
+    }
+    var registry = new SimpleMeterRegistry();
+
+    StartupPhases.bindTo(registry);
+    StartupPhases.start("afterBind").processed("bytes", 3).close();
+
+    assertNotNull(registry.find("otp.startup.phase.duration").tag("phase", "beforeBind").gauge());
+    assertEquals(
+      7,
+      registry.get("otp.startup.phase.processed").tag("phase", "beforeBind").gauge().value()
+    );
+    assertNotNull(registry.find("otp.startup.phase.duration").tag("phase", "afterBind").gauge());
+    assertEquals(
+      3,
+      registry.get("otp.startup.phase.processed").tag("phase", "afterBind").gauge().value()
+    );
+  }
+}